@@ -1,12 +1,22 @@
 package com.skyblockexp.ezeconomy.api;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
 import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
 import com.skyblockexp.ezeconomy.storage.TransferResult;
 import com.skyblockexp.ezeconomy.service.PlayerEconomyService;
 import com.skyblockexp.ezeconomy.service.BankEconomyService;
@@ -14,6 +24,8 @@ import com.skyblockexp.ezeconomy.service.CurrencyService;
 import com.skyblockexp.ezeconomy.dto.PlayerBalanceDTO;
 import com.skyblockexp.ezeconomy.dto.BankDTO;
 import com.skyblockexp.ezeconomy.dto.CurrencyDTO;
+import com.skyblockexp.ezeconomy.manager.CurrencyManager;
+import com.skyblockexp.ezeconomy.util.CurrencyFormatter;
 import java.util.Optional;
 
 /**
@@ -30,6 +42,17 @@ import java.util.Optional;
  *     api.deposit(playerUuid, "euro", 100.0);
  * </pre>
  * </p>
+ * <p>
+ * Every blocking call also has an {@code ...Async} variant that runs on the storage executor and
+ * completes its future on the callback executor. The instance returned by
+ * {@code EzEconomyPlugin#getApi()} completes futures on the server main thread, so callbacks may use
+ * the Bukkit API directly:
+ * <pre>
+ *     api.transferAsync(from, to, "dollar", 25.0).thenAccept(result -> player.sendMessage(...));
+ * </pre>
+ * Never {@code join()} such a future on the main thread; it can only complete once the main thread
+ * is free.
+ * </p>
  * @author EzEconomy
  * @version 2.0.0
  */
@@ -40,15 +63,41 @@ public class EzEconomyAPI {
     private final PlayerEconomyService playerService;
     private final BankEconomyService bankService;
     private final CurrencyService currencyService;
+    private final Executor storageExecutor;
+    private final Executor callbackExecutor;
 
     /**
-     * Construct a new EzEconomyAPI instance.
+     * Construct a new EzEconomyAPI instance. Async methods run on the common fork-join pool and
+     * complete on that pool's thread.
      * @param storageProvider The storage provider backend to use.
      */
     public EzEconomyAPI(StorageProvider storageProvider) {
+        this(storageProvider, ForkJoinPool.commonPool(), Runnable::run);
+    }
+
+    /**
+     * Construct a new EzEconomyAPI instance with its own executors for the async methods.
+     * @param storageProvider The storage provider backend to use.
+     * @param storageExecutor Runs storage calls made by the async methods
+     * @param callbackExecutor Completes the futures returned by the async methods
+     */
+    public EzEconomyAPI(StorageProvider storageProvider, Executor storageExecutor, Executor callbackExecutor) {
+        this(storageProvider, storageExecutor, callbackExecutor, null);
+    }
+
+    /**
+     * Construct a new EzEconomyAPI instance that reads currency settings from the plugin's config.
+     * @param storageProvider The storage provider backend to use.
+     * @param storageExecutor Runs storage calls made by the async methods
+     * @param callbackExecutor Completes the futures returned by the async methods
+     * @param currencyManager Currency settings, or null to use the defaults
+     */
+    public EzEconomyAPI(StorageProvider storageProvider, Executor storageExecutor, Executor callbackExecutor, CurrencyManager currencyManager) {
         this.playerService = new PlayerEconomyService(storageProvider);
         this.bankService = new BankEconomyService(storageProvider);
-        this.currencyService = new CurrencyService(storageProvider);
+        this.currencyService = new CurrencyService(storageProvider, currencyManager);
+        this.storageExecutor = storageExecutor;
+        this.callbackExecutor = callbackExecutor;
     }
 
     /**
@@ -72,6 +121,38 @@ public class EzEconomyAPI {
         return new PlayerBalanceDTO(uuid, currency, balance);
     }
 
+    /**
+     * Get a player's exact balance, rounded to the currency's decimals.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @return Player's balance
+     */
+    public Money getExactBalance(UUID uuid, String currency) {
+        return Money.of(playerService.getBalance(uuid, currency), getDecimals(currency));
+    }
+
+    /**
+     * Deposit an exact amount to a player's balance for a specific currency.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @param amount Amount to deposit
+     * @return true if successful
+     */
+    public boolean deposit(UUID uuid, String currency, Money amount) {
+        return deposit(uuid, currency, amount.toDouble());
+    }
+
+    /**
+     * Withdraw an exact amount from a player's balance for a specific currency.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @param amount Amount to withdraw
+     * @return true if successful, false if insufficient funds
+     */
+    public boolean withdraw(UUID uuid, String currency, Money amount) {
+        return withdraw(uuid, currency, amount.toDouble());
+    }
+
     /**
      * Deposit an amount to a player's balance for a specific currency.
      * @param uuid Player UUID
@@ -94,6 +175,46 @@ public class EzEconomyAPI {
         return playerService.withdraw(uuid, currency, amount);
     }
 
+    /**
+     * Deposit to a player's balance and return the balance right after the deposit.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @param amount Amount to deposit
+     * @return Result with the new balance
+     */
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        return playerService.depositAndGet(uuid, currency, amount);
+    }
+
+    /**
+     * Withdraw from a player's balance and return the balance right after the withdrawal.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @param amount Amount to withdraw
+     * @return Result with the new balance, or the unchanged balance if funds were insufficient
+     */
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        return playerService.withdrawAndGet(uuid, currency, amount);
+    }
+
+    /**
+     * Deposit into many players' balances at once, e.g. an event payout.
+     * @param amounts Amount to deposit per player
+     * @param currency Currency code
+     */
+    public void depositAll(Map<UUID, Double> amounts, String currency) {
+        playerService.depositAll(amounts, currency);
+    }
+
+    /**
+     * Apply deposits, withdrawals and balance sets for many players in one storage batch.
+     * @param mutations Changes to apply, in order
+     * @return Mutations that were not applied (withdrawals without sufficient funds)
+     */
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        return playerService.applyBatch(mutations);
+    }
+
     /**
      * Get a player's transaction history for a specific currency.
      * @param uuid Player UUID
@@ -104,6 +225,34 @@ public class EzEconomyAPI {
         return playerService.getTransactions(uuid, currency);
     }
 
+    /**
+     * Get one page of a player's transaction history within a time range, newest first.
+     * Pass the page's {@link TransactionPage#getNextCursor()} back in to read the next page.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @param from Inclusive start timestamp (epoch millis)
+     * @param to Exclusive end timestamp (epoch millis)
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     * @return Page of transactions
+     */
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        return playerService.getTransactions(uuid, currency, from, to, cursor, limit);
+    }
+
+    /**
+     * Stream a player's transaction history within a time range, newest first, e.g. for exports.
+     * Transactions are fetched one page at a time as the iterator advances.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @param from Inclusive start timestamp (epoch millis)
+     * @param to Exclusive end timestamp (epoch millis)
+     * @return Iterator over the transactions
+     */
+    public Iterator<Transaction> iterateTransactions(UUID uuid, String currency, long from, long to) {
+        return playerService.iterateTransactions(uuid, currency, from, to);
+    }
+
     /**
      * Get all player balances for a specific currency.
      * @param currency Currency code
@@ -113,6 +262,31 @@ public class EzEconomyAPI {
         return playerService.getAllBalances(currency);
     }
 
+    /**
+     * Get a player's leaderboard position for a specific currency.
+     * @param uuid Player UUID
+     * @param currency Currency code
+     * @return 1-based rank (highest balance first), or 0 if the player has no balance
+     */
+    public int getRank(UUID uuid, String currency) {
+        return playerService.getRank(uuid, currency);
+    }
+
+    /**
+     * Get a page of the leaderboard for a specific currency.
+     * @param currency Currency code
+     * @param offset 0-based position of the first entry
+     * @param limit Maximum number of entries
+     * @return Player balances, highest first
+     */
+    public List<PlayerBalanceDTO> getTopBalances(String currency, int offset, int limit) {
+        List<PlayerBalanceDTO> result = new java.util.ArrayList<>();
+        for (Map.Entry<UUID, Double> entry : playerService.getTopBalances(currency, offset, limit)) {
+            result.add(new PlayerBalanceDTO(entry.getKey(), currency, entry.getValue()));
+        }
+        return result;
+    }
+
     /**
      * Transfer an amount from one player to another for a specific currency.
      * @param fromUuid Sender UUID
@@ -125,6 +299,18 @@ public class EzEconomyAPI {
         return playerService.transfer(fromUuid, toUuid, currency, amount);
     }
 
+    /**
+     * Transfer an exact amount from one player to another for a specific currency.
+     * @param fromUuid Sender UUID
+     * @param toUuid Recipient UUID
+     * @param currency Currency code
+     * @param amount Amount to transfer
+     * @return TransferResult with updated balances and status
+     */
+    public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, Money amount) {
+        return transfer(fromUuid, toUuid, currency, amount.toDouble());
+    }
+
     /**
      * Transfer custom debit and credit amounts between two players for a specific currency.
      * @param fromUuid Sender UUID
@@ -138,6 +324,131 @@ public class EzEconomyAPI {
         return playerService.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
     }
 
+    /**
+     * Exchange an amount of one currency for another in a player's account at the configured rate
+     * (see {@link #convert(double, String, String)}). Both balances change together or not at all.
+     * @param uuid Player UUID
+     * @param fromCurrency Currency paid
+     * @param toCurrency Currency received
+     * @param amount Amount of {@code fromCurrency} to exchange
+     * @return TransferResult whose from balance is in {@code fromCurrency} and to balance in
+     *         {@code toCurrency}; fails if the player cannot afford the amount or it converts to nothing
+     * @throws IllegalArgumentException if there is no rate between the currencies
+     */
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double amount) {
+        double debit = Money.round(amount, getDecimals(fromCurrency));
+        double credit = convert(debit, fromCurrency, toCurrency);
+        if (!(debit > 0) || !(credit > 0)) {
+            return TransferResult.failure(playerService.getBalance(uuid, fromCurrency), playerService.getBalance(uuid, toCurrency));
+        }
+        return playerService.exchange(uuid, fromCurrency, toCurrency, debit, credit);
+    }
+
+    // --- Async Player Operations ---
+
+    /**
+     * Async variant of {@link #getBalance(UUID, String)}.
+     */
+    public CompletableFuture<PlayerBalanceDTO> getBalanceAsync(UUID uuid, String currency) {
+        return async(() -> getBalance(uuid, currency));
+    }
+
+    /**
+     * Async variant of {@link #deposit(UUID, String, double)}.
+     */
+    public CompletableFuture<Boolean> depositAsync(UUID uuid, String currency, double amount) {
+        return async(() -> deposit(uuid, currency, amount));
+    }
+
+    /**
+     * Async variant of {@link #withdraw(UUID, String, double)}.
+     */
+    public CompletableFuture<Boolean> withdrawAsync(UUID uuid, String currency, double amount) {
+        return async(() -> withdraw(uuid, currency, amount));
+    }
+
+    /**
+     * Async variant of {@link #depositAll(Map, String)}.
+     */
+    public CompletableFuture<Void> depositAllAsync(Map<UUID, Double> amounts, String currency) {
+        return async(() -> {
+            depositAll(amounts, currency);
+            return null;
+        });
+    }
+
+    /**
+     * Async variant of {@link #applyBatch(List)}.
+     */
+    public CompletableFuture<List<BalanceMutation>> applyBatchAsync(List<BalanceMutation> mutations) {
+        return async(() -> applyBatch(mutations));
+    }
+
+    /**
+     * Async variant of {@link #transfer(UUID, UUID, String, double)}.
+     */
+    public CompletableFuture<TransferResult> transferAsync(UUID fromUuid, UUID toUuid, String currency, double amount) {
+        return async(() -> transfer(fromUuid, toUuid, currency, amount));
+    }
+
+    /**
+     * Async variant of {@link #transfer(UUID, UUID, String, double, double)}.
+     */
+    public CompletableFuture<TransferResult> transferAsync(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        return async(() -> transfer(fromUuid, toUuid, currency, debitAmount, creditAmount));
+    }
+
+    /**
+     * Async variant of {@link #exchange(UUID, String, String, double)}.
+     */
+    public CompletableFuture<TransferResult> exchangeAsync(UUID uuid, String fromCurrency, String toCurrency, double amount) {
+        return async(() -> exchange(uuid, fromCurrency, toCurrency, amount));
+    }
+
+    /**
+     * Async variant of {@link #getRank(UUID, String)}.
+     */
+    public CompletableFuture<Integer> getRankAsync(UUID uuid, String currency) {
+        return async(() -> getRank(uuid, currency));
+    }
+
+    /**
+     * Async variant of {@link #getTopBalances(String, int, int)}.
+     */
+    public CompletableFuture<List<PlayerBalanceDTO>> getTopBalancesAsync(String currency, int offset, int limit) {
+        return async(() -> getTopBalances(currency, offset, limit));
+    }
+
+    /**
+     * Async variant of {@link #getTransactions(UUID, String, long, long, TransactionCursor, int)}.
+     */
+    public CompletableFuture<TransactionPage> getTransactionsAsync(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        return async(() -> getTransactions(uuid, currency, from, to, cursor, limit));
+    }
+
+    /**
+     * Runs a call on the storage executor and completes the returned future on the callback executor.
+     * If the storage executor rejects the call, the future fails right away.
+     */
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<T> work;
+        try {
+            work = CompletableFuture.supplyAsync(call, storageExecutor);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        work.whenComplete((value, error) -> callbackExecutor.execute(() -> {
+            if (error != null) {
+                result.completeExceptionally(error instanceof java.util.concurrent.CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.complete(value);
+            }
+        }));
+        return result;
+    }
+
     // --- Bank Support ---
 
     /**
@@ -209,6 +520,28 @@ public class EzEconomyAPI {
         bankService.depositBank(name, currency, amount);
     }
 
+    /**
+     * Withdraw from a bank and return its balance right after the withdrawal.
+     * @param name Bank name
+     * @param currency Currency code
+     * @param amount Amount to withdraw
+     * @return Result with the new balance; {@code NOT_FOUND} if the bank does not exist
+     */
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        return bankService.withdrawBankAndGet(name, currency, amount);
+    }
+
+    /**
+     * Deposit to a bank and return its balance right after the deposit.
+     * @param name Bank name
+     * @param currency Currency code
+     * @param amount Amount to deposit
+     * @return Result with the new balance; {@code NOT_FOUND} if the bank does not exist
+     */
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        return bankService.depositBankAndGet(name, currency, amount);
+    }
+
     /**
      * Get all bank names.
      * @return Set of bank names
@@ -284,6 +617,124 @@ public class EzEconomyAPI {
         return currencyService.getAvailableCurrencies();
     }
 
+    /**
+     * Get the number of decimals a currency's balances are kept to.
+     * @param currency Currency code
+     * @return Configured decimals (2 if not configured)
+     */
+    public int getDecimals(String currency) {
+        return currencyService.getDecimals(currency);
+    }
+
+    /**
+     * Round an amount to a currency's decimals.
+     * @param currency Currency code
+     * @param amount Amount
+     * @return Exact amount
+     */
+    public Money toMoney(String currency, double amount) {
+        return Money.of(amount, getDecimals(currency));
+    }
+
+    /**
+     * Format an amount with a currency's symbol, decimals and grouping (e.g., "$1,234.50").
+     * @param amount Amount
+     * @param currency Currency code
+     * @return Formatted amount
+     */
+    public String format(double amount, String currency) {
+        return currencyService.getFormatter(currency).format(amount);
+    }
+
+    /**
+     * Format an amount in compact notation (e.g., "$1.2k", "$3.4M"). The suffixes are the ones
+     * accepted when parsing amounts in commands.
+     * @param amount Amount
+     * @param currency Currency code
+     * @return Formatted amount
+     */
+    public String formatCompact(double amount, String currency) {
+        return currencyService.getFormatter(currency).formatCompact(amount);
+    }
+
+    /**
+     * Get the cached formatter of a currency. Use {@link CurrencyFormatter#appendTo(StringBuilder, double)}
+     * to render into your own buffer without creating strings.
+     * @param currency Currency code
+     * @return Currency formatter
+     */
+    public CurrencyFormatter getFormatter(String currency) {
+        return currencyService.getFormatter(currency);
+    }
+
+    /**
+     * Get the exchange rate from one currency to another ({@code multi-currency.conversion}).
+     * @param from Currency code converted from
+     * @param to Currency code converted to
+     * @return Rate, 1 for the same currency, or {@code NaN} if none is configured
+     */
+    public double getExchangeRate(String from, String to) {
+        return currencyService.getRate(from, to);
+    }
+
+    /**
+     * Check if an exchange rate is configured between two currencies.
+     * @param from Currency code converted from
+     * @param to Currency code converted to
+     * @return true if amounts can be converted
+     */
+    public boolean canConvert(String from, String to) {
+        return !Double.isNaN(getExchangeRate(from, to));
+    }
+
+    /**
+     * Convert an amount at the configured rate, rounded down to the target currency's decimals.
+     * This only does arithmetic on a precomputed rate table and is cheap enough to call while
+     * rendering; no balances change.
+     * @param amount Amount of {@code from}
+     * @param from Currency code converted from
+     * @param to Currency code converted to
+     * @return Amount of {@code to}
+     * @throws IllegalArgumentException if there is no rate between the currencies
+     */
+    public double convert(double amount, String from, String to) {
+        return currencyService.convert(from, to, amount);
+    }
+
+    /**
+     * Convert many amounts between the same two currencies, e.g. every price on an auction page.
+     * @param amounts Amounts of {@code from}
+     * @param from Currency code converted from
+     * @param to Currency code converted to
+     * @return New array with the converted amounts, in the same order
+     * @throws IllegalArgumentException if there is no rate between the currencies
+     */
+    public double[] convertAll(double[] amounts, String from, String to) {
+        return currencyService.convertAll(from, to, amounts);
+    }
+
+    /**
+     * Convert keyed amounts between the same two currencies, e.g. prices by listing id.
+     * @param amounts Amounts of {@code from} by key
+     * @param from Currency code converted from
+     * @param to Currency code converted to
+     * @return New map with the converted amounts, in the iteration order of {@code amounts}
+     * @throws IllegalArgumentException if there is no rate between the currencies
+     */
+    public <K> Map<K, Double> convertAll(Map<K, Double> amounts, String from, String to) {
+        List<Map.Entry<K, Double>> entries = new java.util.ArrayList<>(amounts.entrySet());
+        double[] values = new double[entries.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = entries.get(i).getValue();
+        }
+        double[] converted = convertAll(values, from, to);
+        Map<K, Double> result = new java.util.LinkedHashMap<>(Math.max(16, (int) (values.length / 0.75f) + 1));
+        for (int i = 0; i < values.length; i++) {
+            result.put(entries.get(i).getKey(), converted[i]);
+        }
+        return result;
+    }
+
     /**
      * Check if a currency is enabled in the configuration.
      * @param currency Currency code
@@ -18,6 +18,14 @@ public class BankPostTransactionEvent extends Event {
     private final BigDecimal after;
 
     public BankPostTransactionEvent(String bankName, java.util.UUID actor, BigDecimal amount, TransactionType type, boolean success, BigDecimal before, BigDecimal after) {
+        this(bankName, actor, amount, type, success, before, after, false);
+    }
+
+    /**
+     * @param async True to create an asynchronous event; see {@link PostTransactionEvent}
+     */
+    public BankPostTransactionEvent(String bankName, java.util.UUID actor, BigDecimal amount, TransactionType type, boolean success, BigDecimal before, BigDecimal after, boolean async) {
+        super(async);
         this.bankName = bankName;
         this.actor = actor;
         this.amount = amount;
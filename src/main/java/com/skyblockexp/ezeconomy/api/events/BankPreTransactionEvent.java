@@ -19,6 +19,14 @@ public class BankPreTransactionEvent extends Event implements Cancellable {
     private String cancelReason;
 
     public BankPreTransactionEvent(String bankName, UUID actor, BigDecimal amount, TransactionType type) {
+        this(bankName, actor, amount, type, false);
+    }
+
+    /**
+     * @param async True to create an asynchronous event; see {@link PreTransactionEvent}
+     */
+    public BankPreTransactionEvent(String bankName, UUID actor, BigDecimal amount, TransactionType type, boolean async) {
+        super(async);
         this.bankName = bankName;
         this.actor = actor;
         this.amount = amount;
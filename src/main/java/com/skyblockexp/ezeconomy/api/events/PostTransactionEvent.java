@@ -25,6 +25,18 @@ public class PostTransactionEvent extends Event {
                                 boolean success,
                                 BigDecimal sourceBefore, BigDecimal sourceAfter,
                                 BigDecimal targetBefore, BigDecimal targetAfter) {
+        this(source, target, amount, type, success, sourceBefore, sourceAfter, targetBefore, targetAfter, false);
+    }
+
+    /**
+     * @param async True to create an asynchronous event, fired on the storage thread instead of the main
+     *              thread. Listeners of asynchronous events must not use the Bukkit API directly.
+     */
+    public PostTransactionEvent(UUID source, UUID target, BigDecimal amount, TransactionType type,
+                                boolean success,
+                                BigDecimal sourceBefore, BigDecimal sourceAfter,
+                                BigDecimal targetBefore, BigDecimal targetAfter, boolean async) {
+        super(async);
         this.source = source;
         this.target = target;
         this.amount = amount;
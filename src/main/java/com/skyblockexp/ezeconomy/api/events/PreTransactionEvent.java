@@ -19,6 +19,15 @@ public class PreTransactionEvent extends Event implements Cancellable {
     private String cancelReason;
 
     public PreTransactionEvent(UUID source, UUID target, BigDecimal amount, TransactionType type) {
+        this(source, target, amount, type, false);
+    }
+
+    /**
+     * @param async True to create an asynchronous event, fired on the storage thread without waiting for
+     *              the main thread. Listeners of asynchronous events must not use the Bukkit API directly.
+     */
+    public PreTransactionEvent(UUID source, UUID target, BigDecimal amount, TransactionType type, boolean async) {
+        super(async);
         this.source = source;
         this.target = target;
         this.amount = amount;
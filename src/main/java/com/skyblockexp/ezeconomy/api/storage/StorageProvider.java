@@ -3,9 +3,17 @@ package com.skyblockexp.ezeconomy.api.storage;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
 import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
 import com.skyblockexp.ezeconomy.storage.TransferLockManager;
 import com.skyblockexp.ezeconomy.storage.TransferResult;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,6 +61,20 @@ public interface StorageProvider {
      */
     void logTransaction(Transaction transaction);
 
+    /**
+     * Logs several transactions at once. Providers should override this to write the whole batch
+     * in one round trip; the default logs them one by one. Overrides report a failed write by
+     * throwing {@link TransactionLogException} with the transactions that were not written, so the
+     * journal can retry them.
+     * @param transactions Transactions to log, in order
+     * @throws TransactionLogException if part of the batch could not be written
+     */
+    default void logTransactions(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            logTransaction(transaction);
+        }
+    }
+
     /**
      * Retrieves the transaction history for a player and currency.
      * @param uuid Player UUID
@@ -61,6 +83,50 @@ public interface StorageProvider {
      */
     List<Transaction> getTransactions(UUID uuid, String currency);
 
+    /**
+     * Retrieves one page of a player's transaction history within a time range, newest first.
+     * Providers with an index on (uuid, currency, timestamp) should override this to seek directly
+     * to the page; the default pages through {@link #getTransactions(UUID, String)} in memory.
+     * @param uuid Player UUID
+     * @param currency Currency identifier
+     * @param from Inclusive lower timestamp bound (epoch millis)
+     * @param to Exclusive upper timestamp bound (epoch millis)
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Maximum number of transactions to return
+     * @return Page of transactions with the cursor for the next page
+     */
+    default TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        List<Transaction> history = new ArrayList<>(getTransactions(uuid, currency));
+        history.sort(Comparator.comparingLong(Transaction::getTimestamp).reversed());
+        return TransactionPage.slice(history, from, to, cursor, limit);
+    }
+
+    /**
+     * Streams a player's transaction history within a time range, newest first, one page at a time.
+     * @param uuid Player UUID
+     * @param currency Currency identifier
+     * @param from Inclusive lower timestamp bound (epoch millis)
+     * @param to Exclusive upper timestamp bound (epoch millis)
+     * @return Iterator over the transactions
+     */
+    default Iterator<Transaction> iterateTransactions(UUID uuid, String currency, long from, long to) {
+        return new TransactionIterator(this, uuid, currency, from, to, TransactionIterator.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Replaces a player's transactions with timestamps in {@code [from, to)} by the given ones, e.g.
+     * daily rollups. Used by transaction retention; the default does not support it.
+     * @param uuid Player UUID
+     * @param currency Currency identifier
+     * @param from Inclusive lower timestamp bound (epoch millis)
+     * @param to Exclusive upper timestamp bound (epoch millis)
+     * @param replacement Transactions to store instead; may be empty to only delete
+     * @return true if supported and applied, false if the provider cannot prune history
+     */
+    default boolean replaceTransactions(UUID uuid, String currency, long from, long to, List<Transaction> replacement) {
+        return false;
+    }
+
     /**
      * Attempts to withdraw an amount from a player's balance for a currency.
      * @param uuid Player UUID
@@ -78,6 +144,65 @@ public interface StorageProvider {
      */
     void deposit(UUID uuid, String currency, double amount);
 
+    /**
+     * Withdraws like {@link #tryWithdraw(UUID, String, double)} and returns the resulting balance. Providers
+     * read the balance in the same operation as the write; the default reads it afterwards.
+     * @return Success with the new balance, or insufficient funds with the current balance
+     */
+    default BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        boolean success = tryWithdraw(uuid, currency, amount);
+        double balance = getBalance(uuid, currency);
+        return success ? BalanceResult.success(balance) : BalanceResult.insufficientFunds(balance);
+    }
+
+    /**
+     * Deposits like {@link #deposit(UUID, String, double)} and returns the resulting balance.
+     */
+    default BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        deposit(uuid, currency, amount);
+        return BalanceResult.success(getBalance(uuid, currency));
+    }
+
+    /**
+     * Deposits into many players' balances for one currency in a single batch.
+     * @param amounts Amount to deposit per player
+     * @param currency Currency identifier
+     */
+    default void depositAll(Map<UUID, Double> amounts, String currency) {
+        List<BalanceMutation> mutations = new ArrayList<>(amounts.size());
+        for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+            mutations.add(BalanceMutation.deposit(entry.getKey(), currency, entry.getValue()));
+        }
+        applyBatch(mutations);
+    }
+
+    /**
+     * Applies balance changes in list order. Providers write the batch in as few round trips as they
+     * can (SQL backends in one transaction); the default applies the changes one by one.
+     * @param mutations Deposits, withdrawals and balance sets, possibly for many players and currencies
+     * @return The mutations that were not applied: withdrawals without sufficient funds, or the rest of
+     *         the batch if storage failed
+     */
+    default List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        List<BalanceMutation> rejected = new ArrayList<>();
+        for (BalanceMutation mutation : mutations) {
+            switch (mutation.getType()) {
+                case DEPOSIT:
+                    deposit(mutation.getUuid(), mutation.getCurrency(), mutation.getAmount());
+                    break;
+                case WITHDRAW:
+                    if (!tryWithdraw(mutation.getUuid(), mutation.getCurrency(), mutation.getAmount())) {
+                        rejected.add(mutation);
+                    }
+                    break;
+                default:
+                    setBalance(mutation.getUuid(), mutation.getCurrency(), mutation.getAmount());
+                    break;
+            }
+        }
+        return rejected;
+    }
+
     /**
      * Gets all player balances for a currency.
      * @param currency Currency identifier
@@ -85,6 +210,52 @@ public interface StorageProvider {
      */
     Map<UUID, Double> getAllBalances(String currency);
 
+    /**
+     * Gets the leaderboard position of a player for a currency.
+     * Players are ordered by balance, highest first; equal balances are ordered by UUID.
+     * Default: sorts {@link #getAllBalances(String)}. Override with an index for large player counts.
+     * @param uuid Player UUID
+     * @param currency Currency identifier
+     * @return 1-based rank, or 0 if the player has no balance for the currency
+     */
+    default int getRank(UUID uuid, String currency) {
+        List<Map.Entry<UUID, Double>> sorted = getTopBalances(currency, 0, Integer.MAX_VALUE);
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getKey().equals(uuid)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets a page of the leaderboard for a currency, in the same order as {@link #getRank(UUID, String)}.
+     * Default: sorts {@link #getAllBalances(String)}. Override with an index for large player counts.
+     * @param currency Currency identifier
+     * @param offset 0-based position of the first entry
+     * @param limit Maximum number of entries to return
+     * @return Entries of UUID and balance, highest balance first
+     */
+    default List<Map.Entry<UUID, Double>> getTopBalances(String currency, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            return java.util.Collections.emptyList();
+        }
+        return getAllBalances(currency).entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .skip(offset)
+                .limit(limit)
+                .collect(java.util.stream.Collectors.toList());
+    }
+
+    /**
+     * Gets the number of players on the leaderboard for a currency.
+     * @param currency Currency identifier
+     * @return Number of ranked players
+     */
+    default int getRankedCount(String currency) {
+        return getAllBalances(currency).size();
+    }
+
     /**
      * Removes balances for UUIDs that do not resolve to a known player.
      * Default: no-op, returns empty set. Override if needed.
@@ -127,14 +298,10 @@ public interface StorageProvider {
         if (debitAmount < 0 || creditAmount < 0) {
             return TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
         }
-        // Lock both sender and recipient in UUID order to avoid deadlocks
-        UUID first = fromUuid.compareTo(toUuid) <= 0 ? fromUuid : toUuid;
-        UUID second = fromUuid.compareTo(toUuid) <= 0 ? toUuid : fromUuid;
-        ReentrantLock firstLock = TransferLockManager.getLock(first);
-        ReentrantLock secondLock = (first.equals(second)) ? firstLock : TransferLockManager.getLock(second);
-        firstLock.lock();
-        if (!first.equals(second)) {
-            secondLock.lock();
+        // Lock both sender and recipient in a global stripe order to avoid deadlocks
+        ReentrantLock[] locks = TransferLockManager.getOrderedLocks(fromUuid, toUuid);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
         }
         try {
             double fromBalance = getBalance(fromUuid, currency);
@@ -154,10 +321,45 @@ public interface StorageProvider {
             double updatedTo = getBalance(toUuid, currency);
             return TransferResult.success(updatedFrom, updatedTo);
         } finally {
-            if (!first.equals(second)) {
-                secondLock.unlock();
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
             }
-            firstLock.unlock();
+        }
+    }
+
+    /**
+     * Exchanges one currency for another in a player's account: withdraws {@code debitAmount} of
+     * {@code fromCurrency} and deposits {@code creditAmount} of {@code toCurrency}, or changes nothing
+     * if the player cannot afford the debit. The caller works out the credit from the exchange rate.
+     * <p>
+     * The default holds the player's transfer lock across both steps, which only excludes other
+     * callers of that lock. The built-in providers override this: SQL providers make both changes in
+     * one database transaction, MongoDB uses a transaction or refunds the withdraw if the deposit
+     * fails, and binlog writes both balances as one record under both account locks.
+     * </p>
+     * @param uuid Player UUID
+     * @param fromCurrency Currency paid
+     * @param toCurrency Currency received
+     * @param debitAmount Amount of {@code fromCurrency} to withdraw
+     * @param creditAmount Amount of {@code toCurrency} to deposit
+     * @return TransferResult whose from balance is in {@code fromCurrency} and to balance in {@code toCurrency}
+     */
+    default TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        if (debitAmount < 0 || creditAmount < 0) {
+            return TransferResult.failure(getBalance(uuid, fromCurrency), getBalance(uuid, toCurrency));
+        }
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            if (!tryWithdraw(uuid, fromCurrency, debitAmount)) {
+                return TransferResult.failure(getBalance(uuid, fromCurrency), getBalance(uuid, toCurrency));
+            }
+            if (creditAmount > 0) {
+                deposit(uuid, toCurrency, creditAmount);
+            }
+            return TransferResult.success(getBalance(uuid, fromCurrency), getBalance(uuid, toCurrency));
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -286,6 +488,31 @@ public interface StorageProvider {
      */
     void depositBank(String name, String currency, double amount);
 
+    /**
+     * Withdraws from a bank and returns the resulting balance, checking that the bank exists in the
+     * same operation. The default makes separate calls for each step.
+     * @return Success with the new balance, insufficient funds with the current balance, or not found
+     */
+    default BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        if (!bankExists(name)) {
+            return BalanceResult.notFound();
+        }
+        boolean success = tryWithdrawBank(name, currency, amount);
+        double balance = getBankBalance(name, currency);
+        return success ? BalanceResult.success(balance) : BalanceResult.insufficientFunds(balance);
+    }
+
+    /**
+     * Deposits to a bank and returns the resulting balance; see {@link #withdrawBankAndGet(String, String, double)}.
+     */
+    default BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        if (!bankExists(name)) {
+            return BalanceResult.notFound();
+        }
+        depositBank(name, currency, amount);
+        return BalanceResult.success(getBankBalance(name, currency));
+    }
+
     /**
      * Gets all bank names.
      * @return Set of bank names
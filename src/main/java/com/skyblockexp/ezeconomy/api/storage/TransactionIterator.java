@@ -0,0 +1,55 @@
+package com.skyblockexp.ezeconomy.api.storage;
+
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Streams a transaction history newest first by fetching one page at a time, so exports of very
+ * long histories never hold more than one page in memory.
+ */
+public class TransactionIterator implements Iterator<Transaction> {
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final StorageProvider storage;
+    private final UUID uuid;
+    private final String currency;
+    private final long from;
+    private final long to;
+    private final int pageSize;
+    private Iterator<Transaction> current = Collections.emptyIterator();
+    private TransactionCursor cursor;
+    private boolean lastPage;
+
+    public TransactionIterator(StorageProvider storage, UUID uuid, String currency, long from, long to, int pageSize) {
+        this.storage = storage;
+        this.uuid = uuid;
+        this.currency = currency;
+        this.from = from;
+        this.to = to;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (lastPage) return false;
+            TransactionPage page = storage.getTransactions(uuid, currency, from, to, cursor, pageSize);
+            current = page.getTransactions().iterator();
+            cursor = page.getNextCursor();
+            lastPage = cursor == null;
+        }
+        return true;
+    }
+
+    @Override
+    public Transaction next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+}
@@ -0,0 +1,31 @@
+package com.skyblockexp.ezeconomy.api.storage.exceptions;
+
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+
+import java.util.List;
+
+/**
+ * Thrown by {@code StorageProvider#logTransactions} when part of a batch could not be written.
+ * Unchecked so it passes through the storage decorators unchanged.
+ */
+public class TransactionLogException extends RuntimeException {
+    private final List<Transaction> unwritten;
+
+    /**
+     * @param message Failure description
+     * @param cause Underlying storage error
+     * @param unwritten Transactions of the batch that were not written, in order
+     */
+    public TransactionLogException(String message, Throwable cause, List<Transaction> unwritten) {
+        super(message, cause);
+        this.unwritten = List.copyOf(unwritten);
+    }
+
+    /**
+     * Transactions of the batch that were not written, in order. Retrying only these does not
+     * duplicate the ones that were.
+     */
+    public List<Transaction> getUnwritten() {
+        return unwritten;
+    }
+}
@@ -0,0 +1,89 @@
+package com.skyblockexp.ezeconomy.api.storage.models;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One balance change in a batch passed to
+ * {@link com.skyblockexp.ezeconomy.api.storage.StorageProvider#applyBatch(java.util.List)}.
+ */
+public final class BalanceMutation {
+    public enum Type {
+        /** Adds the amount. */
+        DEPOSIT,
+        /** Subtracts the amount if the balance covers it; rejected otherwise. */
+        WITHDRAW,
+        /** Replaces the balance with the amount. */
+        SET
+    }
+
+    private final UUID uuid;
+    private final String currency;
+    private final Type type;
+    private final double amount;
+
+    public BalanceMutation(UUID uuid, String currency, Type type, double amount) {
+        this.uuid = Objects.requireNonNull(uuid, "uuid");
+        this.currency = Objects.requireNonNull(currency, "currency");
+        this.type = Objects.requireNonNull(type, "type");
+        this.amount = amount;
+    }
+
+    public static BalanceMutation deposit(UUID uuid, String currency, double amount) {
+        return new BalanceMutation(uuid, currency, Type.DEPOSIT, amount);
+    }
+
+    public static BalanceMutation withdraw(UUID uuid, String currency, double amount) {
+        return new BalanceMutation(uuid, currency, Type.WITHDRAW, amount);
+    }
+
+    public static BalanceMutation set(UUID uuid, String currency, double amount) {
+        return new BalanceMutation(uuid, currency, Type.SET, amount);
+    }
+
+    public UUID getUuid() { return uuid; }
+    public String getCurrency() { return currency; }
+    public Type getType() { return type; }
+    public double getAmount() { return amount; }
+
+    /**
+     * Whether this mutation can be applied to the given balance. Only withdrawals can be rejected.
+     */
+    public boolean isApplicable(double balance) {
+        return type != Type.WITHDRAW || balance >= amount;
+    }
+
+    /**
+     * Returns the balance after applying this mutation. Check {@link #isApplicable(double)} first.
+     */
+    public double applyTo(double balance) {
+        switch (type) {
+            case DEPOSIT:
+                return balance + amount;
+            case WITHDRAW:
+                return balance - amount;
+            default:
+                return amount;
+        }
+    }
+
+    /**
+     * Returns the balance after applying this mutation, computed on whole units of a currency with
+     * {@code decimals} places (see {@link Money}). Check {@link #isApplicable(double)} first.
+     */
+    public double applyTo(double balance, int decimals) {
+        switch (type) {
+            case DEPOSIT:
+                return Money.add(balance, amount, decimals);
+            case WITHDRAW:
+                return Money.subtract(balance, amount, decimals);
+            default:
+                return Money.round(amount, decimals);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceMutation{" + type + " " + amount + " " + currency + " for " + uuid + '}';
+    }
+}
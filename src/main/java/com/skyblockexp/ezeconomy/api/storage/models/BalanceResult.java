@@ -0,0 +1,74 @@
+package com.skyblockexp.ezeconomy.api.storage.models;
+
+/**
+ * Outcome of a deposit or withdrawal together with the balance right after it, as returned by
+ * {@link com.skyblockexp.ezeconomy.api.storage.StorageProvider#withdrawAndGet(java.util.UUID, String, double)}
+ * and the related methods.
+ */
+public final class BalanceResult {
+    public enum Status {
+        /** The change was applied. */
+        SUCCESS,
+        /** The balance does not cover the withdrawal. */
+        INSUFFICIENT_FUNDS,
+        /** A {@code BankPreTransactionEvent} listener cancelled the change. */
+        CANCELLED,
+        /** The bank does not exist. */
+        NOT_FOUND,
+        /** Storage failed; see the server log. */
+        FAILED
+    }
+
+    private static final BalanceResult NOT_FOUND = new BalanceResult(Status.NOT_FOUND, 0.0);
+    private static final BalanceResult FAILED = new BalanceResult(Status.FAILED, 0.0);
+
+    private final Status status;
+    private final double balance;
+
+    private BalanceResult(Status status, double balance) {
+        this.status = status;
+        this.balance = balance;
+    }
+
+    /**
+     * @param balance Balance after the change
+     */
+    public static BalanceResult success(double balance) {
+        return new BalanceResult(Status.SUCCESS, balance);
+    }
+
+    /**
+     * @param balance Current, unchanged balance
+     */
+    public static BalanceResult insufficientFunds(double balance) {
+        return new BalanceResult(Status.INSUFFICIENT_FUNDS, balance);
+    }
+
+    /**
+     * @param balance Current, unchanged balance
+     */
+    public static BalanceResult cancelled(double balance) {
+        return new BalanceResult(Status.CANCELLED, balance);
+    }
+
+    public static BalanceResult notFound() {
+        return NOT_FOUND;
+    }
+
+    public static BalanceResult failed() {
+        return FAILED;
+    }
+
+    public Status getStatus() { return status; }
+    public boolean isSuccess() { return status == Status.SUCCESS; }
+
+    /**
+     * Balance after the change, or the unchanged balance if it was not applied. Zero for {@link Status#NOT_FOUND} and {@link Status#FAILED}.
+     */
+    public double getBalance() { return balance; }
+
+    @Override
+    public String toString() {
+        return "BalanceResult{" + status + " " + balance + '}';
+    }
+}
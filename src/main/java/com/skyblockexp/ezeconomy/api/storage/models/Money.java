@@ -0,0 +1,194 @@
+package com.skyblockexp.ezeconomy.api.storage.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact money amount stored as a {@code long} count of the currency's smallest unit, e.g. cents for a
+ * currency configured with {@code decimals: 2}.
+ * <p>
+ * Adding and subtracting amounts is exact, so balances do not drift after many small transactions the
+ * way repeated {@code double} arithmetic does. The static helpers apply the same fixed-point arithmetic
+ * to {@code double} balances without allocating, which is what storage providers use internally.
+ * </p>
+ */
+public final class Money implements Comparable<Money> {
+    /** Decimals used when a currency does not configure any. */
+    public static final int DEFAULT_DECIMALS = 2;
+    /** Largest supported number of decimals; storage columns keep this many. */
+    public static final int MAX_DECIMALS = 8;
+
+    private static final long[] POWERS = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
+    // Unit counts beyond this are not exact in a double, so the fixed-point helpers fall back to plain arithmetic
+    private static final double MAX_EXACT_UNITS = 9_007_199_254_740_992.0;
+
+    private final long units;
+    private final int decimals;
+
+    private Money(long units, int decimals) {
+        this.units = units;
+        this.decimals = decimals;
+    }
+
+    /**
+     * @param units Amount in the currency's smallest unit
+     * @param decimals Number of decimals of the currency
+     */
+    public static Money ofUnits(long units, int decimals) {
+        return new Money(units, clampDecimals(decimals));
+    }
+
+    /**
+     * Rounds {@code value} half up to {@code decimals} places.
+     * @throws ArithmeticException if the value does not fit
+     */
+    public static Money of(double value, int decimals) {
+        int d = clampDecimals(decimals);
+        double scaled = value * POWERS[d];
+        if (Double.isNaN(scaled) || Math.abs(scaled) >= MAX_EXACT_UNITS) {
+            throw new ArithmeticException("Amount out of range: " + value);
+        }
+        return new Money(roundHalfUp(scaled), d);
+    }
+
+    /**
+     * Rounds {@code value} half up to {@code decimals} places.
+     * @throws ArithmeticException if the value does not fit
+     */
+    public static Money of(BigDecimal value, int decimals) {
+        int d = clampDecimals(decimals);
+        return new Money(value.setScale(d, RoundingMode.HALF_UP).unscaledValue().longValueExact(), d);
+    }
+
+    public static Money zero(int decimals) {
+        return new Money(0L, clampDecimals(decimals));
+    }
+
+    public long getUnits() { return units; }
+    public int getDecimals() { return decimals; }
+
+    /**
+     * @throws ArithmeticException if the result overflows
+     * @throws IllegalArgumentException if the amounts have different decimals
+     */
+    public Money plus(Money other) {
+        requireSameDecimals(other);
+        return new Money(Math.addExact(units, other.units), decimals);
+    }
+
+    /**
+     * @throws ArithmeticException if the result overflows
+     * @throws IllegalArgumentException if the amounts have different decimals
+     */
+    public Money minus(Money other) {
+        requireSameDecimals(other);
+        return new Money(Math.subtractExact(units, other.units), decimals);
+    }
+
+    public int signum() { return Long.signum(units); }
+    public boolean isZero() { return units == 0L; }
+    public boolean isNegative() { return units < 0L; }
+
+    /**
+     * The closest {@code double} to this amount. Converting it back with {@link #of(double, int)} gives
+     * the same amount.
+     */
+    public double toDouble() {
+        return units / (double) POWERS[decimals];
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, decimals);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (decimals == other.decimals) {
+            return Long.compare(units, other.units);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money other = (Money) o;
+        return units == other.units && decimals == other.decimals;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + decimals;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private void requireSameDecimals(Money other) {
+        if (decimals != other.decimals) {
+            throw new IllegalArgumentException("Cannot combine amounts with " + decimals + " and " + other.decimals + " decimals");
+        }
+    }
+
+    // --- Fixed-point arithmetic on double balances ---
+
+    /**
+     * Limits a configured number of decimals to {@code 0..MAX_DECIMALS}.
+     */
+    public static int clampDecimals(int decimals) {
+        return Math.max(0, Math.min(MAX_DECIMALS, decimals));
+    }
+
+    /**
+     * Rounds a balance half up to {@code decimals} places.
+     */
+    public static double round(double value, int decimals) {
+        double scale = POWERS[clampDecimals(decimals)];
+        double scaled = value * scale;
+        if (!(Math.abs(scaled) < MAX_EXACT_UNITS)) return value;
+        return roundHalfUp(scaled) / scale;
+    }
+
+    /**
+     * Rounds an amount toward zero to {@code decimals} places, e.g. for converted amounts that must not
+     * be worth more than what was paid for them. Products such as {@code 0.29 * 100} that land just below
+     * a whole unit are not cut to the unit below.
+     */
+    public static double truncate(double value, int decimals) {
+        double scale = POWERS[clampDecimals(decimals)];
+        double scaled = value * scale;
+        if (!(Math.abs(scaled) < MAX_EXACT_UNITS)) return value;
+        return (long) (scaled + (scaled < 0 ? -1e-6 : 1e-6)) / scale;
+    }
+
+    /**
+     * Returns {@code balance + amount}, computed on whole units of the currency.
+     */
+    public static double add(double balance, double amount, int decimals) {
+        double scale = POWERS[clampDecimals(decimals)];
+        double a = balance * scale;
+        double b = amount * scale;
+        if (!(Math.abs(a) < MAX_EXACT_UNITS && Math.abs(b) < MAX_EXACT_UNITS)) return balance + amount;
+        return (roundHalfUp(a) + roundHalfUp(b)) / scale;
+    }
+
+    /**
+     * Returns {@code balance - amount}, computed on whole units of the currency.
+     */
+    public static double subtract(double balance, double amount, int decimals) {
+        return add(balance, -amount, decimals);
+    }
+
+    /**
+     * Rounds to the nearest whole unit with halves away from zero, like {@link RoundingMode#HALF_UP}.
+     * {@link Math#round(double)} rounds halves toward positive infinity, so -1.5 would become -1.
+     */
+    private static long roundHalfUp(double scaled) {
+        return scaled < 0 ? -Math.round(-scaled) : Math.round(scaled);
+    }
+}
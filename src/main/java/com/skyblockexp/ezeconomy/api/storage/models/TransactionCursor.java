@@ -0,0 +1,66 @@
+package com.skyblockexp.ezeconomy.api.storage.models;
+
+/**
+ * Position in a newest-first transaction history, returned by {@link TransactionPage#getNextCursor()}.
+ * <p>
+ * The next page starts at the newest transaction not newer than {@code timestamp}, after skipping the
+ * {@code skip} transactions at exactly that timestamp that earlier pages already returned. Backends can
+ * therefore seek with their (uuid, currency, timestamp) index instead of counting every earlier row.
+ * </p>
+ */
+public final class TransactionCursor {
+    private final long timestamp;
+    private final int skip;
+
+    public TransactionCursor(long timestamp, int skip) {
+        this.timestamp = timestamp;
+        this.skip = skip;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public int getSkip() { return skip; }
+
+    /**
+     * Highest timestamp the page after {@code cursor} may contain.
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param to Exclusive upper bound of the requested range
+     */
+    public static long upperBound(TransactionCursor cursor, long to) {
+        return cursor == null ? to - 1 : Math.min(to - 1, cursor.timestamp);
+    }
+
+    /**
+     * Number of transactions at {@link #upperBound(TransactionCursor, long)} to skip.
+     */
+    public static int offset(TransactionCursor cursor, long to) {
+        return cursor != null && cursor.timestamp <= to - 1 ? cursor.skip : 0;
+    }
+
+    /**
+     * Encodes the cursor as a string, e.g. to hand it to a command or web client.
+     */
+    public String encode() {
+        return timestamp + ":" + skip;
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode()}.
+     * @throws IllegalArgumentException if the value is not a valid cursor
+     */
+    public static TransactionCursor decode(String value) {
+        int separator = value == null ? -1 : value.indexOf(':');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid transaction cursor: " + value);
+        }
+        try {
+            return new TransactionCursor(Long.parseLong(value.substring(0, separator)), Integer.parseInt(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid transaction cursor: " + value, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
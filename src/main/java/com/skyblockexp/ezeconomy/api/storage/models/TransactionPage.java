@@ -0,0 +1,78 @@
+package com.skyblockexp.ezeconomy.api.storage.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a player's transaction history, newest first.
+ */
+public final class TransactionPage {
+    private final List<Transaction> transactions;
+    private final TransactionCursor nextCursor;
+
+    public TransactionPage(List<Transaction> transactions, TransactionCursor nextCursor) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() { return transactions; }
+
+    /**
+     * Cursor for the following page, or null if this is the last page.
+     */
+    public TransactionCursor getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+
+    public static TransactionPage empty() {
+        return new TransactionPage(new ArrayList<>(), null);
+    }
+
+    /**
+     * Builds a page from up to {@code limit + 1} rows read after {@code cursor}. The extra row only
+     * signals that another page exists and is not returned.
+     * @param rows Rows in newest-first order
+     * @param cursor Cursor the rows were read from, or null for the first page
+     * @param limit Page size
+     */
+    public static TransactionPage of(List<Transaction> rows, TransactionCursor cursor, int limit) {
+        if (rows.size() <= limit) {
+            return new TransactionPage(rows, null);
+        }
+        List<Transaction> page = new ArrayList<>(rows.subList(0, limit));
+        long last = page.get(limit - 1).getTimestamp();
+        int skip = cursor != null && cursor.getTimestamp() == last ? cursor.getSkip() : 0;
+        for (Transaction transaction : page) {
+            if (transaction.getTimestamp() == last) skip++;
+        }
+        return new TransactionPage(page, new TransactionCursor(last, skip));
+    }
+
+    /**
+     * Pages through a history that is already in memory.
+     * @param newestFirst Full history, newest first
+     * @param from Inclusive lower timestamp bound
+     * @param to Exclusive upper timestamp bound
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     */
+    public static TransactionPage slice(List<Transaction> newestFirst, long from, long to, TransactionCursor cursor, int limit) {
+        if (limit <= 0 || from >= to) return empty();
+        long upper = TransactionCursor.upperBound(cursor, to);
+        int skip = TransactionCursor.offset(cursor, to);
+        List<Transaction> rows = new ArrayList<>(Math.min(limit + 1, newestFirst.size()));
+        for (Transaction transaction : newestFirst) {
+            long timestamp = transaction.getTimestamp();
+            if (timestamp > upper) continue;
+            if (timestamp < from) break;
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            rows.add(transaction);
+            if (rows.size() > limit) break;
+        }
+        return of(rows, cursor, limit);
+    }
+}
@@ -24,10 +24,7 @@ public class BalanceCommand implements CommandExecutor {
         MessageProvider messages = plugin.getMessageProvider();
         CurrencyPreferenceManager preferenceManager = plugin.getCurrencyPreferenceManager();
         StorageProvider storage = (StorageProvider) plugin.getEconomy().getStorage();
-        // Get available currencies from config
-        java.util.Map<String, Object> currencies = plugin.getConfig().getConfigurationSection("multi-currency.currencies") != null
-            ? plugin.getConfig().getConfigurationSection("multi-currency.currencies").getValues(false)
-            : java.util.Collections.emptyMap();
+        java.util.Set<String> currencies = plugin.getCurrencyManager().getCurrencies();
 
         if (args.length == 0) {
             if (!(sender instanceof Player)) {
@@ -37,7 +34,7 @@ public class BalanceCommand implements CommandExecutor {
             Player player = (Player) sender;
             String currency = preferenceManager.getPreferredCurrency(player.getUniqueId());
             double balance = storage != null ? storage.getBalance(player.getUniqueId(), currency) : plugin.getEconomy().getBalance(player);
-            sender.sendMessage(messages.get("your_balance", java.util.Map.of("balance", plugin.getEconomy().format(balance), "currency", currency)));
+            sender.sendMessage(messages.get("your_balance", java.util.Map.of("balance", plugin.format(balance, currency), "currency", currency)));
             return true;
         } else if (args.length == 1) {
             // /balance <currency> OR /balance <player>
@@ -50,7 +47,7 @@ public class BalanceCommand implements CommandExecutor {
                 }
                 String currency = preferenceManager.getPreferredCurrency(target.getUniqueId());
                 double balance = storage != null ? storage.getBalance(target.getUniqueId(), currency) : plugin.getEconomy().getBalance(target);
-                sender.sendMessage(messages.get("others_balance", java.util.Map.of("player", target.getName(), "balance", plugin.getEconomy().format(balance), "currency", currency)));
+                sender.sendMessage(messages.get("others_balance", java.util.Map.of("player", target.getName(), "balance", plugin.format(balance, currency), "currency", currency)));
                 return true;
             } else {
                 // /balance <currency>
@@ -60,12 +57,12 @@ public class BalanceCommand implements CommandExecutor {
                 }
                 Player player = (Player) sender;
                 String currency = args[0].toLowerCase();
-                if (!currencies.containsKey(currency)) {
+                if (!currencies.contains(currency)) {
                     sender.sendMessage(messages.get("unknown_currency", java.util.Map.of("currency", currency)));
                     return true;
                 }
                 double balance = storage != null ? storage.getBalance(player.getUniqueId(), currency) : plugin.getEconomy().getBalance(player);
-                sender.sendMessage(messages.get("your_balance", java.util.Map.of("balance", plugin.getEconomy().format(balance), "currency", currency)));
+                sender.sendMessage(messages.get("your_balance", java.util.Map.of("balance", plugin.format(balance, currency), "currency", currency)));
                 return true;
             }
         } else if (args.length == 2) {
@@ -76,12 +73,12 @@ public class BalanceCommand implements CommandExecutor {
             }
             OfflinePlayer target = Bukkit.getOfflinePlayer(args[0]);
             String currency = args[1].toLowerCase();
-            if (!currencies.containsKey(currency)) {
+            if (!currencies.contains(currency)) {
                 sender.sendMessage(messages.get("unknown_currency", java.util.Map.of("currency", currency)));
                 return true;
             }
             double balance = storage != null ? storage.getBalance(target.getUniqueId(), currency) : plugin.getEconomy().getBalance(target);
-            sender.sendMessage(messages.get("others_balance", java.util.Map.of("player", target.getName(), "balance", plugin.getEconomy().format(balance), "currency", currency)));
+            sender.sendMessage(messages.get("others_balance", java.util.Map.of("player", target.getName(), "balance", plugin.format(balance, currency), "currency", currency)));
             return true;
         }
         sender.sendMessage(messages.get("usage_balance"));
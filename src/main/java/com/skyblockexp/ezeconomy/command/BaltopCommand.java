@@ -1,20 +1,22 @@
-
 package com.skyblockexp.ezeconomy.command;
 import com.skyblockexp.ezeconomy.core.MessageProvider;
 
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
+import com.skyblockexp.ezeconomy.manager.BaltopManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Handles /baltop. Lines are read from the {@link BaltopManager} snapshot on the storage executor and
+ * only the final messages are sent from the main thread.
+ */
 public class BaltopCommand implements CommandExecutor {
     private final EzEconomyPlugin plugin;
     private static final int DEFAULT_TOP = 10;
-    private static final int PAGE_SIZE = 10;
+    private static final int PAGE_SIZE = BaltopManager.PAGE_SIZE;
 
     public BaltopCommand(EzEconomyPlugin plugin) {
         this.plugin = plugin;
@@ -38,68 +40,64 @@ public class BaltopCommand implements CommandExecutor {
             } catch (NumberFormatException ignored) {
             }
         }
-        com.skyblockexp.ezeconomy.api.storage.StorageProvider storage = plugin.getStorageOrWarn();
-        if (storage == null) {
+        if (plugin.getStorageOrWarn() == null) {
             sender.sendMessage(messages.color(messages.get("storage_unavailable")));
             return true;
         }
-        Map<UUID, Double> balances = storage.getAllBalances(plugin.getDefaultCurrency());
-        List<Map.Entry<UUID, Double>> sorted = balances.entrySet().stream()
-                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
-                .collect(Collectors.toList());
-        if (usePaging) {
-            int totalEntries = sorted.size();
-            int totalPages = (int) Math.ceil(totalEntries / (double) PAGE_SIZE);
-            if (totalPages == 0) {
-                totalPages = 1;
-            }
-            if (page <= 0 || page > totalPages) {
-                sender.sendMessage(messages.get("baltop_invalid_page", java.util.Map.of(
-                        "page", String.valueOf(page),
-                        "total_pages", String.valueOf(totalPages),
-                        "page_size", String.valueOf(PAGE_SIZE)
-                )));
-                return true;
-            }
-            sender.sendMessage(messages.get("top_balances_page", java.util.Map.of(
+        final boolean paging = usePaging;
+        final int requestedPage = page;
+        final int requestedTop = top;
+        plugin.getStorageExecutor()
+                .submit(() -> paging ? pageLines(requestedPage) : topLines(requestedTop))
+                .whenCompleteAsync((lines, error) -> {
+                    if (sender instanceof Player && !((Player) sender).isOnline()) {
+                        return;
+                    }
+                    if (error != null) {
+                        plugin.getLogger().warning("[EzEconomy] /baltop failed: " + error.getMessage());
+                        sender.sendMessage(messages.color(messages.get("storage_unavailable")));
+                        return;
+                    }
+                    for (String line : lines) {
+                        sender.sendMessage(line);
+                    }
+                }, plugin.getMainThreadExecutor());
+        return true;
+    }
+
+    private List<String> pageLines(int page) {
+        MessageProvider messages = plugin.getMessageProvider();
+        BaltopManager.Snapshot snapshot = plugin.getBaltopManager().getSnapshot();
+        if (snapshot == null) {
+            return List.of(messages.color(messages.get("storage_unavailable")));
+        }
+        int totalPages = snapshot.getTotalPages();
+        if (page <= 0 || page > totalPages) {
+            return List.of(messages.get("baltop_invalid_page", java.util.Map.of(
                     "page", String.valueOf(page),
                     "total_pages", String.valueOf(totalPages),
                     "page_size", String.valueOf(PAGE_SIZE)
             )));
-            int startIndex = (page - 1) * PAGE_SIZE;
-            int endIndex = Math.min(startIndex + PAGE_SIZE, totalEntries);
-            sorted = sorted.subList(startIndex, endIndex);
-            int rank = startIndex + 1;
-            for (Map.Entry<UUID, Double> entry : sorted) {
-                OfflinePlayer player = Bukkit.getOfflinePlayer(entry.getKey());
-                sender.sendMessage(messages.get("rank_balance", java.util.Map.of(
-                    "rank", String.valueOf(rank),
-                    "player", player.getName(),
-                    "balance", plugin.getEconomy().format(entry.getValue())
-                )));
-                rank++;
-            }
-            return true;
-        }
-        if (top > 0 && sorted.size() > top) {
-            sorted = sorted.subList(0, top);
         }
-        sender.sendMessage(messages.get("top_balances", java.util.Map.of("top", String.valueOf(top))));
-        int rank = 1;
-        for (Map.Entry<UUID, Double> entry : sorted) {
-            OfflinePlayer player = Bukkit.getOfflinePlayer(entry.getKey());
-            String playerName = player.getName();
-            if (playerName == null) {
-                playerName = messages.get("unknown_player");
-                plugin.getLogger().warning("[Baltop] Could not resolve player name for UUID: " + entry.getKey());
-            }
-            sender.sendMessage(messages.get("rank_balance", java.util.Map.of(
-                "rank", String.valueOf(rank),
-                "player", playerName,
-                "balance", plugin.getEconomy().format(entry.getValue())
-            )));
-            rank++;
+        List<String> lines = new ArrayList<>();
+        lines.add(messages.get("top_balances_page", java.util.Map.of(
+                "page", String.valueOf(page),
+                "total_pages", String.valueOf(totalPages),
+                "page_size", String.valueOf(PAGE_SIZE)
+        )));
+        lines.addAll(snapshot.getPage(page));
+        return lines;
+    }
+
+    private List<String> topLines(int top) {
+        MessageProvider messages = plugin.getMessageProvider();
+        BaltopManager.Snapshot snapshot = plugin.getBaltopManager().getSnapshot();
+        if (snapshot == null) {
+            return List.of(messages.color(messages.get("storage_unavailable")));
         }
-        return true;
+        List<String> lines = new ArrayList<>();
+        lines.add(messages.get("top_balances", java.util.Map.of("top", String.valueOf(top))));
+        lines.addAll(snapshot.getTop(top));
+        return lines;
     }
 }
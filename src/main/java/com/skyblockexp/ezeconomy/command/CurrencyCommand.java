@@ -2,13 +2,14 @@ package com.skyblockexp.ezeconomy.command;
 
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
 import com.skyblockexp.ezeconomy.core.MessageProvider;
+import com.skyblockexp.ezeconomy.manager.CurrencyManager;
 import com.skyblockexp.ezeconomy.manager.CurrencyPreferenceManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
-import org.bukkit.configuration.file.FileConfiguration;
 import java.util.Map;
+import java.util.Set;
 
 public class CurrencyCommand implements CommandExecutor {
 	private final EzEconomyPlugin plugin;
@@ -20,9 +21,8 @@ public class CurrencyCommand implements CommandExecutor {
 	@Override
 	public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
 		MessageProvider messages = plugin.getMessageProvider();
-		FileConfiguration config = plugin.getConfig();
-		boolean multiEnabled = config.getBoolean("multi-currency.enabled", false);
-		if (!multiEnabled) {
+		CurrencyManager currencyManager = plugin.getCurrencyManager();
+		if (!currencyManager.isMultiCurrency()) {
 			sender.sendMessage(messages.color(messages.get("multi_currency_disabled")));
 			return true;
 		}
@@ -34,13 +34,13 @@ public class CurrencyCommand implements CommandExecutor {
 		Player player = (Player) sender;
 		CurrencyPreferenceManager preferenceManager = plugin.getCurrencyPreferenceManager();
 
-		Map<String, Object> currencies = config.getConfigurationSection("multi-currency.currencies").getValues(false);
+		Set<String> currencies = currencyManager.getCurrencies();
 		String preferred = preferenceManager.getPreferredCurrency(player.getUniqueId());
 
 		if (args.length == 0) {
 			sender.sendMessage(messages.get("preferred_currency", Map.of("currency", preferred)));
 			sender.sendMessage(messages.get("available_currencies"));
-			for (String currency : currencies.keySet()) {
+			for (String currency : currencies) {
 				sender.sendMessage(" - " + currency);
 			}
 			sender.sendMessage(messages.get("use_currency"));
@@ -48,7 +48,7 @@ public class CurrencyCommand implements CommandExecutor {
 		}
 
 		String newCurrency = args[0].toLowerCase();
-		if (!currencies.containsKey(newCurrency)) {
+		if (!currencies.contains(newCurrency)) {
 			sender.sendMessage(messages.get("unknown_currency", Map.of("currency", newCurrency)));
 			return true;
 		}
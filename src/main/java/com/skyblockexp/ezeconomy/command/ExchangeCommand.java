@@ -0,0 +1,118 @@
+package com.skyblockexp.ezeconomy.command;
+
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import com.skyblockexp.ezeconomy.core.MessageProvider;
+import com.skyblockexp.ezeconomy.manager.CurrencyManager;
+import com.skyblockexp.ezeconomy.storage.TransferResult;
+import com.skyblockexp.ezeconomy.util.NumberUtil;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * /exchange &lt;amount&gt; &lt;from&gt; &lt;to&gt; - swaps one of the player's currencies for another at the
+ * {@code multi-currency.conversion} rate.
+ */
+public class ExchangeCommand implements CommandExecutor {
+    private final EzEconomyPlugin plugin;
+
+    public ExchangeCommand(EzEconomyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        MessageProvider messages = plugin.getMessageProvider();
+        CurrencyManager currencyManager = plugin.getCurrencyManager();
+        if (!currencyManager.isMultiCurrency()) {
+            sender.sendMessage(messages.color(messages.get("multi_currency_disabled")));
+            return true;
+        }
+        if (!(sender instanceof Player)) {
+            sender.sendMessage(messages.color(messages.get("only_players")));
+            return true;
+        }
+        if (!sender.hasPermission("ezeconomy.exchange")) {
+            sender.sendMessage(messages.color(messages.get("no_permission")));
+            return true;
+        }
+        if (args.length < 3) {
+            sender.sendMessage(messages.color(messages.get("usage_exchange")));
+            return true;
+        }
+
+        double amount = NumberUtil.parseAmount(args[0]);
+        if (Double.isNaN(amount)) {
+            sender.sendMessage(messages.color(messages.get("invalid_amount")));
+            return true;
+        }
+        if (amount <= 0) {
+            sender.sendMessage(messages.color(messages.get("must_be_positive")));
+            return true;
+        }
+        String from = args[1].toLowerCase(Locale.ROOT);
+        String to = args[2].toLowerCase(Locale.ROOT);
+        for (String currency : new String[] { from, to }) {
+            if (!currencyManager.getEnabledCurrencies().contains(currency)) {
+                sender.sendMessage(messages.color(messages.get("unknown_currency", Map.of("currency", currency))));
+                return true;
+            }
+        }
+        if (from.equals(to)) {
+            sender.sendMessage(messages.color(messages.get("exchange_same_currency")));
+            return true;
+        }
+        if (!currencyManager.canConvert(from, to)) {
+            sender.sendMessage(messages.color(messages.get("exchange_no_rate", Map.of("from", from, "to", to))));
+            return true;
+        }
+        double paid = Money.round(amount, currencyManager.getDecimals(from));
+        double received = currencyManager.convert(from, to, paid);
+        if (received <= 0) {
+            sender.sendMessage(messages.color(messages.get("exchange_too_small", Map.of(
+                "amount", currencyManager.format(from, paid),
+                "currency", to
+            ))));
+            return true;
+        }
+        if (plugin.getStorageOrWarn() == null) {
+            sender.sendMessage(messages.color(messages.get("storage_unavailable")));
+            return true;
+        }
+
+        Player player = (Player) sender;
+        // The exchange runs on the storage executor; the callback is back on the main thread
+        plugin.getApi().exchangeAsync(player.getUniqueId(), from, to, paid)
+            .whenComplete((result, error) -> {
+                if (!player.isOnline()) {
+                    return;
+                }
+                if (error != null) {
+                    plugin.getLogger().warning("Exchange of " + paid + " " + from + " to " + to + " for " + player.getName() + " failed: " + error.getMessage());
+                    player.sendMessage(messages.color(messages.get("storage_unavailable")));
+                    return;
+                }
+                onExchangeComplete(player, from, to, paid, received, result);
+            });
+        return true;
+    }
+
+    private void onExchangeComplete(Player player, String from, String to, double paid, double received, TransferResult result) {
+        MessageProvider messages = plugin.getMessageProvider();
+        if (!result.isSuccess()) {
+            player.sendMessage(messages.color(messages.get("not_enough_money")));
+            return;
+        }
+        CurrencyManager currencyManager = plugin.getCurrencyManager();
+        player.sendMessage(messages.color(messages.get("exchanged", Map.of(
+            "paid", currencyManager.format(from, paid),
+            "received", currencyManager.format(to, received),
+            "balance", currencyManager.format(to, result.getToBalance())
+        ))));
+    }
+}
@@ -83,23 +83,42 @@ public class PayCommand implements CommandExecutor {
             return true;
         }
 
-        TransferResult transfer = storage.transfer(from.getUniqueId(), to.getUniqueId(), plugin.getDefaultCurrency(), amount, netAmount);
+        // The transfer runs on the storage executor; the callback is back on the main thread
+        plugin.getApi().transferAsync(from.getUniqueId(), to.getUniqueId(), plugin.getDefaultCurrency(), amount, netAmount)
+            .whenComplete((transfer, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Payment from " + from.getName() + " to " + to.getName() + " failed: " + error.getMessage());
+                    if (from.isOnline()) {
+                        from.sendMessage(messages.color(messages.get("storage_unavailable")));
+                    }
+                    return;
+                }
+                onTransferComplete(from, to, netAmount, transfer);
+            });
+        return true;
+    }
+
+    private void onTransferComplete(Player from, OfflinePlayer to, double netAmount, TransferResult transfer) {
+        MessageProvider messages = plugin.getMessageProvider();
         if (!transfer.isSuccess()) {
-            sender.sendMessage(messages.color(messages.get("not_enough_money")));
-            return true;
+            if (from.isOnline()) {
+                from.sendMessage(messages.color(messages.get("not_enough_money")));
+            }
+            return;
         }
 
         // Only send success if both checks above pass and transfer is successful
-        sender.sendMessage(messages.color(messages.get("paid", java.util.Map.of(
-            "player", to.getName(),
-            "amount", plugin.getEconomy().format(netAmount)
-        ))));
+        if (from.isOnline()) {
+            from.sendMessage(messages.color(messages.get("paid", java.util.Map.of(
+                "player", to.getName(),
+                "amount", plugin.getEconomy().format(netAmount)
+            ))));
+        }
         if (to.isOnline() && to.getPlayer() != null) {
             to.getPlayer().sendMessage(messages.color(messages.get("received", java.util.Map.of(
                 "player", from.getName(),
                 "amount", plugin.getEconomy().format(netAmount)
             ))));
         }
-        return true;
     }
 }
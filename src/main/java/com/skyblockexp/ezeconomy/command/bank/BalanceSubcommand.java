@@ -35,7 +35,7 @@ public class BalanceSubcommand implements Subcommand {
             return true;
         }
         double bal = balanceResponse.balance;
-        sender.sendMessage(messages.color(messages.get("bank_balance", Map.of("name", args[0], "balance", plugin.getEconomy().format(bal), "currency", currency))));
+        sender.sendMessage(messages.color(messages.get("bank_balance", Map.of("name", args[0], "balance", plugin.format(bal, currency), "currency", currency))));
         return true;
     }
 
@@ -43,7 +43,7 @@ public class InfoSubcommand implements Subcommand {
         double balance = balanceResponse.balance;
         sender.sendMessage(messages.color(messages.get("bank_info", Map.of(
             "name", args[0],
-            "balance", plugin.getEconomy().format(balance),
+            "balance", plugin.format(balance, currency),
             "currency", currency,
             "members", String.valueOf(storage.getBankMembers(args[0]).size())
         ))));
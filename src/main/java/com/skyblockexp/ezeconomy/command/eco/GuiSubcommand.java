@@ -25,18 +25,10 @@ public class GuiSubcommand implements Subcommand {
             player.sendMessage(messages.color(messages.get("storage_unavailable")));
             return true;
         }
-        org.bukkit.configuration.file.FileConfiguration config = plugin.getConfig();
+        java.util.Set<String> enabled = plugin.getCurrencyManager().getEnabledCurrencies();
+        boolean multiCurrency = plugin.getCurrencyManager().isMultiCurrency() && !plugin.getCurrencyManager().getCurrencies().isEmpty();
         java.util.Map<String, Double> currencies = new java.util.HashMap<>();
-        java.util.Map<String, Object> currencySection = config.getConfigurationSection("multi-currency.currencies") != null
-            ? config.getConfigurationSection("multi-currency.currencies").getValues(false)
-            : java.util.Collections.emptyMap();
-        if (config.getBoolean("multi-currency.enabled", false) && !currencySection.isEmpty()) {
-            for (String currency : currencySection.keySet()) {
-                double balance = storage.getBalance(player.getUniqueId(), currency);
-                currencies.put(currency, balance);
-            }
-        } else {
-            String currency = plugin.getDefaultCurrency();
+        for (String currency : enabled) {
             double balance = storage.getBalance(player.getUniqueId(), currency);
             currencies.put(currency, balance);
         }
@@ -44,15 +36,9 @@ public class GuiSubcommand implements Subcommand {
         java.util.Map<String, Double> banks = new java.util.HashMap<>();
         for (String bank : storage.getBanks()) {
             if (storage.isBankMember(bank, player.getUniqueId())) {
-                if (config.getBoolean("multi-currency.enabled", false) && !currencySection.isEmpty()) {
-                    for (String currency : currencySection.keySet()) {
-                        double bankBalance = storage.getBankBalance(bank, currency);
-                        banks.put(bank + " (" + currency + ")", bankBalance);
-                    }
-                } else {
-                    String currency = plugin.getDefaultCurrency();
+                for (String currency : enabled) {
                     double bankBalance = storage.getBankBalance(bank, currency);
-                    banks.put(bank, bankBalance);
+                    banks.put(multiCurrency ? bank + " (" + currency + ")" : bank, bankBalance);
                 }
             }
         }
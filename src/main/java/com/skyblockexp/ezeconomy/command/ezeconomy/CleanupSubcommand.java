@@ -3,8 +3,13 @@ package com.skyblockexp.ezeconomy.command.ezeconomy;
 import com.skyblockexp.ezeconomy.command.Subcommand;
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
 import com.skyblockexp.ezeconomy.core.MessageProvider;
+import com.skyblockexp.ezeconomy.storage.BinlogStorageProvider;
+import com.skyblockexp.ezeconomy.storage.CachingStorageProvider;
+import com.skyblockexp.ezeconomy.storage.JournalingStorageProvider;
+import com.skyblockexp.ezeconomy.storage.LeaderboardStorageProvider;
 import com.skyblockexp.ezeconomy.storage.MongoDBStorageProvider;
 import com.skyblockexp.ezeconomy.storage.MySQLStorageProvider;
+import com.skyblockexp.ezeconomy.storage.NotifyingStorageProvider;
 import com.skyblockexp.ezeconomy.storage.SQLiteStorageProvider;
 import com.skyblockexp.ezeconomy.storage.YMLStorageProvider;
 import org.bukkit.command.CommandSender;
@@ -35,6 +40,27 @@ public class CleanupSubcommand implements Subcommand {
             return true;
         }
         Object storage = plugin.getStorageOrWarn();
+        NotifyingStorageProvider notifying = null;
+        if (storage instanceof NotifyingStorageProvider) {
+            notifying = (NotifyingStorageProvider) storage;
+            storage = notifying.getDelegate();
+        }
+        LeaderboardStorageProvider leaderboard = null;
+        if (storage instanceof LeaderboardStorageProvider) {
+            leaderboard = (LeaderboardStorageProvider) storage;
+            storage = leaderboard.getDelegate();
+        }
+        CachingStorageProvider cache = null;
+        if (storage instanceof CachingStorageProvider) {
+            // Write pending balances before touching the backend directly
+            cache = (CachingStorageProvider) storage;
+            cache.invalidateAll();
+            storage = cache.getDelegate();
+        }
+        if (storage instanceof JournalingStorageProvider) {
+            ((JournalingStorageProvider) storage).flush();
+            storage = ((JournalingStorageProvider) storage).getDelegate();
+        }
         Set<String> orphaned = new java.util.HashSet<>();
         // Preview orphaned entries/files
         if (storage instanceof YMLStorageProvider) {
@@ -45,6 +71,8 @@ public class CleanupSubcommand implements Subcommand {
             orphaned = ((SQLiteStorageProvider) storage).previewOrphanedPlayers();
         } else if (storage instanceof MongoDBStorageProvider) {
             orphaned = ((MongoDBStorageProvider) storage).previewOrphanedPlayers();
+        } else if (storage instanceof BinlogStorageProvider) {
+            orphaned = ((BinlogStorageProvider) storage).previewOrphanedPlayers();
         }
         if (orphaned.isEmpty()) {
             sender.sendMessage(messages.color(messages.get("cleanup_preview_empty")));
@@ -74,6 +102,17 @@ public class CleanupSubcommand implements Subcommand {
             removed = ((SQLiteStorageProvider) storage).cleanupOrphanedPlayers();
         } else if (storage instanceof MongoDBStorageProvider) {
             removed = ((MongoDBStorageProvider) storage).cleanupOrphanedPlayers();
+        } else if (storage instanceof BinlogStorageProvider) {
+            removed = ((BinlogStorageProvider) storage).cleanupOrphanedPlayers();
+        }
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        if (leaderboard != null && !removed.isEmpty()) {
+            leaderboard.refreshAll();
+        }
+        if (notifying != null && !removed.isEmpty()) {
+            notifying.notifyAllChanged();
         }
         if (removed.isEmpty()) {
             sender.sendMessage(messages.color(messages.get("cleanup_complete_empty")));
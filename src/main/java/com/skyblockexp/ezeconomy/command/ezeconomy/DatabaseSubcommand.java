@@ -4,6 +4,10 @@ import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
 import com.skyblockexp.ezeconomy.command.Subcommand;
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
 import com.skyblockexp.ezeconomy.core.MessageProvider;
+import com.skyblockexp.ezeconomy.storage.CachingStorageProvider;
+import com.skyblockexp.ezeconomy.storage.JournalingStorageProvider;
+import com.skyblockexp.ezeconomy.storage.LeaderboardStorageProvider;
+import com.skyblockexp.ezeconomy.storage.NotifyingStorageProvider;
 import org.bukkit.command.CommandSender;
 
 import java.util.Map;
@@ -44,10 +48,31 @@ public class DatabaseSubcommand implements Subcommand {
             statusColor = "&cError";
         }
         sender.sendMessage(messages.color("&eConnection Status: " + statusColor));
+        JournalingStorageProvider journal = findJournal(storage);
+        if (journal != null) {
+            sender.sendMessage(messages.color("&eTransaction Journal: &f" + journal.getQueueDepth() + "/" + journal.getCapacity()
+                    + " queued &7(peak " + journal.getHighWaterMark() + ")"));
+            sender.sendMessage(messages.color("&f  " + journal.getWrittenCount() + " written in " + journal.getBatchCount()
+                    + " batches, " + journal.getOverflowCount() + " overflowed, " + journal.getFailedCount() + " failed, last batch "
+                    + String.format("%.1f", journal.getLastFlushMillis()) + "ms"));
+        }
         sender.sendMessage(messages.color("&eAvailable Subcommands:"));
         sender.sendMessage(messages.color("&f  /ezeconomy database test &7- Test database functions"));
         sender.sendMessage(messages.color("&f  /ezeconomy database reset &7- Reset database tables"));
 
         return true;
     }
+
+    private JournalingStorageProvider findJournal(StorageProvider storage) {
+        if (storage instanceof NotifyingStorageProvider) {
+            storage = ((NotifyingStorageProvider) storage).getDelegate();
+        }
+        if (storage instanceof LeaderboardStorageProvider) {
+            storage = ((LeaderboardStorageProvider) storage).getDelegate();
+        }
+        if (storage instanceof CachingStorageProvider) {
+            storage = ((CachingStorageProvider) storage).getDelegate();
+        }
+        return storage instanceof JournalingStorageProvider ? (JournalingStorageProvider) storage : null;
+    }
 }
\ No newline at end of file
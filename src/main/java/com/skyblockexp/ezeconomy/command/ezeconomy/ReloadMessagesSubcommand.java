@@ -23,6 +23,11 @@ public class ReloadMessagesSubcommand implements Subcommand {
             return true;
         }
         plugin.reloadConfig();
+        plugin.getCurrencyManager().reload();
+        if (plugin.getBalanceSnapshots() != null) {
+            // Cached placeholder values were formatted with the previous currency settings
+            plugin.getBalanceSnapshots().clear();
+        }
         plugin.loadMessageProvider(); // Assuming there's a method to reload MessageProvider
         sender.sendMessage(messages.color(messages.get("reload_messages_success")));
         return true;
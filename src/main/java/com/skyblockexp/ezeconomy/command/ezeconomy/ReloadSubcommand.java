@@ -24,6 +24,11 @@ public class ReloadSubcommand implements Subcommand {
         }
         // Reload main config
         plugin.reloadConfig();
+        plugin.getCurrencyManager().reload();
+        if (plugin.getBalanceSnapshots() != null) {
+            // Cached placeholder values were formatted with the previous currency settings
+            plugin.getBalanceSnapshots().clear();
+        }
         // Reload messages
         plugin.loadMessageProvider();
         // TODO: Reload storage config if needed
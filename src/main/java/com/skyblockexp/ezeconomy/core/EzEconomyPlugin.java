@@ -1,28 +1,41 @@
 package com.skyblockexp.ezeconomy.core;
 
+import com.skyblockexp.ezeconomy.api.EzEconomyAPI;
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
 import com.skyblockexp.ezeconomy.command.BalanceCommand;
 import com.skyblockexp.ezeconomy.command.BaltopCommand;
 import com.skyblockexp.ezeconomy.command.BankCommand;
 import com.skyblockexp.ezeconomy.command.CurrencyCommand;
 import com.skyblockexp.ezeconomy.command.EcoCommand;
+import com.skyblockexp.ezeconomy.command.ExchangeCommand;
 import com.skyblockexp.ezeconomy.command.EzEconomyCommand;
 import com.skyblockexp.ezeconomy.command.PayCommand;
 import com.skyblockexp.ezeconomy.listener.DailyRewardListener;
+import com.skyblockexp.ezeconomy.listener.PlaceholderSnapshotListener;
+import com.skyblockexp.ezeconomy.manager.BaltopManager;
 import com.skyblockexp.ezeconomy.manager.BankInterestManager;
 import com.skyblockexp.ezeconomy.manager.CurrencyManager;
 import com.skyblockexp.ezeconomy.manager.CurrencyPreferenceManager;
 import com.skyblockexp.ezeconomy.manager.DailyRewardManager;
+import com.skyblockexp.ezeconomy.manager.TransactionRetentionManager;
+import com.skyblockexp.ezeconomy.storage.BinlogStorageProvider;
+import com.skyblockexp.ezeconomy.storage.CachingStorageProvider;
+import com.skyblockexp.ezeconomy.storage.JournalingStorageProvider;
+import com.skyblockexp.ezeconomy.storage.LeaderboardStorageProvider;
+import com.skyblockexp.ezeconomy.storage.NotifyingStorageProvider;
 import com.skyblockexp.ezeconomy.storage.MongoDBStorageProvider;
 import com.skyblockexp.ezeconomy.storage.MySQLStorageProvider;
 import com.skyblockexp.ezeconomy.storage.SQLiteStorageProvider;
+import com.skyblockexp.ezeconomy.storage.StorageExecutor;
 import com.skyblockexp.ezeconomy.storage.YMLStorageProvider;
 import com.skyblockexp.ezeconomy.tabcomplete.BankTabCompleter;
 import com.skyblockexp.ezeconomy.tabcomplete.CurrencyTabCompleter;
 import com.skyblockexp.ezeconomy.tabcomplete.EcoTabCompleter;
 import com.skyblockexp.ezeconomy.tabcomplete.EzEconomyCommandTabCompleter;
+import com.skyblockexp.ezeconomy.tabcomplete.ExchangeTabCompleter;
 import com.skyblockexp.ezeconomy.tabcomplete.PayTabCompleter;
 import com.skyblockexp.ezeconomy.update.SpigotUpdateChecker;
+import com.skyblockexp.ezeconomy.placeholder.BalanceSnapshotCache;
 import com.skyblockexp.ezeconomy.placeholder.EzEconomyPlaceholderExpansion;
 import java.io.File;
 import java.io.IOException;
@@ -30,6 +43,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -40,11 +54,22 @@ import net.milkbowl.vault.economy.Economy;
 public class EzEconomyPlugin extends JavaPlugin {
     private static final int SPIGOT_RESOURCE_ID = 130975;
     private static final long DEFAULT_INTEREST_INTERVAL_TICKS = 72_000L;
+    private static final long DEFAULT_CACHE_FLUSH_INTERVAL_TICKS = 100L;
+    private static final long DEFAULT_CACHE_EXPIRE_MINUTES = 30L;
+    private static final long DEFAULT_LEADERBOARD_REFRESH_TICKS = 6_000L;
+    private static final int DEFAULT_JOURNAL_CAPACITY = 50_000;
+    private static final int DEFAULT_JOURNAL_BATCH_SIZE = 500;
+    private static final long DEFAULT_JOURNAL_FLUSH_INTERVAL_TICKS = 20L;
+    private static final long DEFAULT_BALTOP_REFRESH_TICKS = 1_200L;
+    private static final long DEFAULT_RETENTION_INTERVAL_TICKS = 200L;
+    private static final long DEFAULT_PLACEHOLDER_STALENESS_TICKS = 600L;
+    private static final long STORAGE_EXECUTOR_SHUTDOWN_MILLIS = 10_000L;
     private static final List<String> DEFAULT_CONFIGS = List.of(
             "config-yml.yml",
             "config-mysql.yml",
             "config-sqlite.yml",
             "config-mongodb.yml",
+            "config-binlog.yml",
             "messages.yml"
     );
 
@@ -54,13 +79,49 @@ public class EzEconomyPlugin extends JavaPlugin {
     private CurrencyManager currencyManager;
     private EzEconomyMetrics metrics;
     private BankInterestManager bankInterestManager;
+    private BaltopManager baltopManager;
+    private TransactionRetentionManager transactionRetentionManager;
     private DailyRewardManager dailyRewardManager;
     private MessageProvider messageProvider;
     private VaultEconomyImpl vaultEconomy;
+    private StorageExecutor storageExecutor;
+    private TransactionEventDispatcher eventDispatcher;
+    private EzEconomyAPI api;
+    private BalanceSnapshotCache balanceSnapshots;
+    // Runs a task on the main thread: inline when already there, otherwise on the next tick
+    private final Executor mainThreadExecutor = task -> {
+        if (getServer().isPrimaryThread()) {
+            task.run();
+            return;
+        }
+        try {
+            getServer().getScheduler().runTask(this, task);
+        } catch (RuntimeException disabled) {
+            // The scheduler refuses tasks once the plugin is disabled; finish the callback here instead
+            task.run();
+        }
+    };
     private FileConfiguration messagesConfig;
 
+    /**
+     * Formats an amount of the default currency using its configured symbol, decimals and grouping.
+     */
     public String format(double amount) {
-        return String.format("$%.2f", amount);
+        return currencyManager.format(currencyManager.getDefaultCurrency(), amount);
+    }
+
+    /**
+     * Formats an amount of the given currency using its configured symbol, decimals and grouping.
+     */
+    public String format(double amount, String currency) {
+        return currencyManager.format(currency, amount);
+    }
+
+    /**
+     * Formats an amount of the given currency in compact notation, e.g. {@code $1.2k}.
+     */
+    public String formatCompact(double amount, String currency) {
+        return currencyManager.formatCompact(currency, amount);
     }
 
     public VaultEconomyImpl getEconomy() {
@@ -73,6 +134,10 @@ public class EzEconomyPlugin extends JavaPlugin {
         ensureDefaultConfigs();
         loadMessages();
 
+        this.storageExecutor = createStorageExecutor();
+        this.eventDispatcher = new TransactionEventDispatcher(this, getConfig().getBoolean("events.async", false));
+        // Storage providers round balances to each currency's decimals
+        this.currencyManager = new CurrencyManager(this);
         if (!initializeStorage()) {
             getServer().getPluginManager().disablePlugin(this);
             return;
@@ -95,6 +160,22 @@ public class EzEconomyPlugin extends JavaPlugin {
     @Override
     public void onDisable() {
         Bukkit.getServicesManager().unregister(Economy.class, vaultEconomy);
+        if (transactionRetentionManager != null) {
+            transactionRetentionManager.stop();
+        }
+        if (eventDispatcher != null) {
+            // Queued storage calls waiting on the main thread for a pre event would stall the shutdown below
+            eventDispatcher.shutdown();
+        }
+        if (storageExecutor != null) {
+            storageExecutor.shutdown(STORAGE_EXECUTOR_SHUTDOWN_MILLIS);
+        }
+        if (storage != null) {
+            storage.shutdown();
+        }
+        if (eventDispatcher != null) {
+            eventDispatcher.flush();
+        }
         getLogger().info("EzEconomy disabled.");
     }
 
@@ -106,6 +187,10 @@ public class EzEconomyPlugin extends JavaPlugin {
         File messagesFile = new File(getDataFolder(), "messages.yml");
         this.messagesConfig = YamlConfiguration.loadConfiguration(messagesFile);
         this.messageProvider = new MessageProvider(messagesConfig);
+        if (baltopManager != null) {
+            // Cached baltop lines were formatted with the previous messages
+            baltopManager.invalidate();
+        }
     }
 
     public VaultEconomyImpl getVaultEconomy() {
@@ -116,6 +201,68 @@ public class EzEconomyPlugin extends JavaPlugin {
         return bankInterestManager;
     }
 
+    public BaltopManager getBaltopManager() {
+        return baltopManager;
+    }
+
+    /**
+     * Returns the API instance whose async methods run on the storage executor and complete on the main thread.
+     */
+    public EzEconomyAPI getApi() {
+        return api;
+    }
+
+    /**
+     * Returns the bounded pool that runs storage calls made off the main thread.
+     */
+    public StorageExecutor getStorageExecutor() {
+        return storageExecutor;
+    }
+
+    /**
+     * Returns the in-memory balances behind the placeholders, or null if the snapshot cache is disabled.
+     */
+    public BalanceSnapshotCache getBalanceSnapshots() {
+        return balanceSnapshots;
+    }
+
+    /**
+     * Returns the dispatcher storage providers use to fire transaction and bank events.
+     */
+    public TransactionEventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
+    /**
+     * Returns an executor that runs tasks on the server main thread.
+     */
+    public Executor getMainThreadExecutor() {
+        return mainThreadExecutor;
+    }
+
+    /**
+     * Builds the storage executor, limiting concurrent calls to what the configured backend can take.
+     */
+    private StorageExecutor createStorageExecutor() {
+        FileConfiguration config = getConfig();
+        String storageType = config.getString("storage", "yml").toLowerCase();
+        int maxConcurrency = config.getInt("storage-executor.backends." + storageType,
+                config.getInt("storage-executor.threads", StorageExecutor.DEFAULT_THREADS));
+        String virtualThreads = config.getString("storage-executor.virtual-threads", "auto");
+        StorageExecutor executor = new StorageExecutor(getLogger(), !"false".equalsIgnoreCase(virtualThreads),
+                maxConcurrency, config.getInt("storage-executor.queue-capacity", StorageExecutor.DEFAULT_QUEUE_CAPACITY));
+        if (executor.isVirtual()) {
+            getLogger().info("Storage calls run on virtual threads (at most " + maxConcurrency + " at once).");
+        } else if ("true".equalsIgnoreCase(virtualThreads)) {
+            getLogger().warning("Virtual threads need Java 21 or newer; using " + maxConcurrency + " storage threads instead.");
+        }
+        return executor;
+    }
+
+    public TransactionRetentionManager getTransactionRetentionManager() {
+        return transactionRetentionManager;
+    }
+
     /**
      * Returns the default currency as defined in config or "dollar" if not set.
      */
@@ -219,6 +366,9 @@ public class EzEconomyPlugin extends JavaPlugin {
                 case "mongodb":
                     storage = new MongoDBStorageProvider(this, loadStorageConfig("config-mongodb.yml"));
                     break;
+                case "binlog":
+                    storage = new BinlogStorageProvider(this, loadStorageConfig("config-binlog.yml"));
+                    break;
                 default:
                     getLogger().warning("Unknown storage type '" + storageType + "', defaulting to YML.");
                     storage = new YMLStorageProvider(this, loadStorageConfig("config-yml.yml"));
@@ -226,6 +376,32 @@ public class EzEconomyPlugin extends JavaPlugin {
             }
             getLogger().info("Using " + storage.getClass().getSimpleName() + " storage provider.");
 
+            if (getConfig().getBoolean("transaction-journal.enabled", true)) {
+                int capacity = getConfig().getInt("transaction-journal.queue-capacity", DEFAULT_JOURNAL_CAPACITY);
+                int batchSize = getConfig().getInt("transaction-journal.batch-size", DEFAULT_JOURNAL_BATCH_SIZE);
+                long flushInterval = getConfig().getLong("transaction-journal.flush-interval-ticks", DEFAULT_JOURNAL_FLUSH_INTERVAL_TICKS);
+                storage = new JournalingStorageProvider(this, storage, capacity, batchSize, flushInterval);
+            }
+
+            if (getConfig().getBoolean("balance-cache.enabled", false)) {
+                long flushInterval = getConfig().getLong("balance-cache.flush-interval-ticks", DEFAULT_CACHE_FLUSH_INTERVAL_TICKS);
+                long expireMinutes = getConfig().getLong("balance-cache.expire-after-minutes", DEFAULT_CACHE_EXPIRE_MINUTES);
+                storage = new CachingStorageProvider(this, storage, flushInterval, expireMinutes);
+                getLogger().info("Balance cache enabled (flush every " + flushInterval + " ticks).");
+            }
+
+            if (getConfig().getBoolean("leaderboard.enabled", true)) {
+                long refreshInterval = getConfig().getLong("leaderboard.refresh-interval-ticks", DEFAULT_LEADERBOARD_REFRESH_TICKS);
+                storage = new LeaderboardStorageProvider(this, storage, refreshInterval);
+            }
+
+            if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")
+                    && getConfig().getBoolean("placeholders.snapshot-cache", true)) {
+                long staleness = getConfig().getLong("placeholders.max-staleness-ticks", DEFAULT_PLACEHOLDER_STALENESS_TICKS);
+                this.balanceSnapshots = new BalanceSnapshotCache(this, staleness);
+                storage = new NotifyingStorageProvider(storage, balanceSnapshots);
+            }
+
             getLogger().info("Initializing " + storage.getClass().getSimpleName() + " storage provider.");
             storage.init();
 
@@ -247,15 +423,21 @@ public class EzEconomyPlugin extends JavaPlugin {
 
     private void initializeManagers() {
         this.currencyPreferenceManager = new CurrencyPreferenceManager(this);
-        this.currencyManager = new CurrencyManager(this);
         this.bankInterestManager = new BankInterestManager(this);
         long interval = getConfig().getLong("bank-interest-interval-ticks", DEFAULT_INTEREST_INTERVAL_TICKS);
         bankInterestManager.start(interval);
+        this.baltopManager = new BaltopManager(this);
+        baltopManager.start(getConfig().getLong("baltop.refresh-interval-ticks", DEFAULT_BALTOP_REFRESH_TICKS));
+        this.transactionRetentionManager = new TransactionRetentionManager(this);
+        if (getConfig().getBoolean("transaction-retention.enabled", false)) {
+            transactionRetentionManager.start(getConfig().getLong("transaction-retention.interval-ticks", DEFAULT_RETENTION_INTERVAL_TICKS));
+        }
         this.dailyRewardManager = new DailyRewardManager(this);
         this.metrics = new EzEconomyMetrics(this);
     }
 
     private void registerEconomy() {
+        this.api = new EzEconomyAPI(storage, storageExecutor, mainThreadExecutor, currencyManager);
         this.vaultEconomy = new VaultEconomyImpl(this);
         Bukkit.getServicesManager().register(Economy.class, vaultEconomy, this, ServicePriority.Highest);
     }
@@ -271,12 +453,17 @@ public class EzEconomyPlugin extends JavaPlugin {
         getCommand("pay").setTabCompleter(new PayTabCompleter());
         getCommand("currency").setExecutor(new CurrencyCommand(this));
         getCommand("currency").setTabCompleter(new CurrencyTabCompleter());
+        getCommand("exchange").setExecutor(new ExchangeCommand(this));
+        getCommand("exchange").setTabCompleter(new ExchangeTabCompleter(this));
         getCommand("ezeconomy").setExecutor(new EzEconomyCommand(this, dailyRewardManager));
         getCommand("ezeconomy").setTabCompleter(new EzEconomyCommandTabCompleter(this));
     }
 
     private void registerListeners() {
         Bukkit.getPluginManager().registerEvents(new DailyRewardListener(dailyRewardManager), this);
+        if (balanceSnapshots != null) {
+            Bukkit.getPluginManager().registerEvents(new PlaceholderSnapshotListener(balanceSnapshots), this);
+        }
     }
 
     private void registerPlaceholderExpansion() {
@@ -1,16 +1,30 @@
 package com.skyblockexp.ezeconomy.core;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+/**
+ * Messages from messages.yml. Each message is compiled once into a {@link MessageTemplate} when the
+ * provider is created (on startup and on every reload), so sending a message only fills in its
+ * placeholders.
+ */
 public class MessageProvider {
+    // Private use characters mark placeholder positions while a message is parsed
+    private static final char SLOT_MARKER = '\uE000';
+    private static final int MAX_SLOTS = 256;
+    private static final TagResolver STANDARD_TAGS = TagResolver.standard();
+
     private final FileConfiguration config;
     private final String language;
     private final MiniMessage miniMessage = MiniMessage.miniMessage();
@@ -18,26 +32,57 @@ public class MessageProvider {
             .hexColors()
             .useUnusualXRepeatedCharacterHexFormat()
             .build();
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 
     public MessageProvider(FileConfiguration config) {
         this.config = Objects.requireNonNull(config, "config");
         // Try to get language from config, default to 'en'
         String lang = config.getString("language");
         this.language = (lang != null && !lang.isEmpty()) ? lang : "en";
+        compileAll();
     }
 
     public String get(String key) {
-        String msg = resolveMessage(key);
-        return format(msg, Map.of());
+        return template(key).render(Map.of());
     }
 
     public String get(String key, Map<String, String> placeholders) {
-        String message = resolveMessage(key);
-        return format(message, placeholders);
+        return template(key).render(placeholders);
     }
 
     public String color(String message) {
-        return format(message, Map.of());
+        if (message == null || (message.indexOf('&') < 0 && message.indexOf('<') < 0)) {
+            // Plain or already serialized text
+            return message;
+        }
+        return compile(message).render(Map.of());
+    }
+
+    private MessageTemplate template(String key) {
+        MessageTemplate template = templates.get(key);
+        if (template != null) {
+            return template;
+        }
+        return templates.computeIfAbsent(key, k -> compile(resolveMessage(k)));
+    }
+
+    private void compileAll() {
+        for (String path : new String[] {"messages.en", "messages." + language}) {
+            ConfigurationSection section = config.getConfigurationSection(path);
+            if (section == null) {
+                continue;
+            }
+            for (String key : section.getKeys(true)) {
+                if (!section.isString(key) || templates.containsKey(key)) {
+                    continue;
+                }
+                try {
+                    templates.put(key, compile(resolveMessage(key)));
+                } catch (RuntimeException e) {
+                    // Left for get(), which reports the broken message where it is used
+                }
+            }
+        }
     }
 
     private String resolveMessage(String key) {
@@ -50,62 +95,101 @@ public class MessageProvider {
         return msg;
     }
 
-    private String format(String message, Map<String, String> placeholders) {
-        String resolved = replaceBracedPlaceholders(message, placeholders);
-        resolved = replacePercentPlaceholders(resolved, placeholders);
-        if (containsLegacyFormatting(resolved)) {
-            String legacyResolved = replaceAnglePlaceholders(resolved, placeholders);
-            String translated = ChatColor.translateAlternateColorCodes('&', legacyResolved);
-            Component component = legacySerializer.deserialize(translated);
-            return legacySerializer.serialize(component);
+    /**
+     * Parses a message once: each {@code {key}}, {@code %key%} or {@code <key>} placeholder is replaced
+     * by a marker character, the text is parsed as legacy or MiniMessage and serialized to legacy, and
+     * the result is split at the markers.
+     */
+    private MessageTemplate compile(String message) {
+        boolean legacy = containsLegacyFormatting(message);
+        List<String> names = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        StringBuilder marked = new StringBuilder(message.length());
+        int index = 0;
+        while (index < message.length()) {
+            char current = message.charAt(index);
+            char close = current == '{' ? '}' : current == '%' ? '%' : current == '<' ? '>' : 0;
+            if (close != 0) {
+                int end = nameEnd(message, index + 1);
+                if (end > index + 1 && end < message.length() && message.charAt(end) == close
+                        && names.size() < MAX_SLOTS) {
+                    String name = message.substring(index + 1, end);
+                    // <green> and friends are MiniMessage tags, not placeholders
+                    if (close != '>' || legacy || !STANDARD_TAGS.has(name.toLowerCase(Locale.ROOT))) {
+                        marked.append((char) (SLOT_MARKER + names.size()));
+                        names.add(name);
+                        tokens.add(message.substring(index, end + 1));
+                        index = end + 1;
+                        continue;
+                    }
+                }
+            }
+            marked.append(current);
+            index++;
         }
-        TagResolver resolver = buildResolver(placeholders);
-        Component component = miniMessage.deserialize(resolved, resolver);
-        return legacySerializer.serialize(component);
-    }
 
-    private TagResolver buildResolver(Map<String, String> placeholders) {
-        if (placeholders == null || placeholders.isEmpty()) {
-            return TagResolver.empty();
-        }
-        TagResolver.Builder builder = TagResolver.builder();
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            builder.resolver(Placeholder.parsed(entry.getKey(), entry.getValue()));
-        }
-        return builder.build();
-    }
+        Component component = legacy
+                ? legacySerializer.deserialize(ChatColor.translateAlternateColorCodes('&', marked.toString()))
+                : miniMessage.deserialize(marked.toString());
+        String serialized = legacySerializer.serialize(component);
 
-    private String replaceBracedPlaceholders(String message, Map<String, String> placeholders) {
-        if (placeholders == null || placeholders.isEmpty() || message == null) {
-            return message;
-        }
-        String resolved = message;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            resolved = resolved.replace("{" + entry.getKey() + "}", entry.getValue());
+        List<String> literals = new ArrayList<>();
+        List<MessageTemplate.Slot> slots = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < serialized.length(); i++) {
+            int slot = serialized.charAt(i) - SLOT_MARKER;
+            if (slot < 0 || slot >= names.size()) {
+                continue;
+            }
+            literals.add(serialized.substring(start, i));
+            slots.add(new MessageTemplate.Slot(names.get(slot), tokens.get(slot), activeStyle(serialized, i)));
+            start = i + 1;
         }
-        return resolved;
+        literals.add(serialized.substring(start));
+        return new MessageTemplate(literals.toArray(new String[0]), slots.toArray(new MessageTemplate.Slot[0]), legacy);
     }
 
-    private String replacePercentPlaceholders(String message, Map<String, String> placeholders) {
-        if (placeholders == null || placeholders.isEmpty() || message == null) {
-            return message;
-        }
-        String resolved = message;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            resolved = resolved.replace("%" + entry.getKey() + "%", entry.getValue());
+    private static int nameEnd(String message, int from) {
+        int index = from;
+        while (index < message.length()) {
+            char c = message.charAt(index);
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-')) {
+                break;
+            }
+            index++;
         }
-        return resolved;
+        return index;
     }
 
-    private String replaceAnglePlaceholders(String message, Map<String, String> placeholders) {
-        if (placeholders == null || placeholders.isEmpty() || message == null) {
-            return message;
-        }
-        String resolved = message;
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            resolved = resolved.replace("<" + entry.getKey() + ">", entry.getValue());
+    /**
+     * Legacy codes that restore the colour and decorations in effect at {@code end}.
+     */
+    private static String activeStyle(String text, int end) {
+        String color = "";
+        StringBuilder decorations = new StringBuilder();
+        for (int index = 0; index + 1 < end; index++) {
+            if (text.charAt(index) != '§') {
+                continue;
+            }
+            char code = Character.toLowerCase(text.charAt(index + 1));
+            if (code == 'x' && index + 14 <= end) {
+                color = text.substring(index, index + 14);
+                decorations.setLength(0);
+                index += 13;
+            } else if ((code >= '0' && code <= '9') || (code >= 'a' && code <= 'f')) {
+                color = text.substring(index, index + 2);
+                decorations.setLength(0);
+                index++;
+            } else if (code == 'r') {
+                color = "";
+                decorations.setLength(0);
+                index++;
+            } else if (code >= 'k' && code <= 'o') {
+                decorations.append('§').append(code);
+                index++;
+            }
         }
-        return resolved;
+        return "§r" + color + decorations;
     }
 
     private boolean containsLegacyFormatting(String message) {
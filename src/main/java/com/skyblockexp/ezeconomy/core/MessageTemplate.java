@@ -0,0 +1,75 @@
+package com.skyblockexp.ezeconomy.core;
+
+import java.util.Map;
+import org.bukkit.ChatColor;
+
+/**
+ * A message from messages.yml, already parsed and serialized to legacy text, split around its
+ * placeholder slots.
+ * <p>
+ * Rendering appends the literal segments and the placeholder values into a reused builder; no
+ * MiniMessage parsing happens per message. Instances are immutable and built by {@link MessageProvider}.
+ * </p>
+ */
+final class MessageTemplate {
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final String[] literals;
+    private final Slot[] slots;
+    private final boolean legacyValues;
+
+    /**
+     * @param literals Legacy text before, between and after the slots; one more than {@code slots}
+     * @param slots Placeholder slots in output order
+     * @param legacyValues Whether {@code &} codes in values are translated, as they are for legacy messages
+     */
+    MessageTemplate(String[] literals, Slot[] slots, boolean legacyValues) {
+        this.literals = literals;
+        this.slots = slots;
+        this.legacyValues = legacyValues;
+    }
+
+    String render(Map<String, String> values) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        sb.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            Slot slot = slots[i];
+            String value = values == null ? null : values.get(slot.name);
+            if (value == null) {
+                // Unknown placeholders stay as written
+                sb.append(slot.token);
+            } else {
+                if (legacyValues && value.indexOf('&') >= 0) {
+                    value = ChatColor.translateAlternateColorCodes('&', value);
+                }
+                sb.append(value);
+                if (value.indexOf('§') >= 0) {
+                    // The value changed the colour; restore the message's style for the text after it
+                    sb.append(slot.style);
+                }
+            }
+            sb.append(literals[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A placeholder position: its key, the token as written (e.g. {@code {player}}) and the legacy
+     * codes of the style in effect there.
+     */
+    static final class Slot {
+        final String name;
+        final String token;
+        final String style;
+
+        Slot(String name, String token, String style) {
+            this.name = name;
+            this.token = token;
+            this.style = style;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.skyblockexp.ezeconomy.core;
+
+import com.skyblockexp.ezeconomy.api.events.PreTransactionEvent;
+import com.skyblockexp.ezeconomy.api.events.TransactionType;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Fires the transaction and bank events raised by storage providers.
+ * <p>
+ * Events without listeners are skipped. On the main thread events are fired directly. Off the main
+ * thread, post events are queued and delivered on the main thread in one batch per tick, so storage
+ * calls never wait for the tick loop after writing. Pre events must be answered before the write; a
+ * synchronous pre event still needs a round trip to the main thread, which is avoided by enabling
+ * {@code events.async}. Providers then create asynchronous events (see {@link #createAsync()}) and
+ * they are fired on the calling thread.
+ * </p>
+ * <p>
+ * A synchronous pre event must not wait for the main thread while the calling thread holds account
+ * locks, because the main thread may itself be waiting for one of those locks in a Vault call. Callers
+ * that lock before reaching the provider wrap the call in {@link #withTransferAnswered}, which fires
+ * the transfer pre event first and hands the answer to the provider's own {@link #callPre}. Bank
+ * pre events are fired by the providers before they take the bank's lock.
+ * </p>
+ * <p>
+ * Once {@link #shutdown()} has been called, pre events that would have to wait for the main thread
+ * are cancelled instead, because the main thread is busy disabling the plugin and would never answer.
+ * </p>
+ */
+public class TransactionEventDispatcher {
+    private final EzEconomyPlugin plugin;
+    private final boolean asyncEvents;
+    private final Queue<Event> pendingPost = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ThreadLocal<PreTransactionEvent> answeredTransfer = new ThreadLocal<>();
+    private final Set<Future<Void>> pendingPre = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
+    /**
+     * @param plugin EzEconomy plugin instance
+     * @param asyncEvents Whether events raised off the main thread are created as asynchronous events
+     */
+    public TransactionEventDispatcher(EzEconomyPlugin plugin, boolean asyncEvents) {
+        this.plugin = plugin;
+        this.asyncEvents = asyncEvents;
+    }
+
+    /**
+     * Whether an event created now should be asynchronous. Bukkit only allows asynchronous events to be
+     * fired off the main thread, so this is always false on the main thread.
+     */
+    public boolean createAsync() {
+        return asyncEvents && !plugin.getServer().isPrimaryThread();
+    }
+
+    /**
+     * Fires a pre event and waits for its listeners.
+     * @return True if the operation may go ahead
+     */
+    public <E extends Event & Cancellable> boolean callPre(E event) {
+        if (!hasListeners(event)) {
+            return !event.isCancelled();
+        }
+        PreTransactionEvent answer = answeredTransfer.get();
+        if (answer != null && event instanceof PreTransactionEvent && sameTransfer(answer, (PreTransactionEvent) event)) {
+            ((PreTransactionEvent) event).setCancelReason(answer.getCancelReason());
+            event.setCancelled(answer.isCancelled());
+            return !event.isCancelled();
+        }
+        if (event.isAsynchronous() || plugin.getServer().isPrimaryThread()) {
+            plugin.getServer().getPluginManager().callEvent(event);
+        } else {
+            if (shuttingDown) {
+                return deny(event);
+            }
+            Future<Void> wait = null;
+            try {
+                wait = plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
+                    plugin.getServer().getPluginManager().callEvent(event);
+                    return null;
+                });
+                pendingPre.add(wait);
+                if (shuttingDown) {
+                    // shutdown() may have run before this wait was registered
+                    wait.cancel(false);
+                }
+                wait.get();
+            } catch (Exception e) {
+                if (shuttingDown) {
+                    return deny(event);
+                }
+                plugin.getLogger().warning("[EzEconomy] Failed to fire " + event.getEventName() + ": " + e.getMessage());
+            } finally {
+                if (wait != null) {
+                    pendingPre.remove(wait);
+                }
+            }
+        }
+        return !event.isCancelled();
+    }
+
+    private static <E extends Event & Cancellable> boolean deny(E event) {
+        if (event instanceof PreTransactionEvent) {
+            ((PreTransactionEvent) event).setCancelReason("Server is shutting down");
+        }
+        event.setCancelled(true);
+        return false;
+    }
+
+    /**
+     * Cancels every operation waiting for the main thread to answer a pre event, and every later one.
+     * Call on the main thread before waiting for the storage executor to finish.
+     */
+    public void shutdown() {
+        shuttingDown = true;
+        for (Future<Void> answer : pendingPre) {
+            answer.cancel(false);
+        }
+    }
+
+    /**
+     * Fires the pre event of a transfer before running it, for callers that take account locks around
+     * the provider call. The provider's own pre event for the same transfer on this thread gets the
+     * recorded answer instead of being fired again. Nested calls reuse the outermost answer.
+     * @param call Provider call to run
+     * @return Result of {@code call}
+     */
+    public <T> T withTransferAnswered(UUID fromUuid, UUID toUuid, double amount, Supplier<T> call) {
+        if (answeredTransfer.get() != null || PreTransactionEvent.getHandlerList().getRegisteredListeners().length == 0) {
+            return call.get();
+        }
+        PreTransactionEvent answer = new PreTransactionEvent(fromUuid, toUuid, BigDecimal.valueOf(amount), TransactionType.TRANSFER, createAsync());
+        callPre(answer);
+        answeredTransfer.set(answer);
+        try {
+            return call.get();
+        } finally {
+            answeredTransfer.remove();
+        }
+    }
+
+    private static boolean sameTransfer(PreTransactionEvent answer, PreTransactionEvent event) {
+        return answer.getType() == event.getType()
+                && answer.getSource().equals(event.getSource())
+                && Objects.equals(answer.getTarget(), event.getTarget())
+                && answer.getAmount().compareTo(event.getAmount()) == 0;
+    }
+
+    /**
+     * Fires a post event without waiting for the main thread. Synchronous events raised off the main
+     * thread are delivered in order on the next tick.
+     */
+    public void callPost(Event event) {
+        if (!hasListeners(event)) {
+            return;
+        }
+        if (event.isAsynchronous()) {
+            plugin.getServer().getPluginManager().callEvent(event);
+            return;
+        }
+        if (plugin.getServer().isPrimaryThread()) {
+            // Keep order with events queued from other threads
+            drain();
+            plugin.getServer().getPluginManager().callEvent(event);
+            return;
+        }
+        pendingPost.offer(event);
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                plugin.getServer().getScheduler().runTask(plugin, this::drain);
+            } catch (RuntimeException e) {
+                // Plugin is disabling; flush() in onDisable delivers what is left
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Delivers queued post events. Must be called on the main thread.
+     */
+    public void flush() {
+        drain();
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        Event event;
+        while ((event = pendingPost.poll()) != null) {
+            try {
+                plugin.getServer().getPluginManager().callEvent(event);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("[EzEconomy] Failed to fire " + event.getEventName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean hasListeners(Event event) {
+        return event.getHandlers().getRegisteredListeners().length > 0;
+    }
+}
@@ -2,6 +2,7 @@ package com.skyblockexp.ezeconomy.core;
 
 import com.skyblockexp.ezeconomy.api.EzEconomyAPI;
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -16,12 +17,14 @@ import org.bukkit.OfflinePlayer;
 public class VaultEconomyImpl implements Economy {
     private static final String BANK_DOES_NOT_EXIST = "Bank does not exist";
     private static final String INSUFFICIENT_FUNDS = "Insufficient funds";
+    private static final String TRANSACTION_CANCELLED = "Transaction cancelled";
+    private static final String STORAGE_FAILED = "Storage error";
     private final EzEconomyPlugin plugin;
     private final EzEconomyAPI api;
 
     public VaultEconomyImpl(EzEconomyPlugin plugin) {
         this.plugin = plugin;
-        this.api = new EzEconomyAPI(plugin.getStorage());
+        this.api = plugin.getApi() != null ? plugin.getApi() : new EzEconomyAPI(plugin.getStorage());
     }
 
     // ----------------------------------------------------------------------
@@ -75,7 +78,7 @@ public class VaultEconomyImpl implements Economy {
 
     @Override
     public int fractionalDigits() {
-        return 2;
+        return plugin.getCurrencyManager().getDecimals(plugin.getDefaultCurrency());
     }
 
     @Override
@@ -144,11 +147,7 @@ public class VaultEconomyImpl implements Economy {
     }
 
     public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount, String currency) {
-        boolean success = api.withdraw(player.getUniqueId(), currency, amount);
-        double balance = api.getBalance(player.getUniqueId(), currency).getBalance();
-        return success
-                ? new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null)
-                : new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, INSUFFICIENT_FUNDS);
+        return toResponse(api.withdrawAndGet(player.getUniqueId(), currency, amount), amount);
     }
 
     @Override
@@ -163,11 +162,7 @@ public class VaultEconomyImpl implements Economy {
     }
 
     public EconomyResponse depositPlayer(OfflinePlayer player, double amount, String currency) {
-        boolean success = api.deposit(player.getUniqueId(), currency, amount);
-        double balance = api.getBalance(player.getUniqueId(), currency).getBalance();
-        return success
-                ? new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null)
-                : new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, "Deposit failed");
+        return toResponse(api.depositAndGet(player.getUniqueId(), currency, amount), amount);
     }
 
     // --- Bank methods ---
@@ -241,35 +236,12 @@ public class VaultEconomyImpl implements Economy {
 
     @Override
     public EconomyResponse bankWithdraw(String name, double amount) {
-        StorageProvider storage = getStorageProvider();
-        if (storage == null) {
-            return notSupported();
-        }
-        if (!storage.bankExists(name)) {
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, BANK_DOES_NOT_EXIST);
-        }
-        String currency = plugin.getDefaultCurrency();
-        boolean success = storage.tryWithdrawBank(name, currency, amount);
-        double balance = storage.getBankBalance(name, currency);
-        if (!success) {
-            return new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, INSUFFICIENT_FUNDS);
-        }
-        return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
+        return bankWithdraw(name, plugin.getDefaultCurrency(), amount);
     }
 
     @Override
     public EconomyResponse bankDeposit(String name, double amount) {
-        StorageProvider storage = getStorageProvider();
-        if (storage == null) {
-            return notSupported();
-        }
-        if (!storage.bankExists(name)) {
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, BANK_DOES_NOT_EXIST);
-        }
-        String currency = plugin.getDefaultCurrency();
-        storage.depositBank(name, currency, amount);
-        double balance = storage.getBankBalance(name, currency);
-        return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
+        return bankDeposit(name, plugin.getDefaultCurrency(), amount);
     }
 
     @Override
@@ -372,12 +344,7 @@ public class VaultEconomyImpl implements Economy {
         if (storage == null) {
             return notSupported();
         }
-        if (!storage.bankExists(name)) {
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, BANK_DOES_NOT_EXIST);
-        }
-        storage.depositBank(name, currency, amount);
-        double balance = storage.getBankBalance(name, currency);
-        return new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null);
+        return toResponse(storage.depositBankAndGet(name, currency, amount), amount);
     }
 
     public EconomyResponse bankWithdraw(String name, String currency, double amount) {
@@ -385,13 +352,24 @@ public class VaultEconomyImpl implements Economy {
         if (storage == null) {
             return notSupported();
         }
-        if (!storage.bankExists(name)) {
-            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, BANK_DOES_NOT_EXIST);
+        return toResponse(storage.withdrawBankAndGet(name, currency, amount), amount);
+    }
+
+    /**
+     * Converts a storage result into a Vault response without another balance lookup.
+     */
+    private static EconomyResponse toResponse(BalanceResult result, double amount) {
+        switch (result.getStatus()) {
+            case SUCCESS:
+                return new EconomyResponse(amount, result.getBalance(), EconomyResponse.ResponseType.SUCCESS, null);
+            case INSUFFICIENT_FUNDS:
+                return new EconomyResponse(0, result.getBalance(), EconomyResponse.ResponseType.FAILURE, INSUFFICIENT_FUNDS);
+            case CANCELLED:
+                return new EconomyResponse(0, result.getBalance(), EconomyResponse.ResponseType.FAILURE, TRANSACTION_CANCELLED);
+            case NOT_FOUND:
+                return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, BANK_DOES_NOT_EXIST);
+            default:
+                return new EconomyResponse(0, result.getBalance(), EconomyResponse.ResponseType.FAILURE, STORAGE_FAILED);
         }
-        boolean success = storage.tryWithdrawBank(name, currency, amount);
-        double balance = storage.getBankBalance(name, currency);
-        return success
-                ? new EconomyResponse(amount, balance, EconomyResponse.ResponseType.SUCCESS, null)
-                : new EconomyResponse(0, balance, EconomyResponse.ResponseType.FAILURE, INSUFFICIENT_FUNDS);
     }
 }
@@ -0,0 +1,20 @@
+package com.skyblockexp.ezeconomy.listener;
+
+import com.skyblockexp.ezeconomy.placeholder.BalanceSnapshotCache;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+public class PlaceholderSnapshotListener implements Listener {
+    private final BalanceSnapshotCache snapshots;
+
+    public PlaceholderSnapshotListener(BalanceSnapshotCache snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        snapshots.forgetPlayer(event.getPlayer().getUniqueId());
+    }
+}
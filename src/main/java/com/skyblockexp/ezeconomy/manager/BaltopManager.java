@@ -0,0 +1,190 @@
+package com.skyblockexp.ezeconomy.manager;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import com.skyblockexp.ezeconomy.core.MessageProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a periodically refreshed snapshot of the balance leaderboard for /baltop.
+ * <p>
+ * A snapshot copies the ranked players and their balances when it is taken and caches the
+ * formatted lines of every page the first time that page is shown, so repeated /baltop calls only
+ * read memory and every page comes from the same moment. Player names are resolved once and
+ * remembered across snapshots, including players whose name could not be resolved. All methods are meant to be called off the main
+ * thread; they never touch the world or player state.
+ * </p>
+ */
+public class BaltopManager {
+    public static final int PAGE_SIZE = 10;
+
+    private final EzEconomyPlugin plugin;
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    // Players without a known name; they are shown as unknown_player without asking Bukkit again
+    private final Set<UUID> unresolved = ConcurrentHashMap.newKeySet();
+    private final Object refreshLock = new Object();
+    private volatile Snapshot snapshot;
+    private int taskId = -1;
+
+    public BaltopManager(EzEconomyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start(long intervalTicks) {
+        stop();
+        if (intervalTicks <= 0) {
+            return;
+        }
+        taskId = plugin.getStorageExecutor().scheduleRepeating(plugin, this::refresh, 1L, intervalTicks).getTaskId();
+    }
+
+    public void stop() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+    }
+
+    /**
+     * Returns the current snapshot, building one first if none exists yet.
+     * @return Current snapshot, or null if storage is unavailable
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (refreshLock) {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Replaces the snapshot with a fresh one and prepares its first page.
+     */
+    public void refresh() {
+        StorageProvider storage = plugin.getStorageOrWarn();
+        if (storage == null) {
+            return;
+        }
+        synchronized (refreshLock) {
+            String currency = plugin.getDefaultCurrency();
+            Snapshot fresh = new Snapshot(currency, storage.getTopBalances(currency, 0, storage.getRankedCount(currency)));
+            fresh.getPage(1);
+            snapshot = fresh;
+        }
+    }
+
+    /**
+     * Drops the current snapshot so the next /baltop rebuilds it, e.g. after messages were reloaded.
+     * Names that could not be resolved before are looked up again.
+     */
+    public void invalidate() {
+        unresolved.clear();
+        snapshot = null;
+    }
+
+    private String resolveName(UUID uuid, MessageProvider messages) {
+        String name = names.get(uuid);
+        if (name != null) {
+            return name;
+        }
+        if (unresolved.contains(uuid)) {
+            return messages.get("unknown_player");
+        }
+        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+        name = player.getName();
+        if (name == null) {
+            if (unresolved.add(uuid)) {
+                plugin.getLogger().warning("[Baltop] Could not resolve player name for UUID: " + uuid);
+            }
+            return messages.get("unknown_player");
+        }
+        names.put(uuid, name);
+        return name;
+    }
+
+    /**
+     * Leaderboard view taken at one point in time. The ranked players and balances are copied when the
+     * snapshot is taken; page lines are built from that copy on first use and reused.
+     */
+    public final class Snapshot {
+        private final String currency;
+        private final UUID[] players;
+        private final double[] balances;
+        private final int totalEntries;
+        private final Map<Integer, List<String>> pages = new ConcurrentHashMap<>();
+
+        private Snapshot(String currency, List<Map.Entry<UUID, Double>> ranked) {
+            this.currency = currency;
+            this.totalEntries = ranked.size();
+            this.players = new UUID[totalEntries];
+            this.balances = new double[totalEntries];
+            for (int i = 0; i < totalEntries; i++) {
+                players[i] = ranked.get(i).getKey();
+                balances[i] = ranked.get(i).getValue();
+            }
+        }
+
+        public int getTotalEntries() {
+            return totalEntries;
+        }
+
+        public int getTotalPages() {
+            return Math.max(1, (totalEntries + PAGE_SIZE - 1) / PAGE_SIZE);
+        }
+
+        /**
+         * Returns the formatted rank lines of a 1-based page, or an empty list if the page is out of range.
+         */
+        public List<String> getPage(int page) {
+            if (page <= 0 || page > getTotalPages()) {
+                return Collections.emptyList();
+            }
+            return pages.computeIfAbsent(page, this::buildPage);
+        }
+
+        /**
+         * Returns the formatted rank lines of the first {@code top} players, or of every player if {@code top <= 0}.
+         */
+        public List<String> getTop(int top) {
+            int count = top > 0 ? Math.min(top, totalEntries) : totalEntries;
+            List<String> lines = new ArrayList<>(count);
+            for (int page = 1; lines.size() < count && page <= getTotalPages(); page++) {
+                List<String> pageLines = getPage(page);
+                if (pageLines.isEmpty()) {
+                    break;
+                }
+                lines.addAll(pageLines.subList(0, Math.min(pageLines.size(), count - lines.size())));
+            }
+            return lines;
+        }
+
+        private List<String> buildPage(int page) {
+            MessageProvider messages = plugin.getMessageProvider();
+            int startIndex = (page - 1) * PAGE_SIZE;
+            int endIndex = Math.min(totalEntries, startIndex + PAGE_SIZE);
+            List<String> lines = new ArrayList<>(Math.max(0, endIndex - startIndex));
+            for (int i = startIndex; i < endIndex; i++) {
+                lines.add(messages.get("rank_balance", Map.of(
+                    "rank", String.valueOf(i + 1),
+                    "player", resolveName(players[i], messages),
+                    "balance", plugin.format(balances[i], currency)
+                )));
+            }
+            return Collections.unmodifiableList(lines);
+        }
+    }
+}
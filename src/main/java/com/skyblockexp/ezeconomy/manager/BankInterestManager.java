@@ -4,6 +4,7 @@ import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.scheduler.BukkitRunnable;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -51,30 +52,26 @@ public class BankInterestManager {
         if (storage == null) {
             return;
         }
-        org.bukkit.configuration.file.FileConfiguration config = plugin.getConfig();
-        boolean multiEnabled = config.getBoolean("multi-currency.enabled", false);
-        Set<String> currencies;
-        if (multiEnabled) {
-            var section = config.getConfigurationSection("multi-currency.currencies");
-            currencies = section != null ? section.getKeys(false) : java.util.Collections.singleton("dollar");
-        } else {
-            currencies = java.util.Collections.singleton("dollar");
-        }
+        Set<String> currencies = plugin.getCurrencyManager().getEnabledCurrencies();
         for (String currency : currencies) {
             for (String bank : storage.getBanks()) {
                 double bankBalance = storage.getBankBalance(bank, currency);
                 Set<UUID> members = storage.getBankMembers(bank);
                 if (members == null || members.isEmpty()) continue;
                 double grossInterest = calculateInterest(bankBalance);
-                double perMemberInterest = grossInterest / members.size();
+                double perMemberInterest = com.skyblockexp.ezeconomy.api.storage.models.Money.round(
+                        grossInterest / members.size(), plugin.getCurrencyManager().getDecimals(currency));
+                if (perMemberInterest <= 0) continue;
+                // One batch per bank instead of a read and a write per member
+                Map<UUID, Double> payouts = new HashMap<>();
+                for (UUID uuid : members) {
+                    payouts.put(uuid, perMemberInterest);
+                }
+                storage.depositAll(payouts, currency);
                 for (UUID uuid : members) {
                     OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
-                    if (perMemberInterest > 0) {
-                        // If storage.setBalance is not thread-safe, synchronize here or in the provider.
-                        storage.setBalance(uuid, currency, storage.getBalance(uuid, currency) + perMemberInterest);
-                        if (player.isOnline()) {
-                            player.getPlayer().sendMessage("You received " + plugin.getEconomy().format(perMemberInterest) + " " + currency + " interest from bank '" + bank + "'");
-                        }
+                    if (player.isOnline()) {
+                        player.getPlayer().sendMessage("You received " + plugin.format(perMemberInterest, currency) + " interest from bank '" + bank + "'");
                     }
                 }
             }
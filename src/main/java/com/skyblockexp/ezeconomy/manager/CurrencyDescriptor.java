@@ -0,0 +1,64 @@
+package com.skyblockexp.ezeconomy.manager;
+
+import com.skyblockexp.ezeconomy.util.CurrencyFormatter;
+
+/**
+ * Settings of one currency, read from {@code multi-currency.currencies.<id>} when the config is loaded.
+ * Instances are immutable and shared; get them from {@link CurrencyManager#get(String)}.
+ */
+public final class CurrencyDescriptor {
+    /** Index of currencies that are not in the config. */
+    public static final int UNREGISTERED = -1;
+
+    private final String id;
+    private final int index;
+    private final String displayName;
+    private final String symbol;
+    private final boolean symbolConfigured;
+    private final CurrencyFormatter formatter;
+
+    CurrencyDescriptor(String id, int index, String displayName, String symbol, boolean symbolConfigured, int decimals, boolean grouping) {
+        this.id = id;
+        this.index = index;
+        this.displayName = displayName;
+        this.symbol = symbol;
+        this.symbolConfigured = symbolConfigured;
+        this.formatter = new CurrencyFormatter(symbol, decimals, grouping);
+    }
+
+    /**
+     * Currency id as used in storage and commands, e.g. {@code dollar}.
+     */
+    public String getId() { return id; }
+
+    /**
+     * Position of the currency in the config (0, 1, 2, ...), or {@link #UNREGISTERED}.
+     */
+    public int getIndex() { return index; }
+
+    public boolean isRegistered() { return index != UNREGISTERED; }
+
+    /**
+     * Configured {@code display} name, or the id if none is set.
+     */
+    public String getDisplayName() { return displayName; }
+
+    /**
+     * Symbol written before amounts: the configured {@code symbol}, {@code $} for the dollar, or empty.
+     */
+    public String getSymbol() { return symbol; }
+
+    /**
+     * Whether {@code symbol} is set in the config.
+     */
+    public boolean isSymbolConfigured() { return symbolConfigured; }
+
+    public int getDecimals() { return formatter.getDecimals(); }
+
+    public CurrencyFormatter getFormatter() { return formatter; }
+
+    @Override
+    public String toString() {
+        return "CurrencyDescriptor{" + id + ", index=" + index + ", decimals=" + getDecimals() + '}';
+    }
+}
@@ -1,15 +1,321 @@
 package com.skyblockexp.ezeconomy.manager;
 
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import com.skyblockexp.ezeconomy.util.CurrencyFormatter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the currencies in the {@code multi-currency} config section.
+ * <p>
+ * The section is read once into an immutable snapshot of {@link CurrencyDescriptor}s, indexed by id and
+ * by position. {@link #reload()} builds a new snapshot and swaps it in, so lookups are a single map
+ * access and never walk the config. Currencies that are not configured (e.g. balances left over from a
+ * removed currency) get a descriptor with default settings.
+ * </p>
+ * <p>
+ * The {@code multi-currency.conversion} rates are read into a dense matrix indexed by
+ * {@link CurrencyDescriptor#getIndex()}, so a conversion is two array reads and a multiplication.
+ * </p>
+ */
 public class CurrencyManager {
+    private static final String DEFAULT_CURRENCY = "dollar";
+    // Descriptors made up for ids that are not configured; past this many they are no longer kept
+    private static final int MAX_UNREGISTERED = 256;
+
     private final EzEconomyPlugin plugin;
+    private volatile Registry registry;
+
     public CurrencyManager(EzEconomyPlugin plugin) {
         this.plugin = plugin;
+        this.registry = Registry.load(plugin.getConfig(), plugin.getLogger());
     }
+
+    /**
+     * Registry read from a config without a plugin, for tests. {@link #reload()} is not supported.
+     */
+    CurrencyManager(FileConfiguration config, Logger logger) {
+        this.plugin = null;
+        this.registry = Registry.load(config, logger);
+    }
+
     public String getDefaultCurrency() {
-        var config = plugin.getConfig();
-        boolean multiEnabled = config.getBoolean("multi-currency.enabled", false);
-        return multiEnabled ? config.getString("multi-currency.default", "dollar") : "dollar";
+        return registry.defaultCurrency.getId();
+    }
+
+    public CurrencyDescriptor getDefault() {
+        return registry.defaultCurrency;
+    }
+
+    /**
+     * Settings of a currency. Ids that are not configured get default settings.
+     */
+    public CurrencyDescriptor get(String currency) {
+        return registry.get(currency);
+    }
+
+    /**
+     * Currency at a position of the config, or null if there is none.
+     */
+    public CurrencyDescriptor get(int index) {
+        CurrencyDescriptor[] byIndex = registry.byIndex;
+        return index >= 0 && index < byIndex.length ? byIndex[index] : null;
+    }
+
+    /**
+     * Whether the currency is configured under {@code multi-currency.currencies}.
+     */
+    public boolean isRegistered(String currency) {
+        return currency != null && registry.byId.containsKey(currency);
+    }
+
+    public boolean isMultiCurrency() {
+        return registry.multiCurrency;
+    }
+
+    /**
+     * Ids of the configured currencies, in config order.
+     */
+    public Set<String> getCurrencies() {
+        return registry.byId.keySet();
+    }
+
+    /**
+     * Currencies in use: the configured ones with multi-currency enabled, otherwise only the default.
+     */
+    public Set<String> getEnabledCurrencies() {
+        return registry.enabled;
+    }
+
+    /**
+     * Number of decimals configured for a currency ({@code multi-currency.currencies.<name>.decimals}),
+     * limited to {@link Money#MAX_DECIMALS}. Balances of the currency are kept exact to this many places.
+     */
+    public int getDecimals(String currency) {
+        return registry.get(currency).getDecimals();
+    }
+
+    /**
+     * Rounds an amount to the currency's decimals.
+     */
+    public Money toMoney(String currency, double amount) {
+        return Money.of(amount, getDecimals(currency));
+    }
+
+    /**
+     * Formatter for a currency, built from its {@code symbol}, {@code decimals} and {@code grouping}
+     * settings. The dollar defaults to {@code $}; other currencies without a symbol get none.
+     */
+    public CurrencyFormatter getFormatter(String currency) {
+        return registry.get(currency).getFormatter();
+    }
+
+    /**
+     * Formats an amount of a currency, e.g. {@code $1,234.50}.
+     */
+    public String format(String currency, double amount) {
+        return getFormatter(currency).format(amount);
+    }
+
+    /**
+     * Formats an amount of a currency in compact notation, e.g. {@code $1.2k}.
+     */
+    public String formatCompact(String currency, double amount) {
+        return getFormatter(currency).formatCompact(amount);
+    }
+
+    /**
+     * Exchange rate from one currency to another ({@code multi-currency.conversion.<from>.<to>}), or
+     * {@code NaN} if none is configured. A currency converts to itself at 1.
+     */
+    public double getRate(String from, String to) {
+        Registry current = registry;
+        return current.rate(current.get(from), current.get(to));
+    }
+
+    /**
+     * Exchange rate between two descriptors, or {@code NaN} if none is configured.
+     */
+    public double getRate(CurrencyDescriptor from, CurrencyDescriptor to) {
+        return registry.rate(from, to);
+    }
+
+    public boolean canConvert(String from, String to) {
+        return !Double.isNaN(getRate(from, to));
+    }
+
+    /**
+     * Converts an amount at the configured rate, rounded down to the target currency's decimals.
+     * @throws IllegalArgumentException if there is no rate between the currencies
+     */
+    public double convert(String from, String to, double amount) {
+        Registry current = registry;
+        CurrencyDescriptor target = current.get(to);
+        return Money.truncate(amount * current.requireRate(current.get(from), target), target.getDecimals());
+    }
+
+    /**
+     * Converts many amounts between the same two currencies, looking the rate up once.
+     * @return New array with the converted amounts, in the same order
+     * @throws IllegalArgumentException if there is no rate between the currencies
+     */
+    public double[] convertAll(String from, String to, double[] amounts) {
+        Registry current = registry;
+        CurrencyDescriptor target = current.get(to);
+        double rate = current.requireRate(current.get(from), target);
+        int decimals = target.getDecimals();
+        double[] converted = new double[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            converted[i] = Money.truncate(amounts[i] * rate, decimals);
+        }
+        return converted;
+    }
+
+    /**
+     * Re-reads the currencies after the config was reloaded.
+     */
+    public void reload() {
+        registry = Registry.load(plugin.getConfig(), plugin.getLogger());
+    }
+
+    private static final class Registry {
+        private final boolean multiCurrency;
+        private final Map<String, CurrencyDescriptor> byId;
+        private final CurrencyDescriptor[] byIndex;
+        private final CurrencyDescriptor defaultCurrency;
+        private final Set<String> enabled;
+        // rates[from * byIndex.length + to]; NaN where no rate is configured
+        private final double[] rates;
+        private final Map<String, CurrencyDescriptor> unregistered = new ConcurrentHashMap<>();
+
+        private Registry(boolean multiCurrency, Map<String, CurrencyDescriptor> byId, String defaultId, double[] rates) {
+            this.multiCurrency = multiCurrency;
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byIndex = byId.values().toArray(new CurrencyDescriptor[0]);
+            this.rates = rates;
+            this.defaultCurrency = get(defaultId);
+            this.enabled = multiCurrency && !byId.isEmpty()
+                    ? this.byId.keySet()
+                    : Collections.singleton(defaultCurrency.getId());
+        }
+
+        private static Registry load(FileConfiguration config, Logger logger) {
+            boolean multiCurrency = config.getBoolean("multi-currency.enabled", false);
+            Map<String, CurrencyDescriptor> byId = new LinkedHashMap<>();
+            ConfigurationSection currencies = config.getConfigurationSection("multi-currency.currencies");
+            if (currencies != null) {
+                for (String id : currencies.getKeys(false)) {
+                    byId.put(id, descriptor(id, byId.size(), currencies.getConfigurationSection(id)));
+                }
+            }
+            String defaultId = multiCurrency ? config.getString("multi-currency.default", DEFAULT_CURRENCY) : DEFAULT_CURRENCY;
+            return new Registry(multiCurrency, byId, defaultId, loadRates(config, byId, logger));
+        }
+
+        private static double[] loadRates(FileConfiguration config, Map<String, CurrencyDescriptor> byId, Logger logger) {
+            int size = byId.size();
+            double[] rates = new double[size * size];
+            Arrays.fill(rates, Double.NaN);
+            for (int i = 0; i < size; i++) {
+                rates[i * size + i] = 1.0;
+            }
+            ConfigurationSection conversion = config.getConfigurationSection("multi-currency.conversion");
+            if (conversion == null) {
+                return rates;
+            }
+            for (String from : conversion.getKeys(false)) {
+                ConfigurationSection targets = conversion.getConfigurationSection(from);
+                CurrencyDescriptor source = byId.get(from);
+                if (targets == null || source == null) {
+                    logger.warning("[EzEconomy] Ignoring conversion rates from unknown currency '" + from + "'.");
+                    continue;
+                }
+                for (String to : targets.getKeys(false)) {
+                    CurrencyDescriptor target = byId.get(to);
+                    double rate = targets.getDouble(to, Double.NaN);
+                    if (target == null || !(rate > 0) || Double.isInfinite(rate)) {
+                        logger.warning("[EzEconomy] Ignoring invalid conversion rate " + from + " -> " + to + ".");
+                        continue;
+                    }
+                    if (source != target) {
+                        rates[source.getIndex() * size + target.getIndex()] = rate;
+                    }
+                }
+            }
+            return rates;
+        }
+
+        private double rate(CurrencyDescriptor from, CurrencyDescriptor to) {
+            if (from.getId().equals(to.getId())) {
+                return 1.0;
+            }
+            int source = indexOf(from);
+            int target = indexOf(to);
+            if (source == CurrencyDescriptor.UNREGISTERED || target == CurrencyDescriptor.UNREGISTERED) {
+                return Double.NaN;
+            }
+            return rates[source * byIndex.length + target];
+        }
+
+        /**
+         * Index of a descriptor in this registry; descriptors kept from before a reload are looked up by id.
+         */
+        private int indexOf(CurrencyDescriptor descriptor) {
+            int index = descriptor.getIndex();
+            if (index >= 0 && index < byIndex.length && byIndex[index] == descriptor) {
+                return index;
+            }
+            CurrencyDescriptor current = byId.get(descriptor.getId());
+            return current != null ? current.getIndex() : CurrencyDescriptor.UNREGISTERED;
+        }
+
+        private double requireRate(CurrencyDescriptor from, CurrencyDescriptor to) {
+            double rate = rate(from, to);
+            if (Double.isNaN(rate)) {
+                throw new IllegalArgumentException("No conversion rate from " + from.getId() + " to " + to.getId());
+            }
+            return rate;
+        }
+
+        private static CurrencyDescriptor descriptor(String id, int index, ConfigurationSection section) {
+            String display = section != null ? section.getString("display") : null;
+            String symbol = section != null ? section.getString("symbol") : null;
+            int decimals = section != null ? section.getInt("decimals", Money.DEFAULT_DECIMALS) : Money.DEFAULT_DECIMALS;
+            boolean grouping = section == null || section.getBoolean("grouping", true);
+            return new CurrencyDescriptor(id, index,
+                    display == null || display.isEmpty() ? id : display,
+                    symbol != null ? symbol : DEFAULT_CURRENCY.equals(id) ? "$" : "",
+                    symbol != null,
+                    Money.clampDecimals(decimals),
+                    grouping);
+        }
+
+        private CurrencyDescriptor get(String id) {
+            CurrencyDescriptor descriptor = byId.get(id);
+            if (descriptor != null) {
+                return descriptor;
+            }
+            descriptor = unregistered.get(id);
+            if (descriptor != null) {
+                return descriptor;
+            }
+            descriptor = descriptor(id, CurrencyDescriptor.UNREGISTERED, null);
+            if (unregistered.size() < MAX_UNREGISTERED) {
+                CurrencyDescriptor existing = unregistered.putIfAbsent(id, descriptor);
+                if (existing != null) {
+                    descriptor = existing;
+                }
+            }
+            return descriptor;
+        }
     }
-}
\ No newline at end of file
+}
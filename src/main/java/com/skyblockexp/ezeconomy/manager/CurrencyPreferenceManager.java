@@ -78,8 +78,6 @@ public class CurrencyPreferenceManager {
     }
 
     private String getDefaultCurrency() {
-        var config = plugin.getConfig();
-        boolean multiEnabled = config.getBoolean("multi-currency.enabled", false);
-        return multiEnabled ? config.getString("multi-currency.default", "dollar") : "dollar";
+        return plugin.getDefaultCurrency();
     }
 }
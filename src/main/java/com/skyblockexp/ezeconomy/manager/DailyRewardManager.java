@@ -7,7 +7,6 @@ import java.util.Locale;
 import java.util.UUID;
 import java.util.Map;
 import org.bukkit.Sound;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
 public class DailyRewardManager {
@@ -94,42 +93,31 @@ public class DailyRewardManager {
                 || configuredCurrency.equalsIgnoreCase("default")) {
             return fallback;
         }
-        boolean multiEnabled = plugin.getConfig().getBoolean("multi-currency.enabled", false);
-        if (!multiEnabled) {
+        CurrencyManager currencies = plugin.getCurrencyManager();
+        if (!currencies.isMultiCurrency()) {
             debug("Multi-currency disabled; using default currency.");
             return fallback;
         }
         String trimmed = configuredCurrency.trim();
-        if (currencyExists(trimmed)) {
+        if (currencies.isRegistered(trimmed)) {
             return trimmed;
         }
         String lowered = trimmed.toLowerCase(Locale.ROOT);
-        if (currencyExists(lowered)) {
+        if (currencies.isRegistered(lowered)) {
             return lowered;
         }
         debug("Configured currency '" + configuredCurrency + "' not found; using default.");
         return fallback;
     }
 
-    private boolean currencyExists(String currency) {
-        ConfigurationSection section = plugin.getConfig()
-                .getConfigurationSection("multi-currency.currencies." + currency);
-        return section != null;
-    }
-
     private String resolveCurrencyDisplay(String currency) {
-        boolean multiEnabled = plugin.getConfig().getBoolean("multi-currency.enabled", false);
-        if (!multiEnabled) {
-            return currency;
-        }
-        String display = plugin.getConfig()
-                .getString("multi-currency.currencies." + currency + ".display");
-        return (display == null || display.isEmpty()) ? currency : display;
+        CurrencyManager currencies = plugin.getCurrencyManager();
+        return currencies.isMultiCurrency() ? currencies.get(currency).getDisplayName() : currency;
     }
 
     private void sendMessage(Player player, double amount, String currency) {
         String messageKey = plugin.getConfig().getString("daily-reward.message-key", "daily_reward_success");
-        String formattedAmount = plugin.getEconomy().format(amount);
+        String formattedAmount = plugin.format(amount, currency);
         String displayCurrency = resolveCurrencyDisplay(currency);
         player.sendMessage(plugin.getMessageProvider().get(messageKey, Map.of("amount", formattedAmount, "currency", displayCurrency)));
     }
@@ -0,0 +1,285 @@
+package com.skyblockexp.ezeconomy.manager;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps transaction history bounded by pruning entries older than a per-currency retention period.
+ * <p>
+ * Each currency has a watermark: everything before it has already been processed. When the retention
+ * cutoff (start of the UTC day {@code keep-days} ago) moves past the watermark, the window between
+ * the two is processed a few accounts per run on an async task. For every account the raw entries in
+ * the window are appended to a gzip-compressed CSV archive and then replaced in storage by one rollup
+ * entry per day, or removed entirely when rollups are disabled. The watermark is saved once the whole
+ * window is done, so a restart resumes with the same window; redoing an account is harmless because
+ * its rollups aggregate to themselves, so it is neither rewritten nor archived again.
+ * </p>
+ * <p>
+ * Accounts are taken from the balances of the currency, so history of players without a balance
+ * entry is left alone.
+ * </p>
+ */
+public class TransactionRetentionManager {
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final DateTimeFormatter ARCHIVE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final EzEconomyPlugin plugin;
+    private final File stateFile;
+    private final Object runLock = new Object();
+    private Window window;
+    private boolean unsupported;
+    private int taskId = -1;
+
+    public TransactionRetentionManager(EzEconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.stateFile = new File(plugin.getDataFolder(), "transaction-retention.yml");
+    }
+
+    public void start(long intervalTicks) {
+        stop();
+        if (intervalTicks <= 0) {
+            return;
+        }
+        taskId = plugin.getStorageExecutor().scheduleRepeating(plugin, this::runOnce, intervalTicks, intervalTicks).getTaskId();
+    }
+
+    public void stop() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        synchronized (runLock) {
+            if (window != null) {
+                window.closeArchive();
+                window = null;
+            }
+        }
+    }
+
+    /**
+     * Processes up to {@code accounts-per-run} accounts of the current window, starting the next
+     * pending window if none is in progress.
+     */
+    public void runOnce() {
+        synchronized (runLock) {
+            StorageProvider storage = plugin.getStorageOrWarn();
+            if (storage == null || unsupported) {
+                return;
+            }
+            if (window == null) {
+                window = nextWindow(storage);
+                if (window == null) {
+                    return;
+                }
+            }
+            int budget = Math.max(1, plugin.getConfig().getInt("transaction-retention.accounts-per-run", 100));
+            try {
+                while (budget-- > 0 && window.accounts.hasNext()) {
+                    if (!process(storage, window, window.accounts.next())) {
+                        // Storage cannot prune; leave the watermark untouched
+                        window.closeArchive();
+                        window = null;
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("[EzEconomy] Transaction retention failed for " + window.currency + ": " + e.getMessage());
+                window.closeArchive();
+                window = null;
+                return;
+            }
+            if (!window.accounts.hasNext()) {
+                window.closeArchive();
+                saveWatermark(window.currency, window.to);
+                if (window.pruned > 0) {
+                    plugin.getLogger().info("Retention pruned " + window.pruned + " " + window.currency
+                            + " transactions into " + window.rollups + " daily rollups.");
+                }
+                window = null;
+            }
+        }
+    }
+
+    private Window nextWindow(StorageProvider storage) {
+        long now = System.currentTimeMillis();
+        YamlConfiguration state = YamlConfiguration.loadConfiguration(stateFile);
+        for (String currency : currencies()) {
+            Policy policy = policy(currency);
+            if (policy.keepDays <= 0) continue;
+            long cutoff = Math.floorDiv(now - policy.keepDays * DAY_MILLIS, DAY_MILLIS) * DAY_MILLIS;
+            long watermark = state.getLong("processed-until." + currency, Long.MIN_VALUE);
+            if (watermark >= cutoff) continue;
+            List<UUID> accounts = new ArrayList<>(storage.getAllBalances(currency).keySet());
+            return new Window(currency, policy, watermark, cutoff, accounts.iterator());
+        }
+        return null;
+    }
+
+    /**
+     * Archives and replaces one account's entries in the window.
+     * @return false if the storage provider does not support pruning
+     */
+    private boolean process(StorageProvider storage, Window window, UUID uuid) throws IOException {
+        Map<Long, Double> days = new TreeMap<>();
+        // Archive rows are held back until it is known that the account is replaced
+        StringBuilder rows = window.policy.archive ? new StringBuilder() : null;
+        int count = 0;
+        Iterator<Transaction> entries = storage.iterateTransactions(uuid, window.currency, window.from, window.to);
+        while (entries.hasNext()) {
+            Transaction transaction = entries.next();
+            count++;
+            if (rows != null) {
+                rows.append(transaction.getUuid()).append(',').append(transaction.getCurrency()).append(',')
+                        .append(transaction.getAmount()).append(',').append(transaction.getTimestamp()).append('\n');
+            }
+            days.merge(Math.floorDiv(transaction.getTimestamp(), DAY_MILLIS) * DAY_MILLIS, transaction.getAmount(), Double::sum);
+        }
+        if (count == 0) {
+            return true;
+        }
+        List<Transaction> replacement = new ArrayList<>();
+        if (window.policy.rollup) {
+            for (Map.Entry<Long, Double> day : days.entrySet()) {
+                replacement.add(new Transaction(uuid, window.currency, day.getValue(), day.getKey()));
+            }
+            if (replacement.size() == count) {
+                // Already one entry per day
+                return true;
+            }
+        }
+        if (rows != null) {
+            // The archived rows must be on disk before storage forgets them
+            Writer archive = window.archive();
+            archive.append(rows);
+            archive.flush();
+        }
+        if (!storage.replaceTransactions(uuid, window.currency, window.from, window.to, replacement)) {
+            plugin.getLogger().warning("[EzEconomy] Storage provider does not support transaction retention; history is not pruned.");
+            unsupported = true;
+            return false;
+        }
+        window.pruned += count;
+        window.rollups += replacement.size();
+        return true;
+    }
+
+    private Set<String> currencies() {
+        return plugin.getCurrencyManager().getEnabledCurrencies();
+    }
+
+    private Policy policy(String currency) {
+        FileConfiguration config = plugin.getConfig();
+        ConfigurationSection defaults = config.getConfigurationSection("transaction-retention.default");
+        ConfigurationSection override = config.getConfigurationSection("transaction-retention.currencies." + currency);
+        int keepDays = defaults != null ? defaults.getInt("keep-days", 30) : 30;
+        boolean rollup = defaults == null || defaults.getBoolean("rollup", true);
+        boolean archive = defaults == null || defaults.getBoolean("archive", true);
+        if (override != null) {
+            keepDays = override.getInt("keep-days", keepDays);
+            rollup = override.getBoolean("rollup", rollup);
+            archive = override.getBoolean("archive", archive);
+        }
+        return new Policy(keepDays, rollup, archive);
+    }
+
+    private void saveWatermark(String currency, long processedUntil) {
+        YamlConfiguration state = YamlConfiguration.loadConfiguration(stateFile);
+        state.set("processed-until." + currency, processedUntil);
+        try {
+            state.save(stateFile);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Failed to save " + stateFile.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private File archiveFolder() {
+        String folder = plugin.getConfig().getString("transaction-retention.archive-folder", "transaction-archive");
+        return new File(plugin.getDataFolder(), folder);
+    }
+
+    private static final class Policy {
+        private final int keepDays;
+        private final boolean rollup;
+        private final boolean archive;
+
+        private Policy(int keepDays, boolean rollup, boolean archive) {
+            this.keepDays = keepDays;
+            this.rollup = rollup;
+            this.archive = archive;
+        }
+    }
+
+    /**
+     * One currency's pending range {@code [from, to)} and the accounts still to process.
+     */
+    private final class Window {
+        private final String currency;
+        private final Policy policy;
+        private final long from;
+        private final long to;
+        private final Iterator<UUID> accounts;
+        private Writer archive;
+        private long pruned;
+        private long rollups;
+
+        private Window(String currency, Policy policy, long from, long to, Iterator<UUID> accounts) {
+            this.currency = currency;
+            this.policy = policy;
+            this.from = from;
+            this.to = to;
+            this.accounts = accounts;
+        }
+
+        /**
+         * Opens the archive segment for this window on first use. A resumed window gets a new segment
+         * rather than appending to a possibly truncated one.
+         */
+        private Writer archive() throws IOException {
+            if (archive == null) {
+                File folder = new File(archiveFolder(), currency);
+                folder.mkdirs();
+                String start = from == Long.MIN_VALUE ? "start" : ARCHIVE_DATE.format(Instant.ofEpochMilli(from));
+                String name = "transactions-" + start + "-" + ARCHIVE_DATE.format(Instant.ofEpochMilli(to))
+                        + "-" + System.currentTimeMillis() + ".csv.gz";
+                archive = new BufferedWriter(new OutputStreamWriter(
+                        new GZIPOutputStream(new FileOutputStream(new File(folder, name)), 1 << 16, true), StandardCharsets.UTF_8));
+                archive.write("uuid,currency,amount,timestamp\n");
+            }
+            return archive;
+        }
+
+        private void closeArchive() {
+            if (archive == null) return;
+            try {
+                archive.close();
+            } catch (IOException e) {
+                plugin.getLogger().severe("[EzEconomy] Failed to close transaction archive for " + currency + ": " + e.getMessage());
+            }
+            archive = null;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.skyblockexp.ezeconomy.placeholder;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import com.skyblockexp.ezeconomy.storage.BalanceChangeListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Formatted balances for the balance and bank placeholders, kept in memory per player and currency.
+ * <p>
+ * The first request for a balance reads it from storage; after that requests are answered from the
+ * snapshot. Balance changes reported by {@link com.skyblockexp.ezeconomy.storage.NotifyingStorageProvider}
+ * and snapshots older than the staleness limit trigger a re-read on the storage executor, and the old
+ * value is served until it completes. A player's snapshots are dropped when they leave.
+ * </p>
+ */
+public class BalanceSnapshotCache implements BalanceChangeListener {
+    private final EzEconomyPlugin plugin;
+    private final long maxStalenessNanos;
+    private final Map<UUID, Map<String, Snapshot<BalanceSnapshot>>> players = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Snapshot<BalanceSnapshot>>> banks = new ConcurrentHashMap<>();
+    private final Map<String, Snapshot<Set<UUID>>> bankMembers = new ConcurrentHashMap<>();
+
+    /**
+     * @param plugin EzEconomy plugin instance
+     * @param maxStalenessTicks How old (in ticks) a snapshot may get before it is re-read from storage
+     */
+    public BalanceSnapshotCache(EzEconomyPlugin plugin, long maxStalenessTicks) {
+        this.plugin = plugin;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, maxStalenessTicks) * 50L);
+    }
+
+    /**
+     * Returns a player's balance in a currency. Only call this for online players; offline players'
+     * snapshots are never dropped.
+     */
+    public BalanceSnapshot getBalance(UUID uuid, String currency) {
+        Map<String, Snapshot<BalanceSnapshot>> balances = players.get(uuid);
+        if (balances == null) {
+            balances = players.computeIfAbsent(uuid, u -> new ConcurrentHashMap<>());
+        }
+        Snapshot<BalanceSnapshot> snapshot = balances.get(currency);
+        if (snapshot == null) {
+            snapshot = balances.computeIfAbsent(currency, c -> new Snapshot<>(() -> {
+                double balance = storage().getBalance(uuid, c);
+                return new BalanceSnapshot(balance, plugin.format(balance, c), c);
+            }));
+        }
+        return snapshot.get(plugin.getStorageExecutor(), maxStalenessNanos);
+    }
+
+    /**
+     * Returns a bank's balance in a currency.
+     */
+    public BalanceSnapshot getBankBalance(String bank, String currency) {
+        Map<String, Snapshot<BalanceSnapshot>> balances = banks.get(bank);
+        if (balances == null) {
+            balances = banks.computeIfAbsent(bank, b -> new ConcurrentHashMap<>());
+        }
+        Snapshot<BalanceSnapshot> snapshot = balances.get(currency);
+        if (snapshot == null) {
+            snapshot = balances.computeIfAbsent(currency, c -> new Snapshot<>(() -> {
+                double balance = storage().getBankBalance(bank, c);
+                return new BalanceSnapshot(balance, plugin.format(balance, c), c);
+            }));
+        }
+        return snapshot.get(plugin.getStorageExecutor(), maxStalenessNanos);
+    }
+
+    /**
+     * Returns whether a player is a member of a bank.
+     */
+    public boolean isBankMember(String bank, UUID uuid) {
+        Snapshot<Set<UUID>> snapshot = bankMembers.get(bank);
+        if (snapshot == null) {
+            snapshot = bankMembers.computeIfAbsent(bank,
+                    b -> new Snapshot<>(() -> Collections.unmodifiableSet(storage().getBankMembers(b))));
+        }
+        return snapshot.get(plugin.getStorageExecutor(), maxStalenessNanos).contains(uuid);
+    }
+
+    /**
+     * Drops a player's snapshots, e.g. when they leave the server.
+     */
+    public void forgetPlayer(UUID uuid) {
+        players.remove(uuid);
+    }
+
+    /**
+     * Drops every snapshot, e.g. after a reload changed how amounts are formatted.
+     */
+    public void clear() {
+        players.clear();
+        banks.clear();
+        bankMembers.clear();
+    }
+
+    @Override
+    public void balanceChanged(UUID uuid, String currency) {
+        Map<String, Snapshot<BalanceSnapshot>> balances = players.get(uuid);
+        Snapshot<BalanceSnapshot> snapshot = balances == null ? null : balances.get(currency);
+        if (snapshot != null) {
+            snapshot.invalidate(plugin.getStorageExecutor());
+        }
+    }
+
+    @Override
+    public void bankBalanceChanged(String bank, String currency) {
+        Map<String, Snapshot<BalanceSnapshot>> balances = banks.get(bank);
+        Snapshot<BalanceSnapshot> snapshot = balances == null ? null : balances.get(currency);
+        if (snapshot != null) {
+            snapshot.invalidate(plugin.getStorageExecutor());
+        }
+    }
+
+    @Override
+    public void bankChanged(String bank) {
+        Snapshot<Set<UUID>> members = bankMembers.get(bank);
+        if (members != null) {
+            members.invalidate(plugin.getStorageExecutor());
+        }
+        Map<String, Snapshot<BalanceSnapshot>> balances = banks.get(bank);
+        if (balances != null) {
+            for (Snapshot<BalanceSnapshot> snapshot : balances.values()) {
+                snapshot.invalidate(plugin.getStorageExecutor());
+            }
+        }
+    }
+
+    @Override
+    public void allChanged() {
+        // Re-read lazily on the next request instead of queueing a read for every cached balance
+        clear();
+    }
+
+    private StorageProvider storage() {
+        StorageProvider storage = plugin.getStorageOrWarn();
+        if (storage == null) {
+            throw new IllegalStateException("Storage is not available");
+        }
+        return storage;
+    }
+
+    /**
+     * A balance and its formatted forms.
+     */
+    public static final class BalanceSnapshot {
+        private final double balance;
+        private final String formatted;
+        private final String currency;
+        private volatile String compact;
+
+        BalanceSnapshot(double balance, String formatted, String currency) {
+            this.balance = balance;
+            this.formatted = formatted;
+            this.currency = currency;
+        }
+
+        public double getBalance() {
+            return balance;
+        }
+
+        public String getFormatted() {
+            return formatted;
+        }
+
+        /**
+         * Compact form, e.g. {@code $1.2k}, formatted on first use.
+         */
+        public String getCompact(EzEconomyPlugin plugin) {
+            String value = compact;
+            if (value == null) {
+                value = plugin.formatCompact(balance, currency);
+                compact = value;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * One cached value. Every invalidation bumps the version; a read only replaces the value if it
+     * started at a version at least as new as the value's, and a refresh keeps reading until the value
+     * has caught up with the version, so a change that races a read is never lost.
+     */
+    private static final class Snapshot<V> {
+        private final Supplier<V> loader;
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long loadedVersion = -1L;
+        private volatile long loadedAt;
+        private volatile V value;
+
+        private Snapshot(Supplier<V> loader) {
+            this.loader = loader;
+        }
+
+        private V get(Executor executor, long maxStalenessNanos) {
+            if (loadedVersion < 0L) {
+                // Nothing to serve yet
+                load();
+                return value;
+            }
+            if (loadedVersion != version.get() || System.nanoTime() - loadedAt > maxStalenessNanos) {
+                refresh(executor);
+            }
+            return value;
+        }
+
+        private void invalidate(Executor executor) {
+            version.incrementAndGet();
+            if (loadedVersion >= 0L) {
+                refresh(executor);
+            }
+        }
+
+        private void load() {
+            long started = version.get();
+            V loaded = loader.get();
+            synchronized (this) {
+                if (started >= loadedVersion) {
+                    value = loaded;
+                    loadedAt = System.nanoTime();
+                    loadedVersion = started;
+                }
+            }
+        }
+
+        private void refresh(Executor executor) {
+            if (!refreshing.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    boolean failed = false;
+                    try {
+                        do {
+                            load();
+                        } while (loadedVersion != version.get());
+                    } catch (RuntimeException e) {
+                        // Keep serving the last value; the next request retries
+                        failed = true;
+                    } finally {
+                        refreshing.set(false);
+                    }
+                    if (!failed && loadedVersion != version.get()) {
+                        // Invalidated between the last read and clearing the flag
+                        refresh(executor);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+            }
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.skyblockexp.ezeconomy.placeholder;
 
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import com.skyblockexp.ezeconomy.manager.CurrencyDescriptor;
+import com.skyblockexp.ezeconomy.manager.CurrencyManager;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class EzEconomyPlaceholderExpansion extends PlaceholderExpansion {
+    // Distinct params come from scoreboard and chat configs, so this stays small; the cap guards against junk
+    private static final int MAX_CACHED_REQUESTS = 4096;
 
     private EzEconomyPlugin plugin;
+    private final Map<String, PlaceholderRequest> requests = new ConcurrentHashMap<>();
 
     public EzEconomyPlaceholderExpansion(EzEconomyPlugin plugin) {
         this.plugin = plugin;
@@ -47,91 +58,124 @@ public class EzEconomyPlaceholderExpansion extends PlaceholderExpansion {
         // Usage:
         // %ezeconomy_balance% (default currency)
         // %ezeconomy_balance_<currency>%
+        // %ezeconomy_compact% / %ezeconomy_compact_<currency>% (balance in compact notation, e.g. $1.2k)
         // %ezeconomy_bank_<bank>% (default currency)
         // %ezeconomy_bank_<bank>_<currency>%
         // %ezeconomy_symbol_<currency>%
         // %ezeconomy_top_#% (top # player and balance, e.g. %ezeconomy_top_1%)
+        // %ezeconomy_rank% (leaderboard position, default currency)
+        // %ezeconomy_rank_<currency>%
 
-        var eco = plugin.getEconomy();
-        var config = plugin.getConfig();
-        boolean multiEnabled = config.getBoolean("multi-currency.enabled", false);
-        String defaultCurrency = multiEnabled ? config.getString("multi-currency.default", "dollar") : "dollar";
-        String preferredCurrency = defaultCurrency;
-        if (player != null) {
-            preferredCurrency = plugin.getCurrencyPreferenceManager().getPreferredCurrency(player.getUniqueId());
+        PlaceholderRequest request = requests.get(params);
+        if (request == null) {
+            request = PlaceholderRequest.parse(params);
+            if (requests.size() < MAX_CACHED_REQUESTS) {
+                requests.put(params, request);
+            }
         }
-        com.skyblockexp.ezeconomy.api.storage.StorageProvider storage = plugin.getStorageOrWarn();
-
-        String[] split = params.toLowerCase().split("_");
         try {
-            if (params.equalsIgnoreCase("balance")) {
-                if (player == null || storage == null) {
-                    return null;
+            switch (request.getType()) {
+                case BALANCE:
+                case COMPACT:
+                    if (player == null) {
+                        return null;
+                    }
+                    return balance(player, currency(request, player), request.getType() == PlaceholderRequest.Type.COMPACT);
+                case SYMBOL:
+                    return symbol(request.getCurrency());
+                case BANK:
+                    if (player == null) {
+                        return null;
+                    }
+                    return bank(player, request.getBank(), currency(request, player));
+                case TOP:
+                    return top(player, request.getRank());
+                case RANK: {
+                    if (player == null) {
+                        return null;
+                    }
+                    StorageProvider storage = plugin.getStorageOrWarn();
+                    if (storage == null) {
+                        return null;
+                    }
+                    int rank = storage.getRank(player.getUniqueId(), currency(request, player));
+                    return rank > 0 ? String.valueOf(rank) : "-";
                 }
-                double bal = storage.getBalance(player.getUniqueId(), preferredCurrency);
-                return eco.format(bal);
-            }
-            if (split.length == 2 && split[0].equals("balance")) {
-                if (player == null || storage == null) {
+                default:
                     return null;
-                }
-                String currency = split[1];
-                double bal = storage.getBalance(player.getUniqueId(), currency);
-                return eco.format(bal);
-            }
-            if (split.length == 2 && split[0].equals("symbol")) {
-                String currency = split[1];
-                if (multiEnabled && config.contains("multi-currency.currencies." + currency + ".symbol")) {
-                    return config.getString("multi-currency.currencies." + currency + ".symbol", "$");
-                } else if (currency.equals("dollar")) {
-                    return "$";
-                }
-                return "?";
-            }
-            if (split.length >= 2 && split[0].equals("bank")) {
-                if (player == null || storage == null) {
-                    return null;
-                }
-                String bank = split[1];
-                String currency = (split.length == 3) ? split[2] : preferredCurrency;
-                if (storage.isBankMember(bank, player.getUniqueId())) {
-                    double bal = storage.getBankBalance(bank, currency);
-                    return eco.format(bal);
-                } else {
-                    return "-";
-                }
             }
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-            // Handle %ezeconomy_top_1%, %ezeconomy_top_2%, etc.
-            if (split.length == 2 && split[0].equals("top")) {
-                if (storage == null) {
-                    return null;
-                }
-                int rank;
-                try {
-                    rank = Integer.parseInt(split[1]);
-                } catch (NumberFormatException e) {
-                    return null;
-                }
-                if (rank <= 0) {
-                    return null;
-                }
-                // Get all balances for the preferred currency
-                java.util.Map<java.util.UUID, Double> balances = storage.getAllBalances(preferredCurrency);
-                java.util.List<java.util.Map.Entry<java.util.UUID, Double>> sorted = balances.entrySet().stream()
-                        .sorted(java.util.Map.Entry.<java.util.UUID, Double>comparingByValue().reversed())
-                        .toList();
-                if (rank > sorted.size()) {
-                    return null;
-                }
-                java.util.Map.Entry<java.util.UUID, Double> entry = sorted.get(rank - 1);
-                org.bukkit.OfflinePlayer topPlayer = org.bukkit.Bukkit.getOfflinePlayer(entry.getKey());
-                // Return formatted string: PlayerName: Balance
-                return topPlayer.getName() + ": " + eco.format(entry.getValue());
+    private String currency(PlaceholderRequest request, OfflinePlayer player) {
+        if (request.getCurrency() != null) {
+            return request.getCurrency();
+        }
+        return plugin.getCurrencyPreferenceManager().getPreferredCurrency(player.getUniqueId());
+    }
+
+    private String balance(OfflinePlayer player, String currency, boolean compact) {
+        BalanceSnapshotCache snapshots = plugin.getBalanceSnapshots();
+        if (snapshots != null && player.isOnline()) {
+            BalanceSnapshotCache.BalanceSnapshot snapshot = snapshots.getBalance(player.getUniqueId(), currency);
+            return compact ? snapshot.getCompact(plugin) : snapshot.getFormatted();
+        }
+        StorageProvider storage = plugin.getStorageOrWarn();
+        if (storage == null) {
+            return null;
+        }
+        double bal = storage.getBalance(player.getUniqueId(), currency);
+        return compact ? plugin.formatCompact(bal, currency) : plugin.format(bal, currency);
+    }
+
+    private String bank(OfflinePlayer player, String bank, String currency) {
+        BalanceSnapshotCache snapshots = plugin.getBalanceSnapshots();
+        if (snapshots != null) {
+            if (!snapshots.isBankMember(bank, player.getUniqueId())) {
+                return "-";
             }
-        } catch (Exception e) {
+            return snapshots.getBankBalance(bank, currency).getFormatted();
+        }
+        StorageProvider storage = plugin.getStorageOrWarn();
+        if (storage == null) {
+            return null;
+        }
+        if (!storage.isBankMember(bank, player.getUniqueId())) {
+            return "-";
+        }
+        return plugin.format(storage.getBankBalance(bank, currency), currency);
+    }
+
+    private String symbol(String currency) {
+        CurrencyManager currencies = plugin.getCurrencyManager();
+        CurrencyDescriptor descriptor = currencies.get(currency);
+        if (currencies.isMultiCurrency() && descriptor.isSymbolConfigured()) {
+            return descriptor.getSymbol();
+        } else if (currency.equals("dollar")) {
+            return "$";
+        }
+        return "?";
+    }
+
+    // Handle %ezeconomy_top_1%, %ezeconomy_top_2%, etc.
+    private String top(OfflinePlayer player, int rank) {
+        StorageProvider storage = plugin.getStorageOrWarn();
+        if (storage == null) {
+            return null;
+        }
+        String currency = player != null
+                ? plugin.getCurrencyPreferenceManager().getPreferredCurrency(player.getUniqueId())
+                : plugin.getDefaultCurrency();
+        // Look up the single leaderboard entry at this rank for the preferred currency
+        List<Map.Entry<UUID, Double>> page = storage.getTopBalances(currency, rank - 1, 1);
+        if (page.isEmpty()) {
             return null;
         }
-        return null;
+        Map.Entry<UUID, Double> entry = page.get(0);
+        OfflinePlayer topPlayer = Bukkit.getOfflinePlayer(entry.getKey());
+        // Return formatted string: PlayerName: Balance
+        return topPlayer.getName() + ": " + plugin.format(entry.getValue(), currency);
     }
 }
@@ -0,0 +1,75 @@
+package com.skyblockexp.ezeconomy.placeholder;
+
+import java.util.Locale;
+
+/**
+ * Placeholder params (the part after {@code %ezeconomy_}) parsed once, so repeated requests for the same
+ * placeholder skip lower-casing and splitting.
+ */
+final class PlaceholderRequest {
+    enum Type {
+        BALANCE,
+        COMPACT,
+        SYMBOL,
+        BANK,
+        TOP,
+        RANK,
+        UNKNOWN
+    }
+
+    private static final PlaceholderRequest UNKNOWN = new PlaceholderRequest(Type.UNKNOWN, null, null, 0);
+
+    private final Type type;
+    private final String currency;
+    private final String bank;
+    private final int rank;
+
+    private PlaceholderRequest(Type type, String currency, String bank, int rank) {
+        this.type = type;
+        this.currency = currency;
+        this.bank = bank;
+        this.rank = rank;
+    }
+
+    static PlaceholderRequest parse(String params) {
+        String[] split = params.toLowerCase(Locale.ROOT).split("_");
+        switch (split[0]) {
+            case "balance":
+                if (split.length == 1) return new PlaceholderRequest(Type.BALANCE, null, null, 0);
+                if (split.length == 2) return new PlaceholderRequest(Type.BALANCE, split[1], null, 0);
+                return UNKNOWN;
+            case "compact":
+                if (split.length > 2) return UNKNOWN;
+                return new PlaceholderRequest(Type.COMPACT, split.length == 2 ? split[1] : null, null, 0);
+            case "symbol":
+                return split.length == 2 ? new PlaceholderRequest(Type.SYMBOL, split[1], null, 0) : UNKNOWN;
+            case "bank":
+                if (split.length < 2) return UNKNOWN;
+                return new PlaceholderRequest(Type.BANK, split.length == 3 ? split[2] : null, split[1], 0);
+            case "top":
+                if (split.length != 2) return UNKNOWN;
+                try {
+                    int rank = Integer.parseInt(split[1]);
+                    return rank > 0 ? new PlaceholderRequest(Type.TOP, null, null, rank) : UNKNOWN;
+                } catch (NumberFormatException e) {
+                    return UNKNOWN;
+                }
+            case "rank":
+                if (split.length > 2) return UNKNOWN;
+                return new PlaceholderRequest(Type.RANK, split.length == 2 ? split[1] : null, null, 0);
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    Type getType() { return type; }
+
+    /**
+     * Currency named in the params, or null to use the player's preferred currency.
+     */
+    String getCurrency() { return currency; }
+
+    String getBank() { return bank; }
+
+    int getRank() { return rank; }
+}
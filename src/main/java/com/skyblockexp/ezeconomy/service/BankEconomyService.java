@@ -1,6 +1,7 @@
 package com.skyblockexp.ezeconomy.service;
 
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
 
 import java.util.Set;
 import java.util.UUID;
@@ -43,6 +44,14 @@ public class BankEconomyService {
         storageProvider.depositBank(name, currency, amount);
     }
 
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        return storageProvider.withdrawBankAndGet(name, currency, amount);
+    }
+
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        return storageProvider.depositBankAndGet(name, currency, amount);
+    }
+
     public Set<String> getBanks() {
         return storageProvider.getBanks();
     }
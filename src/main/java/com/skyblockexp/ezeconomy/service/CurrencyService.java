@@ -1,8 +1,10 @@
 package com.skyblockexp.ezeconomy.service;
 
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
 import com.skyblockexp.ezeconomy.manager.CurrencyManager;
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import com.skyblockexp.ezeconomy.util.CurrencyFormatter;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.Set;
@@ -12,12 +14,19 @@ import java.util.Set;
  */
 public class CurrencyService {
     private final StorageProvider storageProvider;
+    private final CurrencyManager currencyManager;
 
     public CurrencyService(StorageProvider storageProvider) {
+        this(storageProvider, null);
+    }
+
+    public CurrencyService(StorageProvider storageProvider, CurrencyManager currencyManager) {
         this.storageProvider = storageProvider;
+        this.currencyManager = currencyManager;
     }
 
     public String getDefaultCurrency() {
+        if (currencyManager != null) return currencyManager.getDefaultCurrency();
         if (storageProvider instanceof EzEconomyPlugin plugin) {
             CurrencyManager cm = plugin.getCurrencyManager();
             if (cm != null) return cm.getDefaultCurrency();
@@ -26,6 +35,10 @@ public class CurrencyService {
     }
 
     public Set<String> getAvailableCurrencies() {
+        if (currencyManager != null) {
+            Set<String> currencies = currencyManager.getCurrencies();
+            return currencies.isEmpty() ? Set.of(currencyManager.getDefaultCurrency()) : currencies;
+        }
         if (storageProvider instanceof EzEconomyPlugin plugin) {
             FileConfiguration config = plugin.getConfig();
             if (config.isConfigurationSection("multi-currency.currencies")) {
@@ -35,6 +48,37 @@ public class CurrencyService {
         return Set.of("dollar");
     }
 
+    public int getDecimals(String currency) {
+        return currencyManager != null ? currencyManager.getDecimals(currency) : Money.DEFAULT_DECIMALS;
+    }
+
+    public CurrencyFormatter getFormatter(String currency) {
+        return currencyManager != null ? currencyManager.getFormatter(currency) : CurrencyFormatter.DEFAULT;
+    }
+
+    /**
+     * Exchange rate between two currencies, or {@code NaN} if none is configured.
+     */
+    public double getRate(String from, String to) {
+        if (currencyManager != null) return currencyManager.getRate(from, to);
+        return from.equals(to) ? 1.0 : Double.NaN;
+    }
+
+    public double convert(String from, String to, double amount) {
+        if (currencyManager != null) return currencyManager.convert(from, to, amount);
+        if (!from.equals(to)) throw new IllegalArgumentException("No conversion rate from " + from + " to " + to);
+        return Money.truncate(amount, Money.DEFAULT_DECIMALS);
+    }
+
+    public double[] convertAll(String from, String to, double[] amounts) {
+        if (currencyManager != null) return currencyManager.convertAll(from, to, amounts);
+        double[] converted = new double[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            converted[i] = convert(from, to, amounts[i]);
+        }
+        return converted;
+    }
+
     public boolean isCurrencyEnabled(String currency) {
         return getAvailableCurrencies().contains(currency);
     }
@@ -1,9 +1,14 @@
 package com.skyblockexp.ezeconomy.service;
 
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
 import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
 import com.skyblockexp.ezeconomy.storage.TransferResult;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -31,14 +36,46 @@ public class PlayerEconomyService {
         return storageProvider.tryWithdraw(uuid, currency, amount);
     }
 
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        return storageProvider.depositAndGet(uuid, currency, amount);
+    }
+
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        return storageProvider.withdrawAndGet(uuid, currency, amount);
+    }
+
+    public void depositAll(Map<UUID, Double> amounts, String currency) {
+        storageProvider.depositAll(amounts, currency);
+    }
+
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        return storageProvider.applyBatch(mutations);
+    }
+
     public List<Transaction> getTransactions(UUID uuid, String currency) {
         return storageProvider.getTransactions(uuid, currency);
     }
 
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        return storageProvider.getTransactions(uuid, currency, from, to, cursor, limit);
+    }
+
+    public Iterator<Transaction> iterateTransactions(UUID uuid, String currency, long from, long to) {
+        return storageProvider.iterateTransactions(uuid, currency, from, to);
+    }
+
     public Map<UUID, Double> getAllBalances(String currency) {
         return storageProvider.getAllBalances(currency);
     }
 
+    public int getRank(UUID uuid, String currency) {
+        return storageProvider.getRank(uuid, currency);
+    }
+
+    public List<Map.Entry<UUID, Double>> getTopBalances(String currency, int offset, int limit) {
+        return storageProvider.getTopBalances(currency, offset, limit);
+    }
+
     public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double amount) {
         return storageProvider.transfer(fromUuid, toUuid, currency, amount);
     }
@@ -46,4 +83,8 @@ public class PlayerEconomyService {
     public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
         return storageProvider.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
     }
+
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        return storageProvider.exchange(uuid, fromCurrency, toCurrency, debitAmount, creditAmount);
+    }
 }
@@ -0,0 +1,29 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import java.util.UUID;
+
+/**
+ * Told about every balance change that passes through a {@link NotifyingStorageProvider}. Called on the
+ * thread that made the change, after the backend accepted it; implementations must be quick and thread-safe.
+ */
+public interface BalanceChangeListener {
+    /**
+     * A player's balance in a currency may have changed.
+     */
+    void balanceChanged(UUID uuid, String currency);
+
+    /**
+     * A bank's balance in a currency may have changed.
+     */
+    void bankBalanceChanged(String bank, String currency);
+
+    /**
+     * A bank was created or deleted, or its members changed.
+     */
+    void bankChanged(String bank);
+
+    /**
+     * Any balance may have changed, e.g. after storage was (re)loaded or cleaned up.
+     */
+    void allChanged();
+}
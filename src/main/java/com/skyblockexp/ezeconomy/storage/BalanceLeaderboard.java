@@ -0,0 +1,208 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Ranked index of player balances for a single currency.
+ * <p>
+ * Entries are kept in an order-statistic treap sorted by balance (highest first) and then by UUID,
+ * so updates, rank lookups and positional lookups all run in O(log n). The index is safe for use
+ * from multiple threads; every operation synchronizes on the index.
+ * </p>
+ */
+final class BalanceLeaderboard {
+    private final Map<UUID, Double> balances = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * Sets a player's balance, inserting the player if not ranked yet.
+     */
+    synchronized void update(UUID uuid, double balance) {
+        Double previous = balances.put(uuid, balance);
+        if (previous != null) {
+            if (Double.compare(previous, balance) == 0) return;
+            root = remove(root, uuid, previous);
+        }
+        root = insert(root, new Node(uuid, balance, random.nextInt()));
+    }
+
+    /**
+     * Removes a player from the ranking.
+     */
+    synchronized void remove(UUID uuid) {
+        Double previous = balances.remove(uuid);
+        if (previous != null) {
+            root = remove(root, uuid, previous);
+        }
+    }
+
+    /**
+     * Replaces the whole ranking with the given balances.
+     */
+    synchronized void replaceAll(Map<UUID, Double> snapshot) {
+        balances.clear();
+        root = null;
+        for (Map.Entry<UUID, Double> entry : snapshot.entrySet()) {
+            update(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the 1-based rank of a player, or 0 if the player is not ranked.
+     */
+    synchronized int rank(UUID uuid) {
+        Double balance = balances.get(uuid);
+        if (balance == null) return 0;
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(uuid, balance, node);
+            if (cmp == 0) {
+                return before + size(node.left) + 1;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns up to {@code limit} entries starting at the 0-based position {@code offset}.
+     */
+    synchronized List<Map.Entry<UUID, Double>> page(int offset, int limit) {
+        int total = size(root);
+        if (offset < 0 || limit <= 0 || offset >= total) return Collections.emptyList();
+        int end = Math.min(total, offset + limit);
+        List<Map.Entry<UUID, Double>> result = new ArrayList<>(end - offset);
+        collect(root, 0, offset, end, result);
+        return result;
+    }
+
+    /**
+     * Returns the number of ranked players.
+     */
+    synchronized int size() {
+        return size(root);
+    }
+
+    // --- Treap internals ---
+
+    /**
+     * Appends the in-order entries at positions [from, to) of the subtree, where {@code base} is
+     * the position of the subtree's first entry.
+     */
+    private static void collect(Node node, int base, int from, int to, List<Map.Entry<UUID, Double>> out) {
+        while (node != null) {
+            int position = base + size(node.left);
+            if (from < position) {
+                collect(node.left, base, from, to, out);
+            }
+            if (position >= to) return;
+            if (position >= from) {
+                out.add(new AbstractMap.SimpleImmutableEntry<>(node.uuid, node.balance));
+            }
+            base = position + 1;
+            node = node.right;
+        }
+    }
+
+    private static Node insert(Node node, Node created) {
+        if (node == null) return created;
+        if (created.priority > node.priority) {
+            Node[] parts = split(node, created.uuid, created.balance);
+            created.left = parts[0];
+            created.right = parts[1];
+            return created.update();
+        }
+        if (compare(created.uuid, created.balance, node) < 0) {
+            node.left = insert(node.left, created);
+        } else {
+            node.right = insert(node.right, created);
+        }
+        return node.update();
+    }
+
+    private static Node remove(Node node, UUID uuid, double balance) {
+        if (node == null) return null;
+        int cmp = compare(uuid, balance, node);
+        if (cmp == 0) return merge(node.left, node.right);
+        if (cmp < 0) {
+            node.left = remove(node.left, uuid, balance);
+        } else {
+            node.right = remove(node.right, uuid, balance);
+        }
+        return node.update();
+    }
+
+    /**
+     * Splits a subtree into entries ordered before the key and entries ordered after it.
+     */
+    private static Node[] split(Node node, UUID uuid, double balance) {
+        if (node == null) return new Node[] {null, null};
+        if (compare(uuid, balance, node) < 0) {
+            Node[] parts = split(node.left, uuid, balance);
+            node.left = parts[1];
+            parts[1] = node.update();
+            return parts;
+        }
+        Node[] parts = split(node.right, uuid, balance);
+        node.right = parts[0];
+        parts[0] = node.update();
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    /**
+     * Orders higher balances first and breaks ties by UUID so every entry has a unique position.
+     */
+    private static int compare(UUID uuid, double balance, Node node) {
+        int cmp = Double.compare(node.balance, balance);
+        return cmp != 0 ? cmp : uuid.compareTo(node.uuid);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        private final UUID uuid;
+        private final double balance;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(UUID uuid, double balance, int priority) {
+            this.uuid = uuid;
+            this.balance = balance;
+            this.priority = priority;
+        }
+
+        private Node update() {
+            size = 1 + size(left) + size(right);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,1168 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import com.skyblockexp.ezeconomy.api.events.BankPostTransactionEvent;
+import com.skyblockexp.ezeconomy.api.events.BankPreTransactionEvent;
+import com.skyblockexp.ezeconomy.api.events.TransactionType;
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded storage provider backed by append-only record logs in the plugin folder.
+ * <p>
+ * Every change is appended to {@code economy.binlog} as a small checksummed record and applied to an
+ * in-memory index of accounts and banks, so reads never touch the disk. Appended records are forced
+ * to disk in batches every {@code sync-interval-ticks} (or after every write when set to 0). When
+ * superseded records outnumber live entries by {@code compact-threshold}, the log is rewritten with
+ * only the current state. Transaction history lives in a separate log, indexed by account and read
+ * back by offset; it is only rewritten once retention has pruned enough of it to pass the same threshold.
+ * </p>
+ * <p>
+ * On first start, data from the per-player YML folder is imported once (see {@link YMLImporter}).
+ * </p>
+ */
+public class BinlogStorageProvider implements StorageProvider {
+    // --- Record types ---
+    private static final byte BALANCE = 1;
+    private static final byte BALANCE_DELETE = 2;
+    private static final byte BANK_CREATE = 3;
+    private static final byte BANK_DELETE = 4;
+    private static final byte BANK_BALANCE = 5;
+    private static final byte BANK_MEMBER_ADD = 6;
+    private static final byte BANK_MEMBER_REMOVE = 7;
+    private static final byte TRANSACTION = 8;
+    private static final byte TRANSACTION_PRUNE = 9;
+    // Both balances of a transfer or exchange in one record, so a torn write loses all of it or none of it
+    private static final byte BALANCE_PAIR = 10;
+
+    private static final long DEFAULT_SYNC_INTERVAL_TICKS = 20L;
+    private static final double DEFAULT_COMPACT_THRESHOLD = 2.0;
+    private static final long DEFAULT_COMPACT_MIN_RECORDS = 10_000L;
+
+    private final EzEconomyPlugin plugin;
+    private final File logFile;
+    private final File transactionFile;
+    private final File importFolder;
+    private final long syncIntervalTicks;
+    private final double compactThreshold;
+    private final long compactMinRecords;
+    private final StripedLocks accountLocks;
+    private final StripedLocks bankLocks;
+    // Appends and index updates happen together under this lock so compaction sees a consistent state
+    private final Object writeLock = new Object();
+
+    private final Map<AccountKey, Double> balances = new ConcurrentHashMap<>();
+    private final Map<String, Bank> banks = new ConcurrentHashMap<>();
+    private final Map<AccountKey, History> histories = new ConcurrentHashMap<>();
+    // History reads hold the read side so offsets stay valid while the transaction log is rewritten
+    private final ReentrantReadWriteLock historyLock = new ReentrantReadWriteLock();
+    // Records in the transaction log that no longer back a history entry (pruned transactions and prune markers)
+    private long deadTransactionRecords;
+    private RecordLog log;
+    private RecordLog transactionLog;
+    private BukkitTask syncTask;
+    // Set while importing so a large import is synced once at the end instead of after every record
+    private volatile boolean importing;
+
+    /**
+     * Constructs a BinlogStorageProvider with the given plugin and configuration.
+     * @param plugin EzEconomy plugin instance
+     * @param dbConfig YAML configuration for the binlog store
+     */
+    public BinlogStorageProvider(EzEconomyPlugin plugin, YamlConfiguration dbConfig) {
+        this.plugin = plugin;
+        if (dbConfig == null) throw new IllegalArgumentException("Binlog config is missing!");
+        this.logFile = new File(plugin.getDataFolder(), dbConfig.getString("binlog.file", "economy.binlog"));
+        this.transactionFile = new File(plugin.getDataFolder(), dbConfig.getString("binlog.transactions-file", "transactions.binlog"));
+        String importFolderName = dbConfig.getString("binlog.import-yml-folder", "data");
+        this.importFolder = importFolderName == null || importFolderName.isBlank() ? null : new File(plugin.getDataFolder(), importFolderName);
+        this.syncIntervalTicks = Math.max(0L, dbConfig.getLong("binlog.sync-interval-ticks", DEFAULT_SYNC_INTERVAL_TICKS));
+        this.compactThreshold = Math.max(1.0, dbConfig.getDouble("binlog.compact-threshold", DEFAULT_COMPACT_THRESHOLD));
+        this.compactMinRecords = Math.max(0L, dbConfig.getLong("binlog.compact-min-records", DEFAULT_COMPACT_MIN_RECORDS));
+        int stripes = plugin.getConfig().getInt("lock-stripes", StripedLocks.DEFAULT_STRIPES);
+        this.accountLocks = new StripedLocks(stripes);
+        this.bankLocks = new StripedLocks(stripes);
+    }
+
+    // --- Lifecycle ---
+
+    /**
+     * Opens both logs, rebuilds the in-memory index and imports YML data if the log is new.
+     * @throws StorageInitException if a log cannot be opened or read
+     */
+    @Override
+    public void init() throws StorageInitException {
+        boolean created;
+        synchronized (writeLock) {
+            closeLogs();
+            balances.clear();
+            banks.clear();
+            histories.clear();
+            deadTransactionRecords = 0;
+            try {
+                plugin.getDataFolder().mkdirs();
+                log = new RecordLog(logFile, plugin.getLogger());
+                created = log.open(this::apply);
+                transactionLog = new RecordLog(transactionFile, plugin.getLogger());
+                transactionLog.open(this::indexTransaction);
+            } catch (IOException e) {
+                closeLogs();
+                throw new StorageInitException("Failed to open binlog storage: " + e.getMessage(), e);
+            }
+        }
+        if (created && importFolder != null && importFolder.isDirectory()) {
+            importing = true;
+            try {
+                YMLImporter.Result result = new YMLImporter(plugin.getLogger()).importInto(this, importFolder);
+                plugin.getLogger().info("Imported " + result.getAccounts() + " balances, " + result.getBanks()
+                        + " banks and " + result.getTransactions() + " transactions from " + importFolder.getName() + "/.");
+            } finally {
+                importing = false;
+            }
+            syncQuietly();
+        }
+        if (syncTask != null) {
+            syncTask.cancel();
+        }
+        long period = syncIntervalTicks > 0 ? syncIntervalTicks : 20L;
+        syncTask = plugin.getStorageExecutor().scheduleRepeating(plugin, this::syncAndCompact, period, period);
+    }
+
+    @Override
+    public void load() throws StorageLoadException {
+        // The index is rebuilt in init()
+    }
+
+    @Override
+    public void save() throws StorageSaveException {
+        try {
+            synchronized (writeLock) {
+                if (log != null) log.sync();
+                if (transactionLog != null) transactionLog.sync();
+            }
+        } catch (IOException e) {
+            throw new StorageSaveException("Failed to sync binlog storage: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (syncTask != null) {
+            syncTask.cancel();
+            syncTask = null;
+        }
+        synchronized (writeLock) {
+            closeLogs();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return log != null;
+    }
+
+    // --- Player balances ---
+
+    @Override
+    public double getBalance(UUID uuid, String currency) {
+        return balances.getOrDefault(new AccountKey(uuid, currency), 0.0);
+    }
+
+    @Override
+    public void setBalance(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = accountLocks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            writeBalance(uuid, currency, amount);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog setBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryWithdraw(UUID uuid, String currency, double amount) {
+        return withdrawAndGet(uuid, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = accountLocks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            double balance = getBalance(uuid, currency);
+            if (balance < amount) {
+                return BalanceResult.insufficientFunds(balance);
+            }
+            double after = Money.subtract(balance, amount, decimals(currency));
+            writeBalance(uuid, currency, after);
+            return BalanceResult.success(after);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog tryWithdraw failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deposit(UUID uuid, String currency, double amount) {
+        depositAndGet(uuid, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = accountLocks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            double balance = Money.add(getBalance(uuid, currency), amount, decimals(currency));
+            writeBalance(uuid, currency, balance);
+            return BalanceResult.success(balance);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog deposit failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one record per applied change and syncs once for the whole batch.
+     */
+    @Override
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        List<BalanceMutation> rejected = new ArrayList<>();
+        int applied = 0;
+        try {
+            for (BalanceMutation mutation : mutations) {
+                ReentrantLock lock = accountLocks.forAccount(mutation.getUuid(), mutation.getCurrency());
+                lock.lock();
+                try {
+                    double balance = getBalance(mutation.getUuid(), mutation.getCurrency());
+                    if (!mutation.isApplicable(balance)) {
+                        rejected.add(mutation);
+                    } else {
+                        appendBalance(mutation.getUuid(), mutation.getCurrency(), mutation.applyTo(balance, decimals(mutation.getCurrency())));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                applied++;
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog applyBatch failed: " + e.getMessage());
+            rejected.addAll(mutations.subList(applied, mutations.size()));
+        }
+        try {
+            synchronized (writeLock) {
+                syncIfUnbatched(requireOpen(log));
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog sync failed: " + e.getMessage());
+        }
+        return rejected;
+    }
+
+    @Override
+    public Map<UUID, Double> getAllBalances(String currency) {
+        Map<UUID, Double> map = new HashMap<>();
+        for (Map.Entry<AccountKey, Double> entry : balances.entrySet()) {
+            if (entry.getKey().currency.equals(currency)) {
+                map.put(entry.getKey().uuid, entry.getValue());
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, BigDecimal.valueOf(debitAmount), TransactionType.TRANSFER, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) {
+            return TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
+        }
+
+        TransferResult result = transferLocked(fromUuid, currency, toUuid, currency, debitAmount, creditAmount);
+        boolean sameAccount = fromUuid.equals(toUuid);
+        double fromBefore = result.getFromBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
+        double toBefore = result.getToBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
+
+        com.skyblockexp.ezeconomy.api.events.PostTransactionEvent post = new com.skyblockexp.ezeconomy.api.events.PostTransactionEvent(
+            fromUuid, toUuid, BigDecimal.valueOf(debitAmount), TransactionType.TRANSFER,
+            result.isSuccess(), BigDecimal.valueOf(fromBefore), BigDecimal.valueOf(result.getFromBalance()),
+            BigDecimal.valueOf(toBefore), BigDecimal.valueOf(result.getToBalance()), plugin.getEventDispatcher().createAsync()
+        );
+        plugin.getEventDispatcher().callPost(post);
+
+        return result;
+    }
+
+    /**
+     * Moves the funds under both account stripes and writes both new balances as one
+     * {@code BALANCE_PAIR} record with a single sync, so a crash keeps the whole transfer or none of it.
+     * The two accounts may be in different currencies, which is how {@link #exchange} uses this.
+     */
+    private TransferResult transferLocked(UUID fromUuid, String fromCurrency, UUID toUuid, String toCurrency, double debitAmount, double creditAmount) {
+        if (debitAmount < 0 || creditAmount < 0) {
+            return TransferResult.failure(getBalance(fromUuid, fromCurrency), getBalance(toUuid, toCurrency));
+        }
+        ReentrantLock[] locks = accountLocks.forAccounts(fromUuid, fromCurrency, toUuid, toCurrency);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            double fromBalance = getBalance(fromUuid, fromCurrency);
+            double toBalance = getBalance(toUuid, toCurrency);
+            if (fromBalance < debitAmount) {
+                return TransferResult.failure(fromBalance, toBalance);
+            }
+            if (fromUuid.equals(toUuid) && fromCurrency.equals(toCurrency)) {
+                int decimals = decimals(fromCurrency);
+                double balance = Money.add(Money.subtract(fromBalance, debitAmount, decimals), creditAmount, decimals);
+                writeBalance(fromUuid, fromCurrency, balance);
+                return TransferResult.success(balance, balance);
+            }
+            double fromAfter = Money.subtract(fromBalance, debitAmount, decimals(fromCurrency));
+            double toAfter = Money.add(toBalance, creditAmount, decimals(toCurrency));
+            append(BALANCE_PAIR, out -> {
+                writeUuid(out, fromUuid);
+                out.writeUTF(fromCurrency);
+                writeUuid(out, toUuid);
+                out.writeUTF(toCurrency);
+                out.writeDouble(fromAfter);
+                out.writeDouble(toAfter);
+            }, () -> {
+                balances.put(new AccountKey(fromUuid, fromCurrency), fromAfter);
+                balances.put(new AccountKey(toUuid, toCurrency), toAfter);
+            });
+            return TransferResult.success(fromAfter, toAfter);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog transfer failed from " + fromUuid + " (" + fromCurrency + ") to " + toUuid + " (" + toCurrency + "): " + e.getMessage());
+            return TransferResult.failure(getBalance(fromUuid, fromCurrency), getBalance(toUuid, toCurrency));
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Exchanges under the stripes of both of the player's accounts and writes both balances as one
+     * {@code BALANCE_PAIR} record, like a transfer.
+     */
+    @Override
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        return transferLocked(uuid, fromCurrency, uuid, toCurrency, debitAmount, creditAmount);
+    }
+
+    // --- Transactions ---
+
+    @Override
+    public void logTransaction(Transaction transaction) {
+        try {
+            logTransactions(List.of(transaction));
+        } catch (TransactionLogException e) {
+            plugin.getLogger().severe("[EzEconomy] " + e.getMessage());
+        }
+    }
+
+    /**
+     * @throws TransactionLogException with the transaction that could not be appended and everything after it
+     */
+    @Override
+    public void logTransactions(List<Transaction> transactions) {
+        int appended = 0;
+        try {
+            synchronized (writeLock) {
+                RecordLog target = requireOpen(transactionLog);
+                for (Transaction transaction : transactions) {
+                    long offset = target.append(TRANSACTION, out -> {
+                        writeUuid(out, transaction.getUuid());
+                        out.writeUTF(transaction.getCurrency());
+                        out.writeDouble(transaction.getAmount());
+                        out.writeLong(transaction.getTimestamp());
+                    });
+                    history(new AccountKey(transaction.getUuid(), transaction.getCurrency())).add(transaction.getTimestamp(), offset);
+                    appended++;
+                }
+                syncIfUnbatched(target);
+            }
+        } catch (IOException e) {
+            if (appended == transactions.size()) {
+                // Every record is in the log already; retrying would only duplicate them
+                plugin.getLogger().severe("[EzEconomy] Binlog logTransactions failed to sync: " + e.getMessage());
+                return;
+            }
+            throw new TransactionLogException("Binlog logTransactions failed: " + e.getMessage(), e, transactions.subList(appended, transactions.size()));
+        }
+    }
+
+    @Override
+    public List<Transaction> getTransactions(UUID uuid, String currency) {
+        historyLock.readLock().lock();
+        try {
+            History history = histories.get(new AccountKey(uuid, currency));
+            if (history == null) {
+                return new ArrayList<>();
+            }
+            return readTransactions(history.page(Long.MIN_VALUE, Long.MAX_VALUE, 0, Integer.MAX_VALUE), uuid, currency);
+        } finally {
+            historyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Seeks to the page with a binary search over the account's in-memory timestamps, then reads only
+     * the records on that page.
+     */
+    @Override
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        historyLock.readLock().lock();
+        try {
+            History history = histories.get(new AccountKey(uuid, currency));
+            if (history == null || limit <= 0 || from >= to) {
+                return TransactionPage.empty();
+            }
+            long[] offsets = history.page(from, TransactionCursor.upperBound(cursor, to), TransactionCursor.offset(cursor, to), limit + 1);
+            return TransactionPage.of(readTransactions(offsets, uuid, currency), cursor, limit);
+        } finally {
+            historyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a prune marker for the range followed by the replacement transactions. The pruned
+     * records stay in the log until it is compacted; replay applies the marker the same way.
+     */
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, List<Transaction> replacement) {
+        try {
+            synchronized (writeLock) {
+                RecordLog target = requireOpen(transactionLog);
+                target.append(TRANSACTION_PRUNE, out -> {
+                    writeUuid(out, uuid);
+                    out.writeUTF(currency);
+                    out.writeLong(from);
+                    out.writeLong(to);
+                });
+                prune(new AccountKey(uuid, currency), from, to);
+                for (Transaction transaction : replacement) {
+                    long offset = target.append(TRANSACTION, out -> {
+                        writeUuid(out, transaction.getUuid());
+                        out.writeUTF(transaction.getCurrency());
+                        out.writeDouble(transaction.getAmount());
+                        out.writeLong(transaction.getTimestamp());
+                    });
+                    history(new AccountKey(transaction.getUuid(), transaction.getCurrency())).add(transaction.getTimestamp(), offset);
+                }
+                syncIfUnbatched(target);
+            }
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog replaceTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private List<Transaction> readTransactions(long[] offsets, UUID uuid, String currency) {
+        List<Transaction> transactions = new ArrayList<>(offsets.length);
+        try {
+            for (long offset : offsets) {
+                DataInputStream in = requireOpen(transactionLog).read(offset, TRANSACTION);
+                if (in == null) continue;
+                UUID txUuid = readUuid(in);
+                String txCurrency = in.readUTF();
+                double amount = in.readDouble();
+                long timestamp = in.readLong();
+                transactions.add(new Transaction(txUuid, txCurrency, amount, timestamp));
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        }
+        return transactions;
+    }
+
+    // --- Banks ---
+
+    @Override
+    public boolean createBank(String name, UUID owner) {
+        ReentrantLock lock = bankLocks.forBank(name);
+        lock.lock();
+        try {
+            if (banks.containsKey(name)) return false;
+            append(BANK_CREATE, out -> {
+                out.writeUTF(name);
+                writeUuid(out, owner);
+            }, () -> banks.put(name, new Bank(owner)));
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog createBank failed: " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteBank(String name) {
+        ReentrantLock lock = bankLocks.forBank(name);
+        lock.lock();
+        try {
+            if (!banks.containsKey(name)) return false;
+            append(BANK_DELETE, out -> out.writeUTF(name), () -> banks.remove(name));
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog deleteBank failed: " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean bankExists(String name) {
+        return banks.containsKey(name);
+    }
+
+    @Override
+    public double getBankBalance(String name, String currency) {
+        Bank bank = banks.get(name);
+        return bank == null ? 0.0 : bank.balances.getOrDefault(currency, 0.0);
+    }
+
+    @Override
+    public void setBankBalance(String name, String currency, double amount) {
+        ReentrantLock lock = bankLocks.forBank(name);
+        lock.lock();
+        try {
+            Bank bank = banks.get(name);
+            if (bank == null) return;
+            writeBankBalance(name, bank, currency, amount);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog setBankBalance failed: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryWithdrawBank(String name, String currency, double amount) {
+        return withdrawBankAndGet(name, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        // Answer the pre event before taking the bank stripe: a synchronous event waits for the main
+        // thread, which may itself be waiting for this stripe in a call on another bank
+        Bank existing = banks.get(name);
+        if (existing == null) return BalanceResult.notFound();
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(existing.balances.getOrDefault(currency, 0.0));
+
+        ReentrantLock lock = bankLocks.forBank(name);
+        lock.lock();
+        try {
+            Bank bank = banks.get(name);
+            if (bank == null) return BalanceResult.notFound();
+            double balance = bank.balances.getOrDefault(currency, 0.0);
+
+            if (balance < amount) return BalanceResult.insufficientFunds(balance);
+            double after = Money.subtract(balance, amount, decimals(currency));
+            writeBankBalance(name, bank, currency, after);
+
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(balance), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog tryWithdrawBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void depositBank(String name, String currency, double amount) {
+        depositBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        // Answer the pre event before taking the bank stripe, see withdrawBankAndGet
+        Bank existing = banks.get(name);
+        if (existing == null) return BalanceResult.notFound();
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(existing.balances.getOrDefault(currency, 0.0));
+
+        ReentrantLock lock = bankLocks.forBank(name);
+        lock.lock();
+        try {
+            Bank bank = banks.get(name);
+            if (bank == null) return BalanceResult.notFound();
+            double balance = bank.balances.getOrDefault(currency, 0.0);
+
+            double after = Money.add(balance, amount, decimals(currency));
+            writeBankBalance(name, bank, currency, after);
+
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(balance), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog depositBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getBanks() {
+        return new HashSet<>(banks.keySet());
+    }
+
+    @Override
+    public boolean isBankOwner(String name, UUID uuid) {
+        Bank bank = banks.get(name);
+        return bank != null && bank.owner.equals(uuid);
+    }
+
+    @Override
+    public boolean isBankMember(String name, UUID uuid) {
+        Bank bank = banks.get(name);
+        return bank != null && bank.members.contains(uuid);
+    }
+
+    @Override
+    public boolean addBankMember(String name, UUID uuid) {
+        ReentrantLock lock = bankLocks.forBank(name);
+        lock.lock();
+        try {
+            Bank bank = banks.get(name);
+            if (bank == null || bank.members.contains(uuid)) return false;
+            append(BANK_MEMBER_ADD, out -> {
+                out.writeUTF(name);
+                writeUuid(out, uuid);
+            }, () -> bank.members.add(uuid));
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog addBankMember failed: " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeBankMember(String name, UUID uuid) {
+        ReentrantLock lock = bankLocks.forBank(name);
+        lock.lock();
+        try {
+            Bank bank = banks.get(name);
+            if (bank == null || !bank.members.contains(uuid)) return false;
+            append(BANK_MEMBER_REMOVE, out -> {
+                out.writeUTF(name);
+                writeUuid(out, uuid);
+            }, () -> bank.members.remove(uuid));
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog removeBankMember failed: " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<UUID> getBankMembers(String name) {
+        Bank bank = banks.get(name);
+        return bank == null ? new HashSet<>() : new HashSet<>(bank.members);
+    }
+
+    // --- Cleanup ---
+
+    /**
+     * Removes every balance of players that do not resolve to a known player. Each player's
+     * balances are deleted under the stripes of all their accounts, so a concurrent write cannot
+     * bring back a balance that was just deleted.
+     * @return Set of removed UUIDs as strings
+     */
+    @Override
+    public Set<String> cleanupOrphanedPlayers() {
+        Set<String> removed = new HashSet<>();
+        for (String uuidStr : previewOrphanedPlayers()) {
+            UUID uuid = UUID.fromString(uuidStr);
+            Set<String> currencies = currenciesOf(uuid);
+            while (true) {
+                ReentrantLock[] locks = accountLocks.forAccounts(uuid, currencies);
+                for (ReentrantLock lock : locks) {
+                    lock.lock();
+                }
+                try {
+                    Set<String> current = currenciesOf(uuid);
+                    if (!current.equals(currencies)) {
+                        // A write opened another account meanwhile; lock that one too
+                        currencies = current;
+                        continue;
+                    }
+                    append(BALANCE_DELETE, out -> writeUuid(out, uuid), () -> balances.keySet().removeIf(key -> key.uuid.equals(uuid)));
+                    removed.add(uuidStr);
+                } catch (IOException e) {
+                    plugin.getLogger().severe("[EzEconomy] Binlog cleanupOrphanedPlayers failed for " + uuid + ": " + e.getMessage());
+                } finally {
+                    for (int i = locks.length - 1; i >= 0; i--) {
+                        locks[i].unlock();
+                    }
+                }
+                break;
+            }
+        }
+        return removed;
+    }
+
+    private Set<String> currenciesOf(UUID uuid) {
+        Set<String> currencies = new HashSet<>();
+        for (AccountKey key : balances.keySet()) {
+            if (key.uuid.equals(uuid)) {
+                currencies.add(key.currency);
+            }
+        }
+        return currencies;
+    }
+
+    /**
+     * Returns the set of orphaned UUIDs that would be removed by cleanup.
+     */
+    public Set<String> previewOrphanedPlayers() {
+        Set<UUID> accounts = new HashSet<>();
+        for (AccountKey key : balances.keySet()) {
+            accounts.add(key.uuid);
+        }
+        Set<String> orphaned = new HashSet<>();
+        for (UUID uuid : accounts) {
+            OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+            if (player == null || player.getName() == null) {
+                orphaned.add(uuid.toString());
+            }
+        }
+        return orphaned;
+    }
+
+    @Override
+    public String toString() {
+        return "BinlogStorageProvider{" +
+                "file='" + logFile.getName() + '\'' +
+                ", accounts=" + balances.size() +
+                ", banks=" + banks.size() +
+                '}';
+    }
+
+    // --- Writing ---
+
+    /**
+     * Decimals of a currency; balances are added and subtracted on whole units of it (see {@link Money}).
+     */
+    private int decimals(String currency) {
+        return plugin.getCurrencyManager().getDecimals(currency);
+    }
+
+    private void writeBalance(UUID uuid, String currency, double amount) throws IOException {
+        synchronized (writeLock) {
+            appendBalance(uuid, currency, amount);
+            syncIfUnbatched(log);
+        }
+    }
+
+    /**
+     * Appends a balance record and updates the index without syncing.
+     */
+    private void appendBalance(UUID uuid, String currency, double amount) throws IOException {
+        synchronized (writeLock) {
+            requireOpen(log).append(BALANCE, out -> {
+                writeUuid(out, uuid);
+                out.writeUTF(currency);
+                out.writeDouble(amount);
+            });
+            balances.put(new AccountKey(uuid, currency), amount);
+        }
+    }
+
+    private void writeBankBalance(String name, Bank bank, String currency, double amount) throws IOException {
+        append(BANK_BALANCE, out -> {
+            out.writeUTF(name);
+            out.writeUTF(currency);
+            out.writeDouble(amount);
+        }, () -> bank.balances.put(currency, amount));
+    }
+
+    /**
+     * Appends a record and applies it to the index. The index is only changed once the record is written.
+     */
+    private void append(byte type, RecordLog.PayloadWriter payload, Runnable applyToIndex) throws IOException {
+        synchronized (writeLock) {
+            requireOpen(log).append(type, payload);
+            applyToIndex.run();
+            syncIfUnbatched(log);
+        }
+    }
+
+    private void syncIfUnbatched(RecordLog target) throws IOException {
+        if (syncIntervalTicks == 0 && !importing) {
+            target.sync();
+        }
+    }
+
+    private void syncAndCompact() {
+        try {
+            synchronized (writeLock) {
+                if (log == null) return;
+                log.sync();
+                transactionLog.sync();
+                long live = liveRecords();
+                if (log.records() >= compactMinRecords && log.records() > live * compactThreshold) {
+                    long before = log.size();
+                    log.rewrite(this::writeState);
+                    plugin.getLogger().info("Compacted " + logFile.getName() + " from " + before + " to " + log.size() + " bytes.");
+                }
+                long records = transactionLog.records();
+                if (deadTransactionRecords > 0 && records >= compactMinRecords
+                        && records > (records - deadTransactionRecords) * compactThreshold) {
+                    long before = transactionLog.size();
+                    compactTransactions();
+                    plugin.getLogger().info("Compacted " + transactionFile.getName() + " from " + before + " to " + transactionLog.size() + " bytes.");
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog sync failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the transaction log with only the records still referenced by a history, and swaps in
+     * histories pointing at the new offsets. Called with the write lock held.
+     */
+    private void compactTransactions() throws IOException {
+        historyLock.writeLock().lock();
+        try {
+            Map<AccountKey, History> rebuilt = new HashMap<>();
+            transactionLog.rewrite(target -> {
+                for (Map.Entry<AccountKey, History> entry : histories.entrySet()) {
+                    long[] offsets = entry.getValue().page(Long.MIN_VALUE, Long.MAX_VALUE, 0, Integer.MAX_VALUE);
+                    History history = new History();
+                    // Pages are newest first; copy oldest first so the new log stays in time order
+                    for (int i = offsets.length - 1; i >= 0; i--) {
+                        DataInputStream in = transactionLog.read(offsets[i], TRANSACTION);
+                        if (in == null) continue;
+                        UUID uuid = readUuid(in);
+                        String currency = in.readUTF();
+                        double amount = in.readDouble();
+                        long timestamp = in.readLong();
+                        long offset = target.append(TRANSACTION, out -> {
+                            writeUuid(out, uuid);
+                            out.writeUTF(currency);
+                            out.writeDouble(amount);
+                            out.writeLong(timestamp);
+                        });
+                        history.add(timestamp, offset);
+                    }
+                    if (history.size > 0) rebuilt.put(entry.getKey(), history);
+                }
+            });
+            histories.clear();
+            histories.putAll(rebuilt);
+            deadTransactionRecords = 0;
+        } finally {
+            historyLock.writeLock().unlock();
+        }
+    }
+
+    private long liveRecords() {
+        long live = balances.size();
+        for (Bank bank : banks.values()) {
+            live += 1 + bank.members.size() + bank.balances.size();
+        }
+        return live;
+    }
+
+    /**
+     * Writes the current state as the minimal set of records. Called with the write lock held.
+     */
+    private void writeState(RecordLog target) throws IOException {
+        for (Map.Entry<AccountKey, Double> entry : balances.entrySet()) {
+            AccountKey key = entry.getKey();
+            double amount = entry.getValue();
+            target.append(BALANCE, out -> {
+                writeUuid(out, key.uuid);
+                out.writeUTF(key.currency);
+                out.writeDouble(amount);
+            });
+        }
+        for (Map.Entry<String, Bank> entry : banks.entrySet()) {
+            String name = entry.getKey();
+            Bank bank = entry.getValue();
+            target.append(BANK_CREATE, out -> {
+                out.writeUTF(name);
+                writeUuid(out, bank.owner);
+            });
+            for (UUID member : bank.members) {
+                target.append(BANK_MEMBER_ADD, out -> {
+                    out.writeUTF(name);
+                    writeUuid(out, member);
+                });
+            }
+            for (Map.Entry<String, Double> balance : bank.balances.entrySet()) {
+                target.append(BANK_BALANCE, out -> {
+                    out.writeUTF(name);
+                    out.writeUTF(balance.getKey());
+                    out.writeDouble(balance.getValue());
+                });
+            }
+        }
+    }
+
+    // --- Replay ---
+
+    private void apply(byte type, DataInputStream in, long offset) throws IOException {
+        switch (type) {
+            case BALANCE: {
+                UUID uuid = readUuid(in);
+                String currency = in.readUTF();
+                balances.put(new AccountKey(uuid, currency), in.readDouble());
+                break;
+            }
+            case BALANCE_PAIR: {
+                AccountKey from = new AccountKey(readUuid(in), in.readUTF());
+                AccountKey to = new AccountKey(readUuid(in), in.readUTF());
+                balances.put(from, in.readDouble());
+                balances.put(to, in.readDouble());
+                break;
+            }
+            case BALANCE_DELETE: {
+                UUID uuid = readUuid(in);
+                balances.keySet().removeIf(key -> key.uuid.equals(uuid));
+                break;
+            }
+            case BANK_CREATE: {
+                String name = in.readUTF();
+                banks.put(name, new Bank(readUuid(in)));
+                break;
+            }
+            case BANK_DELETE:
+                banks.remove(in.readUTF());
+                break;
+            case BANK_BALANCE: {
+                Bank bank = banks.get(in.readUTF());
+                String currency = in.readUTF();
+                double amount = in.readDouble();
+                if (bank != null) bank.balances.put(currency, amount);
+                break;
+            }
+            case BANK_MEMBER_ADD: {
+                Bank bank = banks.get(in.readUTF());
+                UUID uuid = readUuid(in);
+                if (bank != null) bank.members.add(uuid);
+                break;
+            }
+            case BANK_MEMBER_REMOVE: {
+                Bank bank = banks.get(in.readUTF());
+                UUID uuid = readUuid(in);
+                if (bank != null) bank.members.remove(uuid);
+                break;
+            }
+            default:
+                plugin.getLogger().warning("[EzEconomy] Skipping unknown binlog record type " + type + " at offset " + offset);
+                break;
+        }
+    }
+
+    private void indexTransaction(byte type, DataInputStream in, long offset) throws IOException {
+        if (type == TRANSACTION_PRUNE) {
+            UUID uuid = readUuid(in);
+            String currency = in.readUTF();
+            long from = in.readLong();
+            prune(new AccountKey(uuid, currency), from, in.readLong());
+            return;
+        }
+        if (type != TRANSACTION) return;
+        UUID uuid = readUuid(in);
+        String currency = in.readUTF();
+        in.readDouble();
+        history(new AccountKey(uuid, currency)).add(in.readLong(), offset);
+    }
+
+    private History history(AccountKey key) {
+        return histories.computeIfAbsent(key, k -> new History());
+    }
+
+    private void prune(AccountKey key, long from, long to) {
+        History history = histories.get(key);
+        int removed = history != null ? history.removeRange(from, to) : 0;
+        deadTransactionRecords += removed + 1;
+    }
+
+    // --- Helpers ---
+
+    private void syncQuietly() {
+        try {
+            if (log == null) return;
+            log.sync();
+            transactionLog.sync();
+        } catch (IOException e) {
+            plugin.getLogger().severe("[EzEconomy] Binlog sync failed: " + e.getMessage());
+        }
+    }
+
+    private void closeLogs() {
+        for (RecordLog target : new RecordLog[] {log, transactionLog}) {
+            if (target == null) continue;
+            try {
+                target.close();
+            } catch (IOException e) {
+                plugin.getLogger().severe("[EzEconomy] Failed to close binlog: " + e.getMessage());
+            }
+        }
+        log = null;
+        transactionLog = null;
+    }
+
+    private static RecordLog requireOpen(RecordLog target) throws IOException {
+        if (target == null) {
+            throw new IOException("binlog storage is not open");
+        }
+        return target;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static final class AccountKey {
+        private final UUID uuid;
+        private final String currency;
+
+        private AccountKey(UUID uuid, String currency) {
+            this.uuid = uuid;
+            this.currency = currency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof AccountKey)) return false;
+            AccountKey other = (AccountKey) o;
+            return uuid.equals(other.uuid) && currency.equals(other.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * uuid.hashCode() + currency.hashCode();
+        }
+    }
+
+    /**
+     * Record offsets of one account's transactions, ordered by timestamp and then by append order.
+     */
+    private static final class History {
+        private long[] timestamps = new long[8];
+        private long[] offsets = new long[8];
+        private int size;
+
+        private synchronized void add(long timestamp, long offset) {
+            if (size == timestamps.length) {
+                timestamps = java.util.Arrays.copyOf(timestamps, size * 2);
+                offsets = java.util.Arrays.copyOf(offsets, size * 2);
+            }
+            // Transactions almost always arrive in time order, so this rarely moves anything
+            int pos = size;
+            while (pos > 0 && timestamps[pos - 1] > timestamp) pos--;
+            System.arraycopy(timestamps, pos, timestamps, pos + 1, size - pos);
+            System.arraycopy(offsets, pos, offsets, pos + 1, size - pos);
+            timestamps[pos] = timestamp;
+            offsets[pos] = offset;
+            size++;
+        }
+
+        /**
+         * Offsets of up to {@code count} transactions, newest first, starting at the newest one not newer
+         * than {@code upper} after skipping {@code skip}, and stopping before {@code from}.
+         */
+        private synchronized long[] page(long from, long upper, int skip, int count) {
+            // First index with a timestamp above upper
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[mid] <= upper) low = mid + 1; else high = mid;
+            }
+            int start = low - 1 - skip;
+            int n = 0;
+            while (n < count && start - n >= 0 && timestamps[start - n] >= from) n++;
+            long[] page = new long[n];
+            for (int i = 0; i < n; i++) {
+                page[i] = offsets[start - i];
+            }
+            return page;
+        }
+
+        /**
+         * Drops every entry with a timestamp in {@code [from, to)}.
+         * @return Number of entries removed
+         */
+        private synchronized int removeRange(long from, long to) {
+            int start = 0;
+            while (start < size && timestamps[start] < from) start++;
+            int end = start;
+            while (end < size && timestamps[end] < to) end++;
+            int removed = end - start;
+            if (removed > 0) {
+                System.arraycopy(timestamps, end, timestamps, start, size - end);
+                System.arraycopy(offsets, end, offsets, start, size - end);
+                size -= removed;
+            }
+            return removed;
+        }
+    }
+
+    private static final class Bank {
+        private final UUID owner;
+        private final Set<UUID> members = ConcurrentHashMap.newKeySet();
+        private final Map<String, Double> balances = new ConcurrentHashMap<>();
+
+        private Bank(UUID owner) {
+            this.owner = owner;
+        }
+    }
+}
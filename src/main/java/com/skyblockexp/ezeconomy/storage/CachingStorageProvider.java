@@ -0,0 +1,565 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind balance cache that decorates any {@link StorageProvider}.
+ * <p>
+ * Player balances are kept in memory once read, so repeated {@code getBalance}/{@code has} calls
+ * from Vault consumers never reach the backend. Deposits, withdrawals and balance sets are applied
+ * in memory and marked dirty; dirty balances are written to the backend with one
+ * {@link StorageProvider#applyBatch(List)} call on a configurable interval and whenever {@link #save()} or {@link #shutdown()} is called.
+ * </p>
+ * <p>
+ * Bank operations and transaction history are passed straight through. Transfers flush and evict
+ * both accounts first so the backend's own transfer implementation (and its events) stay
+ * authoritative.
+ * </p>
+ * <p>
+ * This cache assumes EzEconomy is the only writer of the backend. Do not enable it when several
+ * servers share one database.
+ * </p>
+ */
+public class CachingStorageProvider implements StorageProvider {
+    private final EzEconomyPlugin plugin;
+    private final StorageProvider delegate;
+    private final long flushIntervalTicks;
+    private final long expireAfterMillis;
+    private final ConcurrentMap<BalanceKey, CachedBalance> balances = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private BukkitTask flushTask;
+
+    /**
+     * Wraps a storage provider with a write-behind balance cache.
+     * @param plugin EzEconomy plugin instance, used to schedule the flush task
+     * @param delegate Backend storage provider
+     * @param flushIntervalTicks How often dirty balances are written to the backend
+     * @param expireAfterMinutes How long an unmodified balance stays cached after its last access
+     */
+    public CachingStorageProvider(EzEconomyPlugin plugin, StorageProvider delegate, long flushIntervalTicks, long expireAfterMinutes) {
+        this.plugin = plugin;
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.flushIntervalTicks = Math.max(1L, flushIntervalTicks);
+        this.expireAfterMillis = TimeUnit.MINUTES.toMillis(Math.max(1L, expireAfterMinutes));
+    }
+
+    /**
+     * Returns the wrapped backend provider.
+     */
+    public StorageProvider getDelegate() {
+        return delegate;
+    }
+
+    // --- Lifecycle ---
+
+    @Override
+    public void init() throws StorageInitException {
+        delegate.init();
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        flushTask = plugin.getStorageExecutor()
+                .scheduleRepeating(plugin, this::flushAndExpire, flushIntervalTicks, flushIntervalTicks);
+    }
+
+    @Override
+    public void load() throws StorageLoadException {
+        delegate.load();
+    }
+
+    @Override
+    public void save() throws StorageSaveException {
+        flush();
+        delegate.save();
+    }
+
+    @Override
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+        balances.clear();
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    // --- Cached player balances ---
+
+    @Override
+    public double getBalance(UUID uuid, String currency) {
+        while (true) {
+            CachedBalance entry = entry(uuid, currency);
+            synchronized (entry) {
+                if (entry.evicted) continue;
+                entry.touch();
+                return entry.balance;
+            }
+        }
+    }
+
+    @Override
+    public void setBalance(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            while (true) {
+                CachedBalance entry = entry(uuid, currency);
+                synchronized (entry) {
+                    if (entry.evicted) continue;
+                    entry.balance = amount;
+                    entry.markDirty();
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryWithdraw(UUID uuid, String currency, double amount) {
+        return withdrawAndGet(uuid, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            while (true) {
+                CachedBalance entry = entry(uuid, currency);
+                synchronized (entry) {
+                    if (entry.evicted) continue;
+                    entry.touch();
+                    if (entry.balance < amount) {
+                        return BalanceResult.insufficientFunds(entry.balance);
+                    }
+                    entry.balance = Money.subtract(entry.balance, amount, plugin.getCurrencyManager().getDecimals(currency));
+                    entry.markDirty();
+                    return BalanceResult.success(entry.balance);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deposit(UUID uuid, String currency, double amount) {
+        depositAndGet(uuid, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            while (true) {
+                CachedBalance entry = entry(uuid, currency);
+                synchronized (entry) {
+                    if (entry.evicted) continue;
+                    entry.balance = Money.add(entry.balance, amount, plugin.getCurrencyManager().getDecimals(currency));
+                    entry.markDirty();
+                    return BalanceResult.success(entry.balance);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<UUID, Double> getAllBalances(String currency) {
+        Map<UUID, Double> result = new HashMap<>(delegate.getAllBalances(currency));
+        for (Map.Entry<BalanceKey, CachedBalance> cached : balances.entrySet()) {
+            if (!cached.getKey().currency.equals(currency)) continue;
+            CachedBalance entry = cached.getValue();
+            synchronized (entry) {
+                if (!entry.evicted) {
+                    result.put(cached.getKey().uuid, entry.balance);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        // The backend transfer fires the transaction events and reads the backend directly, so hand it
+        // the current balances and drop our copies. Mutations through this cache take the same per-account
+        // locks, so they wait for the transfer and then reload the post-transfer balances. The pre event is
+        // answered before locking so it never waits for a main thread that is blocked on these locks.
+        return plugin.getEventDispatcher().withTransferAnswered(fromUuid, toUuid, debitAmount,
+                () -> lockedTransfer(fromUuid, toUuid, currency, debitAmount, creditAmount));
+    }
+
+    private TransferResult lockedTransfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        ReentrantLock[] locks = TransferLockManager.getOrderedLocks(fromUuid, toUuid);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            synchronized (flushLock) {
+                writeBackAndEvict(new BalanceKey(fromUuid, currency));
+                writeBackAndEvict(new BalanceKey(toUuid, currency));
+            }
+            TransferResult result = delegate.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
+            evict(new BalanceKey(fromUuid, currency));
+            evict(new BalanceKey(toUuid, currency));
+            return result;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        // Same as transfer: the backend reads both balances itself, so write ours back first
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            synchronized (flushLock) {
+                writeBackAndEvict(new BalanceKey(uuid, fromCurrency));
+                writeBackAndEvict(new BalanceKey(uuid, toCurrency));
+            }
+            TransferResult result = delegate.exchange(uuid, fromCurrency, toCurrency, debitAmount, creditAmount);
+            evict(new BalanceKey(uuid, fromCurrency));
+            evict(new BalanceKey(uuid, toCurrency));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<String> cleanupOrphanedPlayers() {
+        flush();
+        Set<String> removed = delegate.cleanupOrphanedPlayers();
+        invalidateAll();
+        return removed;
+    }
+
+    // --- Flushing ---
+
+    /**
+     * Writes every dirty balance to the backend.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            writeBackAll();
+        }
+    }
+
+    /**
+     * Flushes all dirty balances and drops every cached entry, forcing the next read to hit the backend.
+     */
+    public void invalidateAll() {
+        synchronized (flushLock) {
+            for (BalanceKey key : balances.keySet()) {
+                writeBackAndEvict(key);
+            }
+        }
+    }
+
+    private void flushAndExpire() {
+        long cutoff = System.currentTimeMillis() - expireAfterMillis;
+        synchronized (flushLock) {
+            writeBackAll();
+            Iterator<Map.Entry<BalanceKey, CachedBalance>> it = balances.entrySet().iterator();
+            while (it.hasNext()) {
+                CachedBalance entry = it.next().getValue();
+                synchronized (entry) {
+                    if (!entry.dirty && entry.lastAccess < cutoff) {
+                        entry.evicted = true;
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every dirty balance to the backend as one batch. Called with {@code flushLock} held.
+     */
+    private void writeBackAll() {
+        List<BalanceMutation> batch = new ArrayList<>();
+        List<CachedBalance> written = new ArrayList<>();
+        for (Map.Entry<BalanceKey, CachedBalance> cached : balances.entrySet()) {
+            CachedBalance entry = cached.getValue();
+            synchronized (entry) {
+                if (!entry.dirty) continue;
+                batch.add(BalanceMutation.set(cached.getKey().uuid, cached.getKey().currency, entry.balance));
+                entry.dirty = false;
+            }
+            written.add(entry);
+        }
+        if (batch.isEmpty()) return;
+        try {
+            List<BalanceMutation> failed = delegate.applyBatch(batch);
+            if (!failed.isEmpty()) {
+                // Keep the balances the backend could not write dirty so the next flush retries them
+                Set<BalanceMutation> retry = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+                retry.addAll(failed);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (!retry.contains(batch.get(i))) continue;
+                    CachedBalance entry = written.get(i);
+                    synchronized (entry) {
+                        entry.dirty = true;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            for (CachedBalance entry : written) {
+                synchronized (entry) {
+                    entry.dirty = true;
+                }
+            }
+            plugin.getLogger().severe("[EzEconomy] Failed to flush " + batch.size() + " cached balances: " + e.getMessage());
+        }
+    }
+
+    private void writeBack(BalanceKey key, CachedBalance entry) {
+        double snapshot;
+        synchronized (entry) {
+            if (!entry.dirty) return;
+            snapshot = entry.balance;
+            entry.dirty = false;
+        }
+        try {
+            delegate.setBalance(key.uuid, key.currency, snapshot);
+        } catch (Exception e) {
+            synchronized (entry) {
+                entry.dirty = true;
+            }
+            plugin.getLogger().severe("[EzEconomy] Failed to flush cached balance for " + key.uuid + " (" + key.currency + "): " + e.getMessage());
+        }
+    }
+
+    private void writeBackAndEvict(BalanceKey key) {
+        CachedBalance entry = balances.get(key);
+        if (entry == null) return;
+        writeBack(key, entry);
+        evict(key);
+    }
+
+    private void evict(BalanceKey key) {
+        CachedBalance entry = balances.remove(key);
+        if (entry == null) return;
+        synchronized (entry) {
+            entry.evicted = true;
+        }
+    }
+
+    private CachedBalance entry(UUID uuid, String currency) {
+        BalanceKey key = new BalanceKey(uuid, currency);
+        CachedBalance entry = balances.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        // Read the backend outside the map so a slow read never blocks other keys. The account lock keeps
+        // a transfer from changing and evicting the balance between this read and the insert.
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            entry = balances.get(key);
+            if (entry != null) {
+                return entry;
+            }
+            CachedBalance loaded = new CachedBalance(delegate.getBalance(uuid, currency));
+            CachedBalance existing = balances.putIfAbsent(key, loaded);
+            return existing != null ? existing : loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // --- Pass-through: transactions ---
+
+    @Override
+    public void logTransaction(Transaction transaction) {
+        delegate.logTransaction(transaction);
+    }
+
+    @Override
+    public void logTransactions(List<Transaction> transactions) {
+        delegate.logTransactions(transactions);
+    }
+
+    @Override
+    public List<Transaction> getTransactions(UUID uuid, String currency) {
+        return delegate.getTransactions(uuid, currency);
+    }
+
+    @Override
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        return delegate.getTransactions(uuid, currency, from, to, cursor, limit);
+    }
+
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, List<Transaction> replacement) {
+        return delegate.replaceTransactions(uuid, currency, from, to, replacement);
+    }
+
+    // --- Pass-through: banks ---
+
+    @Override
+    public boolean createBank(String name, UUID owner) {
+        return delegate.createBank(name, owner);
+    }
+
+    @Override
+    public boolean deleteBank(String name) {
+        return delegate.deleteBank(name);
+    }
+
+    @Override
+    public boolean bankExists(String name) {
+        return delegate.bankExists(name);
+    }
+
+    @Override
+    public double getBankBalance(String name, String currency) {
+        return delegate.getBankBalance(name, currency);
+    }
+
+    @Override
+    public void setBankBalance(String name, String currency, double amount) {
+        delegate.setBankBalance(name, currency, amount);
+    }
+
+    @Override
+    public boolean tryWithdrawBank(String name, String currency, double amount) {
+        return delegate.tryWithdrawBank(name, currency, amount);
+    }
+
+    @Override
+    public void depositBank(String name, String currency, double amount) {
+        delegate.depositBank(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        return delegate.withdrawBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        return delegate.depositBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public Set<String> getBanks() {
+        return delegate.getBanks();
+    }
+
+    @Override
+    public boolean isBankOwner(String name, UUID uuid) {
+        return delegate.isBankOwner(name, uuid);
+    }
+
+    @Override
+    public boolean isBankMember(String name, UUID uuid) {
+        return delegate.isBankMember(name, uuid);
+    }
+
+    @Override
+    public boolean addBankMember(String name, UUID uuid) {
+        return delegate.addBankMember(name, uuid);
+    }
+
+    @Override
+    public boolean removeBankMember(String name, UUID uuid) {
+        return delegate.removeBankMember(name, uuid);
+    }
+
+    @Override
+    public Set<UUID> getBankMembers(String name) {
+        return delegate.getBankMembers(name);
+    }
+
+    @Override
+    public String toString() {
+        return "CachingStorageProvider{" +
+                "delegate=" + delegate +
+                ", cached=" + balances.size() +
+                '}';
+    }
+
+    // --- Cache entries ---
+
+    private static final class BalanceKey {
+        private final UUID uuid;
+        private final String currency;
+
+        private BalanceKey(UUID uuid, String currency) {
+            this.uuid = uuid;
+            this.currency = currency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BalanceKey)) return false;
+            BalanceKey other = (BalanceKey) o;
+            return uuid.equals(other.uuid) && currency.equals(other.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * uuid.hashCode() + currency.hashCode();
+        }
+    }
+
+    private static final class CachedBalance {
+        private double balance;
+        private boolean dirty;
+        private boolean evicted;
+        private long lastAccess;
+
+        private CachedBalance(double balance) {
+            this.balance = balance;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        private void markDirty() {
+            dirty = true;
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Storage decorator that takes transaction logging off the caller's thread.
+ * <p>
+ * {@link #logTransaction(Transaction)} only adds the transaction to a bounded lock-free queue. A
+ * background task drains the queue every {@code flushIntervalTicks}, or as soon as {@code batchSize}
+ * transactions are waiting, and hands each batch to {@link StorageProvider#logTransactions(List)}
+ * so the backend can write it in one round trip. When the queue is full the caller writes its
+ * transaction directly; this is counted as an overflow. Pending transactions are written before
+ * {@link #getTransactions(UUID, String)} reads history and on shutdown.
+ * </p>
+ * <p>
+ * When the backend rejects a batch, the transactions it reports as unwritten (see
+ * {@link TransactionLogException}) stay at the head of the journal and are retried on the next drain,
+ * up to {@value #MAX_WRITE_ATTEMPTS} attempts. After that they are logged, dropped and counted as failed.
+ * </p>
+ */
+public class JournalingStorageProvider implements StorageProvider {
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final EzEconomyPlugin plugin;
+    private final Logger logger;
+    private final StorageProvider delegate;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalTicks;
+    private final Queue<Transaction> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    // Keeps batches in queue order when the timer, an early drain and a history read overlap
+    private final Object writeLock = new Object();
+    // Batch the backend rejected, still counted in depth; guarded by writeLock
+    private List<Transaction> retryBatch;
+    private int retryAttempts;
+    private BukkitTask flushTask;
+
+    // --- Metrics ---
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+
+    /**
+     * Wraps a storage provider with an asynchronous transaction journal.
+     * @param plugin EzEconomy plugin instance, used to schedule the writer
+     * @param delegate Backend storage provider
+     * @param capacity Maximum number of queued transactions
+     * @param batchSize Maximum transactions per write; a full batch is written without waiting for the timer
+     * @param flushIntervalTicks How often (in ticks) queued transactions are written
+     */
+    public JournalingStorageProvider(EzEconomyPlugin plugin, StorageProvider delegate, int capacity, int batchSize, long flushIntervalTicks) {
+        this(plugin, plugin.getLogger(), delegate, capacity, batchSize, flushIntervalTicks);
+    }
+
+    /**
+     * Journal without a plugin, for tests. Nothing is scheduled; the queue is only written by {@link #flush()}.
+     */
+    JournalingStorageProvider(Logger logger, StorageProvider delegate, int capacity, int batchSize) {
+        this(null, logger, delegate, capacity, batchSize, 1L);
+    }
+
+    private JournalingStorageProvider(EzEconomyPlugin plugin, Logger logger, StorageProvider delegate, int capacity, int batchSize, long flushIntervalTicks) {
+        this.plugin = plugin;
+        this.logger = logger;
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalTicks = Math.max(1L, flushIntervalTicks);
+    }
+
+    /**
+     * Returns the wrapped backend provider.
+     */
+    public StorageProvider getDelegate() {
+        return delegate;
+    }
+
+    // --- Lifecycle ---
+
+    @Override
+    public void init() throws StorageInitException {
+        delegate.init();
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        flushTask = plugin.getStorageExecutor()
+                .scheduleRepeating(plugin, this::flush, flushIntervalTicks, flushIntervalTicks);
+    }
+
+    @Override
+    public void load() throws StorageLoadException {
+        delegate.load();
+    }
+
+    @Override
+    public void save() throws StorageSaveException {
+        flush();
+        delegate.save();
+    }
+
+    @Override
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        // Each pass either writes, drops or uses up one retry, so this ends once every batch is settled
+        while (depth.get() > 0) {
+            flush();
+        }
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    // --- Journal ---
+
+    @Override
+    public void logTransaction(Transaction transaction) {
+        int size = depth.incrementAndGet();
+        if (size > capacity) {
+            depth.decrementAndGet();
+            overflowed.increment();
+            try {
+                delegate.logTransactions(List.of(transaction));
+                written.increment();
+            } catch (RuntimeException e) {
+                logger.severe("[EzEconomy] Failed to write overflowed transaction: " + e.getMessage());
+                failed.increment();
+            }
+            return;
+        }
+        queue.offer(transaction);
+        enqueued.increment();
+        highWaterMark.accumulateAndGet(size, Math::max);
+        if (size >= batchSize) {
+            scheduleDrain();
+        }
+    }
+
+    @Override
+    public void logTransactions(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            logTransaction(transaction);
+        }
+    }
+
+    @Override
+    public List<Transaction> getTransactions(UUID uuid, String currency) {
+        flush();
+        return delegate.getTransactions(uuid, currency);
+    }
+
+    @Override
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        flush();
+        return delegate.getTransactions(uuid, currency, from, to, cursor, limit);
+    }
+
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, List<Transaction> replacement) {
+        flush();
+        return delegate.replaceTransactions(uuid, currency, from, to, replacement);
+    }
+
+    /**
+     * Writes every queued transaction to the backend in batches of at most {@code batchSize}.
+     * Stops at the first batch the backend rejects; that batch is retried first on the next call.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            while (true) {
+                List<Transaction> batch = retryBatch;
+                if (batch == null) {
+                    batch = new ArrayList<>(Math.min(batchSize, Math.max(1, depth.get())));
+                    Transaction next;
+                    while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                        batch.add(next);
+                    }
+                    if (batch.isEmpty()) {
+                        return;
+                    }
+                }
+                long start = System.nanoTime();
+                try {
+                    delegate.logTransactions(batch);
+                } catch (Exception e) {
+                    lastFlushNanos.set(System.nanoTime() - start);
+                    // Backends report what they did not write; anything else is treated as the whole batch
+                    List<Transaction> unwritten = e instanceof TransactionLogException
+                            ? ((TransactionLogException) e).getUnwritten()
+                            : batch;
+                    int accepted = batch.size() - unwritten.size();
+                    depth.addAndGet(-accepted);
+                    written.add(accepted);
+                    if (unwritten.isEmpty()) {
+                        settle(unwritten);
+                        batches.increment();
+                        continue;
+                    }
+                    if (++retryAttempts < MAX_WRITE_ATTEMPTS) {
+                        retryBatch = unwritten;
+                        logger.warning("[EzEconomy] Failed to write " + unwritten.size() + " journaled transactions (attempt "
+                                + retryAttempts + "/" + MAX_WRITE_ATTEMPTS + "), will retry: " + e.getMessage());
+                        return;
+                    }
+                    logger.severe("[EzEconomy] Dropping " + unwritten.size() + " journaled transactions after "
+                            + MAX_WRITE_ATTEMPTS + " failed writes: " + e.getMessage());
+                    settle(unwritten);
+                    failed.add(unwritten.size());
+                    continue;
+                }
+                lastFlushNanos.set(System.nanoTime() - start);
+                settle(batch);
+                written.add(batch.size());
+                batches.increment();
+            }
+        }
+    }
+
+    private void settle(List<Transaction> batch) {
+        retryBatch = null;
+        retryAttempts = 0;
+        depth.addAndGet(-batch.size());
+    }
+
+    private void scheduleDrain() {
+        if (plugin == null || !plugin.isEnabled() || !drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            plugin.getStorageExecutor().execute(() -> {
+                drainScheduled.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            // Storage is saturated; the timer drains the queue on its next run
+            drainScheduled.set(false);
+        }
+    }
+
+    /**
+     * Number of transactions waiting to be written.
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Largest queue depth seen since startup.
+     */
+    public int getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Transactions accepted into the queue since startup.
+     */
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    /**
+     * Transactions the backend accepted since startup, including overflow writes.
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Transactions written on the caller's thread because the queue was full.
+     */
+    public long getOverflowCount() {
+        return overflowed.sum();
+    }
+
+    /**
+     * Transactions dropped since startup because the backend rejected them on every attempt, or on
+     * the only attempt for an overflow write.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Duration of the most recent batch write in milliseconds.
+     */
+    public double getLastFlushMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    // --- Pass-through: balances ---
+
+    @Override
+    public double getBalance(UUID uuid, String currency) {
+        return delegate.getBalance(uuid, currency);
+    }
+
+    @Override
+    public void setBalance(UUID uuid, String currency, double amount) {
+        delegate.setBalance(uuid, currency, amount);
+    }
+
+    @Override
+    public boolean tryWithdraw(UUID uuid, String currency, double amount) {
+        return delegate.tryWithdraw(uuid, currency, amount);
+    }
+
+    @Override
+    public void deposit(UUID uuid, String currency, double amount) {
+        delegate.deposit(uuid, currency, amount);
+    }
+
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        return delegate.withdrawAndGet(uuid, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        return delegate.depositAndGet(uuid, currency, amount);
+    }
+
+    @Override
+    public void depositAll(Map<UUID, Double> amounts, String currency) {
+        delegate.depositAll(amounts, currency);
+    }
+
+    @Override
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        return delegate.applyBatch(mutations);
+    }
+
+    @Override
+    public Map<UUID, Double> getAllBalances(String currency) {
+        return delegate.getAllBalances(currency);
+    }
+
+    @Override
+    public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        return delegate.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
+    }
+
+    @Override
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        return delegate.exchange(uuid, fromCurrency, toCurrency, debitAmount, creditAmount);
+    }
+
+    @Override
+    public int getRank(UUID uuid, String currency) {
+        return delegate.getRank(uuid, currency);
+    }
+
+    @Override
+    public List<Map.Entry<UUID, Double>> getTopBalances(String currency, int offset, int limit) {
+        return delegate.getTopBalances(currency, offset, limit);
+    }
+
+    @Override
+    public int getRankedCount(String currency) {
+        return delegate.getRankedCount(currency);
+    }
+
+    @Override
+    public Set<String> cleanupOrphanedPlayers() {
+        return delegate.cleanupOrphanedPlayers();
+    }
+
+    // --- Pass-through: banks ---
+
+    @Override
+    public boolean createBank(String name, UUID owner) {
+        return delegate.createBank(name, owner);
+    }
+
+    @Override
+    public boolean deleteBank(String name) {
+        return delegate.deleteBank(name);
+    }
+
+    @Override
+    public boolean bankExists(String name) {
+        return delegate.bankExists(name);
+    }
+
+    @Override
+    public double getBankBalance(String name, String currency) {
+        return delegate.getBankBalance(name, currency);
+    }
+
+    @Override
+    public void setBankBalance(String name, String currency, double amount) {
+        delegate.setBankBalance(name, currency, amount);
+    }
+
+    @Override
+    public boolean tryWithdrawBank(String name, String currency, double amount) {
+        return delegate.tryWithdrawBank(name, currency, amount);
+    }
+
+    @Override
+    public void depositBank(String name, String currency, double amount) {
+        delegate.depositBank(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        return delegate.withdrawBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        return delegate.depositBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public Set<String> getBanks() {
+        return delegate.getBanks();
+    }
+
+    @Override
+    public boolean isBankOwner(String name, UUID uuid) {
+        return delegate.isBankOwner(name, uuid);
+    }
+
+    @Override
+    public boolean isBankMember(String name, UUID uuid) {
+        return delegate.isBankMember(name, uuid);
+    }
+
+    @Override
+    public boolean addBankMember(String name, UUID uuid) {
+        return delegate.addBankMember(name, uuid);
+    }
+
+    @Override
+    public boolean removeBankMember(String name, UUID uuid) {
+        return delegate.removeBankMember(name, uuid);
+    }
+
+    @Override
+    public Set<UUID> getBankMembers(String name) {
+        return delegate.getBankMembers(name);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalingStorageProvider{" +
+                "delegate=" + delegate +
+                ", queued=" + depth.get() +
+                '}';
+    }
+}
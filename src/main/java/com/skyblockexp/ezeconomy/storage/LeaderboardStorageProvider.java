@@ -0,0 +1,502 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Storage decorator that keeps a ranked balance index per currency.
+ * <p>
+ * The index for a currency is built from {@code getAllBalances} the first time that currency is
+ * ranked. A first request from the main thread (placeholders) never waits for that scan: the index is
+ * built on the storage executor and reads see an empty board until it is ready. A failed build is
+ * retried no sooner than after a back-off that doubles up to {@value #MAX_RETRY_MILLIS} ms. The index
+ * is then updated by every balance mutation that passes through this provider, so
+ * {@link #getRank(UUID, String)} and {@link #getTopBalances(String, int, int)} never sort the full
+ * balance map. Each index is also rebuilt on a configurable interval to pick up changes made
+ * outside this server.
+ * </p>
+ */
+public class LeaderboardStorageProvider implements StorageProvider {
+    private static final long INITIAL_RETRY_MILLIS = 5_000L;
+    private static final long MAX_RETRY_MILLIS = 300_000L;
+
+    private final EzEconomyPlugin plugin;
+    private final StorageProvider delegate;
+    private final long refreshIntervalTicks;
+    private final ConcurrentMap<String, Board> boards = new ConcurrentHashMap<>();
+    private BukkitTask refreshTask;
+
+    /**
+     * Wraps a storage provider with a ranked balance index.
+     * @param plugin EzEconomy plugin instance, used to schedule the refresh task
+     * @param delegate Backend storage provider
+     * @param refreshIntervalTicks How often every index is rebuilt from the backend, or 0 to never rebuild
+     */
+    public LeaderboardStorageProvider(EzEconomyPlugin plugin, StorageProvider delegate, long refreshIntervalTicks) {
+        this.plugin = plugin;
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.refreshIntervalTicks = Math.max(0L, refreshIntervalTicks);
+    }
+
+    /**
+     * Returns the wrapped backend provider.
+     */
+    public StorageProvider getDelegate() {
+        return delegate;
+    }
+
+    // --- Lifecycle ---
+
+    @Override
+    public void init() throws StorageInitException {
+        delegate.init();
+        boards.clear();
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        if (refreshIntervalTicks > 0) {
+            refreshTask = plugin.getStorageExecutor()
+                    .scheduleRepeating(plugin, this::refreshAll, refreshIntervalTicks, refreshIntervalTicks);
+        }
+    }
+
+    @Override
+    public void load() throws StorageLoadException {
+        delegate.load();
+        boards.clear();
+    }
+
+    @Override
+    public void save() throws StorageSaveException {
+        delegate.save();
+    }
+
+    @Override
+    public void shutdown() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        boards.clear();
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    // --- Ranking ---
+
+    @Override
+    public int getRank(UUID uuid, String currency) {
+        return board(currency).rank(uuid);
+    }
+
+    @Override
+    public List<Map.Entry<UUID, Double>> getTopBalances(String currency, int offset, int limit) {
+        return board(currency).page(offset, limit);
+    }
+
+    @Override
+    public int getRankedCount(String currency) {
+        return board(currency).size();
+    }
+
+    /**
+     * Rebuilds every loaded index from the backend.
+     */
+    public void refreshAll() {
+        for (Board board : boards.values()) {
+            board.rebuild();
+        }
+    }
+
+    private Board board(String currency) {
+        Board board = boards.computeIfAbsent(currency, Board::new);
+        board.ensureLoaded();
+        return board;
+    }
+
+    /**
+     * Records the balance of an account after a mutation. Currencies nobody has ranked yet are skipped.
+     */
+    private void record(UUID uuid, String currency, double balance) {
+        Board board = boards.get(currency);
+        if (board != null) {
+            board.record(uuid, balance);
+        }
+    }
+
+    // --- Player balances ---
+
+    @Override
+    public double getBalance(UUID uuid, String currency) {
+        return delegate.getBalance(uuid, currency);
+    }
+
+    @Override
+    public void setBalance(UUID uuid, String currency, double amount) {
+        // The per-account lock keeps index updates for one account in the same order as the writes
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            delegate.setBalance(uuid, currency, amount);
+            record(uuid, currency, amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryWithdraw(UUID uuid, String currency, double amount) {
+        return withdrawAndGet(uuid, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            BalanceResult result = delegate.withdrawAndGet(uuid, currency, amount);
+            if (result.isSuccess() && boards.containsKey(currency)) {
+                record(uuid, currency, result.getBalance());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deposit(UUID uuid, String currency, double amount) {
+        depositAndGet(uuid, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            BalanceResult result = delegate.depositAndGet(uuid, currency, amount);
+            if (result.isSuccess() && boards.containsKey(currency)) {
+                record(uuid, currency, result.getBalance());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        List<BalanceMutation> rejected = delegate.applyBatch(mutations);
+        // Re-read each changed account under its lock so the index ends up with the latest balance
+        Set<BalanceMutation> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        skipped.addAll(rejected);
+        Set<String> seen = new HashSet<>();
+        for (BalanceMutation mutation : mutations) {
+            if (skipped.contains(mutation) || !boards.containsKey(mutation.getCurrency())) continue;
+            if (!seen.add(mutation.getUuid() + ":" + mutation.getCurrency())) continue;
+            ReentrantLock lock = TransferLockManager.getLock(mutation.getUuid());
+            lock.lock();
+            try {
+                record(mutation.getUuid(), mutation.getCurrency(), delegate.getBalance(mutation.getUuid(), mutation.getCurrency()));
+            } finally {
+                lock.unlock();
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public Map<UUID, Double> getAllBalances(String currency) {
+        return delegate.getAllBalances(currency);
+    }
+
+    @Override
+    public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        // Answer the transfer's pre event before locking; a sync event would otherwise wait for a main
+        // thread that may be blocked on one of these locks
+        return plugin.getEventDispatcher().withTransferAnswered(fromUuid, toUuid, debitAmount,
+                () -> lockedTransfer(fromUuid, toUuid, currency, debitAmount, creditAmount));
+    }
+
+    private TransferResult lockedTransfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        ReentrantLock[] locks = TransferLockManager.getOrderedLocks(fromUuid, toUuid);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            TransferResult result = delegate.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
+            if (result.isSuccess()) {
+                record(fromUuid, currency, result.getFromBalance());
+                record(toUuid, currency, result.getToBalance());
+            }
+            return result;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        ReentrantLock lock = TransferLockManager.getLock(uuid);
+        lock.lock();
+        try {
+            TransferResult result = delegate.exchange(uuid, fromCurrency, toCurrency, debitAmount, creditAmount);
+            if (result.isSuccess()) {
+                record(uuid, fromCurrency, result.getFromBalance());
+                record(uuid, toCurrency, result.getToBalance());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<String> cleanupOrphanedPlayers() {
+        Set<String> removed = delegate.cleanupOrphanedPlayers();
+        if (!removed.isEmpty()) {
+            refreshAll();
+        }
+        return removed;
+    }
+
+    // --- Pass-through: transactions ---
+
+    @Override
+    public void logTransaction(Transaction transaction) {
+        delegate.logTransaction(transaction);
+    }
+
+    @Override
+    public void logTransactions(List<Transaction> transactions) {
+        delegate.logTransactions(transactions);
+    }
+
+    @Override
+    public List<Transaction> getTransactions(UUID uuid, String currency) {
+        return delegate.getTransactions(uuid, currency);
+    }
+
+    @Override
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        return delegate.getTransactions(uuid, currency, from, to, cursor, limit);
+    }
+
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, List<Transaction> replacement) {
+        return delegate.replaceTransactions(uuid, currency, from, to, replacement);
+    }
+
+    // --- Pass-through: banks ---
+
+    @Override
+    public boolean createBank(String name, UUID owner) {
+        return delegate.createBank(name, owner);
+    }
+
+    @Override
+    public boolean deleteBank(String name) {
+        return delegate.deleteBank(name);
+    }
+
+    @Override
+    public boolean bankExists(String name) {
+        return delegate.bankExists(name);
+    }
+
+    @Override
+    public double getBankBalance(String name, String currency) {
+        return delegate.getBankBalance(name, currency);
+    }
+
+    @Override
+    public void setBankBalance(String name, String currency, double amount) {
+        delegate.setBankBalance(name, currency, amount);
+    }
+
+    @Override
+    public boolean tryWithdrawBank(String name, String currency, double amount) {
+        return delegate.tryWithdrawBank(name, currency, amount);
+    }
+
+    @Override
+    public void depositBank(String name, String currency, double amount) {
+        delegate.depositBank(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        return delegate.withdrawBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        return delegate.depositBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public Set<String> getBanks() {
+        return delegate.getBanks();
+    }
+
+    @Override
+    public boolean isBankOwner(String name, UUID uuid) {
+        return delegate.isBankOwner(name, uuid);
+    }
+
+    @Override
+    public boolean isBankMember(String name, UUID uuid) {
+        return delegate.isBankMember(name, uuid);
+    }
+
+    @Override
+    public boolean addBankMember(String name, UUID uuid) {
+        return delegate.addBankMember(name, uuid);
+    }
+
+    @Override
+    public boolean removeBankMember(String name, UUID uuid) {
+        return delegate.removeBankMember(name, uuid);
+    }
+
+    @Override
+    public Set<UUID> getBankMembers(String name) {
+        return delegate.getBankMembers(name);
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderboardStorageProvider{" +
+                "delegate=" + delegate +
+                ", currencies=" + boards.keySet() +
+                '}';
+    }
+
+    // --- Index per currency ---
+
+    /**
+     * Index for one currency. Balances recorded while the index is being (re)built from a backend
+     * snapshot are kept aside and applied on top of the snapshot, since they are newer.
+     */
+    private final class Board {
+        private final String currency;
+        private final BalanceLeaderboard index = new BalanceLeaderboard();
+        private final Object buildLock = new Object();
+        private final AtomicBoolean buildScheduled = new AtomicBoolean();
+        private Map<UUID, Double> pending;
+        private volatile boolean loaded;
+        // Earliest time a failed first build is tried again; guarded by buildLock for writes
+        private volatile long retryAt;
+        private long retryDelay = INITIAL_RETRY_MILLIS;
+
+        private Board(String currency) {
+            this.currency = currency;
+        }
+
+        private void ensureLoaded() {
+            if (loaded || System.currentTimeMillis() < retryAt) return;
+            if (!plugin.getServer().isPrimaryThread()) {
+                synchronized (buildLock) {
+                    if (loaded || System.currentTimeMillis() < retryAt) return;
+                    rebuild();
+                }
+                return;
+            }
+            if (!buildScheduled.compareAndSet(false, true)) return;
+            try {
+                plugin.getStorageExecutor().execute(() -> {
+                    try {
+                        ensureLoaded();
+                    } finally {
+                        buildScheduled.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Storage is saturated; the next read schedules the build again
+                buildScheduled.set(false);
+            }
+        }
+
+        private void rebuild() {
+            synchronized (buildLock) {
+                synchronized (this) {
+                    pending = new HashMap<>();
+                }
+                Map<UUID, Double> snapshot;
+                try {
+                    snapshot = delegate.getAllBalances(currency);
+                } catch (Exception e) {
+                    plugin.getLogger().severe("[EzEconomy] Failed to build leaderboard for " + currency + ": " + e.getMessage());
+                    snapshot = null;
+                }
+                if (snapshot != null) {
+                    retryDelay = INITIAL_RETRY_MILLIS;
+                    retryAt = 0L;
+                } else {
+                    retryAt = System.currentTimeMillis() + retryDelay;
+                    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_MILLIS);
+                }
+                synchronized (this) {
+                    if (snapshot != null) {
+                        index.replaceAll(snapshot);
+                        loaded = true;
+                    }
+                    for (Map.Entry<UUID, Double> entry : pending.entrySet()) {
+                        index.update(entry.getKey(), entry.getValue());
+                    }
+                    pending = null;
+                }
+            }
+        }
+
+        private synchronized void record(UUID uuid, double balance) {
+            if (pending != null) {
+                pending.put(uuid, balance);
+            }
+            index.update(uuid, balance);
+        }
+
+        private int rank(UUID uuid) {
+            return index.rank(uuid);
+        }
+
+        private List<Map.Entry<UUID, Double>> page(int offset, int limit) {
+            return index.page(offset, limit);
+        }
+
+        private int size() {
+            return index.size();
+        }
+    }
+}
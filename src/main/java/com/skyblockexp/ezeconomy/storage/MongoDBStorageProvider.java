@@ -1,23 +1,38 @@
 package com.skyblockexp.ezeconomy.storage;
 
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.client.*;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.UpdateOptions;
 import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.bukkit.configuration.file.YamlConfiguration;
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
 import java.util.*;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import com.skyblockexp.ezeconomy.api.events.BankPreTransactionEvent;
 import com.skyblockexp.ezeconomy.api.events.BankPostTransactionEvent;
 import com.skyblockexp.ezeconomy.api.events.TransactionType;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
 import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
 
 /**
  * MongoDB implementation of the StorageProvider interface for EzEconomy.
  * Handles player and bank balances using a MongoDB database.
- * Thread-safe and ready for open-source use.
+ * Thread-safe and ready for open-source use: mutations lock only the affected
+ * account or bank stripe (see {@link StripedLocks}), reads take no lock.
  *
  * <p>Usage: Instantiate with plugin and config. Throws RuntimeException if initialization fails.</p>
  */
@@ -28,8 +43,12 @@ public class MongoDBStorageProvider implements StorageProvider {
     private MongoDatabase database;
     private MongoCollection<Document> balances;
     private MongoCollection<Document> banks;
-    private final Object lock = new Object();
+    private final StripedLocks locks;
     private final YamlConfiguration dbConfig;
+    // Server error code for transactions on a standalone mongod
+    private static final int ILLEGAL_OPERATION = 20;
+    // Cleared once the server reports that it cannot run multi-document transactions (standalone mongod)
+    private volatile boolean transactionsSupported = true;
 
     // --- Constructors ---
     /**
@@ -42,6 +61,7 @@ public class MongoDBStorageProvider implements StorageProvider {
         this.plugin = plugin;
         this.dbConfig = dbConfig;
         if (dbConfig == null) throw new IllegalArgumentException("MongoDB config is missing!");
+        this.locks = new StripedLocks(plugin.getConfig().getInt("lock-stripes", StripedLocks.DEFAULT_STRIPES));
     }
 
     // --- Lifecycle Methods ---
@@ -60,6 +80,7 @@ public class MongoDBStorageProvider implements StorageProvider {
             MongoCollection<Document> tempBanks = tempDb.getCollection(banksCollection);
             tempBalances.createIndex(new org.bson.Document("uuid", 1).append("currency", 1));
             tempBanks.createIndex(new org.bson.Document("name", 1), new com.mongodb.client.model.IndexOptions().unique(true));
+            tempDb.getCollection("transactions").createIndex(new org.bson.Document("uuid", 1).append("currency", 1).append("timestamp", -1));
         } catch (Exception e) {
             plugin.getLogger().severe("MongoDB schema init failed: " + e.getMessage());
             throw new com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException("Failed to initialize MongoDB schema", e);
@@ -111,124 +132,320 @@ public class MongoDBStorageProvider implements StorageProvider {
     // --- Transaction Methods ---
     @Override
     public void logTransaction(com.skyblockexp.ezeconomy.api.storage.models.Transaction tx) {
-        synchronized (lock) {
-            try {
-                MongoCollection<org.bson.Document> transactions = database.getCollection("transactions");
-                org.bson.Document doc = new org.bson.Document()
+        try {
+            MongoCollection<org.bson.Document> transactions = database.getCollection("transactions");
+            org.bson.Document doc = new org.bson.Document()
+                    .append("uuid", tx.getUuid().toString())
+                    .append("currency", tx.getCurrency())
+                    .append("amount", tx.getAmount())
+                    .append("timestamp", tx.getTimestamp());
+            transactions.insertOne(doc);
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] MongoDB logTransaction failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, List<Transaction> replacement) {
+        try {
+            database.getCollection("transactions").deleteMany(new Document("uuid", uuid.toString())
+                    .append("currency", currency)
+                    .append("timestamp", new Document("$gte", from).append("$lt", to)));
+            logTransactions(replacement);
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] MongoDB replaceTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Inserts the whole batch with a single insertMany.
+     */
+    @Override
+    public void logTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) return;
+        try {
+            List<Document> docs = new ArrayList<>(transactions.size());
+            for (Transaction tx : transactions) {
+                docs.add(new Document()
                         .append("uuid", tx.getUuid().toString())
                         .append("currency", tx.getCurrency())
                         .append("amount", tx.getAmount())
-                        .append("timestamp", tx.getTimestamp());
-                transactions.insertOne(doc);
-            } catch (Exception e) {
-                plugin.getLogger().severe("[EzEconomy] MongoDB logTransaction failed: " + e.getMessage());
+                        .append("timestamp", tx.getTimestamp()));
             }
+            database.getCollection("transactions").insertMany(docs);
+        } catch (MongoBulkWriteException e) {
+            // insertMany is ordered, so every document before the first error was inserted
+            int first = e.getWriteErrors().isEmpty() ? 0 : e.getWriteErrors().get(0).getIndex();
+            throw new TransactionLogException("MongoDB logTransactions failed: " + e.getMessage(), e, transactions.subList(first, transactions.size()));
+        } catch (Exception e) {
+            throw new TransactionLogException("MongoDB logTransactions failed: " + e.getMessage(), e, transactions);
         }
     }
 
     @Override
     public java.util.List<com.skyblockexp.ezeconomy.api.storage.models.Transaction> getTransactions(java.util.UUID uuid, String currency) {
         List<Transaction> transactions = new ArrayList<>();
-        synchronized (lock) {
-            try {
-                MongoCollection<Document> txCol = database.getCollection("transactions");
-                FindIterable<Document> docs = txCol.find(new Document("uuid", uuid.toString()).append("currency", currency)).sort(new Document("timestamp", -1));
-                for (Document doc : docs) {
-                    double amount = doc.getDouble("amount");
-                    long timestamp = doc.getLong("timestamp");
-                    transactions.add(new Transaction(uuid, currency, amount, timestamp));
-                }
-            } catch (Exception e) {
-                plugin.getLogger().severe("[EzEconomy] MongoDB getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        try {
+            MongoCollection<Document> txCol = database.getCollection("transactions");
+            FindIterable<Document> docs = txCol.find(new Document("uuid", uuid.toString()).append("currency", currency)).sort(new Document("timestamp", -1));
+            for (Document doc : docs) {
+                double amount = doc.getDouble("amount");
+                long timestamp = doc.getLong("timestamp");
+                transactions.add(new Transaction(uuid, currency, amount, timestamp));
             }
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] MongoDB getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
         }
         return transactions;
     }
 
+    @Override
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        if (limit <= 0 || from >= to) return TransactionPage.empty();
+        List<Transaction> rows = new ArrayList<>();
+        try {
+            Document filter = new Document("uuid", uuid.toString())
+                    .append("currency", currency)
+                    .append("timestamp", new Document("$gte", from).append("$lte", TransactionCursor.upperBound(cursor, to)));
+            FindIterable<Document> docs = database.getCollection("transactions").find(filter)
+                    .sort(new Document("timestamp", -1).append("_id", -1))
+                    .skip(TransactionCursor.offset(cursor, to))
+                    .limit(limit + 1);
+            for (Document doc : docs) {
+                rows.add(new Transaction(uuid, currency, doc.getDouble("amount"), doc.getLong("timestamp")));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] MongoDB getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        }
+        return TransactionPage.of(rows, cursor, limit);
+    }
+
     // --- Player Balance Methods ---
     @Override
     public double getBalance(UUID uuid, String currency) {
-        synchronized (lock) {
-            Document doc = balances.find(new Document("uuid", uuid.toString()).append("currency", currency)).first();
-            if (doc != null) return doc.getDouble("balance");
-            return 0.0;
-        }
+        Document doc = balances.find(new Document("uuid", uuid.toString()).append("currency", currency)).first();
+        if (doc != null) return number(doc.get("balance"));
+        return 0.0;
     }
 
     @Override
     public void setBalance(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
             Document query = new Document("uuid", uuid.toString()).append("currency", currency);
-            Document update = new Document("$set", new Document("balance", amount));
+            Document update = new Document("$set", new Document("balance", decimal(amount, currency)));
             balances.updateOne(query, update, new UpdateOptions().upsert(true));
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean tryWithdraw(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
             Document query = new Document("uuid", uuid.toString())
                 .append("currency", currency)
                 .append("balance", new Document("$gte", amount));
-            Document update = new Document("$inc", new Document("balance", -amount));
+            Document update = new Document("$inc", new Document("balance", decimal(-amount, currency)));
             Document updated = balances.findOneAndUpdate(query, update);
             return updated != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Withdraws with one {@code findOneAndUpdate} that returns the updated document. The balance is
+     * only read separately when the withdrawal is rejected.
+     */
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            Document query = new Document("uuid", uuid.toString())
+                .append("currency", currency)
+                .append("balance", new Document("$gte", amount));
+            Document update = new Document("$inc", new Document("balance", decimal(-amount, currency)));
+            Document updated = balances.findOneAndUpdate(query, update,
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+            if (updated == null) {
+                return BalanceResult.insufficientFunds(getBalance(uuid, currency));
+            }
+            return BalanceResult.success(number(updated.get("balance")));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            Document query = new Document("uuid", uuid.toString()).append("currency", currency);
+            Document update = new Document("$inc", new Document("balance", decimal(amount, currency)));
+            Document updated = balances.findOneAndUpdate(query, update,
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            return BalanceResult.success(updated != null ? number(updated.get("balance")) : amount);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void deposit(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
             Document query = new Document("uuid", uuid.toString()).append("currency", currency);
-            Document update = new Document("$inc", new Document("balance", amount));
+            Document update = new Document("$inc", new Document("balance", decimal(amount, currency)));
             balances.updateOne(query, update, new UpdateOptions().upsert(true));
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Sends consecutive deposits and sets as one ordered {@code bulkWrite}. Withdrawals are conditional
+     * updates of their own, since a bulk result does not say which update matched.
+     */
+    @Override
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        List<BalanceMutation> rejected = new ArrayList<>();
+        List<WriteModel<Document>> pending = new ArrayList<>();
+        int pendingStart = 0;
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        try {
+            for (int i = 0; i < mutations.size(); i++) {
+                BalanceMutation mutation = mutations.get(i);
+                Document query = new Document("uuid", mutation.getUuid().toString()).append("currency", mutation.getCurrency());
+                if (mutation.getType() == BalanceMutation.Type.WITHDRAW) {
+                    if (!pending.isEmpty()) {
+                        balances.bulkWrite(pending);
+                        pending.clear();
+                    }
+                    pendingStart = i;
+                    query.append("balance", new Document("$gte", mutation.getAmount()));
+                    if (balances.findOneAndUpdate(query, new Document("$inc", new Document("balance", decimal(-mutation.getAmount(), mutation.getCurrency())))) == null) {
+                        rejected.add(mutation);
+                    }
+                    pendingStart = i + 1;
+                    continue;
+                }
+                String operator = mutation.getType() == BalanceMutation.Type.DEPOSIT ? "$inc" : "$set";
+                pending.add(new UpdateOneModel<>(query, new Document(operator, new Document("balance", decimal(mutation.getAmount(), mutation.getCurrency()))), upsert));
+            }
+            if (!pending.isEmpty()) {
+                balances.bulkWrite(pending);
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().severe("[EzEconomy] MongoDB applyBatch failed: " + e.getMessage());
+            rejected.addAll(mutations.subList(pendingStart, mutations.size()));
+        }
+        return rejected;
+    }
+
     @Override
     public Map<UUID, Double> getAllBalances(String currency) {
         Map<UUID, Double> map = new HashMap<>();
-        synchronized (lock) {
-            for (Document doc : balances.find(new Document("currency", currency))) {
-                map.put(UUID.fromString(doc.getString("uuid")), doc.getDouble("balance"));
-            }
+        for (Document doc : balances.find(new Document("currency", currency))) {
+            map.put(UUID.fromString(doc.getString("uuid")), number(doc.get("balance")));
         }
         return map;
     }
 
-    @Override
-    public com.skyblockexp.ezeconomy.storage.TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
-        double fromBefore = getBalance(fromUuid, currency);
-        double toBefore = getBalance(toUuid, currency);
+    /**
+     * Moves the funds in a multi-document transaction when the deployment supports it (replica set or
+     * sharded cluster). On a standalone server the conditional withdraw and the deposit are two atomic
+     * {@code $inc} updates, and the withdraw is refunded if the deposit fails. Either way the balances
+     * returned are the documents as updated, without extra reads. The two accounts may be in different
+     * currencies, which is how {@link #exchange} uses this.
+     */
+    private TransferResult transferAtomically(UUID fromUuid, String fromCurrency, UUID toUuid, String toCurrency, double debitAmount, double creditAmount) {
+        if (debitAmount < 0 || creditAmount < 0) {
+            return TransferResult.failure(getBalance(fromUuid, fromCurrency), getBalance(toUuid, toCurrency));
+        }
+        try {
+            if (transactionsSupported) {
+                try (ClientSession session = mongoClient.startSession()) {
+                    return session.withTransaction(() -> transferSteps(session, fromUuid, fromCurrency, toUuid, toCurrency, debitAmount, creditAmount));
+                } catch (com.mongodb.MongoException e) {
+                    if (e.getCode() != ILLEGAL_OPERATION) throw e;
+                    transactionsSupported = false;
+                    plugin.getLogger().info("MongoDB server does not support transactions; transfers use compensating updates.");
+                }
+            }
+            return transferSteps(null, fromUuid, fromCurrency, toUuid, toCurrency, debitAmount, creditAmount);
+        } catch (RuntimeException e) {
+            plugin.getLogger().severe("[EzEconomy] MongoDB transfer failed from " + fromUuid + " (" + fromCurrency + ") to " + toUuid + " (" + toCurrency + "): " + e.getMessage());
+            return TransferResult.failure(getBalance(fromUuid, fromCurrency), getBalance(toUuid, toCurrency));
+        }
+    }
 
-        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER);
+    private TransferResult transferSteps(ClientSession session, UUID fromUuid, String fromCurrency, UUID toUuid, String toCurrency, double debitAmount, double creditAmount) {
+        FindOneAndUpdateOptions after = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+        Document fromQuery = new Document("uuid", fromUuid.toString()).append("currency", fromCurrency);
+        Document withdrawQuery = new Document(fromQuery).append("balance", new Document("$gte", debitAmount));
+        Document withdraw = new Document("$inc", new Document("balance", decimal(-debitAmount, fromCurrency)));
+        Document from = session != null
+                ? balances.findOneAndUpdate(session, withdrawQuery, withdraw, after)
+                : balances.findOneAndUpdate(withdrawQuery, withdraw, after);
+        if (from == null) {
+            return TransferResult.failure(getBalance(fromUuid, fromCurrency), getBalance(toUuid, toCurrency));
+        }
+        Document toQuery = new Document("uuid", toUuid.toString()).append("currency", toCurrency);
+        Document credit = new Document("$inc", new Document("balance", decimal(creditAmount, toCurrency)));
+        Document to;
         try {
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(pre);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            plugin.getLogger().warning("[EzEconomy] Failed to fire PreTransactionEvent: " + e.getMessage());
+            to = session != null
+                    ? balances.findOneAndUpdate(session, toQuery, credit, new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER))
+                    : balances.findOneAndUpdate(toQuery, credit, new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        } catch (RuntimeException e) {
+            if (session == null) {
+                // No transaction to abort; give the sender their money back
+                balances.updateOne(fromQuery, new Document("$inc", new Document("balance", decimal(debitAmount, fromCurrency))));
+            }
+            throw e;
         }
-        if (pre.isCancelled()) {
-            return com.skyblockexp.ezeconomy.storage.TransferResult.failure(fromBefore, toBefore);
+        double toBalance = number(to.get("balance"));
+        boolean sameAccount = fromUuid.equals(toUuid) && fromCurrency.equals(toCurrency);
+        return TransferResult.success(sameAccount ? toBalance : number(from.get("balance")), toBalance);
+    }
+
+    /**
+     * Exchanges with the same transaction or refunded withdraw as a transfer, so a failed deposit
+     * never loses the debited currency.
+     */
+    @Override
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        return transferAtomically(uuid, fromCurrency, uuid, toCurrency, debitAmount, creditAmount);
+    }
+
+    @Override
+    public com.skyblockexp.ezeconomy.storage.TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) {
+            return com.skyblockexp.ezeconomy.storage.TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
         }
 
-        com.skyblockexp.ezeconomy.storage.TransferResult result = StorageProvider.super.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
+        com.skyblockexp.ezeconomy.storage.TransferResult result = transferAtomically(fromUuid, currency, toUuid, currency, debitAmount, creditAmount);
+        // Worked back from the balances in the updated documents, so they match what the transfer changed
+        boolean sameAccount = fromUuid.equals(toUuid);
+        double fromBefore = result.getFromBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
+        double toBefore = result.getToBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
 
         com.skyblockexp.ezeconomy.api.events.PostTransactionEvent post = new com.skyblockexp.ezeconomy.api.events.PostTransactionEvent(
             fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER,
             result.isSuccess(), java.math.BigDecimal.valueOf(fromBefore), java.math.BigDecimal.valueOf(result.getFromBalance()),
-            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance())
+            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance()), plugin.getEventDispatcher().createAsync()
         );
-        try {
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(post);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            plugin.getLogger().warning("[EzEconomy] Failed to fire PostTransactionEvent: " + e.getMessage());
-        }
+        plugin.getEventDispatcher().callPost(post);
 
         return result;
     }
@@ -236,7 +453,9 @@ public class MongoDBStorageProvider implements StorageProvider {
     // --- Bank Methods ---
     @Override
     public boolean createBank(String name, UUID owner) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
             if (bankExists(name)) return false;
             Document doc = new Document("name", name)
                 .append("owner", owner.toString())
@@ -244,167 +463,182 @@ public class MongoDBStorageProvider implements StorageProvider {
                 .append("balances", new Document());
             banks.insertOne(doc);
             return true;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean deleteBank(String name) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
             return banks.deleteOne(new Document("name", name)).getDeletedCount() > 0;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean bankExists(String name) {
-        synchronized (lock) {
-            return banks.find(new Document("name", name)).first() != null;
-        }
+        return banks.find(new Document("name", name)).first() != null;
     }
 
     @Override
     public double getBankBalance(String name, String currency) {
-        synchronized (lock) {
-            Document doc = banks.find(new Document("name", name)).first();
-            if (doc != null) {
-                Document balancesDoc = doc.get("balances", Document.class);
-                if (balancesDoc != null && balancesDoc.containsKey(currency)) {
-                    return balancesDoc.getDouble(currency);
-                }
+        Document doc = banks.find(new Document("name", name)).first();
+        if (doc != null) {
+            Document balancesDoc = doc.get("balances", Document.class);
+            if (balancesDoc != null && balancesDoc.containsKey(currency)) {
+                return number(balancesDoc.get(currency));
             }
-            return 0.0;
         }
+        return 0.0;
     }
 
     @Override
     public void setBankBalance(String name, String currency, double amount) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
             banks.updateOne(
                 new Document("name", name),
-                new Document("$set", new Document("balances." + currency, amount))
+                new Document("$set", new Document("balances." + currency, decimal(amount, currency)))
             );
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean tryWithdrawBank(String name, String currency, double amount) {
-        synchronized (lock) {
-            Document doc = banks.find(new Document("name", name)).first();
-            if (doc == null) return false;
-            Document balancesDoc = doc.get("balances", Document.class);
-            double before = 0.0;
-            if (balancesDoc != null && balancesDoc.containsKey(currency)) before = balancesDoc.getDouble(currency);
-
-            BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW);
-                if (plugin.getServer().isPrimaryThread()) {
-                    plugin.getServer().getPluginManager().callEvent(pre);
-                } else {
-                    try {
-                        plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                            plugin.getServer().getPluginManager().callEvent(pre);
-                            return null;
-                        }).get();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-                    }
-                }
-            if (pre.isCancelled()) return false;
+        return withdrawBankAndGet(name, currency, amount).isSuccess();
+    }
 
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        // Answer the pre event before taking the bank stripe: a synchronous event waits for the main
+        // thread, which may itself be waiting for this stripe in a call on another bank
+        Document doc = banks.find(new Document("name", name)).first();
+        if (doc == null) return BalanceResult.notFound();
+        double before = bankBalance(doc, currency);
+
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(before);
+
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
             Document query = new Document("name", name)
                 .append("balances." + currency, new Document("$gte", amount));
-            Document update = new Document("$inc", new Document("balances." + currency, -amount));
-            Document updated = banks.findOneAndUpdate(query, update);
-            boolean ok = updated != null;
-            if (ok) {
-                BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(before), BigDecimal.valueOf(before - amount));
-                if (plugin.getServer().isPrimaryThread()) {
-                    plugin.getServer().getPluginManager().callEvent(post);
-                } else {
-                    try {
-                        plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                            plugin.getServer().getPluginManager().callEvent(post);
-                            return null;
-                        }).get();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-                    }
-                }
+            Document update = new Document("$inc", new Document("balances." + currency, decimal(-amount, currency)));
+            Document updated = banks.findOneAndUpdate(query, update,
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+            if (updated == null) {
+                Document current = banks.find(new Document("name", name)).first();
+                return current == null ? BalanceResult.notFound() : BalanceResult.insufficientFunds(bankBalance(current, currency));
             }
-            return ok;
+            double after = bankBalance(updated, currency);
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(Money.add(after, amount, decimals(currency))), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void depositBank(String name, String currency, double amount) {
-        synchronized (lock) {
-            Document doc = banks.find(new Document("name", name)).first();
-            double before = 0.0;
-            if (doc != null) {
-                Document balancesDoc = doc.get("balances", Document.class);
-                if (balancesDoc != null && balancesDoc.containsKey(currency)) before = balancesDoc.getDouble(currency);
-            }
+        depositBankAndGet(name, currency, amount);
+    }
 
-            BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT);
-            try {
-                plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                    plugin.getServer().getPluginManager().callEvent(pre);
-                    return null;
-                }).get();
-            } catch (Exception e) {
-                plugin.getLogger().warning("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-            }
-            if (pre.isCancelled()) return;
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        // Answer the pre event before taking the bank stripe, see withdrawBankAndGet
+        Document doc = banks.find(new Document("name", name)).first();
+        if (doc == null) return BalanceResult.notFound();
+        double before = bankBalance(doc, currency);
 
-            banks.updateOne(
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(before);
+
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
+            Document updated = banks.findOneAndUpdate(
                 new Document("name", name),
-                new Document("$inc", new Document("balances." + currency, amount))
+                new Document("$inc", new Document("balances." + currency, decimal(amount, currency))),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
             );
-
-            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(before), BigDecimal.valueOf(before + amount));
-            try {
-                plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                    plugin.getServer().getPluginManager().callEvent(post);
-                    return null;
-                }).get();
-            } catch (Exception e) {
-                plugin.getLogger().warning("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-            }
+            if (updated == null) return BalanceResult.notFound();
+            double after = bankBalance(updated, currency);
+
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(Money.subtract(after, amount, decimals(currency))), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Converts an amount to the exact decimal stored in MongoDB, rounded to the currency's decimals.
+     * {@code $inc} on a {@code Decimal128} is exact, and an old {@code double} balance becomes a
+     * decimal on its next update.
+     */
+    private Decimal128 decimal(double amount, String currency) {
+        return new Decimal128(BigDecimal.valueOf(amount).setScale(decimals(currency), RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Reads a stored balance, which is a {@code Decimal128} or, if written by an older version, a {@code double}.
+     */
+    private static double number(Object value) {
+        if (value instanceof Decimal128) return ((Decimal128) value).bigDecimalValue().doubleValue();
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        return 0.0;
+    }
+
+    private int decimals(String currency) {
+        return plugin.getCurrencyManager().getDecimals(currency);
+    }
+
+    private static double bankBalance(Document bank, String currency) {
+        Document balancesDoc = bank.get("balances", Document.class);
+        if (balancesDoc != null && balancesDoc.containsKey(currency)) return number(balancesDoc.get(currency));
+        return 0.0;
+    }
+
     @Override
     public Set<String> getBanks() {
         Set<String> set = new HashSet<>();
-        synchronized (lock) {
-            for (Document doc : banks.find()) {
-                set.add(doc.getString("name"));
-            }
+        for (Document doc : banks.find()) {
+            set.add(doc.getString("name"));
         }
         return set;
     }
 
     @Override
     public boolean isBankOwner(String name, UUID uuid) {
-        synchronized (lock) {
-            Document doc = banks.find(new Document("name", name)).first();
-            return doc != null && uuid.toString().equals(doc.getString("owner"));
-        }
+        Document doc = banks.find(new Document("name", name)).first();
+        return doc != null && uuid.toString().equals(doc.getString("owner"));
     }
 
     @Override
     public boolean isBankMember(String name, UUID uuid) {
-        synchronized (lock) {
-            Document doc = banks.find(new Document("name", name)).first();
-            if (doc != null) {
-                List<String> members = doc.getList("members", String.class, List.of());
-                return members.contains(uuid.toString());
-            }
-            return false;
+        Document doc = banks.find(new Document("name", name)).first();
+        if (doc != null) {
+            List<String> members = doc.getList("members", String.class, List.of());
+            return members.contains(uuid.toString());
         }
+        return false;
     }
 
     @Override
     public boolean addBankMember(String name, UUID uuid) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
             Document doc = banks.find(new Document("name", name)).first();
             if (doc == null) return false;
             List<String> members = doc.getList("members", String.class, new ArrayList<>());
@@ -412,12 +646,16 @@ public class MongoDBStorageProvider implements StorageProvider {
             members.add(uuid.toString());
             banks.updateOne(new Document("name", name), new Document("$set", new Document("members", members)));
             return true;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean removeBankMember(String name, UUID uuid) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
             Document doc = banks.find(new Document("name", name)).first();
             if (doc == null) return false;
             List<String> members = doc.getList("members", String.class, new ArrayList<>());
@@ -425,19 +663,19 @@ public class MongoDBStorageProvider implements StorageProvider {
             members.remove(uuid.toString());
             banks.updateOne(new Document("name", name), new Document("$set", new Document("members", members)));
             return true;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public Set<UUID> getBankMembers(String name) {
         Set<UUID> set = new HashSet<>();
-        synchronized (lock) {
-            Document doc = banks.find(new Document("name", name)).first();
-            if (doc != null) {
-                List<String> members = doc.getList("members", String.class, List.of());
-                for (String s : members) {
-                    try { set.add(UUID.fromString(s)); } catch (Exception ignored) {}
-                }
+        Document doc = banks.find(new Document("name", name)).first();
+        if (doc != null) {
+            List<String> members = doc.getList("members", String.class, List.of());
+            for (String s : members) {
+                try { set.add(UUID.fromString(s)); } catch (Exception ignored) {}
             }
         }
         return set;
@@ -449,18 +687,16 @@ public class MongoDBStorageProvider implements StorageProvider {
      */
     public java.util.Set<String> cleanupOrphanedPlayers() {
         java.util.Set<String> removed = new java.util.HashSet<>();
-        synchronized (lock) {
-            for (org.bson.Document doc : balances.find()) {
-                String uuidStr = doc.getString("uuid");
-                try {
-                    java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
-                    org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
-                    if (player == null || player.getName() == null) {
-                        balances.deleteOne(new org.bson.Document("uuid", uuidStr));
-                        removed.add(uuidStr);
-                    }
-                } catch (IllegalArgumentException ignored) {}
-            }
+        for (org.bson.Document doc : balances.find()) {
+            String uuidStr = doc.getString("uuid");
+            try {
+                java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
+                org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
+                if (player == null || player.getName() == null) {
+                    balances.deleteOne(new org.bson.Document("uuid", uuidStr));
+                    removed.add(uuidStr);
+                }
+            } catch (IllegalArgumentException ignored) {}
         }
         return removed;
     }
@@ -470,17 +706,15 @@ public class MongoDBStorageProvider implements StorageProvider {
      */
     public java.util.Set<String> previewOrphanedPlayers() {
         java.util.Set<String> orphaned = new java.util.HashSet<>();
-        synchronized (lock) {
-            for (org.bson.Document doc : balances.find()) {
-                String uuidStr = doc.getString("uuid");
-                try {
-                    java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
-                    org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
-                    if (player == null || player.getName() == null) {
-                        orphaned.add(uuidStr);
-                    }
-                } catch (IllegalArgumentException ignored) {}
-            }
+        for (org.bson.Document doc : balances.find()) {
+            String uuidStr = doc.getString("uuid");
+            try {
+                java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
+                org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
+                if (player == null || player.getName() == null) {
+                    orphaned.add(uuidStr);
+                }
+            } catch (IllegalArgumentException ignored) {}
         }
         return orphaned;
     }
@@ -3,10 +3,16 @@ package com.skyblockexp.ezeconomy.storage;
 import org.bukkit.configuration.file.YamlConfiguration;
 import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
 import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.*;
 import java.util.Map;
@@ -21,13 +27,32 @@ import com.skyblockexp.ezeconomy.api.events.TransactionType;
 /**
  * MySQL implementation of the StorageProvider interface for EzEconomy.
  * Handles player and bank balances using a MySQL database.
- * Thread-safe and ready for open-source use.
+ * <p>
+ * Connections are borrowed from a bounded pool for the duration of a single
+ * operation, so calls for different players run in parallel. Every balance
+ * mutation is a single atomic statement, which keeps the provider thread-safe
+ * without a provider-wide lock.
+ * <p>
+ * Prepared statements are cached by the driver per pooled connection and
+ * prepared server-side, so each query is parsed once per connection rather
+ * than on every call.
  */
 public class MySQLStorageProvider implements StorageProvider {
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final int DEFAULT_MIN_IDLE = 2;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MS = 10000L;
+    private static final long DEFAULT_VALIDATION_TIMEOUT_MS = 5000L;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 600000L;
+    private static final long DEFAULT_MAX_LIFETIME_MS = 1800000L;
+    private static final long DEFAULT_KEEPALIVE_MS = 300000L;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 250;
+    private static final int DEFAULT_STATEMENT_CACHE_SQL_LIMIT = 2048;
+    // Exact decimal balances; 22 integer digits and enough places for any configured currency
+    private static final String BALANCE_TYPE = "DECIMAL(30," + Money.MAX_DECIMALS + ")";
+
     private final EzEconomyPlugin plugin;
-    private Connection connection;
+    private volatile HikariDataSource dataSource;
     private String table;
-    private final Object lock = new Object();
     private final YamlConfiguration dbConfig;
 
     /**
@@ -45,20 +70,19 @@ public class MySQLStorageProvider implements StorageProvider {
     @Override
     public void init() throws StorageInitException {
         // Create tables/schema if needed
-        if (connection == null) {
+        if (dataSource == null) {
             // Establish a temporary connection for schema creation
-            String host = dbConfig.getString("mysql.host");
-            int port = dbConfig.getInt("mysql.port");
-            String database = dbConfig.getString("mysql.database");
-            String username = dbConfig.getString("mysql.username");
-            String password = dbConfig.getString("mysql.password");
-            try (Connection tempConn = DriverManager.getConnection(
-                    "jdbc:mysql://" + host + ":" + port + "/" + database,
-                    username, password)) {
-                Statement stmt = tempConn.createStatement();
-                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS `" + table + "` (uuid VARCHAR(36), currency VARCHAR(32), balance DOUBLE, PRIMARY KEY (uuid, currency))");
-                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS banks (name VARCHAR(64), currency VARCHAR(32), balance DOUBLE, PRIMARY KEY (name, currency))");
+            try (Connection tempConn = DriverManager.getConnection(jdbcUrl(),
+                    dbConfig.getString("mysql.username"), dbConfig.getString("mysql.password"));
+                 Statement stmt = tempConn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS `" + table + "` (uuid VARCHAR(36), currency VARCHAR(32), balance " + BALANCE_TYPE + ", PRIMARY KEY (uuid, currency))");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS banks (name VARCHAR(64), currency VARCHAR(32), balance " + BALANCE_TYPE + ", PRIMARY KEY (name, currency))");
                 stmt.executeUpdate("CREATE TABLE IF NOT EXISTS bank_members (bank VARCHAR(64), uuid VARCHAR(36), owner BOOLEAN, PRIMARY KEY (bank, uuid))");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS transactions (id BIGINT AUTO_INCREMENT PRIMARY KEY, uuid VARCHAR(36), currency VARCHAR(32), amount DOUBLE, timestamp BIGINT, INDEX idx_transactions_account (uuid, currency, timestamp))");
+                ensureTransactionId(tempConn);
+                ensureTransactionIndex(tempConn);
+                ensureDecimalBalances(tempConn, table);
+                ensureDecimalBalances(tempConn, "banks");
             } catch (SQLException e) {
                 plugin.getLogger().severe("MySQL schema init failed: " + e.getMessage());
                 throw new StorageInitException("Failed to initialize MySQL schema", e);
@@ -68,25 +92,54 @@ public class MySQLStorageProvider implements StorageProvider {
 
     @Override
     public void load() throws StorageLoadException {
-        // Establish connection only
-        String host = dbConfig.getString("mysql.host");
-        int port = dbConfig.getInt("mysql.port");
-        String database = dbConfig.getString("mysql.database");
-        String username = dbConfig.getString("mysql.username");
-        String password = dbConfig.getString("mysql.password");
+        // Establish the connection pool only
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("EzEconomy-MySQL");
+        config.setJdbcUrl(jdbcUrl());
+        config.setUsername(dbConfig.getString("mysql.username"));
+        config.setPassword(dbConfig.getString("mysql.password"));
+        config.setMaximumPoolSize(Math.max(1, dbConfig.getInt("mysql.pool.maximum-pool-size", DEFAULT_POOL_SIZE)));
+        config.setMinimumIdle(Math.max(0, dbConfig.getInt("mysql.pool.minimum-idle", DEFAULT_MIN_IDLE)));
+        config.setConnectionTimeout(dbConfig.getLong("mysql.pool.connection-timeout-ms", DEFAULT_CONNECTION_TIMEOUT_MS));
+        config.setValidationTimeout(dbConfig.getLong("mysql.pool.validation-timeout-ms", DEFAULT_VALIDATION_TIMEOUT_MS));
+        config.setIdleTimeout(dbConfig.getLong("mysql.pool.idle-timeout-ms", DEFAULT_IDLE_TIMEOUT_MS));
+        config.setMaxLifetime(dbConfig.getLong("mysql.pool.max-lifetime-ms", DEFAULT_MAX_LIFETIME_MS));
+        config.setKeepaliveTime(dbConfig.getLong("mysql.pool.keepalive-ms", DEFAULT_KEEPALIVE_MS));
+        // Reuse server-side prepared statements across calls on the same pooled connection
+        int statementCacheSize = Math.max(0, dbConfig.getInt("mysql.pool.statement-cache-size", DEFAULT_STATEMENT_CACHE_SIZE));
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("cachePrepStmts", String.valueOf(statementCacheSize > 0));
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(DEFAULT_STATEMENT_CACHE_SQL_LIMIT));
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        // Lets logTransactions send a batch as one multi-row INSERT
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-            connection = DriverManager.getConnection(
-                "jdbc:mysql://" + host + ":" + port + "/" + database,
-                username, password);
-        } catch (SQLException e) {
+            HikariDataSource previous = dataSource;
+            dataSource = new HikariDataSource(config);
+            if (previous != null) previous.close();
+        } catch (RuntimeException e) {
             plugin.getLogger().severe("MySQL connection failed: " + e.getMessage());
             throw new StorageLoadException("Failed to connect to MySQL", e);
         }
     }
 
+    private String jdbcUrl() {
+        String host = dbConfig.getString("mysql.host");
+        int port = dbConfig.getInt("mysql.port");
+        String database = dbConfig.getString("mysql.database");
+        return "jdbc:mysql://" + host + ":" + port + "/" + database;
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     */
+    private Connection getConnection() throws SQLException {
+        HikariDataSource ds = dataSource;
+        if (ds == null) throw new SQLException("MySQL connection pool is not initialized");
+        return ds.getConnection();
+    }
+
     @Override
     public void save() throws StorageSaveException {
         // No in-memory cache, so nothing to save
@@ -94,134 +147,372 @@ public class MySQLStorageProvider implements StorageProvider {
 
     @Override
     public boolean isConnected() {
-        try {
-            return connection != null && !connection.isClosed();
-        } catch (SQLException e) {
-            return false;
-        }
+        HikariDataSource ds = dataSource;
+        return ds != null && !ds.isClosed() && ds.isRunning();
     }
 
     @Override
     public java.util.List<Transaction> getTransactions(java.util.UUID uuid, String currency) {
         java.util.List<Transaction> transactions = new java.util.ArrayList<>();
-        synchronized (lock) {
-            try {
-                // Assumes a table: transactions(uuid VARCHAR(36), currency VARCHAR(32), amount DOUBLE, timestamp BIGINT)
-                String sql = "SELECT amount, timestamp FROM transactions WHERE uuid=? AND currency=? ORDER BY timestamp DESC";
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setString(1, uuid.toString());
-                ps.setString(2, currency);
-                ResultSet rs = ps.executeQuery();
+        // Assumes a table: transactions(id BIGINT, uuid VARCHAR(36), currency VARCHAR(32), amount DOUBLE, timestamp BIGINT)
+        String sql = "SELECT amount, timestamp FROM transactions WHERE uuid=? AND currency=? ORDER BY timestamp DESC, id DESC";
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, currency);
+            try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     double amount = rs.getDouble("amount");
                     long timestamp = rs.getLong("timestamp");
                     Transaction t = new Transaction(uuid, currency, amount, timestamp);
                     transactions.add(t);
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
         }
         return transactions;
     }
 
+    @Override
+    public com.skyblockexp.ezeconomy.api.storage.models.TransactionPage getTransactions(UUID uuid, String currency, long from, long to,
+            com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor cursor, int limit) {
+        if (limit <= 0 || from >= to) return com.skyblockexp.ezeconomy.api.storage.models.TransactionPage.empty();
+        java.util.List<Transaction> rows = new java.util.ArrayList<>();
+        String sql = "SELECT amount, timestamp FROM transactions WHERE uuid=? AND currency=? AND timestamp>=? AND timestamp<=? ORDER BY timestamp DESC, id DESC LIMIT ? OFFSET ?";
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, currency);
+            ps.setLong(3, from);
+            ps.setLong(4, com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor.upperBound(cursor, to));
+            ps.setInt(5, limit + 1);
+            ps.setInt(6, com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor.offset(cursor, to));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Transaction(uuid, currency, rs.getDouble("amount"), rs.getLong("timestamp")));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        }
+        return com.skyblockexp.ezeconomy.api.storage.models.TransactionPage.of(rows, cursor, limit);
+    }
+
+    /**
+     * Deletes the range and inserts the replacement in one database transaction.
+     */
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, java.util.List<Transaction> replacement) {
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM transactions WHERE uuid=? AND currency=? AND timestamp>=? AND timestamp<?");
+                 PreparedStatement insert = connection.prepareStatement("INSERT INTO transactions (uuid, currency, amount, timestamp) VALUES (?, ?, ?, ?)")) {
+                delete.setString(1, uuid.toString());
+                delete.setString(2, currency);
+                delete.setLong(3, from);
+                delete.setLong(4, to);
+                delete.executeUpdate();
+                for (Transaction tx : replacement) {
+                    insert.setString(1, tx.getUuid().toString());
+                    insert.setString(2, tx.getCurrency());
+                    insert.setDouble(3, tx.getAmount());
+                    insert.setLong(4, tx.getTimestamp());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL replaceTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Adds the {@code id} primary key to transactions tables created before it existed. Pages are ordered
+     * by timestamp and then id, so rows with the same timestamp keep one order across page queries.
+     * Existing rows are numbered in storage order. History queries need the column, so a failure here
+     * fails schema initialization.
+     */
+    private void ensureTransactionId(Connection connection) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = 'transactions' AND column_name = 'id'";
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                if (rs.next()) return;
+            }
+            stmt.executeUpdate("ALTER TABLE transactions ADD COLUMN id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY FIRST");
+            plugin.getLogger().info("[EzEconomy] Added an id primary key to the transactions table.");
+        }
+    }
+
+    /**
+     * Adds the history index to transactions tables created before it existed. MySQL has no
+     * CREATE INDEX IF NOT EXISTS, so the index is looked up first. History still works without the
+     * index, so a failure here is only logged.
+     */
+    private void ensureTransactionIndex(Connection connection) {
+        String sql = "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'transactions' AND index_name = 'idx_transactions_account'";
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                if (rs.next()) return;
+            }
+            stmt.executeUpdate("CREATE INDEX idx_transactions_account ON transactions (uuid, currency, timestamp)");
+        } catch (SQLException e) {
+            plugin.getLogger().warning("[EzEconomy] Could not create the transactions history index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converts a {@code DOUBLE} balance column created by older versions to {@link #BALANCE_TYPE}, so
+     * the database adds and subtracts balances exactly. Existing values are rounded to
+     * {@link Money#MAX_DECIMALS} places, which also removes drift they picked up as doubles.
+     */
+    private void ensureDecimalBalances(Connection connection, String tableName) {
+        String sql = "SELECT data_type FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ? AND column_name = 'balance'";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || "decimal".equalsIgnoreCase(rs.getString(1))) return;
+            }
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE `" + tableName + "` MODIFY balance " + BALANCE_TYPE);
+            }
+            plugin.getLogger().info("[EzEconomy] Converted `" + tableName + "`.balance to " + BALANCE_TYPE + ".");
+        } catch (SQLException e) {
+            plugin.getLogger().warning("[EzEconomy] Could not convert `" + tableName + "`.balance to " + BALANCE_TYPE + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Gets the balance for a player and currency.
      */
     @Override
     public double getBalance(UUID uuid, String currency) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT balance FROM `" + table + "` WHERE uuid=? AND currency=?");
-                ps.setString(1, uuid.toString());
-                ps.setString(2, currency);
-                ResultSet rs = ps.executeQuery();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT balance FROM `" + table + "` WHERE uuid=? AND currency=?")) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, currency);
+            try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getDouble(1);
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL getBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().severe("[EzEconomy] Unexpected error in getBalance for " + uuid + " (" + currency + "): " + e.getMessage());
             }
-            return 0.0;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL getBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] Unexpected error in getBalance for " + uuid + " (" + currency + "): " + e.getMessage());
         }
+        return 0.0;
     }
 
     @Override
     public void setBalance(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("REPLACE INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?)");
-                ps.setString(1, uuid.toString());
-                ps.setString(2, currency);
-                ps.setDouble(3, amount);
-                ps.executeUpdate();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL setBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().severe("[EzEconomy] Unexpected error in setBalance for " + uuid + " (" + currency + "): " + e.getMessage());
-            }
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("REPLACE INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?)")) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, currency);
+            ps.setDouble(3, amount);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL setBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] Unexpected error in setBalance for " + uuid + " (" + currency + "): " + e.getMessage());
         }
     }
 
     @Override
     public boolean tryWithdraw(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement(
-                    "UPDATE `" + table + "` SET balance = balance - ? WHERE uuid=? AND currency=? AND balance >= ?"
-                );
-                ps.setDouble(1, amount);
-                ps.setString(2, uuid.toString());
-                ps.setString(3, currency);
-                ps.setDouble(4, amount);
-                return ps.executeUpdate() > 0;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL tryWithdraw failed for " + uuid + " (" + currency + "): " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().severe("[EzEconomy] Unexpected error in tryWithdraw for " + uuid + " (" + currency + "): " + e.getMessage());
-            }
-            return false;
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "UPDATE `" + table + "` SET balance = balance - ? WHERE uuid=? AND currency=? AND balance >= ?"
+             )) {
+            ps.setDouble(1, amount);
+            ps.setString(2, uuid.toString());
+            ps.setString(3, currency);
+            ps.setDouble(4, amount);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL tryWithdraw failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] Unexpected error in tryWithdraw for " + uuid + " (" + currency + "): " + e.getMessage());
         }
+        return false;
     }
 
     @Override
     public void deposit(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement(
-                    "INSERT INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?) " +
-                        "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)"
-                );
-                ps.setString(1, uuid.toString());
-                ps.setString(2, currency);
-                ps.setDouble(3, amount);
-                ps.executeUpdate();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL deposit failed for " + uuid + " (" + currency + "): " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().severe("[EzEconomy] Unexpected error in deposit for " + uuid + " (" + currency + "): " + e.getMessage());
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "INSERT INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)"
+             )) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, currency);
+            ps.setDouble(3, amount);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL deposit failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] Unexpected error in deposit for " + uuid + " (" + currency + "): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Withdraws with a conditional UPDATE and reads the account back in the same transaction, see
+     * {@link #writeAndRead}.
+     */
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        try (Connection connection = getConnection();
+             PreparedStatement write = connection.prepareStatement("UPDATE `" + table + "` SET balance = balance - ? WHERE uuid=? AND currency=? AND balance >= ?");
+             PreparedStatement read = connection.prepareStatement("SELECT balance FROM `" + table + "` WHERE uuid=? AND currency=? FOR UPDATE")) {
+            write.setDouble(1, amount);
+            write.setString(2, uuid.toString());
+            write.setString(3, currency);
+            write.setDouble(4, amount);
+            read.setString(1, uuid.toString());
+            read.setString(2, currency);
+            WriteAndRead result = writeAndRead(connection, write, read, currency);
+            double balance = result.balance != null ? result.balance : 0.0;
+            return result.updated > 0 ? BalanceResult.success(balance) : BalanceResult.insufficientFunds(balance);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL withdrawAndGet failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        }
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        try (Connection connection = getConnection();
+             PreparedStatement write = connection.prepareStatement("INSERT INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?) " +
+                 "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)");
+             PreparedStatement read = connection.prepareStatement("SELECT balance FROM `" + table + "` WHERE uuid=? AND currency=? FOR UPDATE")) {
+            write.setString(1, uuid.toString());
+            write.setString(2, currency);
+            write.setDouble(3, amount);
+            read.setString(1, uuid.toString());
+            read.setString(2, currency);
+            WriteAndRead result = writeAndRead(connection, write, read, currency);
+            return BalanceResult.success(result.balance != null ? result.balance : 0.0);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL depositAndGet failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        }
+    }
+
+    /**
+     * Runs a bound write and a locking read of the row it touches in one transaction. The row lock
+     * taken by the write is held until the read, so the balance returned is the one this write
+     * produced even when other servers write to the same row. The balance is rounded to the
+     * currency's decimals.
+     */
+    private WriteAndRead writeAndRead(Connection connection, PreparedStatement write, PreparedStatement read, String currency) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            int updated = write.executeUpdate();
+            Double balance = null;
+            try (ResultSet rs = read.executeQuery()) {
+                if (rs.next()) balance = Money.round(rs.getDouble(1), decimals(currency));
             }
+            connection.commit();
+            return new WriteAndRead(updated, balance);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
         }
     }
 
-    public void shutdown() {
-        synchronized (lock) {
-            try {
-                if (connection != null && !connection.isClosed()) connection.close();
+    private static final class WriteAndRead {
+        private final int updated;
+        private final Double balance;
+
+        private WriteAndRead(int updated, Double balance) {
+            this.updated = updated;
+            this.balance = balance;
+        }
+    }
+
+    private int decimals(String currency) {
+        return plugin.getCurrencyManager().getDecimals(currency);
+    }
+
+    /**
+     * Applies the batch in one transaction. Consecutive deposits or sets are sent as one JDBC batch;
+     * each withdrawal is a conditional UPDATE whose row count tells whether it was applied.
+     */
+    @Override
+    public java.util.List<BalanceMutation> applyBatch(java.util.List<BalanceMutation> mutations) {
+        java.util.List<BalanceMutation> rejected = new java.util.ArrayList<>();
+        if (mutations.isEmpty()) return rejected;
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement deposit = connection.prepareStatement(
+                     "INSERT INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?) " +
+                         "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)");
+                 PreparedStatement set = connection.prepareStatement("REPLACE INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?)");
+                 PreparedStatement withdraw = connection.prepareStatement(
+                     "UPDATE `" + table + "` SET balance = balance - ? WHERE uuid=? AND currency=? AND balance >= ?")) {
+                PreparedStatement pending = null;
+                for (BalanceMutation mutation : mutations) {
+                    if (mutation.getType() == BalanceMutation.Type.WITHDRAW) {
+                        if (pending != null) {
+                            pending.executeBatch();
+                            pending = null;
+                        }
+                        withdraw.setDouble(1, mutation.getAmount());
+                        withdraw.setString(2, mutation.getUuid().toString());
+                        withdraw.setString(3, mutation.getCurrency());
+                        withdraw.setDouble(4, mutation.getAmount());
+                        if (withdraw.executeUpdate() == 0) rejected.add(mutation);
+                        continue;
+                    }
+                    PreparedStatement ps = mutation.getType() == BalanceMutation.Type.DEPOSIT ? deposit : set;
+                    if (pending != null && pending != ps) {
+                        pending.executeBatch();
+                    }
+                    ps.setString(1, mutation.getUuid().toString());
+                    ps.setString(2, mutation.getCurrency());
+                    ps.setDouble(3, mutation.getAmount());
+                    ps.addBatch();
+                    pending = ps;
+                }
+                if (pending != null) pending.executeBatch();
+                connection.commit();
+                return rejected;
             } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL shutdown failed: " + e.getMessage());
-            } catch (Exception e) {
-                plugin.getLogger().severe("[EzEconomy] Unexpected error on shutdown: " + e.getMessage());
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL applyBatch of " + mutations.size() + " changes failed: " + e.getMessage());
+            return new java.util.ArrayList<>(mutations);
+        }
+    }
+
+    public void shutdown() {
+        HikariDataSource ds = dataSource;
+        dataSource = null;
+        try {
+            if (ds != null && !ds.isClosed()) ds.close();
+        } catch (Exception e) {
+            plugin.getLogger().severe("[EzEconomy] Unexpected error on shutdown: " + e.getMessage());
         }
     }
     public Map<UUID, Double> getAllBalances(String currency) {
-        synchronized (lock) {
-            Map<UUID, Double> map = new ConcurrentHashMap<>();
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid, balance FROM `" + table + "` WHERE currency=?");
-                ps.setString(1, currency);
-                ResultSet rs = ps.executeQuery();
+        Map<UUID, Double> map = new ConcurrentHashMap<>();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT uuid, balance FROM `" + table + "` WHERE currency=?")) {
+            ps.setString(1, currency);
+            try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     try {
                         UUID uuid = UUID.fromString(rs.getString(1));
@@ -229,343 +520,454 @@ public class MySQLStorageProvider implements StorageProvider {
                         map.put(uuid, bal);
                     } catch (IllegalArgumentException ignored) {}
                 }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL getAllBalances failed (" + currency + "): " + e.getMessage());
+        }
+        return map;
+    }
+
+    /**
+     * Moves the funds in one database transaction on one pooled connection. Both rows are locked with
+     * {@code SELECT ... FOR UPDATE} in uuid order, so concurrent transfers between the same players
+     * cannot deadlock, and the returned balances are the ones committed by this transaction.
+     */
+    private TransferResult transferInTransaction(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        if (debitAmount < 0 || creditAmount < 0) {
+            return TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
+        }
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                double fromBalance = 0.0;
+                double toBalance = 0.0;
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "SELECT uuid, balance FROM `" + table + "` WHERE currency=? AND uuid IN (?, ?) ORDER BY uuid FOR UPDATE")) {
+                    ps.setString(1, currency);
+                    ps.setString(2, fromUuid.toString());
+                    ps.setString(3, toUuid.toString());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String uuid = rs.getString(1);
+                            if (uuid.equals(fromUuid.toString())) fromBalance = rs.getDouble(2);
+                            if (uuid.equals(toUuid.toString())) toBalance = rs.getDouble(2);
+                        }
+                    }
+                }
+                if (fromBalance < debitAmount) {
+                    connection.rollback();
+                    return TransferResult.failure(fromBalance, toBalance);
+                }
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)")) {
+                    ps.setString(1, fromUuid.toString());
+                    ps.setString(2, currency);
+                    ps.setDouble(3, -debitAmount);
+                    ps.addBatch();
+                    ps.setString(1, toUuid.toString());
+                    ps.setString(2, currency);
+                    ps.setDouble(3, creditAmount);
+                    ps.addBatch();
+                    ps.executeBatch();
+                }
+                connection.commit();
+                int decimals = decimals(currency);
+                if (fromUuid.equals(toUuid)) {
+                    double balance = Money.add(Money.subtract(fromBalance, debitAmount, decimals), creditAmount, decimals);
+                    return TransferResult.success(balance, balance);
+                }
+                return TransferResult.success(Money.subtract(fromBalance, debitAmount, decimals), Money.add(toBalance, creditAmount, decimals));
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL transfer failed from " + fromUuid + " to " + toUuid + " (" + currency + "): " + e.getMessage());
+            return TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
+        }
+    }
+
+    /**
+     * Swaps the currencies in one database transaction, locking both of the player's rows with
+     * {@code SELECT ... FOR UPDATE} in currency order.
+     */
+    @Override
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        if (debitAmount < 0 || creditAmount < 0) {
+            return TransferResult.failure(getBalance(uuid, fromCurrency), getBalance(uuid, toCurrency));
+        }
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                double fromBalance = 0.0;
+                double toBalance = 0.0;
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "SELECT currency, balance FROM `" + table + "` WHERE uuid=? AND currency IN (?, ?) ORDER BY currency FOR UPDATE")) {
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, fromCurrency);
+                    ps.setString(3, toCurrency);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String currency = rs.getString(1);
+                            if (currency.equals(fromCurrency)) fromBalance = rs.getDouble(2);
+                            if (currency.equals(toCurrency)) toBalance = rs.getDouble(2);
+                        }
+                    }
+                }
+                if (fromBalance < debitAmount) {
+                    connection.rollback();
+                    return TransferResult.failure(fromBalance, toBalance);
+                }
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO `" + table + "` (uuid, currency, balance) VALUES (?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)")) {
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, fromCurrency);
+                    ps.setDouble(3, -debitAmount);
+                    ps.addBatch();
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, toCurrency);
+                    ps.setDouble(3, creditAmount);
+                    ps.addBatch();
+                    ps.executeBatch();
+                }
+                connection.commit();
+                if (fromCurrency.equals(toCurrency)) {
+                    int decimals = decimals(fromCurrency);
+                    double balance = Money.add(Money.subtract(fromBalance, debitAmount, decimals), creditAmount, decimals);
+                    return TransferResult.success(balance, balance);
+                }
+                return TransferResult.success(Money.subtract(fromBalance, debitAmount, decimals(fromCurrency)),
+                    Money.add(toBalance, creditAmount, decimals(toCurrency)));
             } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL getAllBalances failed (" + currency + "): " + e.getMessage());
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-            return map;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL exchange failed for " + uuid + " (" + fromCurrency + " -> " + toCurrency + "): " + e.getMessage());
+            return TransferResult.failure(getBalance(uuid, fromCurrency), getBalance(uuid, toCurrency));
         }
     }
 
     @Override
     public com.skyblockexp.ezeconomy.storage.TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
-        double fromBefore = getBalance(fromUuid, currency);
-        double toBefore = getBalance(toUuid, currency);
-
-        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER);
-        try {
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(pre);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            plugin.getLogger().warning("[EzEconomy] Failed to fire PreTransactionEvent: " + e.getMessage());
-        }
-        if (pre.isCancelled()) {
-            return com.skyblockexp.ezeconomy.storage.TransferResult.failure(fromBefore, toBefore);
+        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) {
+            return com.skyblockexp.ezeconomy.storage.TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
         }
 
-        com.skyblockexp.ezeconomy.storage.TransferResult result = StorageProvider.super.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
+        com.skyblockexp.ezeconomy.storage.TransferResult result = transferInTransaction(fromUuid, toUuid, currency, debitAmount, creditAmount);
+        // Worked back from the balances read under the transaction's row locks, so they match what the transfer changed
+        boolean sameAccount = fromUuid.equals(toUuid);
+        double fromBefore = result.getFromBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
+        double toBefore = result.getToBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
 
         com.skyblockexp.ezeconomy.api.events.PostTransactionEvent post = new com.skyblockexp.ezeconomy.api.events.PostTransactionEvent(
             fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER,
             result.isSuccess(), java.math.BigDecimal.valueOf(fromBefore), java.math.BigDecimal.valueOf(result.getFromBalance()),
-            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance())
+            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance()), plugin.getEventDispatcher().createAsync()
         );
-        try {
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(post);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            plugin.getLogger().warning("[EzEconomy] Failed to fire PostTransactionEvent: " + e.getMessage());
-        }
+        plugin.getEventDispatcher().callPost(post);
 
         return result;
     }
 
     // --- Bank support ---
-    private void ensureBankTables() {
-        try {
-            Statement stmt = connection.createStatement();
-            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS banks (name VARCHAR(64), currency VARCHAR(32), balance DOUBLE, PRIMARY KEY (name, currency))");
-            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS bank_members (bank VARCHAR(64), uuid VARCHAR(36), owner BOOLEAN, PRIMARY KEY (bank, uuid))");
-        } catch (SQLException e) {
-            plugin.getLogger().severe("[EzEconomy] MySQL ensureBankTables failed: " + e.getMessage());
-        }
-    }
+    // The banks and bank_members tables are created in init().
 
     public boolean createBank(String name, UUID owner) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("INSERT INTO banks (name, currency, balance) VALUES (?, ?, 0.0)");
+        try (Connection connection = getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO banks (name, currency, balance) VALUES (?, ?, 0.0)")) {
                 ps.setString(1, name);
                 ps.setString(2, "dollar"); // default currency
                 ps.executeUpdate();
-                ps = connection.prepareStatement("INSERT INTO bank_members (bank, uuid, owner) VALUES (?, ?, ?)");
+            }
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO bank_members (bank, uuid, owner) VALUES (?, ?, ?)")) {
                 ps.setString(1, name);
                 ps.setString(2, owner.toString());
                 ps.setBoolean(3, true);
                 ps.executeUpdate();
-                return true;
-            } catch (SQLException e) {
-                return false;
             }
+            return true;
+        } catch (SQLException e) {
+            return false;
         }
     }
 
     public boolean deleteBank(String name) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("DELETE FROM banks WHERE name=?");
+        try (Connection connection = getConnection()) {
+            int affected;
+            try (PreparedStatement ps = connection.prepareStatement("DELETE FROM banks WHERE name=?")) {
                 ps.setString(1, name);
-                int affected = ps.executeUpdate();
-                ps = connection.prepareStatement("DELETE FROM bank_members WHERE bank=?");
+                affected = ps.executeUpdate();
+            }
+            try (PreparedStatement ps = connection.prepareStatement("DELETE FROM bank_members WHERE bank=?")) {
                 ps.setString(1, name);
                 ps.executeUpdate();
-                return affected > 0;
-            } catch (SQLException e) {
-                return false;
             }
+            return affected > 0;
+        } catch (SQLException e) {
+            return false;
         }
     }
 
     public boolean bankExists(String name) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT name FROM banks WHERE name=?");
-                ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT name FROM banks WHERE name=?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
                 return rs.next();
-            } catch (SQLException e) {
-                return false;
             }
+        } catch (SQLException e) {
+            return false;
         }
     }
 
     public double getBankBalance(String name, String currency) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT balance FROM banks WHERE name=? AND currency=?");
-                ps.setString(1, name);
-                ps.setString(2, currency);
-                ResultSet rs = ps.executeQuery();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT balance FROM banks WHERE name=? AND currency=?")) {
+            ps.setString(1, name);
+            ps.setString(2, currency);
+            try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getDouble(1);
-            } catch (SQLException e) {}
-            return 0.0;
-        }
+            }
+        } catch (SQLException e) {}
+        return 0.0;
     }
 
     public void setBankBalance(String name, String currency, double amount) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("REPLACE INTO banks (name, currency, balance) VALUES (?, ?, ?)");
-                ps.setString(1, name);
-                ps.setString(2, currency);
-                ps.setDouble(3, amount);
-                ps.executeUpdate();
-            } catch (SQLException e) {}
-        }
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("REPLACE INTO banks (name, currency, balance) VALUES (?, ?, ?)")) {
+            ps.setString(1, name);
+            ps.setString(2, currency);
+            ps.setDouble(3, amount);
+            ps.executeUpdate();
+        } catch (SQLException e) {}
     }
 
     @Override
     public boolean tryWithdrawBank(String name, String currency, double amount) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement sel = connection.prepareStatement("SELECT balance FROM banks WHERE name=? AND currency=?");
-                sel.setString(1, name);
-                sel.setString(2, currency);
-                ResultSet rs = sel.executeQuery();
-                if (!rs.next()) return false;
-                double current = rs.getDouble(1);
-
-                BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW);
-                if (plugin.getServer().isPrimaryThread()) {
-                    plugin.getServer().getPluginManager().callEvent(pre);
-                } else {
-                    try {
-                        plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                            plugin.getServer().getPluginManager().callEvent(pre);
-                            return null;
-                        }).get();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-                    }
-                }
-                if (pre.isCancelled()) return false;
-
-                PreparedStatement ps = connection.prepareStatement(
-                    "UPDATE banks SET balance = balance - ? WHERE name=? AND currency=? AND balance >= ?"
-                );
-                ps.setDouble(1, amount);
-                ps.setString(2, name);
-                ps.setString(3, currency);
-                ps.setDouble(4, amount);
-                boolean ok = ps.executeUpdate() > 0;
-                if (ok) {
-                    BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(current), BigDecimal.valueOf(current - amount));
-                    try {
-                        plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                            plugin.getServer().getPluginManager().callEvent(post);
-                            return null;
-                        }).get();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-                    }
-                }
-                return ok;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL tryWithdrawBank failed: " + e.getMessage());
-                return false;
+        return withdrawBankAndGet(name, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        // Read the current balance on a short-lived connection so no pooled
+        // connection is held while waiting for the main thread to fire events.
+        Double current;
+        try {
+            current = selectBankBalance(name, currency);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL tryWithdrawBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        }
+        if (current == null) return BalanceResult.notFound();
+
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(current);
+
+        double after;
+        try (Connection connection = getConnection();
+             PreparedStatement write = connection.prepareStatement("UPDATE banks SET balance = balance - ? WHERE name=? AND currency=? AND balance >= ?");
+             PreparedStatement read = connection.prepareStatement("SELECT balance FROM banks WHERE name=? AND currency=? FOR UPDATE")) {
+            write.setDouble(1, amount);
+            write.setString(2, name);
+            write.setString(3, currency);
+            write.setDouble(4, amount);
+            read.setString(1, name);
+            read.setString(2, currency);
+            WriteAndRead result = writeAndRead(connection, write, read, currency);
+            if (result.updated == 0) {
+                return BalanceResult.insufficientFunds(result.balance != null ? result.balance : current);
             }
+            after = result.balance;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL tryWithdrawBank failed: " + e.getMessage());
+            return BalanceResult.failed();
         }
+        BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(Money.add(after, amount, decimals(currency))), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+        plugin.getEventDispatcher().callPost(post);
+        return BalanceResult.success(after);
     }
 
     @Override
     public void depositBank(String name, String currency, double amount) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement sel = connection.prepareStatement("SELECT balance FROM banks WHERE name=? AND currency=?");
-                sel.setString(1, name);
-                sel.setString(2, currency);
-                ResultSet rs = sel.executeQuery();
-                double before = 0.0;
-                if (rs.next()) before = rs.getDouble(1);
-
-                BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT);
-                try {
-                    plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                        plugin.getServer().getPluginManager().callEvent(pre);
-                        return null;
-                    }).get();
-                } catch (Exception e) {
-                    plugin.getLogger().warning("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-                }
-                if (pre.isCancelled()) return;
+        depositBankAndGet(name, currency, amount);
+    }
 
-                PreparedStatement ps = connection.prepareStatement(
-                    "INSERT INTO banks (name, currency, balance) VALUES (?, ?, ?) " +
-                        "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)"
-                );
-                ps.setString(1, name);
-                ps.setString(2, currency);
-                ps.setDouble(3, amount);
-                ps.executeUpdate();
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        Double before;
+        try {
+            before = selectBankBalance(name, currency);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL depositBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        }
+        if (before == null) return BalanceResult.notFound();
 
-                BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(before), BigDecimal.valueOf(before + amount));
-                if (plugin.getServer().isPrimaryThread()) {
-                    plugin.getServer().getPluginManager().callEvent(post);
-                } else {
-                    try {
-                        plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                            plugin.getServer().getPluginManager().callEvent(post);
-                            return null;
-                        }).get();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-                    }
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(before);
+
+        double after;
+        try (Connection connection = getConnection();
+             PreparedStatement write = connection.prepareStatement("INSERT INTO banks (name, currency, balance) VALUES (?, ?, ?) " +
+                 "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance)");
+             PreparedStatement read = connection.prepareStatement("SELECT balance FROM banks WHERE name=? AND currency=? FOR UPDATE")) {
+            write.setString(1, name);
+            write.setString(2, currency);
+            write.setDouble(3, amount);
+            read.setString(1, name);
+            read.setString(2, currency);
+            WriteAndRead result = writeAndRead(connection, write, read, currency);
+            after = result.balance != null ? result.balance : amount;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL depositBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        }
+
+        BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(Money.subtract(after, amount, decimals(currency))), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+        plugin.getEventDispatcher().callPost(post);
+        return BalanceResult.success(after);
+    }
+
+    /**
+     * Reads a bank's balance and whether it exists in one query.
+     * @return The balance (0 if the bank has none in this currency), or null if the bank does not exist
+     */
+    private Double selectBankBalance(String name, String currency) throws SQLException {
+        try (Connection connection = getConnection();
+             PreparedStatement sel = connection.prepareStatement("SELECT currency, balance FROM banks WHERE name=?")) {
+            sel.setString(1, name);
+            try (ResultSet rs = sel.executeQuery()) {
+                Double balance = null;
+                while (rs.next()) {
+                    if (currency.equals(rs.getString(1))) return rs.getDouble(2);
+                    balance = 0.0;
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL depositBank failed: " + e.getMessage());
+                return balance;
             }
         }
     }
 
     public Set<String> getBanks() {
-        synchronized (lock) {
-            ensureBankTables();
-            Set<String> set = ConcurrentHashMap.newKeySet();
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT name FROM banks");
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) set.add(rs.getString(1));
-            } catch (SQLException e) {}
-            return set;
-        }
+        Set<String> set = ConcurrentHashMap.newKeySet();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT name FROM banks");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) set.add(rs.getString(1));
+        } catch (SQLException e) {}
+        return set;
     }
 
     public boolean isBankOwner(String name, UUID uuid) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT owner FROM bank_members WHERE bank=? AND uuid=?");
-                ps.setString(1, name);
-                ps.setString(2, uuid.toString());
-                ResultSet rs = ps.executeQuery();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT owner FROM bank_members WHERE bank=? AND uuid=?")) {
+            ps.setString(1, name);
+            ps.setString(2, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getBoolean(1);
-            } catch (SQLException e) {}
-            return false;
-        }
+            }
+        } catch (SQLException e) {}
+        return false;
     }
 
     public boolean isBankMember(String name, UUID uuid) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM bank_members WHERE bank=? AND uuid=?");
-                ps.setString(1, name);
-                ps.setString(2, uuid.toString());
-                ResultSet rs = ps.executeQuery();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM bank_members WHERE bank=? AND uuid=?")) {
+            ps.setString(1, name);
+            ps.setString(2, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
                 return rs.next();
-            } catch (SQLException e) {}
-            return false;
-        }
+            }
+        } catch (SQLException e) {}
+        return false;
     }
 
     public boolean addBankMember(String name, UUID uuid) {
-        synchronized (lock) {
-            ensureBankTables();
-            if (isBankMember(name, uuid)) return false;
-            try {
-                PreparedStatement ps = connection.prepareStatement("INSERT INTO bank_members (bank, uuid, owner) VALUES (?, ?, ?)");
-                ps.setString(1, name);
-                ps.setString(2, uuid.toString());
-                ps.setBoolean(3, false);
-                ps.executeUpdate();
-                return true;
-            } catch (SQLException e) { return false; }
-        }
+        // The (bank, uuid) primary key rejects duplicate members atomically.
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("INSERT INTO bank_members (bank, uuid, owner) VALUES (?, ?, ?)")) {
+            ps.setString(1, name);
+            ps.setString(2, uuid.toString());
+            ps.setBoolean(3, false);
+            ps.executeUpdate();
+            return true;
+        } catch (SQLException e) { return false; }
     }
 
     public boolean removeBankMember(String name, UUID uuid) {
-        synchronized (lock) {
-            ensureBankTables();
-            try {
-                PreparedStatement ps = connection.prepareStatement("DELETE FROM bank_members WHERE bank=? AND uuid=?");
-                ps.setString(1, name);
-                ps.setString(2, uuid.toString());
-                int affected = ps.executeUpdate();
-                return affected > 0;
-            } catch (SQLException e) { return false; }
-        }
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("DELETE FROM bank_members WHERE bank=? AND uuid=?")) {
+            ps.setString(1, name);
+            ps.setString(2, uuid.toString());
+            int affected = ps.executeUpdate();
+            return affected > 0;
+        } catch (SQLException e) { return false; }
     }
 
     public Set<UUID> getBankMembers(String name) {
-        synchronized (lock) {
-            ensureBankTables();
-            Set<UUID> set = ConcurrentHashMap.newKeySet();
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM bank_members WHERE bank=?");
-                ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
+        Set<UUID> set = ConcurrentHashMap.newKeySet();
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM bank_members WHERE bank=?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     try { set.add(UUID.fromString(rs.getString(1))); } catch (IllegalArgumentException ignored) {}
                 }
-            } catch (SQLException e) {}
-            return set;
-        }
+            }
+        } catch (SQLException e) {}
+        return set;
     }
 
     @Override
     public void logTransaction(com.skyblockexp.ezeconomy.api.storage.models.Transaction tx) {
-        synchronized (lock) {
-            try {
-                String sql = "INSERT INTO transactions (uuid, currency, amount, timestamp) VALUES (?, ?, ?, ?)";
-                PreparedStatement ps = connection.prepareStatement(sql);
-                ps.setString(1, tx.getUuid().toString());
-                ps.setString(2, tx.getCurrency());
-                ps.setDouble(3, tx.getAmount());
-                ps.setLong(4, tx.getTimestamp());
-                ps.executeUpdate();
+        String sql = "INSERT INTO transactions (uuid, currency, amount, timestamp) VALUES (?, ?, ?, ?)";
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, tx.getUuid().toString());
+            ps.setString(2, tx.getCurrency());
+            ps.setDouble(3, tx.getAmount());
+            ps.setLong(4, tx.getTimestamp());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL logTransaction failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts the whole batch with one JDBC batch in one transaction, so a failure writes none of it.
+     * @throws TransactionLogException with the whole batch if the insert fails
+     */
+    @Override
+    public void logTransactions(java.util.List<com.skyblockexp.ezeconomy.api.storage.models.Transaction> transactions) {
+        if (transactions.isEmpty()) return;
+        String sql = "INSERT INTO transactions (uuid, currency, amount, timestamp) VALUES (?, ?, ?, ?)";
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (com.skyblockexp.ezeconomy.api.storage.models.Transaction tx : transactions) {
+                    ps.setString(1, tx.getUuid().toString());
+                    ps.setString(2, tx.getCurrency());
+                    ps.setDouble(3, tx.getAmount());
+                    ps.setLong(4, tx.getTimestamp());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                connection.commit();
             } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL logTransaction failed: " + e.getMessage());
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
+        } catch (SQLException e) {
+            throw new TransactionLogException("MySQL logTransactions failed: " + e.getMessage(), e, transactions);
         }
     }
 
@@ -575,26 +977,24 @@ public class MySQLStorageProvider implements StorageProvider {
      */
     public java.util.Set<String> cleanupOrphanedPlayers() {
         java.util.Set<String> removed = new java.util.HashSet<>();
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM `" + table + "`");
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    String uuidStr = rs.getString(1);
-                    try {
-                        java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
-                        org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
-                        if (player == null || player.getName() == null) {
-                            PreparedStatement del = connection.prepareStatement("DELETE FROM `" + table + "` WHERE uuid=?");
-                            del.setString(1, uuidStr);
-                            del.executeUpdate();
-                            removed.add(uuidStr);
-                        }
-                    } catch (IllegalArgumentException ignored) {}
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL cleanupOrphanedPlayers failed: " + e.getMessage());
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM `" + table + "`");
+             PreparedStatement del = connection.prepareStatement("DELETE FROM `" + table + "` WHERE uuid=?");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String uuidStr = rs.getString(1);
+                try {
+                    java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
+                    org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
+                    if (player == null || player.getName() == null) {
+                        del.setString(1, uuidStr);
+                        del.executeUpdate();
+                        removed.add(uuidStr);
+                    }
+                } catch (IllegalArgumentException ignored) {}
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL cleanupOrphanedPlayers failed: " + e.getMessage());
         }
         return removed;
     }
@@ -604,23 +1004,21 @@ public class MySQLStorageProvider implements StorageProvider {
      */
     public java.util.Set<String> previewOrphanedPlayers() {
         java.util.Set<String> orphaned = new java.util.HashSet<>();
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM `" + table + "`");
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    String uuidStr = rs.getString(1);
-                    try {
-                        java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
-                        org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
-                        if (player == null || player.getName() == null) {
-                            orphaned.add(uuidStr);
-                        }
-                    } catch (IllegalArgumentException ignored) {}
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] MySQL previewOrphanedPlayers failed: " + e.getMessage());
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM `" + table + "`");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String uuidStr = rs.getString(1);
+                try {
+                    java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
+                    org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
+                    if (player == null || player.getName() == null) {
+                        orphaned.add(uuidStr);
+                    }
+                } catch (IllegalArgumentException ignored) {}
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] MySQL previewOrphanedPlayers failed: " + e.getMessage());
         }
         return orphaned;
     }
@@ -0,0 +1,344 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Storage decorator that tells a {@link BalanceChangeListener} about every player and bank balance
+ * change made through it. Reads are passed through untouched.
+ * <p>
+ * The listener is called after the delegate returns, so a listener that re-reads the balance sees the
+ * change. Changes made outside this server are not reported.
+ * </p>
+ */
+public class NotifyingStorageProvider implements StorageProvider {
+    private final StorageProvider delegate;
+    private final BalanceChangeListener listener;
+
+    /**
+     * @param delegate Storage provider to wrap
+     * @param listener Listener told about balance changes
+     */
+    public NotifyingStorageProvider(StorageProvider delegate, BalanceChangeListener listener) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.listener = Objects.requireNonNull(listener, "listener");
+    }
+
+    /**
+     * Returns the wrapped provider.
+     */
+    public StorageProvider getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Reports that any balance may have changed, e.g. after the backend was modified directly.
+     */
+    public void notifyAllChanged() {
+        listener.allChanged();
+    }
+
+    // --- Lifecycle ---
+
+    @Override
+    public void init() throws StorageInitException {
+        delegate.init();
+    }
+
+    @Override
+    public void load() throws StorageLoadException {
+        delegate.load();
+        listener.allChanged();
+    }
+
+    @Override
+    public void save() throws StorageSaveException {
+        delegate.save();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    // --- Player balances ---
+
+    @Override
+    public double getBalance(UUID uuid, String currency) {
+        return delegate.getBalance(uuid, currency);
+    }
+
+    @Override
+    public void setBalance(UUID uuid, String currency, double amount) {
+        delegate.setBalance(uuid, currency, amount);
+        listener.balanceChanged(uuid, currency);
+    }
+
+    @Override
+    public boolean tryWithdraw(UUID uuid, String currency, double amount) {
+        boolean success = delegate.tryWithdraw(uuid, currency, amount);
+        if (success) {
+            listener.balanceChanged(uuid, currency);
+        }
+        return success;
+    }
+
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        BalanceResult result = delegate.withdrawAndGet(uuid, currency, amount);
+        if (result.isSuccess()) {
+            listener.balanceChanged(uuid, currency);
+        }
+        return result;
+    }
+
+    @Override
+    public void deposit(UUID uuid, String currency, double amount) {
+        delegate.deposit(uuid, currency, amount);
+        listener.balanceChanged(uuid, currency);
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        BalanceResult result = delegate.depositAndGet(uuid, currency, amount);
+        if (result.isSuccess()) {
+            listener.balanceChanged(uuid, currency);
+        }
+        return result;
+    }
+
+    @Override
+    public void depositAll(Map<UUID, Double> amounts, String currency) {
+        delegate.depositAll(amounts, currency);
+        for (UUID uuid : amounts.keySet()) {
+            listener.balanceChanged(uuid, currency);
+        }
+    }
+
+    @Override
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        List<BalanceMutation> rejected = delegate.applyBatch(mutations);
+        Set<BalanceMutation> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        skipped.addAll(rejected);
+        for (BalanceMutation mutation : mutations) {
+            if (!skipped.contains(mutation)) {
+                listener.balanceChanged(mutation.getUuid(), mutation.getCurrency());
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public Map<UUID, Double> getAllBalances(String currency) {
+        return delegate.getAllBalances(currency);
+    }
+
+    @Override
+    public int getRank(UUID uuid, String currency) {
+        return delegate.getRank(uuid, currency);
+    }
+
+    @Override
+    public List<Map.Entry<UUID, Double>> getTopBalances(String currency, int offset, int limit) {
+        return delegate.getTopBalances(currency, offset, limit);
+    }
+
+    @Override
+    public int getRankedCount(String currency) {
+        return delegate.getRankedCount(currency);
+    }
+
+    @Override
+    public TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        TransferResult result = delegate.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
+        if (result.isSuccess()) {
+            listener.balanceChanged(fromUuid, currency);
+            listener.balanceChanged(toUuid, currency);
+        }
+        return result;
+    }
+
+    @Override
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        TransferResult result = delegate.exchange(uuid, fromCurrency, toCurrency, debitAmount, creditAmount);
+        if (result.isSuccess()) {
+            listener.balanceChanged(uuid, fromCurrency);
+            listener.balanceChanged(uuid, toCurrency);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> cleanupOrphanedPlayers() {
+        Set<String> removed = delegate.cleanupOrphanedPlayers();
+        if (!removed.isEmpty()) {
+            listener.allChanged();
+        }
+        return removed;
+    }
+
+    // --- Pass-through: transactions ---
+
+    @Override
+    public void logTransaction(Transaction transaction) {
+        delegate.logTransaction(transaction);
+    }
+
+    @Override
+    public void logTransactions(List<Transaction> transactions) {
+        delegate.logTransactions(transactions);
+    }
+
+    @Override
+    public List<Transaction> getTransactions(UUID uuid, String currency) {
+        return delegate.getTransactions(uuid, currency);
+    }
+
+    @Override
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        return delegate.getTransactions(uuid, currency, from, to, cursor, limit);
+    }
+
+    @Override
+    public Iterator<Transaction> iterateTransactions(UUID uuid, String currency, long from, long to) {
+        return delegate.iterateTransactions(uuid, currency, from, to);
+    }
+
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, List<Transaction> replacement) {
+        return delegate.replaceTransactions(uuid, currency, from, to, replacement);
+    }
+
+    // --- Banks ---
+
+    @Override
+    public boolean createBank(String name, UUID owner) {
+        boolean created = delegate.createBank(name, owner);
+        if (created) {
+            listener.bankChanged(name);
+        }
+        return created;
+    }
+
+    @Override
+    public boolean deleteBank(String name) {
+        boolean deleted = delegate.deleteBank(name);
+        if (deleted) {
+            listener.bankChanged(name);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean bankExists(String name) {
+        return delegate.bankExists(name);
+    }
+
+    @Override
+    public double getBankBalance(String name, String currency) {
+        return delegate.getBankBalance(name, currency);
+    }
+
+    @Override
+    public void setBankBalance(String name, String currency, double amount) {
+        delegate.setBankBalance(name, currency, amount);
+        listener.bankBalanceChanged(name, currency);
+    }
+
+    @Override
+    public boolean tryWithdrawBank(String name, String currency, double amount) {
+        boolean success = delegate.tryWithdrawBank(name, currency, amount);
+        if (success) {
+            listener.bankBalanceChanged(name, currency);
+        }
+        return success;
+    }
+
+    @Override
+    public void depositBank(String name, String currency, double amount) {
+        delegate.depositBank(name, currency, amount);
+        listener.bankBalanceChanged(name, currency);
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        BalanceResult result = delegate.withdrawBankAndGet(name, currency, amount);
+        if (result.isSuccess()) {
+            listener.bankBalanceChanged(name, currency);
+        }
+        return result;
+    }
+
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        BalanceResult result = delegate.depositBankAndGet(name, currency, amount);
+        if (result.isSuccess()) {
+            listener.bankBalanceChanged(name, currency);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getBanks() {
+        return delegate.getBanks();
+    }
+
+    @Override
+    public boolean isBankOwner(String name, UUID uuid) {
+        return delegate.isBankOwner(name, uuid);
+    }
+
+    @Override
+    public boolean isBankMember(String name, UUID uuid) {
+        return delegate.isBankMember(name, uuid);
+    }
+
+    @Override
+    public boolean addBankMember(String name, UUID uuid) {
+        boolean added = delegate.addBankMember(name, uuid);
+        if (added) {
+            listener.bankChanged(name);
+        }
+        return added;
+    }
+
+    @Override
+    public boolean removeBankMember(String name, UUID uuid) {
+        boolean removed = delegate.removeBankMember(name, uuid);
+        if (removed) {
+            listener.bankChanged(name);
+        }
+        return removed;
+    }
+
+    @Override
+    public Set<UUID> getBankMembers(String name) {
+        return delegate.getBankMembers(name);
+    }
+
+    @Override
+    public String toString() {
+        return "NotifyingStorageProvider{delegate=" + delegate + '}';
+    }
+}
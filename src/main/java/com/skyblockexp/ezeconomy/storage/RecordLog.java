@@ -0,0 +1,261 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of checksummed records, used by {@link BinlogStorageProvider}.
+ * <p>
+ * File layout: an 8 byte header (magic, version) followed by records of the form
+ * {@code [int length][byte type][payload][int crc32]}, where {@code length} counts the type byte and
+ * payload and the checksum covers the same bytes. Appends go straight to the OS, so they survive a
+ * process crash; {@link #sync()} forces them to disk. A torn or corrupt tail left by a power loss is
+ * detected on open and cut off, keeping every complete record before it.
+ * </p>
+ * <p>
+ * All methods synchronize on the log.
+ * </p>
+ */
+final class RecordLog implements Closeable {
+    private static final int MAGIC = 0x455A424C; // "EZBL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /**
+     * Receives every intact record while the log is opened or scanned.
+     */
+    interface Replayer {
+        void apply(byte type, DataInputStream payload, long offset) throws IOException;
+    }
+
+    /**
+     * Writes records while the log is rewritten.
+     */
+    interface Rewriter {
+        void writeTo(RecordLog target) throws IOException;
+    }
+
+    /**
+     * Builds a record payload.
+     */
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private final File file;
+    private final Logger logger;
+    private FileChannel channel;
+    private long position;
+    private long records;
+    private boolean dirty;
+
+    RecordLog(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Opens the log, creating it if needed, and replays every intact record.
+     * @return true if the log was newly created
+     */
+    synchronized boolean open(Replayer replayer) throws IOException {
+        boolean created = !file.exists() || file.length() < HEADER_SIZE;
+        if (created) {
+            writeEmpty(file);
+        }
+        long valid = replay(file, replayer);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (valid < channel.size()) {
+            logger.warning("[EzEconomy] Discarding " + (channel.size() - valid) + " bytes of incomplete records at the end of " + file.getName());
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        position = valid;
+        dirty = false;
+        return created;
+    }
+
+    /**
+     * Appends a record and returns its offset.
+     */
+    synchronized long append(byte type, PayloadWriter writer) throws IOException {
+        ensureOpen();
+        byte[] body = body(type, writer);
+        ByteBuffer buffer = ByteBuffer.allocate(body.length + 8);
+        buffer.putInt(body.length).put(body).putInt(checksum(body));
+        buffer.flip();
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        records++;
+        dirty = true;
+        return offset;
+    }
+
+    /**
+     * Reads the record at an offset returned by {@link #append(byte, PayloadWriter)} or passed to a replayer.
+     * @return Payload stream positioned after the type byte, or null if the record is missing or corrupt
+     */
+    synchronized DataInputStream read(long offset, byte expectedType) throws IOException {
+        ensureOpen();
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+        if (channel.read(lengthBuffer, offset) < 4) return null;
+        int length = lengthBuffer.getInt(0);
+        if (length <= 0 || length > MAX_RECORD_SIZE) return null;
+        ByteBuffer buffer = ByteBuffer.allocate(length + 4);
+        long at = offset + 4;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, at);
+            if (read < 0) return null;
+            at += read;
+        }
+        byte[] body = new byte[length];
+        buffer.flip();
+        buffer.get(body);
+        if (buffer.getInt() != checksum(body) || body[0] != expectedType) return null;
+        return new DataInputStream(new java.io.ByteArrayInputStream(body, 1, length - 1));
+    }
+
+    /**
+     * Forces appended records to disk if anything was written since the last sync.
+     */
+    synchronized void sync() throws IOException {
+        if (channel != null && dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    /**
+     * Replaces the log with the records written by the rewriter. The new file is written and synced
+     * next to the old one and then moved over it, so a crash leaves either the old or the new log.
+     */
+    synchronized void rewrite(Rewriter rewriter) throws IOException {
+        ensureOpen();
+        File tmp = new File(file.getParentFile(), file.getName() + ".compact");
+        writeEmpty(tmp);
+        RecordLog target = new RecordLog(tmp, logger);
+        try {
+            target.open((type, payload, offset) -> { });
+            rewriter.writeTo(target);
+            target.channel.force(true);
+        } finally {
+            target.close();
+        }
+        channel.force(true);
+        channel.close();
+        channel = null;
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            position = channel.size();
+        }
+        records = target.records;
+        dirty = false;
+    }
+
+    /**
+     * Number of records appended since the log was opened or last rewritten, plus those replayed on open.
+     */
+    synchronized long records() {
+        return records;
+    }
+
+    synchronized long size() {
+        return position;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private long replay(File source, Replayer replayer) throws IOException {
+        records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(source.getName() + " is not an EzEconomy record log");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(source.getName() + " has unsupported version " + version);
+            }
+            long offset = HEADER_SIZE;
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException end) {
+                    return offset;
+                }
+                if (length <= 0 || length > MAX_RECORD_SIZE) return offset;
+                byte[] body = new byte[length];
+                try {
+                    in.readFully(body);
+                    if (in.readInt() != checksum(body)) return offset;
+                } catch (EOFException torn) {
+                    return offset;
+                }
+                replayer.apply(body[0], new DataInputStream(new java.io.ByteArrayInputStream(body, 1, length - 1)), offset);
+                records++;
+                offset += length + 8L;
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException(file.getName() + " is not open");
+        }
+    }
+
+    private static void writeEmpty(File target) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        try (FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            out.force(true);
+        }
+    }
+
+    private static byte[] body(byte type, PayloadWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        writer.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+}
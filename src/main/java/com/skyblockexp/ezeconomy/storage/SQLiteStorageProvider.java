@@ -5,7 +5,13 @@ import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageLoadException;
 import com.skyblockexp.ezeconomy.api.storage.exceptions.StorageSaveException;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
 import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionCursor;
+import com.skyblockexp.ezeconomy.api.storage.models.TransactionPage;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -13,11 +19,16 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.math.BigDecimal;
 import com.skyblockexp.ezeconomy.api.events.BankPreTransactionEvent;
@@ -28,7 +39,12 @@ import org.bukkit.configuration.file.YamlConfiguration;
 /**
  * SQLite implementation of the StorageProvider interface for EzEconomy.
  * Handles player and bank balances using a local SQLite database.
- * Thread-safe and ready for open-source use.
+ * Thread-safe and ready for open-source use: mutations lock only the affected
+ * account or bank stripe (see {@link StripedLocks}), reads take no lock.
+ *
+ * <p>Every query is prepared once per connection and reused. A cached statement
+ * is used by one thread at a time by synchronizing on it while it is bound,
+ * executed and its results are read.</p>
  *
  * <p>Usage: Instantiate with plugin and config, or call init() if using the default constructor.</p>
  */
@@ -39,8 +55,53 @@ public class SQLiteStorageProvider implements StorageProvider {
     private Connection connection;
     private String table;
     private String banksTable;
-    private final Object lock = new Object();
+    private String bankBalancesTable;
+    private String bankMembersTable;
+    private final StripedLocks locks;
     private final YamlConfiguration dbConfig;
+    private final Map<String, PreparedStatement> statements = new ConcurrentHashMap<>();
+    // Transfers and balance batches run their BEGIN IMMEDIATE ... COMMIT on a connection of their own
+    // so statements from other threads on the shared connection never end up inside the transaction
+    private final Object writeConnectionLock = new Object();
+    private Connection writeConnection;
+    private final Map<String, PreparedStatement> writeStatements = new HashMap<>();
+    private volatile boolean closing;
+    // Banks still in the old format; see migrateLegacyBanks
+    private final Set<String> legacyBanks = ConcurrentHashMap.newKeySet();
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+
+    // --- Queries (built once from the configured table names) ---
+    private static final String SELECT_TRANSACTIONS = "SELECT amount, timestamp FROM transactions WHERE uuid=? AND currency=? ORDER BY timestamp DESC";
+    private static final String SELECT_TRANSACTIONS_PAGE = "SELECT amount, timestamp FROM transactions WHERE uuid=? AND currency=? AND timestamp>=? AND timestamp<=? ORDER BY timestamp DESC, rowid DESC LIMIT ? OFFSET ?";
+    private static final String DELETE_TRANSACTIONS_RANGE = "DELETE FROM transactions WHERE uuid=? AND currency=? AND timestamp>=? AND timestamp<?";
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions (uuid, currency, amount, timestamp) VALUES (?, ?, ?, ?)";
+    // Rows per multi-row INSERT; 4 parameters each keeps well under SQLite's 999 parameter limit
+    private static final int TRANSACTION_BATCH_ROWS = 200;
+    private static final String INSERT_TRANSACTIONS_BATCH = insertTransactionsSql(TRANSACTION_BATCH_ROWS);
+    private String selectBalanceSql;
+    private String replaceBalanceSql;
+    private String withdrawSql;
+    private String depositSql;
+    private String selectAllBalancesSql;
+    private String selectUuidsSql;
+    private String deleteUuidSql;
+    private String insertBankSql;
+    private String deleteBankSql;
+    private String deleteBankBalancesSql;
+    private String deleteBankMembersSql;
+    private String bankExistsSql;
+    private String selectBankBalanceSql;
+    private String selectBankBalanceForUpdateSql;
+    private String setBankBalanceSql;
+    private String withdrawBankSql;
+    private String depositBankSql;
+    private String selectBanksSql;
+    private String bankOwnerSql;
+    private String bankMemberSql;
+    private String selectBankMembersSql;
+    private String insertBankMemberSql;
+    private String addBankMemberSql;
+    private String removeBankMemberSql;
 
     // --- Constructors ---
     /**
@@ -52,6 +113,10 @@ public class SQLiteStorageProvider implements StorageProvider {
         this.fileName = "economy.db";
         this.table = "balances";
         this.banksTable = "banks";
+        this.bankBalancesTable = "bank_balances";
+        this.bankMembersTable = "bank_members";
+        this.locks = new StripedLocks(plugin.getConfig().getInt("lock-stripes", StripedLocks.DEFAULT_STRIPES));
+        buildQueries();
     }
 
     /**
@@ -67,43 +132,155 @@ public class SQLiteStorageProvider implements StorageProvider {
         this.fileName = dbConfig.getString("sqlite.file", "ezeconomy.db");
         this.table = dbConfig.getString("sqlite.table", "balances");
         this.banksTable = dbConfig.getString("sqlite.banksTable", "banks");
+        this.bankBalancesTable = dbConfig.getString("sqlite.bankBalancesTable", "bank_balances");
+        this.bankMembersTable = dbConfig.getString("sqlite.bankMembersTable", "bank_members");
+        this.locks = new StripedLocks(plugin.getConfig().getInt("lock-stripes", StripedLocks.DEFAULT_STRIPES));
+        buildQueries();
         try {
             File file = new File(plugin.getDataFolder(), this.fileName);
             connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
-            Statement stmt = connection.createStatement();
-            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS '" + table + "' (uuid TEXT, currency TEXT, balance DOUBLE, PRIMARY KEY (uuid, currency))");
-            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS '" + banksTable + "' (name TEXT PRIMARY KEY, owner TEXT, members TEXT, balances TEXT)");
+            setBusyTimeout(connection);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS '" + table + "' (uuid TEXT, currency TEXT, balance DOUBLE, PRIMARY KEY (uuid, currency))");
+                // members and balances are only set on banks created before bank_balances/bank_members existed
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS '" + banksTable + "' (name TEXT PRIMARY KEY, owner TEXT, members TEXT, balances TEXT)");
+                // Keyed on the primary key, so every bank lookup is one B-tree search with no separate index
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS '" + bankBalancesTable + "' (name TEXT NOT NULL, currency TEXT NOT NULL, balance DOUBLE NOT NULL DEFAULT 0, PRIMARY KEY (name, currency)) WITHOUT ROWID");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS '" + bankMembersTable + "' (bank TEXT NOT NULL, uuid TEXT NOT NULL, owner INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (bank, uuid)) WITHOUT ROWID");
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS transactions (uuid TEXT, currency TEXT, amount DOUBLE, timestamp INTEGER)");
+                stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_transactions_account ON transactions (uuid, currency, timestamp)");
+            }
         } catch (SQLException e) {
             plugin.getLogger().severe("SQLite connection failed: " + e.getMessage());
             throw new RuntimeException("Failed to initialize SQLiteStorageProvider", e);
         }
     }
 
+    private void buildQueries() {
+        String t = "'" + table + "'";
+        String b = "'" + banksTable + "'";
+        selectBalanceSql = "SELECT balance FROM " + t + " WHERE uuid=? AND currency=?";
+        replaceBalanceSql = "REPLACE INTO " + t + " (uuid, currency, balance) VALUES (?, ?, ?)";
+        // SQLite has no exact decimal type; rounding every result keeps REAL balances from drifting
+        String round = ", " + Money.MAX_DECIMALS + ")";
+        withdrawSql = "UPDATE " + t + " SET balance = ROUND(balance - ?" + round + " WHERE uuid=? AND currency=? AND balance >= ?";
+        depositSql = "INSERT INTO " + t + " (uuid, currency, balance) VALUES (?, ?, ?) " +
+            "ON CONFLICT(uuid, currency) DO UPDATE SET balance = ROUND(balance + excluded.balance" + round;
+        selectAllBalancesSql = "SELECT uuid, balance FROM " + t + " WHERE currency=?";
+        selectUuidsSql = "SELECT uuid FROM " + t;
+        deleteUuidSql = "DELETE FROM " + t + " WHERE uuid=?";
+        String bb = "'" + bankBalancesTable + "'";
+        String bm = "'" + bankMembersTable + "'";
+        String bankExists = " WHERE EXISTS (SELECT 1 FROM " + b + " WHERE name=?)";
+        insertBankSql = "INSERT INTO " + b + " (name, owner) VALUES (?, ?)";
+        deleteBankSql = "DELETE FROM " + b + " WHERE name=?";
+        deleteBankBalancesSql = "DELETE FROM " + bb + " WHERE name=?";
+        deleteBankMembersSql = "DELETE FROM " + bm + " WHERE bank=?";
+        bankExistsSql = "SELECT 1 FROM " + b + " WHERE name=?";
+        selectBankBalanceSql = "SELECT balance FROM " + bb + " WHERE name=? AND currency=?";
+        // One row per existing bank, with a NULL balance if it holds none of the currency
+        selectBankBalanceForUpdateSql = "SELECT bb.balance FROM " + b + " b LEFT JOIN " + bb +
+            " bb ON bb.name = b.name AND bb.currency=? WHERE b.name=?";
+        setBankBalanceSql = "INSERT INTO " + bb + " (name, currency, balance) SELECT ?, ?, ?" + bankExists +
+            " ON CONFLICT(name, currency) DO UPDATE SET balance = excluded.balance";
+        withdrawBankSql = "UPDATE " + bb + " SET balance = ROUND(balance - ?" + round + " WHERE name=? AND currency=? AND balance >= ?";
+        depositBankSql = "INSERT INTO " + bb + " (name, currency, balance) VALUES (?, ?, ?) " +
+            "ON CONFLICT(name, currency) DO UPDATE SET balance = ROUND(balance + excluded.balance" + round;
+        selectBanksSql = "SELECT name FROM " + b;
+        bankOwnerSql = "SELECT 1 FROM " + bm + " WHERE bank=? AND uuid=? AND owner=1";
+        bankMemberSql = "SELECT 1 FROM " + bm + " WHERE bank=? AND uuid=?";
+        selectBankMembersSql = "SELECT uuid FROM " + bm + " WHERE bank=?";
+        insertBankMemberSql = "INSERT OR IGNORE INTO " + bm + " (bank, uuid, owner) VALUES (?, ?, ?)";
+        addBankMemberSql = "INSERT OR IGNORE INTO " + bm + " (bank, uuid, owner) SELECT ?, ?, 0" + bankExists;
+        // The owner's row is kept so a bank never loses its owner
+        removeBankMemberSql = "DELETE FROM " + bm + " WHERE bank=? AND uuid=? AND owner=0";
+    }
+
+    /**
+     * Returns the cached prepared statement for a query, preparing it on first use.
+     * Callers must synchronize on the returned statement while using it.
+     */
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null) {
+            synchronized (statements) {
+                ps = statements.get(sql);
+                if (ps == null) {
+                    ps = connection.prepareStatement(sql);
+                    statements.put(sql, ps);
+                }
+            }
+        }
+        return ps;
+    }
+
+    /**
+     * Closes and forgets every cached statement. Must run before the connection is replaced or closed.
+     */
+    private void closeStatements() {
+        synchronized (statements) {
+            for (PreparedStatement ps : statements.values()) {
+                synchronized (ps) {
+                    try {
+                        ps.close();
+                    } catch (SQLException ignored) {
+                    }
+                }
+            }
+            statements.clear();
+        }
+    }
+
     // --- Public API: StorageProvider interface ---
     @Override
     public java.util.List<Transaction> getTransactions(java.util.UUID uuid, String currency) {
         java.util.List<Transaction> transactions = new java.util.ArrayList<>();
-        synchronized (lock) {
-            try {
-                // Assumes a table: transactions(uuid TEXT, currency TEXT, amount DOUBLE, timestamp INTEGER)
-                String sql = "SELECT amount, timestamp FROM transactions WHERE uuid=? AND currency=? ORDER BY timestamp DESC";
-                PreparedStatement ps = connection.prepareStatement(sql);
+        try {
+            // Assumes a table: transactions(uuid TEXT, currency TEXT, amount DOUBLE, timestamp INTEGER)
+            PreparedStatement ps = statement(SELECT_TRANSACTIONS);
+            synchronized (ps) {
                 ps.setString(1, uuid.toString());
                 ps.setString(2, currency);
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    double amount = rs.getDouble("amount");
-                    long timestamp = rs.getLong("timestamp");
-                    Transaction t = new Transaction(uuid, currency, amount, timestamp);
-                    transactions.add(t);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        double amount = rs.getDouble("amount");
+                        long timestamp = rs.getLong("timestamp");
+                        Transaction t = new Transaction(uuid, currency, amount, timestamp);
+                        transactions.add(t);
+                    }
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
         }
         return transactions;
     }
 
+    @Override
+    public TransactionPage getTransactions(UUID uuid, String currency, long from, long to, TransactionCursor cursor, int limit) {
+        if (limit <= 0 || from >= to) return TransactionPage.empty();
+        java.util.List<Transaction> rows = new java.util.ArrayList<>();
+        try {
+            PreparedStatement ps = statement(SELECT_TRANSACTIONS_PAGE);
+            synchronized (ps) {
+                ps.setString(1, uuid.toString());
+                ps.setString(2, currency);
+                ps.setLong(3, from);
+                ps.setLong(4, TransactionCursor.upperBound(cursor, to));
+                ps.setInt(5, limit + 1);
+                ps.setInt(6, TransactionCursor.offset(cursor, to));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new Transaction(uuid, currency, rs.getDouble("amount"), rs.getLong("timestamp")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite getTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        }
+        return TransactionPage.of(rows, cursor, limit);
+    }
+
     /**
      * Initializes the SQLite connection and tables. Call before use if not using the config constructor.
      * @throws StorageInitException if the JDBC driver is missing or connection fails
@@ -111,8 +288,15 @@ public class SQLiteStorageProvider implements StorageProvider {
     public void init() throws StorageInitException {
         try {
             Class.forName("org.sqlite.JDBC");
+            closeStatements();
+            closeWriteConnection();
+            if (this.connection != null) {
+                try { this.connection.close(); } catch (SQLException ignored) {}
+            }
             this.connection = DriverManager.getConnection("jdbc:sqlite:" + new File(plugin.getDataFolder(), fileName).getAbsolutePath());
+            setBusyTimeout(this.connection);
             createTableIfNotExists();
+            closing = false;
         } catch (ClassNotFoundException e) {
             throw new StorageInitException("SQLite JDBC driver not found.", e);
         } catch (SQLException e) {
@@ -141,7 +325,23 @@ public class SQLiteStorageProvider implements StorageProvider {
      * @throws StorageLoadException if loading fails
      */
     public void load() throws StorageLoadException {
-        // No in-memory cache, so nothing to load. If you add caching, load from DB here.
+        // No in-memory cache, so nothing to load. Banks in the old format are moved in the background.
+        legacyBanks.clear();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM '" + banksTable
+                 + "' WHERE members IS NOT NULL OR balances IS NOT NULL")) {
+            while (rs.next()) {
+                legacyBanks.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new StorageLoadException("Failed to read SQLite banks", e);
+        }
+        if (legacyBanks.isEmpty()) return;
+        try {
+            plugin.getStorageExecutor().execute(this::migrateLegacyBanks);
+        } catch (RejectedExecutionException e) {
+            plugin.getLogger().warning("[EzEconomy] SQLite bank migration could not be started, will retry on next start: " + e.getMessage());
+        }
     }
 
     /**
@@ -158,6 +358,8 @@ public class SQLiteStorageProvider implements StorageProvider {
                 "fileName='" + fileName + '\'' +
                 ", table='" + table + '\'' +
                 ", banksTable='" + banksTable + '\'' +
+                ", bankBalancesTable='" + bankBalancesTable + '\'' +
+                ", bankMembersTable='" + bankMembersTable + '\'' +
                 '}';
     }
 
@@ -165,6 +367,8 @@ public class SQLiteStorageProvider implements StorageProvider {
      * Closes the SQLite connection.
      */
     public void close() {
+        closeStatements();
+        closeWriteConnection();
         if (connection != null) {
             try {
                 connection.close();
@@ -176,455 +380,821 @@ public class SQLiteStorageProvider implements StorageProvider {
 
     @Override
     public double getBalance(UUID uuid, String currency) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT balance FROM '" + table + "' WHERE uuid=? AND currency=?");
+        try {
+            PreparedStatement ps = statement(selectBalanceSql);
+            synchronized (ps) {
                 ps.setString(1, uuid.toString());
                 ps.setString(2, currency);
-                ResultSet rs = ps.executeQuery();
-                if (rs.next()) return rs.getDouble(1);
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite getBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) return rs.getDouble(1);
+                }
             }
-            return 0.0;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite getBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
         }
+        return 0.0;
     }
 
     @Override
     public void setBalance(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("REPLACE INTO '" + table + "' (uuid, currency, balance) VALUES (?, ?, ?)");
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            PreparedStatement ps = statement(replaceBalanceSql);
+            synchronized (ps) {
                 ps.setString(1, uuid.toString());
                 ps.setString(2, currency);
                 ps.setDouble(3, amount);
                 ps.executeUpdate();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite setBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite setBalance failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean tryWithdraw(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement(
-                    "UPDATE '" + table + "' SET balance = balance - ? WHERE uuid=? AND currency=? AND balance >= ?"
-                );
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            PreparedStatement ps = statement(withdrawSql);
+            synchronized (ps) {
                 ps.setDouble(1, amount);
                 ps.setString(2, uuid.toString());
                 ps.setString(3, currency);
                 ps.setDouble(4, amount);
                 return ps.executeUpdate() > 0;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite tryWithdraw failed for " + uuid + " (" + currency + "): " + e.getMessage());
-                return false;
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite tryWithdraw failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void deposit(UUID uuid, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement(
-                    "INSERT INTO '" + table + "' (uuid, currency, balance) VALUES (?, ?, ?) " +
-                        "ON CONFLICT(uuid, currency) DO UPDATE SET balance = balance + excluded.balance"
-                );
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            PreparedStatement ps = statement(depositSql);
+            synchronized (ps) {
                 ps.setString(1, uuid.toString());
                 ps.setString(2, currency);
                 ps.setDouble(3, amount);
                 ps.executeUpdate();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite deposit failed for " + uuid + " (" + currency + "): " + e.getMessage());
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite deposit failed for " + uuid + " (" + currency + "): " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Withdraws and reads the new balance in one {@code BEGIN IMMEDIATE} transaction on the write
+     * connection. The transaction holds the database write lock, so no other write, including transfers,
+     * exchanges and batches that do not take the account lock, can land in between.
+     */
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            return inWriteTransaction(conn -> {
+                PreparedStatement ps = writeStatement(conn, withdrawSql);
+                ps.setDouble(1, amount);
+                ps.setString(2, uuid.toString());
+                ps.setString(3, currency);
+                ps.setDouble(4, amount);
+                boolean success = ps.executeUpdate() > 0;
+                double balance = selectBalance(conn, uuid, currency);
+                return success ? BalanceResult.success(balance) : BalanceResult.insufficientFunds(balance);
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite withdrawAndGet failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deposits and reads the new balance in one transaction, like {@link #withdrawAndGet}.
+     */
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = locks.forAccount(uuid, currency);
+        lock.lock();
+        try {
+            return inWriteTransaction(conn -> {
+                PreparedStatement ps = writeStatement(conn, depositSql);
+                ps.setString(1, uuid.toString());
+                ps.setString(2, currency);
+                ps.setDouble(3, amount);
+                ps.executeUpdate();
+                return BalanceResult.success(selectBalance(conn, uuid, currency));
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite depositAndGet failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public Map<UUID, Double> getAllBalances(String currency) {
         Map<UUID, Double> map = new HashMap<>();
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid, balance FROM '" + table + "' WHERE currency=?");
+        try {
+            PreparedStatement ps = statement(selectAllBalancesSql);
+            synchronized (ps) {
                 ps.setString(1, currency);
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    map.put(UUID.fromString(rs.getString(1)), rs.getDouble(2));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        map.put(UUID.fromString(rs.getString(1)), rs.getDouble(2));
+                    }
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite getAllBalances failed: " + e.getMessage());
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite getAllBalances failed: " + e.getMessage());
         }
         return map;
     }
 
+    /**
+     * Moves the funds in one {@code BEGIN IMMEDIATE} transaction, which takes the database write lock
+     * up front, so the balances read at the start are still current when the updates commit and a
+     * crash leaves either both updates or neither.
+     */
+    private TransferResult transferInTransaction(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        if (debitAmount < 0 || creditAmount < 0) {
+            return TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
+        }
+        synchronized (writeConnectionLock) {
+            try {
+                Connection conn = writeConnection();
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("BEGIN IMMEDIATE");
+                }
+                try {
+                    double fromBalance = selectBalance(conn, fromUuid, currency);
+                    double toBalance = fromUuid.equals(toUuid) ? fromBalance : selectBalance(conn, toUuid, currency);
+                    if (fromBalance < debitAmount) {
+                        endTransaction(conn, "ROLLBACK");
+                        return TransferResult.failure(fromBalance, toBalance);
+                    }
+                    PreparedStatement ps = writeStatement(conn, depositSql);
+                    ps.setString(1, fromUuid.toString());
+                    ps.setString(2, currency);
+                    ps.setDouble(3, -debitAmount);
+                    ps.executeUpdate();
+                    ps.setString(1, toUuid.toString());
+                    ps.setDouble(3, creditAmount);
+                    ps.executeUpdate();
+                    endTransaction(conn, "COMMIT");
+                    int decimals = decimals(currency);
+                    if (fromUuid.equals(toUuid)) {
+                        double balance = Money.add(Money.subtract(fromBalance, debitAmount, decimals), creditAmount, decimals);
+                        return TransferResult.success(balance, balance);
+                    }
+                    return TransferResult.success(Money.subtract(fromBalance, debitAmount, decimals), Money.add(toBalance, creditAmount, decimals));
+                } catch (SQLException e) {
+                    try {
+                        endTransaction(conn, "ROLLBACK");
+                    } catch (SQLException ignored) {
+                    }
+                    throw e;
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("[EzEconomy] SQLite transfer failed from " + fromUuid + " to " + toUuid + " (" + currency + "): " + e.getMessage());
+            }
+        }
+        return TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
+    }
+
+    /**
+     * Swaps the currencies in one {@code BEGIN IMMEDIATE} transaction, like
+     * {@link #transferInTransaction(UUID, UUID, String, double, double)}.
+     */
     @Override
-    public com.skyblockexp.ezeconomy.storage.TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
-        double fromBefore = getBalance(fromUuid, currency);
-        double toBefore = getBalance(toUuid, currency);
+    public TransferResult exchange(UUID uuid, String fromCurrency, String toCurrency, double debitAmount, double creditAmount) {
+        if (debitAmount < 0 || creditAmount < 0) {
+            return TransferResult.failure(getBalance(uuid, fromCurrency), getBalance(uuid, toCurrency));
+        }
+        synchronized (writeConnectionLock) {
+            try {
+                Connection conn = writeConnection();
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("BEGIN IMMEDIATE");
+                }
+                try {
+                    double fromBalance = selectBalance(conn, uuid, fromCurrency);
+                    double toBalance = fromCurrency.equals(toCurrency) ? fromBalance : selectBalance(conn, uuid, toCurrency);
+                    if (fromBalance < debitAmount) {
+                        endTransaction(conn, "ROLLBACK");
+                        return TransferResult.failure(fromBalance, toBalance);
+                    }
+                    PreparedStatement ps = writeStatement(conn, depositSql);
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, fromCurrency);
+                    ps.setDouble(3, -debitAmount);
+                    ps.executeUpdate();
+                    ps.setString(2, toCurrency);
+                    ps.setDouble(3, creditAmount);
+                    ps.executeUpdate();
+                    endTransaction(conn, "COMMIT");
+                    if (fromCurrency.equals(toCurrency)) {
+                        int decimals = decimals(fromCurrency);
+                        double balance = Money.add(Money.subtract(fromBalance, debitAmount, decimals), creditAmount, decimals);
+                        return TransferResult.success(balance, balance);
+                    }
+                    return TransferResult.success(Money.subtract(fromBalance, debitAmount, decimals(fromCurrency)),
+                        Money.add(toBalance, creditAmount, decimals(toCurrency)));
+                } catch (SQLException e) {
+                    try {
+                        endTransaction(conn, "ROLLBACK");
+                    } catch (SQLException ignored) {
+                    }
+                    throw e;
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("[EzEconomy] SQLite exchange failed for " + uuid + " (" + fromCurrency + " -> " + toCurrency + "): " + e.getMessage());
+            }
+        }
+        return TransferResult.failure(getBalance(uuid, fromCurrency), getBalance(uuid, toCurrency));
+    }
 
-        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER);
-        try {
-            // Fire synchronously on main thread and wait for result
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(pre);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            plugin.getLogger().warning("[EzEconomy] Failed to fire PreTransactionEvent: " + e.getMessage());
+    /**
+     * Applies the batch in one {@code BEGIN IMMEDIATE} transaction on the write connection. Consecutive
+     * deposits or sets are sent as one JDBC batch; each withdrawal is a conditional UPDATE.
+     */
+    @Override
+    public List<BalanceMutation> applyBatch(List<BalanceMutation> mutations) {
+        List<BalanceMutation> rejected = new ArrayList<>();
+        if (mutations.isEmpty()) return rejected;
+        synchronized (writeConnectionLock) {
+            try {
+                Connection conn = writeConnection();
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("BEGIN IMMEDIATE");
+                }
+                try {
+                    PreparedStatement deposit = writeStatement(conn, depositSql);
+                    PreparedStatement set = writeStatement(conn, replaceBalanceSql);
+                    PreparedStatement withdraw = writeStatement(conn, withdrawSql);
+                    PreparedStatement pending = null;
+                    for (BalanceMutation mutation : mutations) {
+                        if (mutation.getType() == BalanceMutation.Type.WITHDRAW) {
+                            if (pending != null) {
+                                pending.executeBatch();
+                                pending = null;
+                            }
+                            withdraw.setDouble(1, mutation.getAmount());
+                            withdraw.setString(2, mutation.getUuid().toString());
+                            withdraw.setString(3, mutation.getCurrency());
+                            withdraw.setDouble(4, mutation.getAmount());
+                            if (withdraw.executeUpdate() == 0) rejected.add(mutation);
+                            continue;
+                        }
+                        PreparedStatement ps = mutation.getType() == BalanceMutation.Type.DEPOSIT ? deposit : set;
+                        if (pending != null && pending != ps) {
+                            pending.executeBatch();
+                        }
+                        ps.setString(1, mutation.getUuid().toString());
+                        ps.setString(2, mutation.getCurrency());
+                        ps.setDouble(3, mutation.getAmount());
+                        ps.addBatch();
+                        pending = ps;
+                    }
+                    if (pending != null) pending.executeBatch();
+                    endTransaction(conn, "COMMIT");
+                    return rejected;
+                } catch (SQLException e) {
+                    try {
+                        endTransaction(conn, "ROLLBACK");
+                    } catch (SQLException ignored) {
+                    }
+                    // A failed batch may still hold rows; prepare fresh statements next time
+                    closeWriteStatements();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("[EzEconomy] SQLite applyBatch of " + mutations.size() + " changes failed: " + e.getMessage());
+                return new ArrayList<>(mutations);
+            }
+        }
+    }
+
+    private int decimals(String currency) {
+        return plugin.getCurrencyManager().getDecimals(currency);
+    }
+
+    /**
+     * Reads a balance on the write connection. Called with {@code writeConnectionLock} held.
+     */
+    private double selectBalance(Connection conn, UUID uuid, String currency) throws SQLException {
+        PreparedStatement ps = writeStatement(conn, selectBalanceSql);
+        ps.setString(1, uuid.toString());
+        ps.setString(2, currency);
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getDouble(1) : 0.0;
+        }
+    }
+
+    /**
+     * Returns the cached prepared statement for a query on the write connection, preparing it on first
+     * use. Called with {@code writeConnectionLock} held, which also covers using the statement.
+     */
+    private PreparedStatement writeStatement(Connection conn, String sql) throws SQLException {
+        PreparedStatement ps = writeStatements.get(sql);
+        if (ps == null) {
+            ps = conn.prepareStatement(sql);
+            writeStatements.put(sql, ps);
+        }
+        return ps;
+    }
+
+    /**
+     * Closes and forgets every statement cached on the write connection. Called with
+     * {@code writeConnectionLock} held.
+     */
+    private void closeWriteStatements() {
+        for (PreparedStatement ps : writeStatements.values()) {
+            try {
+                ps.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        writeStatements.clear();
+    }
+
+    private static void endTransaction(Connection conn, String command) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(command);
         }
-        if (pre.isCancelled()) {
-            return com.skyblockexp.ezeconomy.storage.TransferResult.failure(fromBefore, toBefore);
+    }
+
+    /**
+     * Opens the write connection on first use. Called with {@code writeConnectionLock} held.
+     */
+    private Connection writeConnection() throws SQLException {
+        if (writeConnection == null || writeConnection.isClosed()) {
+            closeWriteStatements();
+            writeConnection = DriverManager.getConnection("jdbc:sqlite:" + new File(plugin.getDataFolder(), fileName).getAbsolutePath());
+            setBusyTimeout(writeConnection);
         }
+        return writeConnection;
+    }
 
-        // Perform the actual transfer using the default implementation
-        com.skyblockexp.ezeconomy.storage.TransferResult result = StorageProvider.super.transfer(fromUuid, toUuid, currency, debitAmount, creditAmount);
+    /**
+     * Lets a connection wait for the other one's write lock instead of failing with SQLITE_BUSY.
+     */
+    private static void setBusyTimeout(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+        }
+    }
+
+    private void closeWriteConnection() {
+        synchronized (writeConnectionLock) {
+            closeWriteStatements();
+            if (writeConnection != null) {
+                try {
+                    writeConnection.close();
+                } catch (SQLException ignored) {
+                }
+                writeConnection = null;
+            }
+        }
+    }
+
+    @Override
+    public com.skyblockexp.ezeconomy.storage.TransferResult transfer(UUID fromUuid, UUID toUuid, String currency, double debitAmount, double creditAmount) {
+        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) {
+            return com.skyblockexp.ezeconomy.storage.TransferResult.failure(getBalance(fromUuid, currency), getBalance(toUuid, currency));
+        }
+
+        com.skyblockexp.ezeconomy.storage.TransferResult result = transferInTransaction(fromUuid, toUuid, currency, debitAmount, creditAmount);
+        // Worked back from the balances read inside the write transaction, so they match what the transfer changed
+        boolean sameAccount = fromUuid.equals(toUuid);
+        double fromBefore = result.getFromBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
+        double toBefore = result.getToBalanceBefore(sameAccount, debitAmount, creditAmount, decimals(currency));
 
         com.skyblockexp.ezeconomy.api.events.PostTransactionEvent post = new com.skyblockexp.ezeconomy.api.events.PostTransactionEvent(
             fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER,
             result.isSuccess(), java.math.BigDecimal.valueOf(fromBefore), java.math.BigDecimal.valueOf(result.getFromBalance()),
-            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance())
+            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance()), plugin.getEventDispatcher().createAsync()
         );
-        try {
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(post);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            plugin.getLogger().warning("[EzEconomy] Failed to fire PostTransactionEvent: " + e.getMessage());
-        }
+        plugin.getEventDispatcher().callPost(post);
 
         return result;
     }
 
     @Override
     public void shutdown() {
+        closing = true;
+        closeStatements();
+        closeWriteConnection();
         try { if (connection != null) connection.close(); } catch (SQLException ignored) {}
     }
 
     @Override
     public boolean createBank(String name, UUID owner) {
-        synchronized (lock) {
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
             if (bankExists(name)) return false;
-            try {
-                String members = owner.toString();
-                String balances = "{}";
-                PreparedStatement ps = connection.prepareStatement("INSERT INTO '" + banksTable + "' (name, owner, members, balances) VALUES (?, ?, ?, ?)");
-                ps.setString(1, name);
-                ps.setString(2, owner.toString());
-                ps.setString(3, members);
-                ps.setString(4, balances);
-                ps.executeUpdate();
+            return inWriteTransaction(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(insertBankSql)) {
+                    ps.setString(1, name);
+                    ps.setString(2, owner.toString());
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(insertBankMemberSql)) {
+                    ps.setString(1, name);
+                    ps.setString(2, owner.toString());
+                    ps.setInt(3, 1);
+                    ps.executeUpdate();
+                }
                 return true;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite createBank failed: " + e.getMessage());
-                return false;
-            }
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite createBank failed: " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
         }
     }
     @Override
     public boolean deleteBank(String name) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("DELETE FROM '" + banksTable + "' WHERE name=?");
-                ps.setString(1, name);
-                return ps.executeUpdate() > 0;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite deleteBank failed: " + e.getMessage());
-                return false;
-            }
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
+            return inWriteTransaction(conn -> {
+                int deleted;
+                try (PreparedStatement ps = conn.prepareStatement(deleteBankSql)) {
+                    ps.setString(1, name);
+                    deleted = ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(deleteBankBalancesSql)) {
+                    ps.setString(1, name);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(deleteBankMembersSql)) {
+                    ps.setString(1, name);
+                    ps.executeUpdate();
+                }
+                return deleted > 0;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite deleteBank failed: " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
         }
     }
     @Override
     public boolean bankExists(String name) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT 1 FROM '" + banksTable + "' WHERE name=?");
+        try {
+            PreparedStatement ps = statement(bankExistsSql);
+            synchronized (ps) {
                 ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                return rs.next();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite bankExists failed: " + e.getMessage());
-                return false;
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next();
+                }
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite bankExists failed: " + e.getMessage());
+            return false;
         }
     }
     @Override
     public double getBankBalance(String name, String currency) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT balances FROM '" + banksTable + "' WHERE name=?");
+        ensureMigrated(name);
+        try {
+            PreparedStatement ps = statement(selectBankBalanceSql);
+            synchronized (ps) {
                 ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                if (rs.next()) {
-                    String balancesJson = rs.getString(1);
-                    Map<String, Double> balances = parseBalances(balancesJson);
-                    return balances.getOrDefault(currency, 0.0);
+                ps.setString(2, currency);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) return rs.getDouble(1);
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite getBankBalance failed: " + e.getMessage());
             }
-            return 0.0;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite getBankBalance failed: " + e.getMessage());
         }
+        return 0.0;
     }
     @Override
     public void setBankBalance(String name, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT balances FROM '" + banksTable + "' WHERE name=?");
+        ensureMigrated(name);
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
+            PreparedStatement ps = statement(setBankBalanceSql);
+            synchronized (ps) {
                 ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                Map<String, Double> balances = new HashMap<>();
-                if (rs.next()) {
-                    balances = parseBalances(rs.getString(1));
-                }
-                balances.put(currency, amount);
-                String newJson = toJson(balances);
-                PreparedStatement ps2 = connection.prepareStatement("UPDATE '" + banksTable + "' SET balances=? WHERE name=?");
-                ps2.setString(1, newJson);
-                ps2.setString(2, name);
-                ps2.executeUpdate();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite setBankBalance failed: " + e.getMessage());
+                ps.setString(2, currency);
+                ps.setDouble(3, amount);
+                ps.setString(4, name);
+                ps.executeUpdate();
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite setBankBalance failed: " + e.getMessage());
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean tryWithdrawBank(String name, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT balances FROM '" + banksTable + "' WHERE name=?");
-                ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                if (!rs.next()) {
-                    return false;
-                }
-                Map<String, Double> balances = parseBalances(rs.getString(1));
-                double current = balances.getOrDefault(currency, 0.0);
-                BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW);
-                if (plugin.getServer().isPrimaryThread()) {
-                    plugin.getServer().getPluginManager().callEvent(pre);
-                } else {
-                    try {
-                        plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                            plugin.getServer().getPluginManager().callEvent(pre);
-                            return null;
-                        }).get();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-                    }
-                }
-                if (pre.isCancelled()) {
-                    return false;
-                }
-                if (current < amount) {
-                    return false;
-                }
-                balances.put(currency, current - amount);
-                String newJson = toJson(balances);
-                PreparedStatement ps2 = connection.prepareStatement("UPDATE '" + banksTable + "' SET balances=? WHERE name=?");
-                ps2.setString(1, newJson);
-                ps2.setString(2, name);
-                ps2.executeUpdate();
-                // Fire post event
-                BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(current), BigDecimal.valueOf(current - amount));
-                if (plugin.getServer().isPrimaryThread()) {
-                    plugin.getServer().getPluginManager().callEvent(post);
-                } else {
-                    try {
-                        plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                            plugin.getServer().getPluginManager().callEvent(post);
-                            return null;
-                        }).get();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-                    }
+        return withdrawBankAndGet(name, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        ensureMigrated(name);
+        // Answer the pre event before taking the bank stripe: a synchronous event waits for the main
+        // thread, which may itself be waiting for this stripe in a call on another bank
+        try {
+            Double stored = selectBankBalanceForUpdate(name, currency);
+            if (stored == null) {
+                return BalanceResult.notFound();
+            }
+            BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, plugin.getEventDispatcher().createAsync());
+            if (!plugin.getEventDispatcher().callPre(pre)) {
+                return BalanceResult.cancelled(stored);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite tryWithdrawBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        }
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
+            Double stored = selectBankBalanceForUpdate(name, currency);
+            if (stored == null) {
+                return BalanceResult.notFound();
+            }
+            double current = stored;
+            if (current < amount) {
+                return BalanceResult.insufficientFunds(current);
+            }
+            PreparedStatement ps = statement(withdrawBankSql);
+            synchronized (ps) {
+                ps.setDouble(1, amount);
+                ps.setString(2, name);
+                ps.setString(3, currency);
+                ps.setDouble(4, amount);
+                if (ps.executeUpdate() == 0 && amount > 0) {
+                    return BalanceResult.insufficientFunds(current);
                 }
-                return true;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite tryWithdrawBank failed: " + e.getMessage());
-                return false;
             }
+            double after = Money.subtract(current, amount, decimals(currency));
+            // Fire post event
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(current), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite tryWithdrawBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void depositBank(String name, String currency, double amount) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT balances FROM '" + banksTable + "' WHERE name=?");
-                ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                if (!rs.next()) {
-                    return;
-                }
-                Map<String, Double> balances = parseBalances(rs.getString(1));
-                double before = balances.getOrDefault(currency, 0.0);
+        depositBankAndGet(name, currency, amount);
+    }
 
-                BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT);
-                try {
-                    plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                        plugin.getServer().getPluginManager().callEvent(pre);
-                        return null;
-                    }).get();
-                } catch (Exception e) {
-                    plugin.getLogger().warning("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-                }
-                if (pre.isCancelled()) {
-                    return;
-                }
-
-                balances.put(currency, before + amount);
-                String newJson = toJson(balances);
-                PreparedStatement ps2 = connection.prepareStatement("UPDATE '" + banksTable + "' SET balances=? WHERE name=?");
-                ps2.setString(1, newJson);
-                ps2.setString(2, name);
-                ps2.executeUpdate();
-
-                // Fire post event
-                BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(before), BigDecimal.valueOf(before + amount));
-                try {
-                    plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                        plugin.getServer().getPluginManager().callEvent(post);
-                        return null;
-                    }).get();
-                } catch (Exception e) {
-                    plugin.getLogger().warning("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite depositBank failed: " + e.getMessage());
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        ensureMigrated(name);
+        // Answer the pre event before taking the bank stripe, see withdrawBankAndGet
+        try {
+            Double stored = selectBankBalanceForUpdate(name, currency);
+            if (stored == null) {
+                return BalanceResult.notFound();
+            }
+            BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, plugin.getEventDispatcher().createAsync());
+            if (!plugin.getEventDispatcher().callPre(pre)) {
+                return BalanceResult.cancelled(stored);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite depositBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        }
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
+            Double stored = selectBankBalanceForUpdate(name, currency);
+            if (stored == null) {
+                return BalanceResult.notFound();
+            }
+            double before = stored;
+
+            PreparedStatement ps = statement(depositBankSql);
+            synchronized (ps) {
+                ps.setString(1, name);
+                ps.setString(2, currency);
+                ps.setDouble(3, amount);
+                ps.executeUpdate();
             }
+            double after = Money.add(before, amount, decimals(currency));
+
+            // Fire post event
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(before), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite depositBank failed: " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
         }
     }
     @Override
     public Set<String> getBanks() {
         Set<String> set = new HashSet<>();
-        synchronized (lock) {
-            try {
-                Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT name FROM '" + banksTable + "'");
-                while (rs.next()) set.add(rs.getString(1));
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite getBanks failed: " + e.getMessage());
+        try {
+            PreparedStatement ps = statement(selectBanksSql);
+            synchronized (ps) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) set.add(rs.getString(1));
+                }
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite getBanks failed: " + e.getMessage());
         }
         return set;
     }
     @Override
     public boolean isBankOwner(String name, UUID uuid) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT owner FROM '" + banksTable + "' WHERE name=?");
-                ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                if (rs.next()) return uuid.toString().equals(rs.getString(1));
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite isBankOwner failed: " + e.getMessage());
-            }
+        ensureMigrated(name);
+        try {
+            return bankMemberRowExists(bankOwnerSql, name, uuid);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite isBankOwner failed: " + e.getMessage());
             return false;
         }
     }
     @Override
     public boolean isBankMember(String name, UUID uuid) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT members FROM '" + banksTable + "' WHERE name=?");
-                ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                if (rs.next()) {
-                    Set<String> members = parseMembers(rs.getString(1));
-                    return members.contains(uuid.toString());
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite isBankMember failed: " + e.getMessage());
-            }
+        ensureMigrated(name);
+        try {
+            return bankMemberRowExists(bankMemberSql, name, uuid);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite isBankMember failed: " + e.getMessage());
             return false;
         }
     }
     @Override
     public boolean addBankMember(String name, UUID uuid) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT members FROM '" + banksTable + "' WHERE name=?");
+        ensureMigrated(name);
+        try {
+            PreparedStatement ps = statement(addBankMemberSql);
+            synchronized (ps) {
                 ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                Set<String> members = new HashSet<>();
-                if (rs.next()) {
-                    members = parseMembers(rs.getString(1));
-                }
-                if (!members.add(uuid.toString())) return false;
-                PreparedStatement ps2 = connection.prepareStatement("UPDATE '" + banksTable + "' SET members=? WHERE name=?");
-                ps2.setString(1, toMemberString(members));
-                ps2.setString(2, name);
-                ps2.executeUpdate();
-                return true;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite addBankMember failed: " + e.getMessage());
-                return false;
+                ps.setString(2, uuid.toString());
+                ps.setString(3, name);
+                return ps.executeUpdate() > 0;
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite addBankMember failed: " + e.getMessage());
+            return false;
         }
     }
     @Override
     public boolean removeBankMember(String name, UUID uuid) {
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT members FROM '" + banksTable + "' WHERE name=?");
+        ensureMigrated(name);
+        try {
+            PreparedStatement ps = statement(removeBankMemberSql);
+            synchronized (ps) {
                 ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                Set<String> members = new HashSet<>();
-                if (rs.next()) {
-                    members = parseMembers(rs.getString(1));
-                }
-                if (!members.remove(uuid.toString())) return false;
-                PreparedStatement ps2 = connection.prepareStatement("UPDATE '" + banksTable + "' SET members=? WHERE name=?");
-                ps2.setString(1, toMemberString(members));
-                ps2.setString(2, name);
-                ps2.executeUpdate();
-                return true;
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite removeBankMember failed: " + e.getMessage());
-                return false;
+                ps.setString(2, uuid.toString());
+                return ps.executeUpdate() > 0;
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite removeBankMember failed: " + e.getMessage());
+            return false;
         }
     }
     @Override
     public Set<UUID> getBankMembers(String name) {
+        ensureMigrated(name);
         Set<UUID> set = new HashSet<>();
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT members FROM '" + banksTable + "' WHERE name=?");
+        try {
+            PreparedStatement ps = statement(selectBankMembersSql);
+            synchronized (ps) {
                 ps.setString(1, name);
-                ResultSet rs = ps.executeQuery();
-                if (rs.next()) {
-                    Set<String> members = parseMembers(rs.getString(1));
-                    for (String s : members) {
-                        try { set.add(UUID.fromString(s)); } catch (Exception ignored) {}
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        try { set.add(UUID.fromString(rs.getString(1))); } catch (Exception ignored) {}
                     }
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite getBankMembers failed: " + e.getMessage());
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite getBankMembers failed: " + e.getMessage());
         }
         return set;
     }
-    
+
     @Override
     public void logTransaction(Transaction tx) {
-        synchronized (lock) {
-            try {
-                String sql = "INSERT INTO transactions (uuid, currency, amount, timestamp) VALUES (?, ?, ?, ?)";
-                PreparedStatement ps = connection.prepareStatement(sql);
+        try {
+            PreparedStatement ps = statement(INSERT_TRANSACTION);
+            synchronized (ps) {
                 ps.setString(1, tx.getUuid().toString());
                 ps.setString(2, tx.getCurrency());
                 ps.setDouble(3, tx.getAmount());
                 ps.setLong(4, tx.getTimestamp());
                 ps.executeUpdate();
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite logTransaction failed: " + e.getMessage());
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite logTransaction failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts the batch as multi-row INSERT statements of up to {@link #TRANSACTION_BATCH_ROWS} rows.
+     * Each statement is atomic on its own, so no explicit transaction is needed on the shared connection.
+     * @throws TransactionLogException with the chunk that failed and everything after it
+     */
+    @Override
+    public void logTransactions(java.util.List<Transaction> transactions) {
+        int from = 0;
+        try {
+            for (; from < transactions.size(); from += TRANSACTION_BATCH_ROWS) {
+                java.util.List<Transaction> chunk = transactions.subList(from, Math.min(transactions.size(), from + TRANSACTION_BATCH_ROWS));
+                if (chunk.size() == TRANSACTION_BATCH_ROWS) {
+                    PreparedStatement ps = statement(INSERT_TRANSACTIONS_BATCH);
+                    synchronized (ps) {
+                        bindTransactions(ps, chunk);
+                        ps.executeUpdate();
+                    }
+                } else {
+                    try (PreparedStatement ps = connection.prepareStatement(insertTransactionsSql(chunk.size()))) {
+                        bindTransactions(ps, chunk);
+                        ps.executeUpdate();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new TransactionLogException("SQLite logTransactions failed: " + e.getMessage(), e, transactions.subList(from, transactions.size()));
+        }
+    }
+
+    /**
+     * Deletes the range and inserts the replacement in one transaction on the write connection, so a
+     * failed insert leaves the original rows in place.
+     */
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, java.util.List<Transaction> replacement) {
+        try {
+            return inWriteTransaction(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(DELETE_TRANSACTIONS_RANGE)) {
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, currency);
+                    ps.setLong(3, from);
+                    ps.setLong(4, to);
+                    ps.executeUpdate();
+                }
+                for (int start = 0; start < replacement.size(); start += TRANSACTION_BATCH_ROWS) {
+                    java.util.List<Transaction> chunk = replacement.subList(start, Math.min(replacement.size(), start + TRANSACTION_BATCH_ROWS));
+                    try (PreparedStatement ps = conn.prepareStatement(insertTransactionsSql(chunk.size()))) {
+                        bindTransactions(ps, chunk);
+                        ps.executeUpdate();
+                    }
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite replaceTransactions failed for " + uuid + " (" + currency + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static String insertTransactionsSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO transactions (uuid, currency, amount, timestamp) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private static void bindTransactions(PreparedStatement ps, java.util.List<Transaction> transactions) throws SQLException {
+        int index = 1;
+        for (Transaction tx : transactions) {
+            ps.setString(index++, tx.getUuid().toString());
+            ps.setString(index++, tx.getCurrency());
+            ps.setDouble(index++, tx.getAmount());
+            ps.setLong(index++, tx.getTimestamp());
         }
     }
 
@@ -634,26 +1204,17 @@ public class SQLiteStorageProvider implements StorageProvider {
      */
     public Set<String> cleanupOrphanedPlayers() {
         Set<String> removed = new HashSet<>();
-        synchronized (lock) {
-            try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM '" + table + "'");
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    String uuidStr = rs.getString(1);
-                    try {
-                        UUID uuid = UUID.fromString(uuidStr);
-                        org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
-                        if (player == null || player.getName() == null) {
-                            PreparedStatement del = connection.prepareStatement("DELETE FROM '" + table + "' WHERE uuid=?");
-                            del.setString(1, uuidStr);
-                            del.executeUpdate();
-                            removed.add(uuidStr);
-                        }
-                    } catch (IllegalArgumentException ignored) {}
+        try {
+            PreparedStatement del = statement(deleteUuidSql);
+            for (String uuidStr : previewOrphanedPlayers()) {
+                synchronized (del) {
+                    del.setString(1, uuidStr);
+                    del.executeUpdate();
                 }
-            } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite cleanupOrphanedPlayers failed: " + e.getMessage());
+                removed.add(uuidStr);
             }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite cleanupOrphanedPlayers failed: " + e.getMessage());
         }
         return removed;
     }
@@ -663,32 +1224,208 @@ public class SQLiteStorageProvider implements StorageProvider {
      */
     public java.util.Set<String> previewOrphanedPlayers() {
         java.util.Set<String> orphaned = new java.util.HashSet<>();
-        synchronized (lock) {
+        List<String> stored = new ArrayList<>();
+        try {
+            PreparedStatement ps = statement(selectUuidsSql);
+            synchronized (ps) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) stored.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite previewOrphanedPlayers failed: " + e.getMessage());
+        }
+        // Resolve players after the cursor is closed so the statement is not held during lookups
+        for (String uuidStr : stored) {
             try {
-                PreparedStatement ps = connection.prepareStatement("SELECT uuid FROM '" + table + "'");
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    String uuidStr = rs.getString(1);
-                    try {
-                        java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
-                        org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
-                        if (player == null || player.getName() == null) {
-                            orphaned.add(uuidStr);
-                        }
-                    } catch (IllegalArgumentException ignored) {}
+                java.util.UUID uuid = java.util.UUID.fromString(uuidStr);
+                org.bukkit.OfflinePlayer player = org.bukkit.Bukkit.getOfflinePlayer(uuid);
+                if (player == null || player.getName() == null) {
+                    orphaned.add(uuidStr);
+                }
+            } catch (IllegalArgumentException ignored) {}
+        }
+        return orphaned;
+    }
+
+    // --- Helper methods for bank rows ---
+    /**
+     * Reads a bank's balance in a currency, or returns null if the bank does not exist.
+     * Callers hold the bank's lock.
+     */
+    private Double selectBankBalanceForUpdate(String name, String currency) throws SQLException {
+        PreparedStatement ps = statement(selectBankBalanceForUpdateSql);
+        synchronized (ps) {
+            ps.setString(1, currency);
+            ps.setString(2, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                double balance = rs.getDouble(1);
+                return rs.wasNull() ? 0.0 : balance;
+            }
+        }
+    }
+
+    private boolean bankMemberRowExists(String sql, String name, UUID uuid) throws SQLException {
+        PreparedStatement ps = statement(sql);
+        synchronized (ps) {
+            ps.setString(1, name);
+            ps.setString(2, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface WriteTransaction<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs statements in one {@code BEGIN IMMEDIATE} transaction on the write connection, rolling
+     * back if any of them fails.
+     */
+    private <T> T inWriteTransaction(WriteTransaction<T> work) throws SQLException {
+        synchronized (writeConnectionLock) {
+            Connection conn = writeConnection();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("BEGIN IMMEDIATE");
+            }
+            try {
+                T result = work.run(conn);
+                endTransaction(conn, "COMMIT");
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    endTransaction(conn, "ROLLBACK");
+                } catch (SQLException ignored) {
+                }
+                throw e;
+            }
+        }
+    }
+
+    // --- Migration from the old bank format ---
+    /**
+     * Moves banks stored by older versions, with their balances as a JSON-like string and their members
+     * as a comma-separated list in the bank row, into the bank balance and member tables.
+     * <p>
+     * {@link #load()} lists these banks and this then runs on the storage executor, so the server keeps
+     * serving while it works. Each bank is copied under its bank lock in its own transaction that also
+     * clears the old columns, so the server can stop at any point and the next start carries on with the
+     * banks that are left. A bank used before this reaches it is copied on first access instead, see
+     * {@link #ensureMigrated(String)}. Banks created by this version never set the old columns and are
+     * skipped.
+     * </p>
+     */
+    private void migrateLegacyBanks() {
+        List<String> legacy = new ArrayList<>(legacyBanks);
+        plugin.getLogger().info("[EzEconomy] Migrating " + legacy.size() + " SQLite bank(s) to the " + bankBalancesTable + "/" + bankMembersTable + " tables...");
+        int migrated = 0;
+        for (String name : legacy) {
+            ReentrantLock lock = locks.forBank(name);
+            lock.lock();
+            try {
+                synchronized (writeConnectionLock) {
+                    if (closing) {
+                        plugin.getLogger().info("[EzEconomy] SQLite bank migration stopped by shutdown, will continue on next start.");
+                        break;
+                    }
+                    if (migrateLegacyBank(name)) migrated++;
+                    legacyBanks.remove(name);
                 }
             } catch (SQLException e) {
-                plugin.getLogger().severe("[EzEconomy] SQLite previewOrphanedPlayers failed: " + e.getMessage());
+                plugin.getLogger().severe("[EzEconomy] SQLite bank migration failed for " + name + ", will retry on next start: " + e.getMessage());
+            } finally {
+                lock.unlock();
             }
         }
-        return orphaned;
+        plugin.getLogger().info("[EzEconomy] Migrated " + migrated + " of " + legacy.size() + " SQLite bank(s).");
+    }
+
+    /**
+     * Copies a bank still in the old format before it is used, so it never reads as empty, without
+     * members, or gets a balance that the copy would later add to. Costs a set lookup once the bank
+     * has been copied.
+     */
+    private void ensureMigrated(String name) {
+        if (name == null || !legacyBanks.contains(name)) return;
+        ReentrantLock lock = locks.forBank(name);
+        lock.lock();
+        try {
+            synchronized (writeConnectionLock) {
+                if (closing || !legacyBanks.contains(name)) return;
+                migrateLegacyBank(name);
+                legacyBanks.remove(name);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("[EzEconomy] SQLite bank migration failed for " + name + ", will retry on next access: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies one bank inside a write transaction. The old columns are read again in the transaction, so a
+     * bank deleted or already copied since the scan is skipped.
+     * @return True if the bank was copied
+     */
+    private boolean migrateLegacyBank(String name) throws SQLException {
+        return inWriteTransaction(conn -> {
+            String owner;
+            String members;
+            String balances;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT owner, members, balances FROM '" + banksTable
+                    + "' WHERE name=? AND (members IS NOT NULL OR balances IS NOT NULL)")) {
+                ps.setString(1, name);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return false;
+                    owner = rs.getString(1);
+                    members = rs.getString(2);
+                    balances = rs.getString(3);
+                }
+            }
+            // Merge rather than overwrite: the bank may have received deposits before it was copied
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO '" + bankBalancesTable + "' (name, currency, balance) VALUES (?, ?, ?) " +
+                        "ON CONFLICT(name, currency) DO UPDATE SET balance = ROUND(balance + excluded.balance, " + Money.MAX_DECIMALS + ")")) {
+                for (Map.Entry<String, Double> entry : parseBalances(balances).entrySet()) {
+                    ps.setString(1, name);
+                    ps.setString(2, entry.getKey());
+                    ps.setDouble(3, entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            Set<String> uuids = parseMembers(members);
+            if (owner != null && !owner.isEmpty()) {
+                uuids.add(owner);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(insertBankMemberSql)) {
+                for (String uuid : uuids) {
+                    ps.setString(1, name);
+                    ps.setString(2, uuid);
+                    ps.setInt(3, uuid.equals(owner) ? 1 : 0);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE '" + banksTable + "' SET members=NULL, balances=NULL WHERE name=?")) {
+                ps.setString(1, name);
+                ps.executeUpdate();
+            }
+            return true;
+        });
     }
 
-    // --- Helper methods for bank serialization ---
+    /**
+     * Parses the old bank balance format: {@code {"dollar":100.0,"euro":50.0}}.
+     */
     private Map<String, Double> parseBalances(String json) {
         Map<String, Double> map = new HashMap<>();
         if (json == null || json.isEmpty() || json.equals("{}")) return map;
-        // Simple format: {"USD":100.0,"EUR":50.0}
         json = json.trim();
         if (json.startsWith("{") && json.endsWith("}")) {
             json = json.substring(1, json.length() - 1);
@@ -704,31 +1441,16 @@ public class SQLiteStorageProvider implements StorageProvider {
         return map;
     }
 
-    private String toJson(Map<String, Double> map) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{");
-        boolean first = true;
-        for (Map.Entry<String, Double> e : map.entrySet()) {
-            if (!first) sb.append(",");
-            sb.append("\"").append(e.getKey()).append("\":").append(e.getValue());
-            first = false;
-        }
-        sb.append("}");
-        return sb.toString();
-    }
-
+    /**
+     * Parses the old member list: comma-separated UUIDs.
+     */
     private Set<String> parseMembers(String s) {
         Set<String> set = new HashSet<>();
         if (s == null || s.isEmpty()) return set;
-        // Members are stored as comma-separated UUIDs
         for (String part : s.split(",")) {
             String trimmed = part.trim();
             if (!trimmed.isEmpty()) set.add(trimmed);
         }
         return set;
     }
-
-    private String toMemberString(Set<String> set) {
-        return String.join(",", set);
-    }
 }
@@ -0,0 +1,212 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Runs blocking storage calls made off the main thread.
+ * <p>
+ * On Java 21 and newer every call gets its own virtual thread, and a semaphore limits how many of
+ * them are inside the backend at once. A virtual thread waiting for a permit or for the database
+ * costs almost nothing, so thousands of pending economy requests do not tie up platform threads. On
+ * older runtimes, or when virtual threads are disabled, a fixed pool with one thread per permit is
+ * used instead.
+ * </p>
+ * <p>
+ * In both modes at most {@code queueCapacity} calls may wait for a permit. Work submitted beyond
+ * that fails with a {@link RejectedExecutionException} instead of blocking the caller, and nothing
+ * is borrowed from the common fork-join pool or Bukkit's async scheduler.
+ * </p>
+ */
+public final class StorageExecutor implements Executor {
+    public static final int DEFAULT_THREADS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    private final Logger logger;
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final ExecutorService threads;
+    // Only used with virtual threads; the platform pool is bounded by its size
+    private final Semaphore permits;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Creates the executor.
+     * @param logger Logger for startup and shutdown messages
+     * @param virtualThreads Whether to use virtual threads when the runtime supports them
+     * @param maxConcurrency Maximum number of calls running against the backend at once
+     * @param queueCapacity Maximum number of calls waiting for a free slot
+     */
+    public StorageExecutor(Logger logger, boolean virtualThreads, int maxConcurrency, int queueCapacity) {
+        this.logger = logger;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        int capacity = Math.max(1, queueCapacity);
+        this.maxPending = this.maxConcurrency + capacity;
+        ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.threads = virtual;
+            this.permits = new Semaphore(this.maxConcurrency);
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(this.maxConcurrency, this.maxConcurrency, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(capacity), new NamedThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            this.threads = pool;
+            this.permits = null;
+        }
+    }
+
+    /**
+     * Creates a per-task virtual thread executor through reflection so the plugin still runs on Java 17.
+     * @return The executor, or null if virtual threads are not available
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "EzEconomy-Storage-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method create = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) create.invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (permits == null) {
+            threads.execute(task);
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("Storage executor queue is full");
+        }
+        try {
+            threads.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    pending.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a storage call on the executor.
+     * @return Future completed with the call's result, or exceptionally if it threw or the queue was full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, this);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs {@code task} on the executor every {@code periodTicks}. The timer itself only hands the task
+     * over, so no Bukkit async worker is held while it runs. A run is skipped while the previous one is
+     * still in progress or the queue is full.
+     */
+    public BukkitTask scheduleRepeating(Plugin plugin, Runnable task, long delayTicks, long periodTicks) {
+        AtomicBoolean running = new AtomicBoolean();
+        return plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            if (!running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+            }
+        }, delayTicks, periodTicks);
+    }
+
+    /**
+     * Whether calls run on virtual threads.
+     */
+    public boolean isVirtual() {
+        return permits != null;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getActiveCount() {
+        if (permits != null) {
+            return maxConcurrency - permits.availablePermits();
+        }
+        return ((ThreadPoolExecutor) threads).getActiveCount();
+    }
+
+    public int getQueueSize() {
+        if (permits != null) {
+            return Math.max(0, pending.get() - getActiveCount());
+        }
+        return ((ThreadPoolExecutor) threads).getQueue().size();
+    }
+
+    /**
+     * Stops accepting work and waits for queued calls to finish.
+     * @param timeoutMillis How long to wait before giving up on remaining calls
+     */
+    public void shutdown(long timeoutMillis) {
+        threads.shutdown();
+        try {
+            if (!threads.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("[EzEconomy] " + getQueueSize() + " storage calls still pending at shutdown; abandoning them.");
+                threads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            threads.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "EzEconomy-Storage-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
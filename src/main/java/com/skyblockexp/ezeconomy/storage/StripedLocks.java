@@ -0,0 +1,117 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size table of locks shared by storage providers.
+ * <p>
+ * Each player account (uuid + currency) and each bank maps onto one stripe, so
+ * operations on unrelated accounts proceed in parallel while operations on the
+ * same account are serialized. Memory use is bounded by the stripe count no
+ * matter how many accounts exist.
+ * <p>
+ * Stripe locks are leaf locks: a caller holding a stripe must not acquire
+ * another stripe or a {@link TransferLockManager} lock. Transfers take their
+ * ordered {@link TransferLockManager} locks first and only then the stripe of
+ * each individual withdraw/deposit, which keeps the lock order acyclic. The
+ * only exception is {@link #forAccounts}, which hands out several stripes to be
+ * taken together in index order.
+ */
+public final class StripedLocks {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a lock table.
+     * @param stripeCount requested number of stripes, rounded up to a power of two
+     */
+    public StripedLocks(int stripeCount) {
+        int size = 1;
+        while (size < Math.max(1, stripeCount) && size < (1 << 16)) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the lock guarding everything stored for a player.
+     */
+    public ReentrantLock forPlayer(UUID uuid) {
+        return stripes[index(uuid.hashCode())];
+    }
+
+    /**
+     * Returns the lock guarding a player's balance in one currency.
+     */
+    public ReentrantLock forAccount(UUID uuid, String currency) {
+        return stripes[accountIndex(uuid, currency)];
+    }
+
+    /**
+     * Returns the distinct stripes guarding two accounts, in index order. Lock them in the
+     * returned order and unlock in reverse, without holding any other stripe.
+     */
+    public ReentrantLock[] forAccounts(UUID firstUuid, String firstCurrency, UUID secondUuid, String secondCurrency) {
+        int first = accountIndex(firstUuid, firstCurrency);
+        int second = accountIndex(secondUuid, secondCurrency);
+        if (first == second) {
+            return new ReentrantLock[] {stripes[first]};
+        }
+        return first < second
+                ? new ReentrantLock[] {stripes[first], stripes[second]}
+                : new ReentrantLock[] {stripes[second], stripes[first]};
+    }
+
+    /**
+     * Returns the distinct stripes guarding a player's balances in the given currencies, in index
+     * order. Lock them in the returned order and unlock in reverse, without holding any other stripe.
+     */
+    public ReentrantLock[] forAccounts(UUID uuid, Collection<String> currencies) {
+        return currencies.stream()
+                .mapToInt(currency -> accountIndex(uuid, currency))
+                .distinct()
+                .sorted()
+                .mapToObj(i -> stripes[i])
+                .toArray(ReentrantLock[]::new);
+    }
+
+    /**
+     * Returns the lock guarding a bank's balances and membership.
+     */
+    public ReentrantLock forBank(String name) {
+        return stripes[index(name == null ? 0 : name.hashCode() ^ 0x5bd1e995)];
+    }
+
+    /**
+     * Returns the lock for an arbitrary stripe index, wrapped to the table size.
+     */
+    public ReentrantLock forIndex(int index) {
+        return stripes[index & mask];
+    }
+
+    /**
+     * Returns the stripe index a hash maps to.
+     */
+    public int index(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash & mask;
+    }
+
+    private int accountIndex(UUID uuid, String currency) {
+        return index(uuid.hashCode() * 31 + (currency == null ? 0 : currency.hashCode()));
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
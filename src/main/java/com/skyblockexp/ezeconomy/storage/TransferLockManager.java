@@ -1,17 +1,40 @@
 package com.skyblockexp.ezeconomy.storage;
 
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Per-player locks used to make multi-step balance changes, such as transfers, atomic.
+ * <p>
+ * Players share a fixed table of lock stripes, so memory stays constant no matter how many
+ * UUIDs have ever transferred. Two players may map to the same stripe; callers that need two
+ * players at once must use {@link #getOrderedLocks(UUID, UUID)} so every thread acquires the
+ * stripes in the same global order.
+ */
 public final class TransferLockManager {
-    private static final ConcurrentMap<UUID, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+    private static final int STRIPES = 1024;
+    private static final StripedLocks LOCKS = new StripedLocks(STRIPES);
 
     private TransferLockManager() {
     }
 
     public static ReentrantLock getLock(UUID uuid) {
-        return LOCKS.computeIfAbsent(uuid, ignored -> new ReentrantLock());
+        return LOCKS.forPlayer(uuid);
+    }
+
+    /**
+     * Returns the locks guarding both players in acquisition order.
+     * Lock them in array order and unlock in reverse order. When both players share a stripe
+     * the array holds a single lock.
+     */
+    public static ReentrantLock[] getOrderedLocks(UUID first, UUID second) {
+        int a = LOCKS.index(first.hashCode());
+        int b = LOCKS.index(second.hashCode());
+        if (a == b) {
+            return new ReentrantLock[] { LOCKS.forIndex(a) };
+        }
+        return a < b
+            ? new ReentrantLock[] { LOCKS.forIndex(a), LOCKS.forIndex(b) }
+            : new ReentrantLock[] { LOCKS.forIndex(b), LOCKS.forIndex(a) };
     }
 }
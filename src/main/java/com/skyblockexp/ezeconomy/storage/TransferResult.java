@@ -1,5 +1,7 @@
 package com.skyblockexp.ezeconomy.storage;
 
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
+
 public final class TransferResult {
     private final boolean success;
     private final double fromBalance;
@@ -30,4 +32,23 @@ public final class TransferResult {
     public double getToBalance() {
         return toBalance;
     }
+
+    /**
+     * Balance of the sending account before the transfer that produced this result, worked back from
+     * the balances the provider returned. A failed transfer changed nothing.
+     */
+    double getFromBalanceBefore(boolean sameAccount, double debitAmount, double creditAmount, int decimals) {
+        if (!success) return fromBalance;
+        double before = Money.add(fromBalance, debitAmount, decimals);
+        return sameAccount ? Money.subtract(before, creditAmount, decimals) : before;
+    }
+
+    /**
+     * Balance of the receiving account before the transfer that produced this result.
+     */
+    double getToBalanceBefore(boolean sameAccount, double debitAmount, double creditAmount, int decimals) {
+        if (!success) return toBalance;
+        if (sameAccount) return getFromBalanceBefore(true, debitAmount, creditAmount, decimals);
+        return Money.subtract(toBalance, creditAmount, decimals);
+    }
 }
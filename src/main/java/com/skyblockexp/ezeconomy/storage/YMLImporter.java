@@ -0,0 +1,146 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * One-shot copy of a per-player YML data folder (as written by {@link YMLStorageProvider}) into another
+ * storage provider. Balances, banks with their owners, members and balances, and transaction history
+ * are copied; the source files are left untouched.
+ */
+final class YMLImporter {
+    private final Logger logger;
+
+    YMLImporter(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Imports every {@code .yml} file in the folder into the target.
+     * @param target Provider to write into
+     * @param folder YML data folder
+     * @return Counts of imported entries
+     */
+    Result importInto(StorageProvider target, File folder) {
+        Result result = new Result();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null) return result;
+        for (File file : files) {
+            try {
+                YamlConfiguration pdata = YamlConfiguration.loadConfiguration(file);
+                UUID uuid = resolveUuid(file, pdata);
+                if (uuid == null) {
+                    logger.warning("[EzEconomy] Skipping " + file.getName() + " during import: unknown player");
+                    continue;
+                }
+                importBalances(target, uuid, pdata, result);
+                importBanks(target, pdata, result);
+                importTransactions(target, pdata, result);
+            } catch (Exception e) {
+                logger.warning("[EzEconomy] Failed to import " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private void importBalances(StorageProvider target, UUID uuid, YamlConfiguration pdata, Result result) {
+        ConfigurationSection balances = pdata.getConfigurationSection("balances");
+        if (balances == null) return;
+        for (String currency : balances.getKeys(false)) {
+            target.setBalance(uuid, currency, balances.getDouble(currency, 0.0));
+            result.accounts++;
+        }
+    }
+
+    private void importBanks(StorageProvider target, YamlConfiguration pdata, Result result) {
+        ConfigurationSection banks = pdata.getConfigurationSection("banks");
+        if (banks == null) return;
+        for (String name : banks.getKeys(false)) {
+            List<String> owners = banks.getStringList(name + ".owners");
+            UUID owner = owners.isEmpty() ? null : parseUuid(owners.get(0));
+            if (owner == null || !target.createBank(name, owner)) continue;
+            for (String member : banks.getStringList(name + ".members")) {
+                UUID memberUuid = parseUuid(member);
+                if (memberUuid != null) target.addBankMember(name, memberUuid);
+            }
+            ConfigurationSection balances = banks.getConfigurationSection(name + ".balances");
+            if (balances != null) {
+                for (String currency : balances.getKeys(false)) {
+                    target.setBankBalance(name, currency, balances.getDouble(currency, 0.0));
+                }
+            }
+            result.banks++;
+        }
+    }
+
+    private void importTransactions(StorageProvider target, YamlConfiguration pdata, Result result) {
+        ConfigurationSection transactions = pdata.getConfigurationSection("transactions");
+        if (transactions == null) return;
+        for (String currency : transactions.getKeys(false)) {
+            List<?> txList = transactions.getList(currency);
+            if (txList == null) continue;
+            for (Object obj : txList) {
+                if (!(obj instanceof Map)) continue;
+                Map<?, ?> txMap = (Map<?, ?>) obj;
+                try {
+                    UUID txUuid = UUID.fromString(String.valueOf(txMap.get("uuid")));
+                    String txCurrency = String.valueOf(txMap.get("currency"));
+                    double txAmount = Double.parseDouble(String.valueOf(txMap.get("amount")));
+                    long txTimestamp = Long.parseLong(String.valueOf(txMap.get("timestamp")));
+                    target.logTransaction(new Transaction(txUuid, txCurrency, txAmount, txTimestamp));
+                    result.transactions++;
+                } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    private static UUID resolveUuid(File file, YamlConfiguration pdata) {
+        UUID uuid = parseUuid(pdata.getString("uuid"));
+        if (uuid != null) return uuid;
+        String namePart = file.getName().replace(".yml", "");
+        uuid = parseUuid(namePart);
+        if (uuid != null) return uuid;
+        OfflinePlayer player = Bukkit.getOfflinePlayer(namePart);
+        return player != null ? player.getUniqueId() : null;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Number of balances, banks and transactions copied by an import.
+     */
+    static final class Result {
+        private int accounts;
+        private int banks;
+        private int transactions;
+
+        int getAccounts() {
+            return accounts;
+        }
+
+        int getBanks() {
+            return banks;
+        }
+
+        int getTransactions() {
+            return transactions;
+        }
+    }
+}
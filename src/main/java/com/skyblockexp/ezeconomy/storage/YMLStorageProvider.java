@@ -11,14 +11,18 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.math.BigDecimal;
 import com.skyblockexp.ezeconomy.api.events.BankPreTransactionEvent;
 import com.skyblockexp.ezeconomy.api.events.BankPostTransactionEvent;
 import com.skyblockexp.ezeconomy.api.events.TransactionType;
 
 import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceMutation;
+import com.skyblockexp.ezeconomy.api.storage.models.BalanceResult;
+import com.skyblockexp.ezeconomy.api.storage.models.Money;
 import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
 
 public class YMLStorageProvider implements StorageProvider {
@@ -26,24 +30,34 @@ public class YMLStorageProvider implements StorageProvider {
     private final String namingScheme;
     private final EzEconomyPlugin plugin;
     private final YamlConfiguration dbConfig;
-    private final Map<UUID, Object> playerLocks = new ConcurrentHashMap<>();
-    private final Map<String, Object> bankLocks = new ConcurrentHashMap<>();
+    // Separate tables keep player and bank locks from ever sharing a stripe.
+    private final StripedLocks playerLocks;
+    private final StripedLocks bankLocks;
+    // Bank name -> name of the player file holding it, persisted to bankIndexFile
+    private final Map<String, String> bankIndex = new ConcurrentHashMap<>();
+    private final File bankIndexFile;
+    private final Object bankIndexLock = new Object();
 
     public YMLStorageProvider(EzEconomyPlugin plugin, YamlConfiguration dbConfig) {
         this.plugin = plugin;
         this.dbConfig = dbConfig;
         if (dbConfig == null) throw new IllegalArgumentException("YML config is missing!");
+        int stripes = plugin.getConfig().getInt("lock-stripes", StripedLocks.DEFAULT_STRIPES);
+        this.playerLocks = new StripedLocks(stripes);
+        this.bankLocks = new StripedLocks(stripes);
         String folderName = dbConfig.getString("yml.data-folder", "data");
         this.dataFolder = new File(plugin.getDataFolder(), folderName);
         if (!dataFolder.exists()) {
             dataFolder.mkdirs();
         }
         this.namingScheme = dbConfig.getString("yml.per-player-file-naming", "uuid");
+        this.bankIndexFile = new File(plugin.getDataFolder(), dbConfig.getString("yml.bank-index-file", "bank-index.yml"));
     }
 
     @Override
     public void init() throws com.skyblockexp.ezeconomy.api.storage.exceptions.StorageInitException {
         // Data folder is already created in constructor
+        loadBankIndex();
     }
 
     @Override
@@ -83,25 +97,35 @@ public class YMLStorageProvider implements StorageProvider {
         return YamlConfiguration.loadConfiguration(file);
     }
 
-    private Object getPlayerLock(UUID uuid) {
-        return playerLocks.computeIfAbsent(uuid, key -> new Object());
+    private ReentrantLock getPlayerLock(UUID uuid) {
+        return playerLocks.forPlayer(uuid);
     }
 
-    private Object getBankLock(String name) {
-        return bankLocks.computeIfAbsent(name, key -> new Object());
+    private ReentrantLock getBankLock(String name) {
+        return bankLocks.forBank(name);
+    }
+
+    /**
+     * Decimals of a currency; balances are added and subtracted on whole units of it (see {@link Money}).
+     */
+    private int decimals(String currency) {
+        return plugin.getCurrencyManager().getDecimals(currency);
     }
 
     private void savePlayerData(UUID uuid, YamlConfiguration data) {
-        File file = getPlayerFile(uuid);
         try {
-            if (!data.isString("uuid")) {
-                data.set("uuid", uuid.toString());
-            }
-            data.save(file);
+            writePlayerData(uuid, data);
         } catch (IOException ioex2) {
         }
     }
 
+    private void writePlayerData(UUID uuid, YamlConfiguration data) throws IOException {
+        if (!data.isString("uuid")) {
+            data.set("uuid", uuid.toString());
+        }
+        data.save(getPlayerFile(uuid));
+    }
+
     @Override
     public boolean isConnected() {
         return true;
@@ -109,63 +133,125 @@ public class YMLStorageProvider implements StorageProvider {
 
     @Override
     public double getBalance(UUID uuid, String currency) {
-        synchronized (getPlayerLock(uuid)) {
-            try {
-                YamlConfiguration pdata = loadPlayerData(uuid);
-                return pdata.getDouble("balances." + currency, 0.0);
-            } catch (Exception e) {
-                System.err.println("[EzEconomy] Failed to get balance for " + uuid + " (" + currency + "): " + e.getMessage());
-                return 0.0;
-            }
+        ReentrantLock lock = getPlayerLock(uuid);
+        lock.lock();
+        try {
+            YamlConfiguration pdata = loadPlayerData(uuid);
+            return pdata.getDouble("balances." + currency, 0.0);
+        } catch (Exception e) {
+            System.err.println("[EzEconomy] Failed to get balance for " + uuid + " (" + currency + "): " + e.getMessage());
+            return 0.0;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void setBalance(UUID uuid, String currency, double amount) {
-        CompletableFuture.runAsync(() -> {
-            synchronized (getPlayerLock(uuid)) {
-                try {
-                    YamlConfiguration pdata = loadPlayerData(uuid);
-                    pdata.set("balances." + currency, amount);
-                    savePlayerData(uuid, pdata);
-                } catch (Exception e) {
-                    System.err.println("[EzEconomy] Failed to save balance for " + uuid + " (" + currency + "): " + e.getMessage());
-                }
-            }
-        });
+        ReentrantLock lock = getPlayerLock(uuid);
+        lock.lock();
+        try {
+            YamlConfiguration pdata = loadPlayerData(uuid);
+            pdata.set("balances." + currency, amount);
+            savePlayerData(uuid, pdata);
+        } catch (Exception e) {
+            System.err.println("[EzEconomy] Failed to save balance for " + uuid + " (" + currency + "): " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public boolean tryWithdraw(UUID uuid, String currency, double amount) {
-        synchronized (getPlayerLock(uuid)) {
-            try {
-                YamlConfiguration pdata = loadPlayerData(uuid);
-                double balance = pdata.getDouble("balances." + currency, 0.0);
-                if (balance < amount) {
-                    return false;
-                }
-                pdata.set("balances." + currency, balance - amount);
-                savePlayerData(uuid, pdata);
-                return true;
-            } catch (Exception e) {
-                System.err.println("[EzEconomy] Failed to withdraw balance for " + uuid + " (" + currency + "): " + e.getMessage());
-                return false;
+        return withdrawAndGet(uuid, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = getPlayerLock(uuid);
+        lock.lock();
+        try {
+            YamlConfiguration pdata = loadPlayerData(uuid);
+            double balance = pdata.getDouble("balances." + currency, 0.0);
+            if (balance < amount) {
+                return BalanceResult.insufficientFunds(balance);
             }
+            double after = Money.subtract(balance, amount, decimals(currency));
+            pdata.set("balances." + currency, after);
+            savePlayerData(uuid, pdata);
+            return BalanceResult.success(after);
+        } catch (Exception e) {
+            System.err.println("[EzEconomy] Failed to withdraw balance for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void deposit(UUID uuid, String currency, double amount) {
-        synchronized (getPlayerLock(uuid)) {
+        depositAndGet(uuid, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositAndGet(UUID uuid, String currency, double amount) {
+        ReentrantLock lock = getPlayerLock(uuid);
+        lock.lock();
+        try {
+            YamlConfiguration pdata = loadPlayerData(uuid);
+            double balance = pdata.getDouble("balances." + currency, 0.0);
+            double after = Money.add(balance, amount, decimals(currency));
+            pdata.set("balances." + currency, after);
+            savePlayerData(uuid, pdata);
+            return BalanceResult.success(after);
+        } catch (Exception e) {
+            System.err.println("[EzEconomy] Failed to deposit balance for " + uuid + " (" + currency + "): " + e.getMessage());
+            return BalanceResult.failed();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Groups the batch by player so each player file is read and written once.
+     */
+    @Override
+    public java.util.List<BalanceMutation> applyBatch(java.util.List<BalanceMutation> mutations) {
+        java.util.Map<UUID, java.util.List<BalanceMutation>> byPlayer = new java.util.LinkedHashMap<>();
+        for (BalanceMutation mutation : mutations) {
+            byPlayer.computeIfAbsent(mutation.getUuid(), k -> new java.util.ArrayList<>()).add(mutation);
+        }
+        java.util.List<BalanceMutation> rejected = new java.util.ArrayList<>();
+        for (java.util.Map.Entry<UUID, java.util.List<BalanceMutation>> entry : byPlayer.entrySet()) {
+            UUID uuid = entry.getKey();
+            ReentrantLock lock = getPlayerLock(uuid);
+            lock.lock();
             try {
                 YamlConfiguration pdata = loadPlayerData(uuid);
-                double balance = pdata.getDouble("balances." + currency, 0.0);
-                pdata.set("balances." + currency, balance + amount);
-                savePlayerData(uuid, pdata);
+                boolean changed = false;
+                for (BalanceMutation mutation : entry.getValue()) {
+                    String path = "balances." + mutation.getCurrency();
+                    double balance = pdata.getDouble(path, 0.0);
+                    if (!mutation.isApplicable(balance)) {
+                        rejected.add(mutation);
+                        continue;
+                    }
+                    pdata.set(path, mutation.applyTo(balance, decimals(mutation.getCurrency())));
+                    changed = true;
+                }
+                if (changed) {
+                    savePlayerData(uuid, pdata);
+                }
             } catch (Exception e) {
-                System.err.println("[EzEconomy] Failed to deposit balance for " + uuid + " (" + currency + "): " + e.getMessage());
+                System.err.println("[EzEconomy] Failed to apply balance changes for " + uuid + ": " + e.getMessage());
+                for (BalanceMutation mutation : entry.getValue()) {
+                    if (!rejected.contains(mutation)) rejected.add(mutation);
+                }
+            } finally {
+                lock.unlock();
             }
         }
+        return rejected;
     }
 
     @Override
@@ -175,7 +261,9 @@ public class YMLStorageProvider implements StorageProvider {
 
     @Override
     public java.util.Map<UUID, Double> getAllBalances(String currency) {
-        synchronized (getBankLock("all-balances")) {
+        ReentrantLock lock = getBankLock("all-balances");
+        lock.lock();
+        try {
             java.util.Map<UUID, Double> map = new java.util.HashMap<>();
             File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
             if (files == null) return map;
@@ -218,6 +306,8 @@ public class YMLStorageProvider implements StorageProvider {
                 }
             }
             return map;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -226,16 +316,8 @@ public class YMLStorageProvider implements StorageProvider {
         double fromBefore = getBalance(fromUuid, currency);
         double toBefore = getBalance(toUuid, currency);
 
-        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER);
-        try {
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(pre);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            System.err.println("[EzEconomy] Failed to fire PreTransactionEvent: " + e.getMessage());
-        }
-        if (pre.isCancelled()) {
+        com.skyblockexp.ezeconomy.api.events.PreTransactionEvent pre = new com.skyblockexp.ezeconomy.api.events.PreTransactionEvent(fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) {
             return com.skyblockexp.ezeconomy.storage.TransferResult.failure(fromBefore, toBefore);
         }
 
@@ -244,38 +326,107 @@ public class YMLStorageProvider implements StorageProvider {
         com.skyblockexp.ezeconomy.api.events.PostTransactionEvent post = new com.skyblockexp.ezeconomy.api.events.PostTransactionEvent(
             fromUuid, toUuid, java.math.BigDecimal.valueOf(debitAmount), com.skyblockexp.ezeconomy.api.events.TransactionType.TRANSFER,
             result.isSuccess(), java.math.BigDecimal.valueOf(fromBefore), java.math.BigDecimal.valueOf(result.getFromBalance()),
-            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance())
+            java.math.BigDecimal.valueOf(toBefore), java.math.BigDecimal.valueOf(result.getToBalance()), plugin.getEventDispatcher().createAsync()
         );
-        try {
-            plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                plugin.getServer().getPluginManager().callEvent(post);
-                return null;
-            }).get();
-        } catch (Exception e) {
-            System.err.println("[EzEconomy] Failed to fire PostTransactionEvent: " + e.getMessage());
-        }
+        plugin.getEventDispatcher().callPost(post);
 
         return result;
     }
 
     // --- Bank support: all data in owner's YML file ---
-    // Helper: find the owner file for a bank (by scanning all YMLs)
+    // Helper: find the owner file for a bank through the bank index
     private File findBankOwnerFile(String bankName) {
-        File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (files == null) return null;
-        for (File file : files) {
-            YamlConfiguration pdata = YamlConfiguration.loadConfiguration(file);
-            if (pdata.isConfigurationSection("banks." + bankName)) {
-                return file;
+        String fileName = bankIndex.get(bankName);
+        if (fileName == null) return null;
+        File file = new File(dataFolder, fileName);
+        if (file.exists()) {
+            return file;
+        }
+        // The owner file was deleted; rebuild the index and look again
+        rebuildBankIndex();
+        fileName = bankIndex.get(bankName);
+        return fileName == null ? null : new File(dataFolder, fileName);
+    }
+
+    /**
+     * Loads the bank index from disk, or builds it by scanning every player file if it does not exist yet.
+     */
+    private void loadBankIndex() {
+        synchronized (bankIndexLock) {
+            bankIndex.clear();
+            if (!bankIndexFile.exists()) {
+                rebuildBankIndex();
+                return;
             }
+            YamlConfiguration index = YamlConfiguration.loadConfiguration(bankIndexFile);
+            for (Map<?, ?> entry : index.getMapList("banks")) {
+                Object name = entry.get("name");
+                Object file = entry.get("file");
+                if (name != null && file != null) {
+                    bankIndex.put(String.valueOf(name), String.valueOf(file));
+                }
+            }
+        }
+    }
+
+    private void rebuildBankIndex() {
+        synchronized (bankIndexLock) {
+            Map<String, String> scanned = new java.util.HashMap<>();
+            File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
+            if (files != null) {
+                for (File file : files) {
+                    YamlConfiguration pdata = YamlConfiguration.loadConfiguration(file);
+                    if (pdata.isConfigurationSection("banks")) {
+                        for (String bank : pdata.getConfigurationSection("banks").getKeys(false)) {
+                            scanned.put(bank, file.getName());
+                        }
+                    }
+                }
+            }
+            bankIndex.clear();
+            bankIndex.putAll(scanned);
+            saveBankIndex();
+        }
+    }
+
+    private void updateBankIndex(String bankName, String fileName) {
+        synchronized (bankIndexLock) {
+            if (fileName == null) {
+                bankIndex.remove(bankName);
+            } else {
+                bankIndex.put(bankName, fileName);
+            }
+            saveBankIndex();
+        }
+    }
+
+    // Stored as a list so bank names containing '.' survive the YAML path syntax
+    private void saveBankIndex() {
+        java.util.List<Map<String, String>> entries = new java.util.ArrayList<>(bankIndex.size());
+        for (Map.Entry<String, String> entry : bankIndex.entrySet()) {
+            entries.add(Map.of("name", entry.getKey(), "file", entry.getValue()));
+        }
+        YamlConfiguration index = new YamlConfiguration();
+        index.set("banks", entries);
+        try {
+            index.save(bankIndexFile);
+        } catch (IOException e) {
+            System.err.println("[EzEconomy] Failed to save bank index: " + e.getMessage());
         }
-        return null;
     }
 
     private YamlConfiguration loadBankData(String bankName) {
         File file = findBankOwnerFile(bankName);
         if (file == null) return null;
-        return YamlConfiguration.loadConfiguration(file);
+        YamlConfiguration pdata = YamlConfiguration.loadConfiguration(file);
+        if (!pdata.isConfigurationSection("banks." + bankName)) {
+            // The file was edited by hand; rebuild the index and look again
+            rebuildBankIndex();
+            file = findBankOwnerFile(bankName);
+            if (file == null) return null;
+            pdata = YamlConfiguration.loadConfiguration(file);
+        }
+        return pdata;
     }
 
     private void saveBankData(String bankName, YamlConfiguration data) {
@@ -290,20 +441,27 @@ public class YMLStorageProvider implements StorageProvider {
 
     @Override
     public boolean createBank(String name, UUID owner) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadPlayerData(owner);
             if (pdata.isConfigurationSection("banks." + name)) return false;
             pdata.set("banks." + name + ".balances.dollar", 0.0); // default currency
             pdata.set("banks." + name + ".owners", java.util.List.of(owner.toString()));
             pdata.set("banks." + name + ".members", new java.util.ArrayList<String>());
             savePlayerData(owner, pdata);
+            updateBankIndex(name, getPlayerFile(owner).getName());
             return true;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean deleteBank(String name) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             File file = findBankOwnerFile(name);
             if (file == null) return false;
             YamlConfiguration pdata = YamlConfiguration.loadConfiguration(file);
@@ -313,159 +471,178 @@ public class YMLStorageProvider implements StorageProvider {
                 pdata.save(file);
             } catch (IOException ignored) {
             }
+            updateBankIndex(name, null);
             return true;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean bankExists(String name) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             return findBankOwnerFile(name) != null;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public double getBankBalance(String name, String currency) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
             if (pdata == null) return 0.0;
             return pdata.getDouble("banks." + name + ".balances." + currency, 0.0);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void setBankBalance(String name, String currency, double amount) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
             if (pdata == null) return;
             pdata.set("banks." + name + ".balances." + currency, amount);
             saveBankData(name, pdata);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean tryWithdrawBank(String name, String currency, double amount) {
-        synchronized (getBankLock(name)) {
+        return withdrawBankAndGet(name, currency, amount).isSuccess();
+    }
+
+    @Override
+    public BalanceResult withdrawBankAndGet(String name, String currency, double amount) {
+        // Answer the pre event before taking the bank stripe to write: a synchronous event waits for
+        // the main thread, which may itself be waiting for this stripe in a call on another bank
+        Double before = readBankBalance(name, currency);
+        if (before == null) return BalanceResult.notFound();
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(before);
+
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
-            if (pdata == null) return false;
+            if (pdata == null) return BalanceResult.notFound();
             double balance = pdata.getDouble("banks." + name + ".balances." + currency, 0.0);
 
-            BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW);
-            if (plugin.getServer().isPrimaryThread()) {
-                plugin.getServer().getPluginManager().callEvent(pre);
-            } else {
-                try {
-                    plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                        plugin.getServer().getPluginManager().callEvent(pre);
-                        return null;
-                    }).get();
-                } catch (Exception e) {
-                    System.err.println("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-                }
-            }
-            if (pre.isCancelled()) return false;
-
-            if (balance < amount) return false;
-            pdata.set("banks." + name + ".balances." + currency, balance - amount);
+            if (balance < amount) return BalanceResult.insufficientFunds(balance);
+            double after = Money.subtract(balance, amount, decimals(currency));
+            pdata.set("banks." + name + ".balances." + currency, after);
             saveBankData(name, pdata);
 
-            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(balance), BigDecimal.valueOf(balance - amount));
-            if (plugin.getServer().isPrimaryThread()) {
-                plugin.getServer().getPluginManager().callEvent(post);
-            } else {
-                try {
-                    plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                        plugin.getServer().getPluginManager().callEvent(post);
-                        return null;
-                    }).get();
-                } catch (Exception e) {
-                    System.err.println("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-                }
-            }
-            return true;
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_WITHDRAW, true, BigDecimal.valueOf(balance), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void depositBank(String name, String currency, double amount) {
-        synchronized (getBankLock(name)) {
+        depositBankAndGet(name, currency, amount);
+    }
+
+    @Override
+    public BalanceResult depositBankAndGet(String name, String currency, double amount) {
+        // Answer the pre event before taking the bank stripe to write, see withdrawBankAndGet
+        Double before = readBankBalance(name, currency);
+        if (before == null) return BalanceResult.notFound();
+        BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, plugin.getEventDispatcher().createAsync());
+        if (!plugin.getEventDispatcher().callPre(pre)) return BalanceResult.cancelled(before);
+
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
-            if (pdata == null) return;
+            if (pdata == null) return BalanceResult.notFound();
             double balance = pdata.getDouble("banks." + name + ".balances." + currency, 0.0);
 
-            BankPreTransactionEvent pre = new BankPreTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT);
-            if (plugin.getServer().isPrimaryThread()) {
-                plugin.getServer().getPluginManager().callEvent(pre);
-            } else {
-                try {
-                    plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                        plugin.getServer().getPluginManager().callEvent(pre);
-                        return null;
-                    }).get();
-                } catch (Exception e) {
-                    System.err.println("[EzEconomy] Failed to fire BankPreTransactionEvent: " + e.getMessage());
-                }
-            }
-            if (pre.isCancelled()) return;
-
-            pdata.set("banks." + name + ".balances." + currency, balance + amount);
+            double after = Money.add(balance, amount, decimals(currency));
+            pdata.set("banks." + name + ".balances." + currency, after);
             saveBankData(name, pdata);
 
-            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(balance), BigDecimal.valueOf(balance + amount));
-            if (plugin.getServer().isPrimaryThread()) {
-                plugin.getServer().getPluginManager().callEvent(post);
-            } else {
-                try {
-                    plugin.getServer().getScheduler().callSyncMethod(plugin, () -> {
-                        plugin.getServer().getPluginManager().callEvent(post);
-                        return null;
-                    }).get();
-                } catch (Exception e) {
-                    System.err.println("[EzEconomy] Failed to fire BankPostTransactionEvent: " + e.getMessage());
-                }
-            }
+            BankPostTransactionEvent post = new BankPostTransactionEvent(name, null, BigDecimal.valueOf(amount), TransactionType.BANK_DEPOSIT, true, BigDecimal.valueOf(balance), BigDecimal.valueOf(after), plugin.getEventDispatcher().createAsync());
+            plugin.getEventDispatcher().callPost(post);
+            return BalanceResult.success(after);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads a bank's balance under its stripe.
+     * @return The balance, or null if the bank does not exist
+     */
+    private Double readBankBalance(String name, String currency) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
+            YamlConfiguration pdata = loadBankData(name);
+            if (pdata == null) return null;
+            return pdata.getDouble("banks." + name + ".balances." + currency, 0.0);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public java.util.Set<String> getBanks() {
-        synchronized (getBankLock("all-banks")) {
-            java.util.Set<String> banks = new java.util.HashSet<>();
-            File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(".yml"));
-            if (files == null) return banks;
-            for (File file : files) {
-                YamlConfiguration pdata = YamlConfiguration.loadConfiguration(file);
-                if (pdata.isConfigurationSection("banks")) {
-                    banks.addAll(pdata.getConfigurationSection("banks").getKeys(false));
-                }
+        java.util.Set<String> banks = new java.util.HashSet<>();
+        for (Map.Entry<String, String> entry : bankIndex.entrySet()) {
+            // Skip banks whose owner file was removed, e.g. by /ezeconomy cleanup
+            if (new File(dataFolder, entry.getValue()).exists()) {
+                banks.add(entry.getKey());
             }
-            return banks;
         }
+        return banks;
     }
 
     @Override
     public boolean isBankOwner(String name, UUID uuid) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
             if (pdata == null) return false;
             java.util.List<String> owners = pdata.getStringList("banks." + name + ".owners");
             return owners.contains(uuid.toString());
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean isBankMember(String name, UUID uuid) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
             if (pdata == null) return false;
             java.util.List<String> members = pdata.getStringList("banks." + name + ".members");
             return members.contains(uuid.toString());
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean addBankMember(String name, UUID uuid) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
             if (pdata == null) return false;
             java.util.List<String> members = pdata.getStringList("banks." + name + ".members");
@@ -474,12 +651,16 @@ public class YMLStorageProvider implements StorageProvider {
             pdata.set("banks." + name + ".members", members);
             saveBankData(name, pdata);
             return true;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public boolean removeBankMember(String name, UUID uuid) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
             if (pdata == null) return false;
             java.util.List<String> members = pdata.getStringList("banks." + name + ".members");
@@ -488,12 +669,16 @@ public class YMLStorageProvider implements StorageProvider {
             pdata.set("banks." + name + ".members", members);
             saveBankData(name, pdata);
             return true;
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public java.util.Set<UUID> getBankMembers(String name) {
-        synchronized (getBankLock(name)) {
+        ReentrantLock lock = getBankLock(name);
+        lock.lock();
+        try {
             YamlConfiguration pdata = loadBankData(name);
             java.util.Set<UUID> set = new java.util.HashSet<>();
             if (pdata == null) return set;
@@ -505,6 +690,8 @@ public class YMLStorageProvider implements StorageProvider {
                 }
             }
             return set;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -512,28 +699,121 @@ public class YMLStorageProvider implements StorageProvider {
     public void logTransaction(com.skyblockexp.ezeconomy.api.storage.models.Transaction transaction) {
         UUID uuid = transaction.getUuid();
         String currency = transaction.getCurrency();
-        synchronized (getPlayerLock(uuid)) {
-            try {
-                YamlConfiguration pdata = loadPlayerData(uuid);
-                java.util.List<java.util.Map<String, Object>> txList = (java.util.List<java.util.Map<String, Object>>) pdata.getList("transactions." + currency);
-                if (txList == null) txList = new java.util.ArrayList<>();
+        ReentrantLock lock = getPlayerLock(uuid);
+        lock.lock();
+        try {
+            YamlConfiguration pdata = loadPlayerData(uuid);
+            java.util.List<java.util.Map<String, Object>> txList = (java.util.List<java.util.Map<String, Object>>) pdata.getList("transactions." + currency);
+            if (txList == null) txList = new java.util.ArrayList<>();
+            java.util.Map<String, Object> txMap = new java.util.HashMap<>();
+            txMap.put("uuid", transaction.getUuid().toString());
+            txMap.put("currency", transaction.getCurrency());
+            txMap.put("amount", transaction.getAmount());
+            txMap.put("timestamp", transaction.getTimestamp());
+            txList.add(txMap);
+            pdata.set("transactions." + currency, txList);
+            savePlayerData(uuid, pdata);
+        } catch (Exception e) {
+            System.err.println("[EzEconomy] Failed to log transaction for " + uuid + " (" + currency + "): " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replaceTransactions(UUID uuid, String currency, long from, long to, java.util.List<Transaction> replacement) {
+        ReentrantLock lock = getPlayerLock(uuid);
+        lock.lock();
+        try {
+            YamlConfiguration pdata = loadPlayerData(uuid);
+            java.util.List<?> txList = pdata.getList("transactions." + currency);
+            java.util.List<Object> kept = new java.util.ArrayList<>();
+            if (txList != null) {
+                for (Object obj : txList) {
+                    if (obj instanceof java.util.Map) {
+                        try {
+                            long timestamp = Long.parseLong(String.valueOf(((java.util.Map<?, ?>) obj).get("timestamp")));
+                            if (timestamp >= from && timestamp < to) continue;
+                        } catch (NumberFormatException ignored) {}
+                    }
+                    kept.add(obj);
+                }
+            }
+            // Rollups replace the oldest entries, so they go first to keep the list in time order
+            java.util.List<Object> updated = new java.util.ArrayList<>(replacement.size() + kept.size());
+            for (Transaction transaction : replacement) {
                 java.util.Map<String, Object> txMap = new java.util.HashMap<>();
                 txMap.put("uuid", transaction.getUuid().toString());
                 txMap.put("currency", transaction.getCurrency());
                 txMap.put("amount", transaction.getAmount());
                 txMap.put("timestamp", transaction.getTimestamp());
-                txList.add(txMap);
-                pdata.set("transactions." + currency, txList);
-                savePlayerData(uuid, pdata);
+                updated.add(txMap);
+            }
+            updated.addAll(kept);
+            pdata.set("transactions." + currency, updated);
+            savePlayerData(uuid, pdata);
+            return true;
+        } catch (Exception e) {
+            System.err.println("[EzEconomy] Failed to replace transactions for " + uuid + " (" + currency + "): " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Groups the batch by player so each player file is read and written once.
+     * @throws TransactionLogException with the transactions of every player whose file could not be written
+     */
+    @Override
+    public void logTransactions(java.util.List<Transaction> transactions) {
+        java.util.List<Transaction> unwritten = new java.util.ArrayList<>();
+        Exception failure = null;
+        java.util.Map<UUID, java.util.List<Transaction>> byPlayer = new java.util.LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            byPlayer.computeIfAbsent(transaction.getUuid(), k -> new java.util.ArrayList<>()).add(transaction);
+        }
+        for (java.util.Map.Entry<UUID, java.util.List<Transaction>> entry : byPlayer.entrySet()) {
+            UUID uuid = entry.getKey();
+            ReentrantLock lock = getPlayerLock(uuid);
+            lock.lock();
+            try {
+                YamlConfiguration pdata = loadPlayerData(uuid);
+                java.util.Map<String, java.util.List<Object>> lists = new java.util.HashMap<>();
+                for (Transaction transaction : entry.getValue()) {
+                    String currency = transaction.getCurrency();
+                    java.util.List<Object> txList = lists.computeIfAbsent(currency, c -> {
+                        java.util.List<?> existing = pdata.getList("transactions." + c);
+                        return existing == null ? new java.util.ArrayList<>() : new java.util.ArrayList<>(existing);
+                    });
+                    java.util.Map<String, Object> txMap = new java.util.HashMap<>();
+                    txMap.put("uuid", transaction.getUuid().toString());
+                    txMap.put("currency", currency);
+                    txMap.put("amount", transaction.getAmount());
+                    txMap.put("timestamp", transaction.getTimestamp());
+                    txList.add(txMap);
+                }
+                for (java.util.Map.Entry<String, java.util.List<Object>> list : lists.entrySet()) {
+                    pdata.set("transactions." + list.getKey(), list.getValue());
+                }
+                writePlayerData(uuid, pdata);
             } catch (Exception e) {
-                System.err.println("[EzEconomy] Failed to log transaction for " + uuid + " (" + currency + "): " + e.getMessage());
+                unwritten.addAll(entry.getValue());
+                failure = e;
+            } finally {
+                lock.unlock();
             }
         }
+        if (failure != null) {
+            throw new TransactionLogException("Failed to log transactions for " + unwritten.size() + " entries: " + failure.getMessage(), failure, unwritten);
+        }
     }
 
     @Override
     public java.util.List<Transaction> getTransactions(java.util.UUID uuid, String currency) {
-        synchronized (getPlayerLock(uuid)) {
+        ReentrantLock lock = getPlayerLock(uuid);
+        lock.lock();
+        try {
             java.util.List<Transaction> result = new java.util.ArrayList<>();
             try {
                 YamlConfiguration pdata = loadPlayerData(uuid);
@@ -556,6 +836,8 @@ public class YMLStorageProvider implements StorageProvider {
                 System.err.println("[EzEconomy] Failed to get transactions for " + uuid + " (" + currency + "): " + e.getMessage());
             }
             return result;
+        } finally {
+            lock.unlock();
         }
     }
 
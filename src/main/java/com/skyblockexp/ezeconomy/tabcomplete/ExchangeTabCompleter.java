@@ -0,0 +1,34 @@
+package com.skyblockexp.ezeconomy.tabcomplete;
+
+import com.skyblockexp.ezeconomy.core.EzEconomyPlugin;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class ExchangeTabCompleter implements TabCompleter {
+    private final EzEconomyPlugin plugin;
+
+    public ExchangeTabCompleter(EzEconomyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (!sender.hasPermission("ezeconomy.exchange")) return Collections.emptyList();
+        if (args.length == 1) {
+            return Arrays.asList("100", "1000", "10000").stream()
+                .filter(s -> s.startsWith(args[0]))
+                .collect(Collectors.toList());
+        }
+        if (args.length == 2 || args.length == 3) {
+            String partial = args[args.length - 1].toLowerCase();
+            return plugin.getCurrencyManager().getEnabledCurrencies().stream()
+                .filter(currency -> currency.startsWith(partial))
+                .filter(currency -> args.length == 2 || !currency.equals(args[1].toLowerCase()))
+                .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+}
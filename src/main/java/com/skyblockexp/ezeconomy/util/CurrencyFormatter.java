@@ -0,0 +1,141 @@
+package com.skyblockexp.ezeconomy.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Formats amounts of one currency, e.g. {@code $1,234.50} or {@code $1.2k}.
+ * <p>
+ * Symbol, decimals and grouping are fixed when the formatter is built, so formatting is plain digit
+ * arithmetic into a {@link StringBuilder}. {@link #format(double)} reuses a per-thread builder and only
+ * allocates the returned string; {@link #appendTo(StringBuilder, double)} allocates nothing. Instances
+ * are immutable and thread-safe; get them from
+ * {@link com.skyblockexp.ezeconomy.manager.CurrencyManager#getFormatter(String)}.
+ * </p>
+ */
+public final class CurrencyFormatter {
+    private static final long[] POWERS = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+    };
+    // Same suffixes NumberUtil.parseAmount reads (case-insensitive), so compact output can be typed back in
+    private static final double[] COMPACT_STEPS = {1e3, 1e6, 1e9, 1e12};
+    private static final String[] COMPACT_SUFFIXES = {"k", "M", "B", "T"};
+    // Largest scaled amount that still fits in a long
+    private static final double MAX_UNITS = 9.0e18;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    /** Used when no currency settings are available: {@code $}, 2 decimals, grouped. */
+    public static final CurrencyFormatter DEFAULT = new CurrencyFormatter("$", 2, true);
+
+    private final String symbol;
+    private final int decimals;
+    private final boolean grouping;
+
+    /**
+     * @param symbol Symbol written before the amount, may be empty
+     * @param decimals Number of decimals (0-8)
+     * @param grouping Whether to separate thousands with commas
+     */
+    public CurrencyFormatter(String symbol, int decimals, boolean grouping) {
+        this.symbol = symbol == null ? "" : symbol;
+        this.decimals = Math.max(0, Math.min(POWERS.length - 1, decimals));
+        this.grouping = grouping;
+    }
+
+    public String getSymbol() { return symbol; }
+    public int getDecimals() { return decimals; }
+    public boolean isGrouping() { return grouping; }
+
+    /**
+     * Formats an amount with all of the currency's decimals, e.g. {@code $1,234.50}.
+     */
+    public String format(double amount) {
+        StringBuilder sb = buffer();
+        appendTo(sb, amount);
+        return sb.toString();
+    }
+
+    /**
+     * Formats an amount of 1000 or more with one decimal and a k/M/B/T suffix, e.g. {@code $1.2k}.
+     * Smaller amounts are formatted like {@link #format(double)}.
+     */
+    public String formatCompact(double amount) {
+        StringBuilder sb = buffer();
+        appendCompactTo(sb, amount);
+        return sb.toString();
+    }
+
+    /**
+     * Appends {@link #format(double)}'s output to {@code sb}.
+     * @return {@code sb}
+     */
+    public StringBuilder appendTo(StringBuilder sb, double amount) {
+        if (!Double.isFinite(amount)) {
+            return sb.append(symbol).append(amount);
+        }
+        long pow = POWERS[decimals];
+        double scaled = Math.abs(amount) * pow;
+        if (scaled >= MAX_UNITS) {
+            if (amount < 0) sb.append('-');
+            return sb.append(symbol).append(BigDecimal.valueOf(Math.abs(amount)).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+        }
+        long units = Math.round(scaled);
+        if (amount < 0 && units != 0) sb.append('-');
+        sb.append(symbol);
+        appendGrouped(sb, units / pow);
+        if (decimals > 0) {
+            sb.append('.');
+            long fraction = units % pow;
+            for (long p = pow / 10; p > 1 && fraction < p; p /= 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+        return sb;
+    }
+
+    /**
+     * Appends {@link #formatCompact(double)}'s output to {@code sb}.
+     * @return {@code sb}
+     */
+    public StringBuilder appendCompactTo(StringBuilder sb, double amount) {
+        double abs = Math.abs(amount);
+        int step = COMPACT_STEPS.length - 1;
+        while (step >= 0 && !(abs >= COMPACT_STEPS[step])) step--;
+        if (step < 0 || !Double.isFinite(amount)) {
+            return appendTo(sb, amount);
+        }
+        long tenths = Math.round(abs / COMPACT_STEPS[step] * 10);
+        if (tenths >= 10_000 && step < COMPACT_STEPS.length - 1) {
+            // 999.96k rounds up to 1000.0k; show it as 1M instead
+            step++;
+            tenths = Math.round(abs / COMPACT_STEPS[step] * 10);
+        }
+        if (amount < 0) sb.append('-');
+        sb.append(symbol);
+        appendGrouped(sb, tenths / 10);
+        long tenth = tenths % 10;
+        if (tenth != 0) sb.append('.').append(tenth);
+        return sb.append(COMPACT_SUFFIXES[step]);
+    }
+
+    private void appendGrouped(StringBuilder sb, long value) {
+        int start = sb.length();
+        sb.append(value);
+        if (!grouping) return;
+        for (int i = sb.length() - start - 3; i > 0; i -= 3) {
+            sb.insert(start + i, ',');
+        }
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyFormatter{symbol='" + symbol + "', decimals=" + decimals + ", grouping=" + grouping + '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.skyblockexp.ezeconomy.api.storage.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+    @Test
+    void addAndSubtractWorkOnWholeUnits() {
+        assertEquals(0.3, Money.add(0.1, 0.2, 2));
+        assertEquals(0.7, Money.subtract(1.0, 0.3, 2));
+        assertEquals(1.0, Money.add(0.333, 0.667, 2));
+    }
+
+    @Test
+    void roundIsHalfUp() {
+        assertEquals(1.24, Money.round(1.235, 2));
+        assertEquals(2.0, Money.round(1.5, 0));
+        assertEquals(-1.0, Money.round(-1.4, 0));
+    }
+
+    @Test
+    void negativeHalvesRoundAwayFromZero() {
+        assertEquals(-2.0, Money.round(-1.5, 0));
+        assertEquals(-0.13, Money.round(-0.125, 2));
+        assertEquals(-0.01, Money.subtract(0.0, 0.005, 2));
+        assertEquals(Money.of(new BigDecimal("-1.5"), 0), Money.of(-1.5, 0));
+    }
+
+    @Test
+    void truncateRoundsTowardZero() {
+        assertEquals(1.99, Money.truncate(1.999, 2));
+        assertEquals(-1.99, Money.truncate(-1.999, 2));
+        // 0.29 * 100 is 28.999999999999996 in binary floating point
+        assertEquals(0.29, Money.truncate(0.29, 2));
+    }
+
+    @Test
+    void clampsDecimals() {
+        assertEquals(0, Money.clampDecimals(-3));
+        assertEquals(Money.MAX_DECIMALS, Money.clampDecimals(99));
+        assertEquals(1.0, Money.round(1.0000000049, 99));
+    }
+}
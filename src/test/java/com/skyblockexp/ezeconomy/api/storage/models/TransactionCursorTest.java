@@ -0,0 +1,85 @@
+package com.skyblockexp.ezeconomy.api.storage.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionCursorTest {
+    private static final UUID PLAYER = UUID.randomUUID();
+
+    private static List<Transaction> history(long... timestamps) {
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < timestamps.length; i++) {
+            history.add(new Transaction(PLAYER, "dollar", i, timestamps[i]));
+        }
+        return history;
+    }
+
+    @Test
+    void pagesThroughTiesWithoutRepeatsOrGaps() {
+        List<Transaction> history = history(500, 400, 400, 400, 400, 400, 300, 200);
+        List<Transaction> seen = new ArrayList<>();
+        TransactionCursor cursor = null;
+        int pages = 0;
+        do {
+            TransactionPage page = TransactionPage.slice(history, 0, 1000, cursor, 2);
+            seen.addAll(page.getTransactions());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(4, pages);
+        assertEquals(history.size(), seen.size());
+        for (int i = 0; i < history.size(); i++) {
+            assertSame(history.get(i), seen.get(i));
+        }
+    }
+
+    @Test
+    void accumulatesSkipAcrossPagesOfOneTimestamp() {
+        List<Transaction> history = history(400, 400, 400, 400, 400, 300);
+        TransactionPage first = TransactionPage.slice(history, 0, 1000, null, 2);
+        assertEquals(400, first.getNextCursor().getTimestamp());
+        assertEquals(2, first.getNextCursor().getSkip());
+        TransactionPage second = TransactionPage.slice(history, 0, 1000, first.getNextCursor(), 2);
+        assertEquals(4, second.getNextCursor().getSkip());
+        TransactionPage third = TransactionPage.slice(history, 0, 1000, second.getNextCursor(), 2);
+        assertEquals(2, third.getTransactions().size());
+        assertSame(history.get(4), third.getTransactions().get(0));
+        assertSame(history.get(5), third.getTransactions().get(1));
+        assertFalse(third.hasMore());
+    }
+
+    @Test
+    void ignoresSkipWhenCursorIsAboveRange() {
+        TransactionCursor cursor = new TransactionCursor(400, 3);
+        assertEquals(299, TransactionCursor.upperBound(cursor, 300));
+        assertEquals(0, TransactionCursor.offset(cursor, 300));
+        assertEquals(400, TransactionCursor.upperBound(cursor, 1000));
+        assertEquals(3, TransactionCursor.offset(cursor, 1000));
+        assertEquals(999, TransactionCursor.upperBound(null, 1000));
+    }
+
+    @Test
+    void encodesAndDecodes() {
+        TransactionCursor cursor = TransactionCursor.decode(new TransactionCursor(1234, 5).encode());
+        assertEquals(1234, cursor.getTimestamp());
+        assertEquals(5, cursor.getSkip());
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("1234"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("a:b"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode(null));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        TransactionPage page = TransactionPage.slice(history(300, 200), 0, 1000, null, 2);
+        assertEquals(2, page.getTransactions().size());
+        assertNull(page.getNextCursor());
+    }
+}
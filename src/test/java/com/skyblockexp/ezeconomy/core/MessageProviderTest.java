@@ -0,0 +1,45 @@
+package com.skyblockexp.ezeconomy.core;
+
+import java.util.Map;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MessageProviderTest {
+
+    private static MessageProvider provider(String yaml) throws InvalidConfigurationException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(yaml);
+        return new MessageProvider(config);
+    }
+
+    @Test
+    void rendersLegacyMessages() throws InvalidConfigurationException {
+        MessageProvider messages = provider("messages:\n  en:\n    paid: '&aPaid {amount} to %player%.'\n");
+        assertEquals("§aPaid 10 to Steve.", messages.get("paid", Map.of("amount", "10", "player", "Steve")));
+        assertEquals("§aPaid {amount} to Steve.", messages.get("paid", Map.of("player", "Steve")));
+    }
+
+    @Test
+    void rendersMiniMessageWithTagPlaceholders() throws InvalidConfigurationException {
+        MessageProvider messages = provider("messages:\n  en:\n    balance: '<green>Balance: <amount>'\n");
+        assertEquals("§aBalance: 5", messages.get("balance", Map.of("amount", "5")));
+    }
+
+    @Test
+    void restoresStyleAfterColouredValues() throws InvalidConfigurationException {
+        MessageProvider messages = provider("messages:\n  en:\n    hello: '&aHi {player}!'\n");
+        assertEquals("§aHi §cBob§r§a!", messages.get("hello", Map.of("player", "&cBob")));
+    }
+
+    @Test
+    void fallsBackToEnglishAndReportsMissingKeys() throws InvalidConfigurationException {
+        MessageProvider messages = provider("language: de\nmessages:\n  en:\n    hello: 'Hello'\n    bye: 'Bye'\n"
+                + "  de:\n    hello: 'Hallo'\n");
+        assertEquals("Hallo", messages.get("hello"));
+        assertEquals("Bye", messages.get("bye"));
+        assertEquals("§cMissing message: nope", messages.get("nope"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.skyblockexp.ezeconomy.manager;
+
+import java.util.logging.Logger;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CurrencyManagerTest {
+    private static final String CONFIG = String.join("\n",
+            "multi-currency:",
+            "  enabled: true",
+            "  default: dollar",
+            "  currencies:",
+            "    dollar:",
+            "      decimals: 2",
+            "    gem:",
+            "      decimals: 0",
+            "    euro:",
+            "      decimals: 2",
+            "  conversion:",
+            "    dollar:",
+            "      gem: 0.3",
+            "      euro: 0.9",
+            "    gem:",
+            "      dollar: 3.33",
+            "");
+
+    private static CurrencyManager manager() throws InvalidConfigurationException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(CONFIG);
+        return new CurrencyManager(config, Logger.getLogger("CurrencyManagerTest"));
+    }
+
+    @Test
+    void convertsRoundingDownToTargetDecimals() throws InvalidConfigurationException {
+        CurrencyManager currencies = manager();
+        assertEquals(2.0, currencies.convert("dollar", "gem", 9.99));
+        assertEquals(9.99, currencies.convert("gem", "dollar", 3));
+        assertEquals(0.9, currencies.convert("dollar", "euro", 1));
+        assertEquals(12.34, currencies.convert("euro", "euro", 12.34));
+        assertArrayEquals(new double[] {0.0, 3.0, 30.0}, currencies.convertAll("dollar", "gem", new double[] {3.33, 10, 100}));
+    }
+
+    @Test
+    void rejectsMissingRates() throws InvalidConfigurationException {
+        CurrencyManager currencies = manager();
+        assertTrue(currencies.canConvert("dollar", "euro"));
+        assertFalse(currencies.canConvert("euro", "dollar"));
+        assertFalse(currencies.canConvert("dollar", "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> currencies.convert("euro", "gem", 1));
+        assertThrows(IllegalArgumentException.class, () -> currencies.convertAll("dollar", "unknown", new double[] {1}));
+    }
+}
@@ -0,0 +1,127 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceLeaderboardTest {
+
+    @Test
+    void ranksHighestBalanceFirst() {
+        BalanceLeaderboard board = new BalanceLeaderboard();
+        UUID poor = uuid(1);
+        UUID rich = uuid(2);
+        UUID middle = uuid(3);
+        board.update(poor, 10);
+        board.update(rich, 1000);
+        board.update(middle, 100);
+
+        assertEquals(1, board.rank(rich));
+        assertEquals(2, board.rank(middle));
+        assertEquals(3, board.rank(poor));
+        assertEquals(0, board.rank(uuid(4)));
+        assertEquals(3, board.size());
+    }
+
+    @Test
+    void breaksTiesByUuid() {
+        BalanceLeaderboard board = new BalanceLeaderboard();
+        UUID first = uuid(1);
+        UUID second = uuid(2);
+        board.update(second, 50);
+        board.update(first, 50);
+
+        assertEquals(1, board.rank(first));
+        assertEquals(2, board.rank(second));
+    }
+
+    @Test
+    void updateMovesAndRemoveDropsPlayer() {
+        BalanceLeaderboard board = new BalanceLeaderboard();
+        UUID a = uuid(1);
+        UUID b = uuid(2);
+        board.update(a, 100);
+        board.update(b, 50);
+        board.update(b, 150);
+
+        assertEquals(1, board.rank(b));
+        assertEquals(2, board.rank(a));
+        assertEquals(2, board.size());
+
+        board.remove(b);
+        assertEquals(0, board.rank(b));
+        assertEquals(1, board.rank(a));
+        assertEquals(1, board.size());
+    }
+
+    @Test
+    void pageReturnsRequestedWindow() {
+        BalanceLeaderboard board = new BalanceLeaderboard();
+        for (int i = 1; i <= 10; i++) {
+            board.update(uuid(i), i * 10);
+        }
+
+        List<Map.Entry<UUID, Double>> page = board.page(3, 4);
+        assertEquals(4, page.size());
+        assertEquals(uuid(7), page.get(0).getKey());
+        assertEquals(70.0, page.get(0).getValue());
+        assertEquals(uuid(4), page.get(3).getKey());
+
+        assertEquals(2, board.page(8, 5).size());
+        assertTrue(board.page(10, 5).isEmpty());
+        assertTrue(board.page(-1, 5).isEmpty());
+        assertTrue(board.page(0, 0).isEmpty());
+    }
+
+    @Test
+    void matchesSortedOrderAfterRandomUpdates() {
+        BalanceLeaderboard board = new BalanceLeaderboard();
+        Map<UUID, Double> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            UUID uuid = uuid(random.nextInt(500));
+            if (random.nextInt(10) == 0) {
+                board.remove(uuid);
+                expected.remove(uuid);
+            } else {
+                double balance = random.nextInt(200);
+                board.update(uuid, balance);
+                expected.put(uuid, balance);
+            }
+        }
+
+        List<Map.Entry<UUID, Double>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(Comparator.comparing((Map.Entry<UUID, Double> e) -> e.getValue()).reversed()
+                .thenComparing(Map.Entry::getKey));
+        assertEquals(sorted.size(), board.size());
+        List<Map.Entry<UUID, Double>> all = board.page(0, sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i).getKey(), all.get(i).getKey());
+            assertEquals(i + 1, board.rank(sorted.get(i).getKey()));
+        }
+    }
+
+    @Test
+    void replaceAllDiscardsPreviousEntries() {
+        BalanceLeaderboard board = new BalanceLeaderboard();
+        board.update(uuid(1), 10);
+        board.replaceAll(Map.of(uuid(2), 20.0, uuid(3), 30.0));
+
+        assertEquals(0, board.rank(uuid(1)));
+        assertEquals(1, board.rank(uuid(3)));
+        assertEquals(2, board.size());
+    }
+
+    private static UUID uuid(int n) {
+        return new UUID(0L, n);
+    }
+}
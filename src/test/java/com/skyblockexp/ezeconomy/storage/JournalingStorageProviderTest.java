@@ -0,0 +1,131 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import com.skyblockexp.ezeconomy.api.storage.StorageProvider;
+import com.skyblockexp.ezeconomy.api.storage.exceptions.TransactionLogException;
+import com.skyblockexp.ezeconomy.api.storage.models.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalingStorageProviderTest {
+    private static final Logger LOGGER = Logger.getLogger("JournalingStorageProviderTest");
+
+    static {
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    /**
+     * Backend whose logTransactions answers each call with the next outcome: null writes the batch,
+     * otherwise the function picks the transactions it reports as unwritten.
+     */
+    private static final class Backend {
+        final List<Transaction> stored = new ArrayList<>();
+        final Deque<Function<List<Transaction>, List<Transaction>>> outcomes = new ArrayDeque<>();
+        int calls;
+
+        @SuppressWarnings("unchecked")
+        StorageProvider provider() {
+            return (StorageProvider) Proxy.newProxyInstance(StorageProvider.class.getClassLoader(),
+                    new Class<?>[] {StorageProvider.class}, (proxy, method, args) -> {
+                        if (!method.getName().equals("logTransactions")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        calls++;
+                        List<Transaction> batch = (List<Transaction>) args[0];
+                        Function<List<Transaction>, List<Transaction>> outcome = outcomes.poll();
+                        List<Transaction> unwritten = outcome == null ? List.of() : outcome.apply(batch);
+                        stored.addAll(batch.subList(0, batch.size() - unwritten.size()));
+                        if (!unwritten.isEmpty()) {
+                            throw new TransactionLogException("write failed", null, unwritten);
+                        }
+                        return null;
+                    });
+        }
+    }
+
+    private static List<Transaction> transactions(int count) {
+        UUID player = UUID.randomUUID();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            transactions.add(new Transaction(player, "dollar", i, i));
+        }
+        return transactions;
+    }
+
+    @Test
+    void retriesOnlyUnwrittenTransactions() {
+        Backend backend = new Backend();
+        backend.outcomes.add(batch -> batch.subList(2, batch.size()));
+        JournalingStorageProvider journal = new JournalingStorageProvider(LOGGER, backend.provider(), 100, 10);
+        List<Transaction> transactions = transactions(5);
+        journal.logTransactions(transactions);
+
+        journal.flush();
+        assertEquals(2, journal.getWrittenCount());
+        assertEquals(3, journal.getQueueDepth());
+
+        journal.flush();
+        assertEquals(transactions, backend.stored);
+        assertEquals(5, journal.getWrittenCount());
+        assertEquals(0, journal.getQueueDepth());
+        assertEquals(0, journal.getFailedCount());
+    }
+
+    @Test
+    void keepsQueueOrderBehindARetry() {
+        Backend backend = new Backend();
+        backend.outcomes.add(batch -> batch.subList(1, batch.size()));
+        JournalingStorageProvider journal = new JournalingStorageProvider(LOGGER, backend.provider(), 100, 3);
+        List<Transaction> transactions = transactions(5);
+        journal.logTransactions(transactions.subList(0, 3));
+        journal.flush();
+        journal.logTransactions(transactions.subList(3, 5));
+
+        journal.flush();
+        assertEquals(transactions, backend.stored);
+        assertEquals(0, journal.getQueueDepth());
+    }
+
+    @Test
+    void dropsAfterRepeatedFailures() {
+        Backend backend = new Backend();
+        for (int i = 0; i < 3; i++) {
+            backend.outcomes.add(batch -> batch);
+        }
+        JournalingStorageProvider journal = new JournalingStorageProvider(LOGGER, backend.provider(), 100, 10);
+        journal.logTransactions(transactions(4));
+
+        journal.flush();
+        journal.flush();
+        assertEquals(4, journal.getQueueDepth());
+        journal.flush();
+        assertEquals(3, backend.calls);
+        assertEquals(0, journal.getQueueDepth());
+        assertEquals(4, journal.getFailedCount());
+        assertEquals(0, journal.getWrittenCount());
+    }
+
+    @Test
+    void countsFailedOverflowWrites() {
+        Backend backend = new Backend();
+        backend.outcomes.add(batch -> batch);
+        JournalingStorageProvider journal = new JournalingStorageProvider(LOGGER, backend.provider(), 1, 10);
+        journal.logTransactions(transactions(3));
+
+        assertEquals(2, journal.getOverflowCount());
+        assertEquals(1, journal.getFailedCount());
+        assertEquals(1, journal.getWrittenCount());
+        journal.flush();
+        assertEquals(2, journal.getWrittenCount());
+    }
+}
@@ -0,0 +1,105 @@
+package com.skyblockexp.ezeconomy.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordLogTest {
+    private static final Logger LOGGER = Logger.getLogger(RecordLogTest.class.getName());
+    private static final byte TYPE = 1;
+
+    @TempDir
+    File dir;
+
+    @Test
+    void replaysAppendedRecordsOnReopen() throws IOException {
+        File file = new File(dir, "test.log");
+        try (RecordLog log = new RecordLog(file, LOGGER)) {
+            assertTrue(log.open((type, payload, offset) -> { }));
+            for (int i = 0; i < 3; i++) {
+                int value = i;
+                log.append(TYPE, out -> out.writeInt(value));
+            }
+            log.sync();
+        }
+
+        List<Integer> replayed = new ArrayList<>();
+        try (RecordLog log = new RecordLog(file, LOGGER)) {
+            assertFalse(log.open((type, payload, offset) -> replayed.add(payload.readInt())));
+            assertEquals(3, log.records());
+        }
+        assertEquals(List.of(0, 1, 2), replayed);
+    }
+
+    @Test
+    void truncatesTornTail() throws IOException {
+        File file = new File(dir, "torn.log");
+        long intactSize;
+        try (RecordLog log = new RecordLog(file, LOGGER)) {
+            log.open((type, payload, offset) -> { });
+            log.append(TYPE, out -> out.writeInt(1));
+            log.append(TYPE, out -> out.writeInt(2));
+            intactSize = log.size();
+            log.append(TYPE, out -> out.writeUTF("lost in a power cut"));
+            log.sync();
+        }
+        // Cut the last record in half
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(intactSize + 6);
+        }
+
+        List<Integer> replayed = new ArrayList<>();
+        try (RecordLog log = new RecordLog(file, LOGGER)) {
+            log.open((type, payload, offset) -> replayed.add(payload.readInt()));
+            assertEquals(intactSize, file.length());
+            // New records go where the torn one was
+            log.append(TYPE, out -> out.writeInt(3));
+            log.sync();
+        }
+        assertEquals(List.of(1, 2), replayed);
+
+        replayed.clear();
+        try (RecordLog log = new RecordLog(file, LOGGER)) {
+            log.open((type, payload, offset) -> replayed.add(payload.readInt()));
+        }
+        assertEquals(List.of(1, 2, 3), replayed);
+    }
+
+    @Test
+    void truncatesCorruptTail() throws IOException {
+        File file = new File(dir, "corrupt.log");
+        long intactSize;
+        try (RecordLog log = new RecordLog(file, LOGGER)) {
+            log.open((type, payload, offset) -> { });
+            log.append(TYPE, out -> out.writeInt(1));
+            intactSize = log.size();
+            log.append(TYPE, out -> out.writeInt(2));
+            log.sync();
+        }
+        // Flip a payload byte of the second record so its checksum no longer matches
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long payloadByte = intactSize + 4 + 1;
+            raf.seek(payloadByte);
+            int b = raf.read();
+            raf.seek(payloadByte);
+            raf.write(b ^ 0xFF);
+        }
+
+        List<Integer> replayed = new ArrayList<>();
+        try (RecordLog log = new RecordLog(file, LOGGER)) {
+            log.open((type, payload, offset) -> replayed.add(payload.readInt()));
+        }
+        assertEquals(List.of(1), replayed);
+        assertEquals(intactSize, file.length());
+    }
+}
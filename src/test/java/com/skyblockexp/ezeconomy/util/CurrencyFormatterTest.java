@@ -0,0 +1,32 @@
+package com.skyblockexp.ezeconomy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CurrencyFormatterTest {
+
+    @Test
+    void formatsWithGroupingAndDecimals() {
+        CurrencyFormatter formatter = new CurrencyFormatter("$", 2, true);
+        assertEquals("$1,234.50", formatter.format(1234.5));
+        assertEquals("$0.05", formatter.format(0.05));
+        assertEquals("-$1,000,000.00", formatter.format(-1_000_000));
+        assertEquals("$0.00", formatter.format(-0.001));
+    }
+
+    @Test
+    void formatsWithoutGroupingOrDecimals() {
+        CurrencyFormatter formatter = new CurrencyFormatter("", 0, false);
+        assertEquals("1235", formatter.format(1234.5));
+    }
+
+    @Test
+    void formatsCompactAmounts() {
+        CurrencyFormatter formatter = new CurrencyFormatter("$", 2, true);
+        assertEquals("$999.00", formatter.formatCompact(999));
+        assertEquals("$1.2k", formatter.formatCompact(1234));
+        assertEquals("$1M", formatter.formatCompact(999_960));
+        assertEquals("-$2.5B", formatter.formatCompact(-2_500_000_000.0));
+    }
+}